@@ -0,0 +1,149 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.jfr;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jdk.jfr.EventType;
+import org.mini2Dx.minibus.MessageExchange;
+import org.mini2Dx.minibus.MessageInterceptor;
+import org.mini2Dx.minibus.transmission.MessageTransmission;
+
+/**
+ * Converts {@link MessageInterceptor} callbacks into JFR events. Events are
+ * only allocated when their event type is enabled in a running recording.
+ */
+class JfrMessageInterceptor implements MessageInterceptor {
+	private static final EventType DISPATCHED_EVENT_TYPE = EventType.getEventType(MessageDispatchedEvent.class);
+	private static final EventType HIGH_WATER_EVENT_TYPE = EventType.getEventType(QueueHighWaterEvent.class);
+	private static final EventType IDLE_EVENT_TYPE = EventType.getEventType(ExchangeIdleEvent.class);
+
+	private final int queueHighWaterThreshold;
+	private final Map<Integer, Integer> highWaterMarks = new ConcurrentHashMap<Integer, Integer>();
+	private final ThreadLocal<DispatchStack> dispatchStacks = ThreadLocal.withInitial(DispatchStack::new);
+
+	JfrMessageInterceptor(int queueHighWaterThreshold) {
+		super();
+		this.queueHighWaterThreshold = queueHighWaterThreshold;
+	}
+
+	@Override
+	public void onQueue(MessageExchange receiver, MessageTransmission messageTransmission) {
+		if(!HIGH_WATER_EVENT_TYPE.isEnabled() || receiver.isImmediate()) {
+			return;
+		}
+		//Interceptors are notified before the message is added to the queue
+		final int queueSize = receiver.getMessageQueueSize() + 1;
+		if(queueSize < queueHighWaterThreshold) {
+			return;
+		}
+		final Integer highWaterMark = highWaterMarks.get(receiver.getId());
+		if(highWaterMark != null && queueSize <= highWaterMark) {
+			return;
+		}
+		highWaterMarks.put(receiver.getId(), queueSize);
+
+		final QueueHighWaterEvent event = new QueueHighWaterEvent();
+		event.exchangeId = receiver.getId();
+		event.exchangeType = receiver.getClass().getSimpleName();
+		event.queueSize = queueSize;
+		event.threshold = queueHighWaterThreshold;
+		event.commit();
+	}
+
+	@Override
+	public void onDispatchStart(MessageExchange receiver, MessageTransmission messageTransmission) {
+		if(!DISPATCHED_EVENT_TYPE.isEnabled()) {
+			return;
+		}
+		final MessageDispatchedEvent event = new MessageDispatchedEvent();
+		dispatchStacks.get().push(event, messageTransmission);
+		event.begin();
+	}
+
+	@Override
+	public void onDispatchEnd(MessageExchange receiver, MessageTransmission messageTransmission) {
+		final MessageDispatchedEvent event = dispatchStacks.get().pop(messageTransmission);
+		if(event == null) {
+			return;
+		}
+		event.end();
+		if(!event.shouldCommit()) {
+			return;
+		}
+		event.messageType = messageTransmission.getMessageType();
+		event.sourceId = messageTransmission.getSource() == null ? 0 : messageTransmission.getSource().getId();
+		event.receiverId = receiver.getId();
+		event.receiverType = receiver.getClass().getSimpleName();
+		event.commit();
+	}
+
+	@Override
+	public void onIdle(MessageExchange exchange, long idleNanos) {
+		if(!IDLE_EVENT_TYPE.isEnabled()) {
+			return;
+		}
+		final ExchangeIdleEvent event = new ExchangeIdleEvent();
+		event.exchangeId = exchange.getId();
+		event.exchangeType = exchange.getClass().getSimpleName();
+		event.idleTime = idleNanos;
+		event.commit();
+	}
+
+	/**
+	 * Tracks nested dispatches on a single thread, e.g. an immediate exchange
+	 * whose handler sends a message to another immediate exchange
+	 */
+	private static class DispatchStack {
+		private MessageDispatchedEvent[] events = new MessageDispatchedEvent[8];
+		private MessageTransmission[] transmissions = new MessageTransmission[8];
+		private int size;
+
+		void push(MessageDispatchedEvent event, MessageTransmission messageTransmission) {
+			if(size == events.length) {
+				final MessageDispatchedEvent[] newEvents = new MessageDispatchedEvent[size * 2];
+				final MessageTransmission[] newTransmissions = new MessageTransmission[size * 2];
+				System.arraycopy(events, 0, newEvents, 0, size);
+				System.arraycopy(transmissions, 0, newTransmissions, 0, size);
+				events = newEvents;
+				transmissions = newTransmissions;
+			}
+			events[size] = event;
+			transmissions[size] = messageTransmission;
+			size++;
+		}
+
+		MessageDispatchedEvent pop(MessageTransmission messageTransmission) {
+			if(size == 0 || transmissions[size - 1] != messageTransmission) {
+				return null;
+			}
+			size--;
+			final MessageDispatchedEvent result = events[size];
+			events[size] = null;
+			transmissions[size] = null;
+			return result;
+		}
+	}
+}
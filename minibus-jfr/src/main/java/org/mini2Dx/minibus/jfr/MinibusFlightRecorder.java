@@ -0,0 +1,191 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.jfr;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.pool.MessageDataPool;
+
+/**
+ * Publishes minibus activity as Java Flight Recorder events. Registered
+ * {@link MessageBus} instances only have a {@link org.mini2Dx.minibus.MessageInterceptor}
+ * attached while a recording is running, so there is no cost when JFR is not
+ * recording. Registrations are held strongly until unregistered.
+ */
+public final class MinibusFlightRecorder {
+	/**
+	 * The default queue size at which {@link QueueHighWaterEvent}s start being emitted
+	 */
+	public static final int DEFAULT_QUEUE_HIGH_WATER_THRESHOLD = 1000;
+
+	private static final List<BusRegistration> BUSES = new CopyOnWriteArrayList<BusRegistration>();
+	private static final List<PoolRegistration> POOLS = new CopyOnWriteArrayList<PoolRegistration>();
+
+	static {
+		FlightRecorder.addListener(new FlightRecorderListener() {
+			@Override
+			public void recordingStateChanged(Recording recording) {
+				updateInterceptors();
+			}
+		});
+		FlightRecorder.addPeriodicEvent(PoolMissEvent.class, MinibusFlightRecorder::emitPoolMisses);
+	}
+
+	private MinibusFlightRecorder() {}
+
+	/**
+	 * Registers a {@link MessageBus} with the default queue high-water threshold
+	 * @param messageBus The {@link MessageBus} to publish events for
+	 */
+	public static void register(MessageBus messageBus) {
+		register(messageBus, DEFAULT_QUEUE_HIGH_WATER_THRESHOLD);
+	}
+
+	/**
+	 * Registers a {@link MessageBus}
+	 * @param messageBus The {@link MessageBus} to publish events for
+	 * @param queueHighWaterThreshold The queue size at which {@link QueueHighWaterEvent}s start being emitted
+	 */
+	public static void register(MessageBus messageBus, int queueHighWaterThreshold) {
+		final BusRegistration registration = new BusRegistration(messageBus, queueHighWaterThreshold);
+		BUSES.add(registration);
+		POOLS.add(new PoolRegistration("MessageTransmissionPool@" + Integer.toHexString(System.identityHashCode(messageBus)), messageBus, null));
+		updateInterceptors();
+	}
+
+	/**
+	 * Unregisters a {@link MessageBus}
+	 * @param messageBus The {@link MessageBus} to stop publishing events for
+	 */
+	public static synchronized void unregister(MessageBus messageBus) {
+		for(BusRegistration registration : BUSES) {
+			if(registration.messageBus != messageBus) {
+				continue;
+			}
+			if(registration.attached) {
+				messageBus.removeInterceptor(registration.interceptor);
+			}
+			BUSES.remove(registration);
+		}
+		for(PoolRegistration registration : POOLS) {
+			if(registration.messageBus == messageBus) {
+				POOLS.remove(registration);
+			}
+		}
+	}
+
+	/**
+	 * Registers a {@link MessageDataPool} so that its misses are included in {@link PoolMissEvent}s
+	 * @param poolName The name to report the pool as
+	 * @param pool The {@link MessageDataPool}
+	 */
+	public static void register(String poolName, MessageDataPool<?> pool) {
+		POOLS.add(new PoolRegistration(poolName, null, pool));
+	}
+
+	/**
+	 * Unregisters a {@link MessageDataPool}
+	 * @param pool The {@link MessageDataPool}
+	 */
+	public static void unregister(MessageDataPool<?> pool) {
+		for(PoolRegistration registration : POOLS) {
+			if(registration.dataPool == pool) {
+				POOLS.remove(registration);
+			}
+		}
+	}
+
+	private static synchronized void updateInterceptors() {
+		final boolean recording = isRecording();
+		for(BusRegistration registration : BUSES) {
+			if(recording == registration.attached) {
+				continue;
+			}
+			if(recording) {
+				registration.messageBus.addInterceptor(registration.interceptor);
+			} else {
+				registration.messageBus.removeInterceptor(registration.interceptor);
+			}
+			registration.attached = recording;
+		}
+	}
+
+	private static boolean isRecording() {
+		if(!FlightRecorder.isInitialized()) {
+			return false;
+		}
+		for(Recording recording : FlightRecorder.getFlightRecorder().getRecordings()) {
+			if(recording.getState() == RecordingState.RUNNING) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void emitPoolMisses() {
+		for(PoolRegistration registration : POOLS) {
+			final long totalMisses = registration.getTotalMisses();
+			final PoolMissEvent event = new PoolMissEvent();
+			event.poolName = registration.poolName;
+			event.misses = totalMisses - registration.previousTotalMisses;
+			event.totalMisses = totalMisses;
+			event.commit();
+			registration.previousTotalMisses = totalMisses;
+		}
+	}
+
+	private static class BusRegistration {
+		final MessageBus messageBus;
+		final JfrMessageInterceptor interceptor;
+		boolean attached;
+
+		BusRegistration(MessageBus messageBus, int queueHighWaterThreshold) {
+			this.messageBus = messageBus;
+			this.interceptor = new JfrMessageInterceptor(queueHighWaterThreshold);
+		}
+	}
+
+	private static class PoolRegistration {
+		final String poolName;
+		final MessageBus messageBus;
+		final MessageDataPool<?> dataPool;
+		long previousTotalMisses;
+
+		PoolRegistration(String poolName, MessageBus messageBus, MessageDataPool<?> dataPool) {
+			this.poolName = poolName;
+			this.messageBus = messageBus;
+			this.dataPool = dataPool;
+		}
+
+		long getTotalMisses() {
+			return messageBus != null ? messageBus.getMessageTransmissionPoolMisses() : dataPool.getTotalMisses();
+		}
+	}
+}
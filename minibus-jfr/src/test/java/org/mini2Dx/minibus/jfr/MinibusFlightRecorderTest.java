@@ -0,0 +1,85 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.jfr;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.MessageExchange;
+
+public class MinibusFlightRecorderTest {
+	private static final String MESSAGE_TYPE = "message";
+
+	@Test
+	public void testEventsRecorded() throws Exception {
+		final MessageBus messageBus = new MessageBus();
+		final MessageExchange receiver = messageBus.createOnUpdateExchange((messageType, source, target, messageData) -> {});
+		MinibusFlightRecorder.register(messageBus, 2);
+
+		final Path file = Files.createTempFile("minibus", ".jfr");
+		try {
+			try (Recording recording = new Recording()) {
+				recording.enable(MessageDispatchedEvent.class);
+				recording.enable(QueueHighWaterEvent.class);
+				recording.start();
+
+				for(int i = 0; i < 4; i++) {
+					messageBus.sendTo(receiver, MESSAGE_TYPE);
+				}
+				messageBus.update(1f);
+
+				recording.stop();
+				recording.dump(file);
+			}
+
+			final List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+			int dispatched = 0;
+			int highWaterMark = 0;
+			for(RecordedEvent event : events) {
+				switch(event.getEventType().getName()) {
+				case "org.mini2Dx.minibus.MessageDispatched":
+					Assert.assertEquals(MESSAGE_TYPE, event.getString("messageType"));
+					Assert.assertEquals(receiver.getId(), event.getInt("receiverId"));
+					dispatched++;
+					break;
+				case "org.mini2Dx.minibus.QueueHighWater":
+					highWaterMark = Math.max(highWaterMark, event.getInt("queueSize"));
+					break;
+				}
+			}
+			Assert.assertEquals(4, dispatched);
+			Assert.assertEquals(4, highWaterMark);
+		} finally {
+			MinibusFlightRecorder.unregister(messageBus);
+			Files.deleteIfExists(file);
+		}
+	}
+}
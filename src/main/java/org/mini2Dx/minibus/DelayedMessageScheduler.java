@@ -0,0 +1,430 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.mini2Dx.minibus.concurrency.BusLock;
+import org.mini2Dx.minibus.transmission.MessageTransmission;
+
+/**
+ * Schedules delivery of {@link MessageTransmission}s in the future using a
+ * hashed hierarchical timing wheel. Scheduling and cancelling a single message
+ * are O(1) regardless of how many messages are pending. Pending messages are
+ * also indexed by message type and entity id so that
+ * {@link MessageBus#cancelAllMessages(String)} and
+ * {@link MessageBus#entityDeleted(int)} only visit matching messages.
+ */
+class DelayedMessageScheduler {
+	/**
+	 * The default duration of a single tick (in nanoseconds)
+	 */
+	static final long DEFAULT_TICK_DURATION = 1000000L;
+
+	private static final double NANOS_PER_SECOND = 1000000000.0;
+	private static final int WHEEL_BITS = 6;
+	private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+	private static final int TOTAL_WHEELS = 5;
+	private static final long MAX_TICKS = (1L << (WHEEL_BITS * TOTAL_WHEELS)) - 1L;
+
+	private final MessageBus messageBus;
+	private final long tickDuration;
+	private final BusLock lock;
+	private final DelayedMessage[][] wheels = new DelayedMessage[TOTAL_WHEELS][WHEEL_SIZE];
+	private final DelayedMessage[][] wheelTails = new DelayedMessage[TOTAL_WHEELS][WHEEL_SIZE];
+	private final Map<String, DelayedMessage> messageTypeIndex = new HashMap<String, DelayedMessage>();
+	private final Map<Integer, DelayedMessage> entityIndex = new HashMap<Integer, DelayedMessage>();
+
+	private DelayedMessage pool;
+	private long currentTick;
+	private long nextSequence;
+	private long remainder;
+	private int size;
+
+	DelayedMessageScheduler(MessageBus messageBus) {
+		this(messageBus, DEFAULT_TICK_DURATION);
+	}
+
+	DelayedMessageScheduler(MessageBus messageBus, long tickDuration) {
+		this.messageBus = messageBus;
+		this.lock = messageBus.getConcurrencyPolicy().newReadWriteLock();
+		this.tickDuration = tickDuration;
+	}
+
+	/**
+	 * Schedules a {@link MessageTransmission} for delivery
+	 * @param delay The delay (in seconds)
+	 * @param messageTransmission The {@link MessageTransmission} to deliver
+	 * @param destination The {@link MessageExchange} to deliver to or null to broadcast the message
+	 */
+	void schedule(float delay, MessageTransmission messageTransmission, MessageExchange destination) {
+		final long delayNanos = Math.max(0L, Math.round(delay * NANOS_PER_SECOND));
+
+		lock.lockWrite();
+		final long ticks = Math.max(1L, (delayNanos + remainder + tickDuration - 1L) / tickDuration);
+
+		final DelayedMessage delayedMessage = obtain();
+		delayedMessage.transmission = messageTransmission;
+		delayedMessage.destination = destination;
+		delayedMessage.messageType = messageTransmission.getMessageType();
+		delayedMessage.deadline = currentTick + ticks;
+		delayedMessage.sequence = nextSequence++;
+
+		insert(delayedMessage);
+		linkMessageType(delayedMessage);
+		if(messageTransmission.getMessage() instanceof EntityMessageData) {
+			delayedMessage.entityId = ((EntityMessageData) messageTransmission.getMessage()).getEntityId();
+			delayedMessage.entity = true;
+			linkEntity(delayedMessage);
+		}
+		size++;
+		lock.unlockWrite();
+	}
+
+	/**
+	 * Advances the timing wheel and delivers any messages that are due
+	 * @param delta (in seconds) The amount of time that has elapsed since the last update
+	 */
+	void update(float delta) {
+		DelayedMessage expired = null;
+
+		lock.lockWrite();
+		remainder += Math.max(0L, Math.round(delta * NANOS_PER_SECOND));
+		long ticks = remainder / tickDuration;
+		remainder -= ticks * tickDuration;
+
+		while(ticks > 0 && size > 0) {
+			currentTick++;
+			ticks--;
+			cascade();
+
+			final int slot = (int) (currentTick & WHEEL_MASK);
+			DelayedMessage delayedMessage = wheels[0][slot];
+			wheels[0][slot] = null;
+			wheelTails[0][slot] = null;
+			while(delayedMessage != null) {
+				final DelayedMessage slotNext = delayedMessage.slotNext;
+				unlinkMessageType(delayedMessage);
+				unlinkEntity(delayedMessage);
+				delayedMessage.next = expired;
+				expired = delayedMessage;
+				size--;
+				delayedMessage = slotNext;
+			}
+		}
+		currentTick += ticks;
+		lock.unlockWrite();
+
+		if(expired == null) {
+			return;
+		}
+		//Expired messages are in reverse order
+		DelayedMessage ordered = null;
+		while(expired != null) {
+			final DelayedMessage next = expired.next;
+			expired.next = ordered;
+			ordered = expired;
+			expired = next;
+		}
+		for(DelayedMessage delayedMessage = ordered; delayedMessage != null; delayedMessage = delayedMessage.next) {
+			deliver(delayedMessage);
+		}
+		free(ordered);
+	}
+
+	/**
+	 * Cancels all pending messages
+	 * @param notify True if {@link CancelledMessageHandler}s should be notified
+	 */
+	void cancelAllMessages(boolean notify) {
+		DelayedMessage cancelled = null;
+
+		lock.lockWrite();
+		for(int wheel = 0; wheel < TOTAL_WHEELS; wheel++) {
+			for(int slot = 0; slot < WHEEL_SIZE; slot++) {
+				DelayedMessage delayedMessage = wheels[wheel][slot];
+				wheels[wheel][slot] = null;
+				wheelTails[wheel][slot] = null;
+				while(delayedMessage != null) {
+					delayedMessage.next = cancelled;
+					cancelled = delayedMessage;
+					delayedMessage = delayedMessage.slotNext;
+				}
+			}
+		}
+		messageTypeIndex.clear();
+		entityIndex.clear();
+		size = 0;
+		lock.unlockWrite();
+
+		cancel(cancelled, notify);
+	}
+
+	/**
+	 * Cancels all pending messages of a specific type
+	 * @param messageType The message type to cancel
+	 * @param notify True if {@link CancelledMessageHandler}s should be notified
+	 */
+	void cancelAllMessages(String messageType, boolean notify) {
+		DelayedMessage cancelled = null;
+
+		lock.lockWrite();
+		DelayedMessage delayedMessage = messageTypeIndex.remove(messageType);
+		while(delayedMessage != null) {
+			unlinkSlot(delayedMessage);
+			unlinkEntity(delayedMessage);
+			delayedMessage.next = cancelled;
+			cancelled = delayedMessage;
+			size--;
+			delayedMessage = delayedMessage.typeNext;
+		}
+		lock.unlockWrite();
+
+		cancel(cancelled, notify);
+	}
+
+	/**
+	 * Cancels all pending messages containing a deleted entity
+	 * @param entityId The entity ID
+	 */
+	void entityDeleted(int entityId) {
+		DelayedMessage cancelled = null;
+
+		lock.lockWrite();
+		DelayedMessage delayedMessage = entityIndex.remove(entityId);
+		while(delayedMessage != null) {
+			unlinkSlot(delayedMessage);
+			unlinkMessageType(delayedMessage);
+			delayedMessage.next = cancelled;
+			cancelled = delayedMessage;
+			size--;
+			delayedMessage = delayedMessage.entityNext;
+		}
+		lock.unlockWrite();
+
+		cancel(cancelled, true);
+	}
+
+	/**
+	 * Returns the amount of pending messages
+	 * @return 0 if no messages are pending
+	 */
+	int size() {
+		lock.lockRead();
+		final int result = size;
+		lock.unlockRead();
+		return result;
+	}
+
+	private void deliver(DelayedMessage delayedMessage) {
+		final MessageTransmission messageTransmission = delayedMessage.transmission;
+		if(delayedMessage.destination == null) {
+			messageBus.broadcast(messageTransmission.getSource(), messageTransmission);
+		} else {
+			messageTransmission.allocate();
+			delayedMessage.destination.queue(messageTransmission);
+		}
+	}
+
+	private void cancel(DelayedMessage cancelled, boolean notify) {
+		if(cancelled == null) {
+			return;
+		}
+		for(DelayedMessage delayedMessage = cancelled; delayedMessage != null; delayedMessage = delayedMessage.next) {
+			final MessageTransmission messageTransmission = delayedMessage.transmission;
+			if(notify) {
+				messageBus.notifyMessageCancelled(messageTransmission.getMessageType(), messageTransmission.getSource(),
+						delayedMessage.destination, messageTransmission.getMessage());
+			}
+			messageTransmission.release();
+		}
+		free(cancelled);
+	}
+
+	private void cascade() {
+		for(int wheel = 1; wheel < TOTAL_WHEELS; wheel++) {
+			final int shift = WHEEL_BITS * wheel;
+			if((currentTick & ((1L << shift) - 1L)) != 0L) {
+				return;
+			}
+			final int slot = (int) ((currentTick >>> shift) & WHEEL_MASK);
+			DelayedMessage delayedMessage = wheels[wheel][slot];
+			wheels[wheel][slot] = null;
+			wheelTails[wheel][slot] = null;
+			while(delayedMessage != null) {
+				final DelayedMessage slotNext = delayedMessage.slotNext;
+				insert(delayedMessage);
+				delayedMessage = slotNext;
+			}
+		}
+	}
+
+	private void insert(DelayedMessage delayedMessage) {
+		final long ticks = Math.min(delayedMessage.deadline - currentTick, MAX_TICKS);
+		final long placement = currentTick + ticks;
+
+		int wheel = 0;
+		while(wheel < TOTAL_WHEELS - 1 && ticks >= (1L << (WHEEL_BITS * (wheel + 1)))) {
+			wheel++;
+		}
+		final int slot = (int) ((placement >>> (WHEEL_BITS * wheel)) & WHEEL_MASK);
+
+		delayedMessage.wheel = wheel;
+		delayedMessage.slot = slot;
+
+		//Slots are kept in send order so that messages with the same deadline are delivered FIFO.
+		//Messages are usually inserted in send order so this rarely walks past the tail.
+		DelayedMessage previous = wheelTails[wheel][slot];
+		while(previous != null && previous.sequence > delayedMessage.sequence) {
+			previous = previous.slotPrev;
+		}
+		delayedMessage.slotPrev = previous;
+		if(previous != null) {
+			delayedMessage.slotNext = previous.slotNext;
+			previous.slotNext = delayedMessage;
+		} else {
+			delayedMessage.slotNext = wheels[wheel][slot];
+			wheels[wheel][slot] = delayedMessage;
+		}
+		if(delayedMessage.slotNext != null) {
+			delayedMessage.slotNext.slotPrev = delayedMessage;
+		} else {
+			wheelTails[wheel][slot] = delayedMessage;
+		}
+	}
+
+	private void unlinkSlot(DelayedMessage delayedMessage) {
+		if(delayedMessage.slotPrev != null) {
+			delayedMessage.slotPrev.slotNext = delayedMessage.slotNext;
+		} else {
+			wheels[delayedMessage.wheel][delayedMessage.slot] = delayedMessage.slotNext;
+		}
+		if(delayedMessage.slotNext != null) {
+			delayedMessage.slotNext.slotPrev = delayedMessage.slotPrev;
+		} else {
+			wheelTails[delayedMessage.wheel][delayedMessage.slot] = delayedMessage.slotPrev;
+		}
+	}
+
+	private void linkMessageType(DelayedMessage delayedMessage) {
+		final DelayedMessage head = messageTypeIndex.put(delayedMessage.messageType, delayedMessage);
+		delayedMessage.typePrev = null;
+		delayedMessage.typeNext = head;
+		if(head != null) {
+			head.typePrev = delayedMessage;
+		}
+	}
+
+	private void unlinkMessageType(DelayedMessage delayedMessage) {
+		if(delayedMessage.typePrev != null) {
+			delayedMessage.typePrev.typeNext = delayedMessage.typeNext;
+		} else if(delayedMessage.typeNext != null) {
+			messageTypeIndex.put(delayedMessage.messageType, delayedMessage.typeNext);
+		} else {
+			messageTypeIndex.remove(delayedMessage.messageType);
+		}
+		if(delayedMessage.typeNext != null) {
+			delayedMessage.typeNext.typePrev = delayedMessage.typePrev;
+		}
+	}
+
+	private void linkEntity(DelayedMessage delayedMessage) {
+		final DelayedMessage head = entityIndex.put(delayedMessage.entityId, delayedMessage);
+		delayedMessage.entityPrev = null;
+		delayedMessage.entityNext = head;
+		if(head != null) {
+			head.entityPrev = delayedMessage;
+		}
+	}
+
+	private void unlinkEntity(DelayedMessage delayedMessage) {
+		if(!delayedMessage.entity) {
+			return;
+		}
+		if(delayedMessage.entityPrev != null) {
+			delayedMessage.entityPrev.entityNext = delayedMessage.entityNext;
+		} else if(delayedMessage.entityNext != null) {
+			entityIndex.put(delayedMessage.entityId, delayedMessage.entityNext);
+		} else {
+			entityIndex.remove(delayedMessage.entityId);
+		}
+		if(delayedMessage.entityNext != null) {
+			delayedMessage.entityNext.entityPrev = delayedMessage.entityPrev;
+		}
+	}
+
+	private DelayedMessage obtain() {
+		final DelayedMessage result = pool;
+		if(result == null) {
+			return new DelayedMessage();
+		}
+		pool = result.next;
+		result.next = null;
+		return result;
+	}
+
+	private void free(DelayedMessage delayedMessages) {
+		DelayedMessage tail = delayedMessages;
+		while(true) {
+			tail.transmission = null;
+			tail.destination = null;
+			tail.messageType = null;
+			tail.entity = false;
+			tail.slotPrev = tail.slotNext = null;
+			tail.typePrev = tail.typeNext = null;
+			tail.entityPrev = tail.entityNext = null;
+			if(tail.next == null) {
+				break;
+			}
+			tail = tail.next;
+		}
+
+		lock.lockWrite();
+		tail.next = pool;
+		pool = delayedMessages;
+		lock.unlockWrite();
+	}
+
+	/**
+	 * A pending message. Each instance is linked into a timing wheel slot, the
+	 * message type index and (optionally) the entity index.
+	 */
+	private static class DelayedMessage {
+		MessageTransmission transmission;
+		MessageExchange destination;
+		String messageType;
+		long deadline;
+		long sequence;
+		int wheel, slot;
+		boolean entity;
+		int entityId;
+
+		DelayedMessage slotPrev, slotNext;
+		DelayedMessage typePrev, typeNext;
+		DelayedMessage entityPrev, entityNext;
+		DelayedMessage next;
+	}
+}
@@ -23,16 +23,38 @@
  */
 package org.mini2Dx.minibus;
 
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import org.mini2Dx.lockprovider.Locks;
 import org.mini2Dx.lockprovider.jvm.JvmLocks;
+import org.mini2Dx.minibus.bridge.RemoteMessageExchange;
+import org.mini2Dx.minibus.bridge.SharedMemoryBridgeExchange;
+import org.mini2Dx.minibus.bridge.SharedMemoryProxyExchange;
+import org.mini2Dx.minibus.bridge.SharedMemoryRingBuffer;
+import org.mini2Dx.minibus.codec.MessageDataCodecs;
+import org.mini2Dx.minibus.concurrency.BusLock;
+import org.mini2Dx.minibus.concurrency.ConcurrencyPolicy;
 import org.mini2Dx.minibus.exchange.ConcurrentMessageExchange;
 import org.mini2Dx.minibus.exchange.ImmediateMessageExchange;
+import org.mini2Dx.minibus.exchange.IntervalCatchUpPolicy;
 import org.mini2Dx.minibus.exchange.IntervalMessageExchange;
 import org.mini2Dx.minibus.exchange.OnUpdateMessageExchange;
 import org.mini2Dx.minibus.exchange.query.QueryMessageExchange;
 import org.mini2Dx.minibus.exchange.query.QueryMessageExchangePool;
+import org.mini2Dx.minibus.messagedata.OffHeapMessageData;
+import org.mini2Dx.minibus.metrics.ExchangeMetrics;
+import org.mini2Dx.minibus.metrics.ExchangeMetricsSnapshot;
+import org.mini2Dx.minibus.metrics.MessageBusMetrics;
+import org.mini2Dx.minibus.metrics.MessageBusMetricsSnapshot;
+import org.mini2Dx.minibus.pool.OffHeapArena;
+import org.mini2Dx.minibus.queue.MessageQueueFactory;
+import org.mini2Dx.minibus.queue.MessageQueueType;
 import org.mini2Dx.minibus.transmission.MessageTransmission;
 import org.mini2Dx.minibus.transmission.MessageTransmissionPool;
 import org.mini2Dx.minibus.util.SnapshotArrayList;
@@ -41,35 +63,304 @@ import org.mini2Dx.minibus.util.SnapshotArrayList;
  * A message bus to publishing {@link MessageData}s
  */
 public class MessageBus {
+	/**
+	 * The {@link Locks} used by {@link MessageBus}es (and standalone queues and
+	 * pools) that are not given a {@link ConcurrencyPolicy}. To use different
+	 * locks for different buses, construct each with
+	 * {@link #MessageBus(ConcurrencyPolicy)} instead.
+	 */
 	public static Locks LOCK_PROVIDER = new JvmLocks();
 
-	final List<MessageExchange> exchangers = new SnapshotArrayList<MessageExchange>();
-	final List<CancelledMessageHandler> cancelledMessageHandlers = new SnapshotArrayList<CancelledMessageHandler>();
-	final MessageTransmissionPool transmissionPool = new MessageTransmissionPool();
+	private static final Comparator<MessageExchange> UPDATE_PHASE_COMPARATOR = new Comparator<MessageExchange>() {
+		@Override
+		public int compare(MessageExchange o1, MessageExchange o2) {
+			return Integer.compare(o1.getUpdatePhase(), o2.getUpdatePhase());
+		}
+	};
+
+	private final ConcurrencyPolicy concurrencyPolicy;
+	final SnapshotArrayList<MessageExchange> exchangers;
+	final List<CancelledMessageHandler> cancelledMessageHandlers;
+	final List<MessageExchangeGroup> groups;
+	final MessageTransmissionPool transmissionPool;
+	private final OffHeapArena offHeapArena;
 
 	private final MessageExchange anonymousExchange;
 	private final QueryMessageExchangePool queryMessageExchangePool;
+	private final DelayedMessageScheduler delayedMessageScheduler;
+	private final QueryRouter queryRouter;
+
+	private volatile ParallelExchangeUpdater parallelExchangeUpdater;
+	private volatile MessageBusMetrics metrics;
+	private final BusLock interceptorLock;
+	volatile MessageInterceptor[] interceptors;
+	private int maxUpdatePasses = 1;
+	volatile boolean messagesFlushed = false;
+	volatile long updateFrame = 0L;
+	volatile int updatePass = 0;
 
 	/**
-	 * Constructor
+	 * Constructs a thread-safe {@link MessageBus} with locks from
+	 * {@link #LOCK_PROVIDER}
 	 */
 	public MessageBus() {
+		this(ConcurrencyPolicy.threadSafe());
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param concurrencyPolicy
+	 *            The {@link ConcurrencyPolicy} used to synchronize this bus, its
+	 *            {@link MessageExchange}s, queues and pools, e.g.
+	 *            {@link ConcurrencyPolicy#threadSafe(Locks)} or
+	 *            {@link ConcurrencyPolicy#singleThreaded()}
+	 */
+	public MessageBus(ConcurrencyPolicy concurrencyPolicy) {
+		this.concurrencyPolicy = concurrencyPolicy;
+		exchangers = new SnapshotArrayList<MessageExchange>(true, concurrencyPolicy);
+		cancelledMessageHandlers = new SnapshotArrayList<CancelledMessageHandler>(false, concurrencyPolicy);
+		groups = new SnapshotArrayList<MessageExchangeGroup>(false, concurrencyPolicy);
+		transmissionPool = new MessageTransmissionPool(concurrencyPolicy);
+		offHeapArena = new OffHeapArena(OffHeapArena.DEFAULT_SLAB_SIZE, concurrencyPolicy);
+		interceptorLock = concurrencyPolicy.newReadWriteLock();
+
 		anonymousExchange = new AnonymousMessageExchange(this);
 		queryMessageExchangePool = new QueryMessageExchangePool(this, exchangers);
+		delayedMessageScheduler = new DelayedMessageScheduler(this);
+		queryRouter = new QueryRouter(this);
 	}
 
 	/**
-	 * Updates all {@link MessageExchange}s
+	 * Creates a {@link MessageBus} that performs no locking and uses
+	 * unsynchronized queues, pools and reference counts throughout. The bus
+	 * and all its {@link MessageExchange}s must only be used from a single
+	 * thread. When assertions are enabled, access from any other thread than
+	 * the first one to use the bus throws an {@link IllegalStateException}.
+	 * {@link ConcurrentMessageExchange}s and parallel updates are not
+	 * supported.
+	 * 
+	 * @return A new single-threaded {@link MessageBus}
+	 */
+	public static MessageBus singleThreaded() {
+		return new MessageBus(ConcurrencyPolicy.singleThreaded());
+	}
+
+	/**
+	 * Updates all {@link MessageExchange}s in order of their update phase (see
+	 * {@link MessageExchange#setUpdatePhase(int)}). If a parallel update pool has been
+	 * set (see {@link #setParallelUpdatePool(ForkJoinPool)}), thread-independent
+	 * {@link MessageExchange}s are updated in parallel while all other
+	 * {@link MessageExchange}s are updated in order on the calling thread. Each
+	 * phase completes before the next phase begins. If the maximum update passes
+	 * is greater than 1 (see {@link #setMaxUpdatePasses(int)}), additional passes
+	 * with a delta of 0 are run while the previous pass flushed messages. This
+	 * method returns once all {@link MessageExchange}s have been updated.
 	 * 
 	 * @param delta
 	 *            (in seconds) The timestep or amount of time that has elapsed
 	 *            since the last frame
 	 */
 	public void update(float delta) {
+		assert concurrencyPolicy.checkThread();
+		delayedMessageScheduler.update(delta);
+		queryRouter.update(delta);
+
+		final int maxUpdatePasses = this.maxUpdatePasses;
+		updateFrame++;
+		for (int pass = 0; pass < maxUpdatePasses; pass++) {
+			updatePass = pass;
+			messagesFlushed = false;
+			updateExchanges(pass == 0 ? delta : 0f);
+			anonymousExchange.flush();
+
+			if (!messagesFlushed) {
+				break;
+			}
+		}
+		updatePass = 0;
+	}
+
+	private void updateExchanges(float delta) {
+		final ParallelExchangeUpdater parallelExchangeUpdater = this.parallelExchangeUpdater;
+		if (parallelExchangeUpdater == null) {
+			for (MessageExchange exchanger : exchangers) {
+				exchanger.update(delta);
+			}
+			return;
+		}
+		boolean firstExchange = true;
+		int updatePhase = 0;
 		for (MessageExchange exchanger : exchangers) {
-			exchanger.update(delta);
+			if (!firstExchange && exchanger.getUpdatePhase() != updatePhase) {
+				parallelExchangeUpdater.update(delta);
+			}
+			firstExchange = false;
+			updatePhase = exchanger.getUpdatePhase();
+			parallelExchangeUpdater.add(exchanger);
+		}
+		parallelExchangeUpdater.update(delta);
+	}
+
+	/**
+	 * Returns the maximum amount of passes over all {@link MessageExchange}s per {@link #update(float)}
+	 * 
+	 * @return 1 by default
+	 */
+	public int getMaxUpdatePasses() {
+		return maxUpdatePasses;
+	}
+
+	/**
+	 * Sets the maximum amount of passes over all {@link MessageExchange}s per
+	 * {@link #update(float)}. When greater than 1, messages sent by
+	 * {@link MessageHandler}s during an update are delivered within the same
+	 * update until no further messages are flushed or the maximum is reached.
+	 * Flush limits (see {@link MessageExchange#setFlushMessageLimit(int)}) apply
+	 * to the whole update, not to each pass.
+	 * 
+	 * @param maxUpdatePasses
+	 *            The maximum amount of passes (minimum 1)
+	 */
+	public void setMaxUpdatePasses(int maxUpdatePasses) {
+		if (maxUpdatePasses < 1) {
+			throw new RuntimeException("maxUpdatePasses must be 1 or greater");
+		}
+		this.maxUpdatePasses = maxUpdatePasses;
+	}
+
+	/**
+	 * Sets the {@link ForkJoinPool} used to update thread-independent
+	 * {@link MessageExchange}s in parallel during {@link #update(float)}
+	 * 
+	 * @param pool
+	 *            The {@link ForkJoinPool} to use, e.g.
+	 *            {@link ForkJoinPool#commonPool()}, or null to update all
+	 *            {@link MessageExchange}s sequentially (default)
+	 */
+	public void setParallelUpdatePool(ForkJoinPool pool) {
+		if (pool != null && !concurrencyPolicy.isThreadSafe()) {
+			throw new IllegalStateException("Parallel updates are not supported by a single-threaded MessageBus");
 		}
-		anonymousExchange.flush();
+		parallelExchangeUpdater = pool == null ? null : new ParallelExchangeUpdater(pool);
+	}
+
+	/**
+	 * Adds a {@link MessageInterceptor} that is notified as messages are sent,
+	 * queued, dispatched and released. Interceptors are called in the order
+	 * they were added. When no interceptors are registered, the cost is a
+	 * single null check at each stage.
+	 * 
+	 * @param interceptor
+	 *            The {@link MessageInterceptor} to add
+	 */
+	public void addInterceptor(MessageInterceptor interceptor) {
+		interceptorLock.lockWrite();
+		final MessageInterceptor[] interceptors = this.interceptors;
+		final MessageInterceptor[] result;
+		if (interceptors == null) {
+			result = new MessageInterceptor[] { interceptor };
+		} else {
+			result = new MessageInterceptor[interceptors.length + 1];
+			System.arraycopy(interceptors, 0, result, 0, interceptors.length);
+			result[interceptors.length] = interceptor;
+		}
+		setInterceptors(result);
+		interceptorLock.unlockWrite();
+	}
+
+	/**
+	 * Removes a {@link MessageInterceptor}
+	 * 
+	 * @param interceptor
+	 *            The {@link MessageInterceptor} to remove
+	 * @return False if the {@link MessageInterceptor} was not registered
+	 */
+	public boolean removeInterceptor(MessageInterceptor interceptor) {
+		interceptorLock.lockWrite();
+		final MessageInterceptor[] interceptors = this.interceptors;
+		final int index = indexOf(interceptors, interceptor);
+		if (index < 0) {
+			interceptorLock.unlockWrite();
+			return false;
+		}
+		if (interceptors.length == 1) {
+			setInterceptors(null);
+		} else {
+			final MessageInterceptor[] result = new MessageInterceptor[interceptors.length - 1];
+			System.arraycopy(interceptors, 0, result, 0, index);
+			System.arraycopy(interceptors, index + 1, result, index, interceptors.length - index - 1);
+			setInterceptors(result);
+		}
+		interceptorLock.unlockWrite();
+		return true;
+	}
+
+	private static int indexOf(MessageInterceptor[] interceptors, MessageInterceptor interceptor) {
+		if (interceptors == null) {
+			return -1;
+		}
+		for (int i = 0; i < interceptors.length; i++) {
+			if (interceptors[i] == interceptor) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void setInterceptors(MessageInterceptor[] interceptors) {
+		this.interceptors = interceptors;
+		transmissionPool.setInterceptors(interceptors);
+	}
+
+	/**
+	 * Enables or disables metrics for all registered {@link MessageExchange}s.
+	 * When enabled, each {@link MessageExchange} records enqueue/dequeue
+	 * counts, its queue high-water mark, enqueue-to-handler latency and
+	 * handler execution times, and the bus records counts per message type.
+	 * Enabling metrics resets any previously recorded values. When disabled,
+	 * the cost is a single null check per message.
+	 * 
+	 * @param enabled
+	 *            True to enable metrics, false to disable (default)
+	 */
+	public void setMetricsEnabled(boolean enabled) {
+		final MessageBusMetrics metrics = enabled ? new MessageBusMetrics() : null;
+		this.metrics = metrics;
+		for (MessageExchange exchanger : exchangers) {
+			exchanger.setMetrics(metrics == null ? null : createMetrics(exchanger));
+		}
+	}
+
+	/**
+	 * Returns if metrics are enabled
+	 * 
+	 * @return False by default
+	 */
+	public boolean isMetricsEnabled() {
+		return metrics != null;
+	}
+
+	/**
+	 * Returns a snapshot of the current metrics of this bus and all registered
+	 * {@link MessageExchange}s
+	 * 
+	 * @return Null if metrics are not enabled
+	 */
+	public MessageBusMetricsSnapshot getMetricsSnapshot() {
+		final MessageBusMetrics metrics = this.metrics;
+		if (metrics == null) {
+			return null;
+		}
+		final List<ExchangeMetricsSnapshot> result = new ArrayList<ExchangeMetricsSnapshot>();
+		for (MessageExchange exchanger : exchangers) {
+			final ExchangeMetrics exchangeMetrics = exchanger.getMetrics();
+			if (exchangeMetrics == null) {
+				continue;
+			}
+			result.add(exchangeMetrics.snapshot(exchanger.getMessageQueueSize()));
+		}
+		return metrics.snapshot(result);
 	}
 
 	/**
@@ -83,7 +374,7 @@ public class MessageBus {
 	 */
 	public MessageExchange createImmediateExchange(MessageHandler... messageHandlers) {
 		ImmediateMessageExchange result = new ImmediateMessageExchange(this, messageHandlers);
-		exchangers.add(result);
+		addExchange(result);
 		return result;
 	}
 
@@ -101,7 +392,55 @@ public class MessageBus {
 	 */
 	public MessageExchange createIntervalExchange(float interval, MessageHandler messageHandlers) {
 		IntervalMessageExchange result = new IntervalMessageExchange(interval, this, messageHandlers);
-		exchangers.add(result);
+		addExchange(result);
+		return result;
+	}
+
+	/**
+	 * Creates a {@link IntervalMessageExchange} that processes messages after a
+	 * certain amount of time has elapsed.
+	 * 
+	 * @param interval
+	 *            The interval between processing {@link MessageData}s (in
+	 *            seconds)
+	 * @param catchUpPolicy
+	 *            The {@link IntervalCatchUpPolicy} to apply when multiple
+	 *            intervals elapse during a single update
+	 * @param messageHandlers
+	 *            The {@link MessageHandler} instances for processing messages received by
+	 *            the {@link MessageExchange}
+	 * @return A new {@link IntervalMessageExchange}
+	 */
+	public IntervalMessageExchange createIntervalExchange(double interval, IntervalCatchUpPolicy catchUpPolicy,
+			MessageHandler... messageHandlers) {
+		IntervalMessageExchange result = new IntervalMessageExchange(interval, catchUpPolicy, this, messageHandlers);
+		addExchange(result);
+		return result;
+	}
+
+	/**
+	 * Creates a {@link IntervalMessageExchange} that processes messages after a
+	 * certain amount of time has elapsed.
+	 * 
+	 * @param interval
+	 *            The interval between processing {@link MessageData}s (in
+	 *            seconds)
+	 * @param catchUpPolicy
+	 *            The {@link IntervalCatchUpPolicy} to apply when multiple
+	 *            intervals elapse during a single update
+	 * @param queueFactory
+	 *            The {@link MessageQueueFactory} to create the message queue
+	 *            with, e.g. {@link MessageQueueType#UNSYNCHRONIZED} if messages
+	 *            are only sent from the thread calling {@link #update(float)}
+	 * @param messageHandlers
+	 *            The {@link MessageHandler} instances for processing messages received by
+	 *            the {@link MessageExchange}
+	 * @return A new {@link IntervalMessageExchange}
+	 */
+	public IntervalMessageExchange createIntervalExchange(double interval, IntervalCatchUpPolicy catchUpPolicy,
+			MessageQueueFactory queueFactory, MessageHandler... messageHandlers) {
+		IntervalMessageExchange result = new IntervalMessageExchange(interval, catchUpPolicy, this, queueFactory, messageHandlers);
+		addExchange(result);
 		return result;
 	}
 
@@ -116,7 +455,26 @@ public class MessageBus {
 	 */
 	public MessageExchange createOnUpdateExchange(MessageHandler... messageHandlers) {
 		OnUpdateMessageExchange result = new OnUpdateMessageExchange(this, messageHandlers);
-		exchangers.add(result);
+		addExchange(result);
+		return result;
+	}
+
+	/**
+	 * Creates a {@link OnUpdateMessageExchange} that processes messages when
+	 * {@link MessageBus#update(float)} is called
+	 * 
+	 * @param queueFactory
+	 *            The {@link MessageQueueFactory} to create the message queue
+	 *            with, e.g. {@link MessageQueueType#UNSYNCHRONIZED} if messages
+	 *            are only sent from the thread calling {@link #update(float)}
+	 * @param messageHandlers
+	 *            The {@link MessageHandler} instances for processing messages received by
+	 *            the {@link MessageExchange}
+	 * @return A new {@link OnUpdateMessageExchange}
+	 */
+	public MessageExchange createOnUpdateExchange(MessageQueueFactory queueFactory, MessageHandler... messageHandlers) {
+		OnUpdateMessageExchange result = new OnUpdateMessageExchange(this, queueFactory, messageHandlers);
+		addExchange(result);
 		return result;
 	}
 
@@ -132,7 +490,122 @@ public class MessageBus {
 	 */
 	public MessageExchange createConcurrentExchange(MessageHandler... messageHandlers) {
 		ConcurrentMessageExchange result = new ConcurrentMessageExchange(this, messageHandlers);
-		exchangers.add(result);
+		addExchange(result);
+		return result;
+	}
+
+	/**
+	 * Creates a {@link ConcurrentMessageExchange} that processes messages on
+	 * its own {@link Thread}. The exchanger/thread can be stopped by calling
+	 * {@link MessageExchange#dispose()}
+	 * 
+	 * @param queueFactory
+	 *            The {@link MessageQueueFactory} to create the message queue
+	 *            with. Single-consumer queues ({@link MessageQueueType#SPSC},
+	 *            {@link MessageQueueType#MPSC}) are not supported.
+	 * @param messageHandlers
+	 *            The {@link MessageHandler} instances for processing messages received by
+	 *            the {@link MessageExchange}
+	 * @return A new {@link ConcurrentMessageExchange} running on its own thread
+	 */
+	public MessageExchange createConcurrentExchange(MessageQueueFactory queueFactory, MessageHandler... messageHandlers) {
+		ConcurrentMessageExchange result = new ConcurrentMessageExchange(this, queueFactory, messageHandlers);
+		addExchange(result);
+		return result;
+	}
+
+	/**
+	 * Creates a {@link SharedMemoryBridgeExchange} that forwards messages to
+	 * another process on each {@link #update(float)}
+	 *
+	 * @param ringBuffer
+	 *            The {@link SharedMemoryRingBuffer} shared with the other process
+	 * @param messageTypes
+	 *            The message types to forward, or none to forward all message
+	 *            types
+	 * @return A new {@link SharedMemoryBridgeExchange}
+	 */
+	public SharedMemoryBridgeExchange createSharedMemoryBridgeExchange(SharedMemoryRingBuffer ringBuffer,
+			String... messageTypes) {
+		SharedMemoryBridgeExchange result = new SharedMemoryBridgeExchange(this, ringBuffer, messageTypes);
+		addExchange(result);
+		return result;
+	}
+
+	/**
+	 * Creates a {@link SharedMemoryProxyExchange} that re-injects messages
+	 * forwarded by another process on each {@link #update(float)}
+	 *
+	 * @param ringBuffer
+	 *            The {@link SharedMemoryRingBuffer} shared with the other process
+	 * @param messageHandlers
+	 *            The {@link MessageHandler} instances for processing messages
+	 *            sent directly to the remote bridge
+	 * @return A new {@link SharedMemoryProxyExchange}
+	 */
+	public SharedMemoryProxyExchange createSharedMemoryProxyExchange(SharedMemoryRingBuffer ringBuffer,
+			MessageHandler... messageHandlers) {
+		SharedMemoryProxyExchange result = new SharedMemoryProxyExchange(this, ringBuffer, messageHandlers);
+		addExchange(result);
+		return result;
+	}
+
+	/**
+	 * Creates a {@link RemoteMessageExchange} that accepts a connection from a
+	 * {@link MessageBus} in another process
+	 *
+	 * @param bindAddress
+	 *            The address to listen on
+	 * @param codecs
+	 *            The {@link MessageDataCodecs} used to encode and decode message
+	 *            data
+	 * @param messageTypes
+	 *            The message types to forward, or null to forward all message
+	 *            types
+	 * @param messageHandlers
+	 *            The {@link MessageHandler} instances for processing messages
+	 *            sent directly to the peer exchange
+	 * @return A new {@link RemoteMessageExchange}
+	 * @throws IOException
+	 *             Thrown if the address could not be bound
+	 */
+	public RemoteMessageExchange createRemoteServerExchange(InetSocketAddress bindAddress, MessageDataCodecs codecs,
+			String[] messageTypes, MessageHandler... messageHandlers) throws IOException {
+		final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+		final RemoteMessageExchange result;
+		try {
+			serverChannel.bind(bindAddress);
+			result = new RemoteMessageExchange(this, serverChannel, codecs, messageTypes, messageHandlers);
+		} catch (IOException | RuntimeException e) {
+			serverChannel.close();
+			throw e;
+		}
+		addExchange(result);
+		return result;
+	}
+
+	/**
+	 * Creates a {@link RemoteMessageExchange} that connects to a
+	 * {@link MessageBus} in another process and reconnects if the connection
+	 * is lost
+	 *
+	 * @param address
+	 *            The address of the peer
+	 * @param codecs
+	 *            The {@link MessageDataCodecs} used to encode and decode message
+	 *            data
+	 * @param messageTypes
+	 *            The message types to forward, or null to forward all message
+	 *            types
+	 * @param messageHandlers
+	 *            The {@link MessageHandler} instances for processing messages
+	 *            sent directly to the peer exchange
+	 * @return A new {@link RemoteMessageExchange}
+	 */
+	public RemoteMessageExchange createRemoteClientExchange(InetSocketAddress address, MessageDataCodecs codecs,
+			String[] messageTypes, MessageHandler... messageHandlers) {
+		RemoteMessageExchange result = new RemoteMessageExchange(this, address, codecs, messageTypes, messageHandlers);
+		addExchange(result);
 		return result;
 	}
 
@@ -160,6 +633,21 @@ public class MessageBus {
 		broadcast(anonymousExchange, messageType, messageData);
 	}
 
+	/**
+	 * Broadcasts a message with {@link MessageData} and {@link MessagePriority}
+	 * to all {@link MessageExchange}s from an anonymous source
+	 * 
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} to be published
+	 * @param priority
+	 *            The {@link MessagePriority} of the message
+	 */
+	public void broadcast(String messageType, MessageData messageData, MessagePriority priority) {
+		broadcast(anonymousExchange, messageType, messageData, priority);
+	}
+
 	/**
 	 * Broadcasts a message to all {@link MessageExchange}s from a specified
 	 * {@link MessageExchange}
@@ -187,7 +675,25 @@ public class MessageBus {
 	 *            The {@link MessageData} to broadcast
 	 */
 	public void broadcast(MessageExchange source, String messageType, MessageData messageData) {
-		if (exchangers.size() == 0) {
+		broadcast(source, messageType, messageData, MessagePriority.NORMAL);
+	}
+
+	/**
+	 * Broadcasts a message with {@link MessageData} and {@link MessagePriority}
+	 * to all {@link MessageExchange}s from a specified {@link MessageExchange}
+	 * 
+	 * @param source
+	 *            The {@link MessageExchange} to broadcast the
+	 *            {@link MessageData} from
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} to broadcast
+	 * @param priority
+	 *            The {@link MessagePriority} of the message
+	 */
+	public void broadcast(MessageExchange source, String messageType, MessageData messageData, MessagePriority priority) {
+		if (exchangers.size() == 0 && !queryRouter.hasBroadcastQueries()) {
 			return;
 		}
 		MessageTransmission messageTransmission = transmissionPool.allocate();
@@ -195,11 +701,13 @@ public class MessageBus {
 		messageTransmission.setMessageData(messageData);
 		messageTransmission.setSource(source);
 		messageTransmission.setBroadcastMessage(true);
+		messageTransmission.setPriority(priority);
+		onSend(messageTransmission);
 
 		broadcast(source, messageTransmission);
 	}
 
-	private void broadcast(MessageExchange source, MessageTransmission messageTransmission) {
+	void broadcast(MessageExchange source, MessageTransmission messageTransmission) {
 		//Allocate and release to prevent immediate return to pool on immediate exchanges
 		messageTransmission.allocate();
 		for (MessageExchange exchange : exchangers) {
@@ -212,6 +720,7 @@ public class MessageBus {
 			messageTransmission.allocate();
 			exchange.queue(messageTransmission);
 		}
+		queryRouter.broadcast(messageTransmission);
 		messageTransmission.release();
 	}
 
@@ -245,6 +754,27 @@ public class MessageBus {
 	 *            The {@link MessageData} that is sent
 	 */
 	public void send(MessageExchange source, MessageExchange destination, String messageType, MessageData messageData) {
+		send(source, destination, messageType, messageData, MessagePriority.NORMAL);
+	}
+
+	/**
+	 * Sends a message with {@link MessageData} and {@link MessagePriority} from
+	 * one {@link MessageExchange} to another
+	 * 
+	 * @param source
+	 *            The {@link MessageExchange} the {@link MessageData} is sent
+	 *            from
+	 * @param destination
+	 *            The {@link MessageExchange} the {@link MessageData} is sent to
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} that is sent
+	 * @param priority
+	 *            The {@link MessagePriority} of the message
+	 */
+	public void send(MessageExchange source, MessageExchange destination, String messageType, MessageData messageData,
+			MessagePriority priority) {
 		if (source == null) {
 			throw new RuntimeException("source cannot be null, use sendTo() instead");
 		}
@@ -254,9 +784,188 @@ public class MessageBus {
 		messageTransmission.setMessageData(messageData);
 		messageTransmission.setSource(source);
 		messageTransmission.setBroadcastMessage(false);
+		messageTransmission.setPriority(priority);
+		onSend(messageTransmission);
 		destination.queue(messageTransmission);
 	}
 
+	/**
+	 * Sends a message with {@link MessageData} from one {@link MessageExchange}
+	 * to multiple {@link MessageExchange}s. A single {@link MessageTransmission}
+	 * is shared by all destinations.
+	 * 
+	 * @param source
+	 *            The {@link MessageExchange} the {@link MessageData} is sent
+	 *            from
+	 * @param destinations
+	 *            The {@link MessageExchange}s the {@link MessageData} is sent to
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} that is sent
+	 */
+	public void send(MessageExchange source, MessageExchange[] destinations, String messageType, MessageData messageData) {
+		if (source == null) {
+			throw new RuntimeException("source cannot be null");
+		}
+		if (destinations.length == 0) {
+			return;
+		}
+		MessageTransmission messageTransmission = transmissionPool.allocate();
+		messageTransmission.setMessageType(messageType);
+		messageTransmission.setMessageData(messageData);
+		messageTransmission.setSource(source);
+		messageTransmission.setBroadcastMessage(false);
+		messageTransmission.setPriority(MessagePriority.NORMAL);
+		onSend(messageTransmission);
+		multicast(destinations, destinations.length, messageTransmission, null);
+	}
+
+	void multicast(MessageExchange[] destinations, int totalDestinations, MessageTransmission messageTransmission,
+			MessageExchange excluded) {
+		//Allocate and release to prevent immediate return to pool on immediate exchanges
+		messageTransmission.allocate();
+		for (int i = 0; i < totalDestinations; i++) {
+			final MessageExchange destination = destinations[i];
+			if (destination == null || destination == excluded) {
+				continue;
+			}
+			messageTransmission.allocate();
+			destination.queue(messageTransmission);
+		}
+		messageTransmission.release();
+	}
+
+	/**
+	 * Creates a {@link MessageExchangeGroup} that {@link MessageExchange}s can
+	 * join to receive multicast messages
+	 * 
+	 * @param name
+	 *            The unique name of the group
+	 * @return A new {@link MessageExchangeGroup}
+	 */
+	public MessageExchangeGroup createGroup(String name) {
+		if (getGroup(name) != null) {
+			throw new RuntimeException("A group named " + name + " already exists");
+		}
+		final MessageExchangeGroup result = new MessageExchangeGroup(this, name);
+		groups.add(result);
+		return result;
+	}
+
+	/**
+	 * Returns a {@link MessageExchangeGroup} by name
+	 * 
+	 * @param name
+	 *            The name of the group
+	 * @return Null if no group exists with the name
+	 */
+	public MessageExchangeGroup getGroup(String name) {
+		for (MessageExchangeGroup group : groups) {
+			if (group.getName().equals(name)) {
+				return group;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes a {@link MessageExchangeGroup} from this bus
+	 * 
+	 * @param group
+	 *            The {@link MessageExchangeGroup} to remove
+	 */
+	public void removeGroup(MessageExchangeGroup group) {
+		groups.remove(group);
+	}
+
+	/**
+	 * Adds a {@link MessageExchange} to a {@link MessageExchangeGroup}
+	 * 
+	 * @param group
+	 *            The {@link MessageExchangeGroup} to join
+	 * @param messageExchange
+	 *            The {@link MessageExchange} to add
+	 * @return False if the {@link MessageExchange} was already a member
+	 */
+	public boolean join(MessageExchangeGroup group, MessageExchange messageExchange) {
+		return group.join(messageExchange);
+	}
+
+	/**
+	 * Removes a {@link MessageExchange} from a {@link MessageExchangeGroup}
+	 * 
+	 * @param group
+	 *            The {@link MessageExchangeGroup} to leave
+	 * @param messageExchange
+	 *            The {@link MessageExchange} to remove
+	 * @return False if the {@link MessageExchange} was not a member
+	 */
+	public boolean leave(MessageExchangeGroup group, MessageExchange messageExchange) {
+		return group.leave(messageExchange);
+	}
+
+	/**
+	 * Sends a message to all members of a {@link MessageExchangeGroup} from an
+	 * anonymous source
+	 * 
+	 * @param group
+	 *            The {@link MessageExchangeGroup} to send to
+	 * @param messageType
+	 *            The message type
+	 */
+	public void multicast(MessageExchangeGroup group, String messageType) {
+		multicast(anonymousExchange, group, messageType, null, MessagePriority.NORMAL);
+	}
+
+	/**
+	 * Sends a message with {@link MessageData} to all members of a
+	 * {@link MessageExchangeGroup} from an anonymous source
+	 * 
+	 * @param group
+	 *            The {@link MessageExchangeGroup} to send to
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} that is sent
+	 */
+	public void multicast(MessageExchangeGroup group, String messageType, MessageData messageData) {
+		multicast(anonymousExchange, group, messageType, messageData, MessagePriority.NORMAL);
+	}
+
+	/**
+	 * Sends a message with {@link MessageData} and {@link MessagePriority} to
+	 * all members of a {@link MessageExchangeGroup} (other than the source). A
+	 * single {@link MessageTransmission} is shared by all members.
+	 * 
+	 * @param source
+	 *            The {@link MessageExchange} the {@link MessageData} is sent
+	 *            from
+	 * @param group
+	 *            The {@link MessageExchangeGroup} to send to
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} that is sent
+	 * @param priority
+	 *            The {@link MessagePriority} of the message
+	 */
+	public void multicast(MessageExchange source, MessageExchangeGroup group, String messageType,
+			MessageData messageData, MessagePriority priority) {
+		if (source == null) {
+			throw new RuntimeException("source cannot be null, use multicast(MessageExchangeGroup, String, MessageData) instead");
+		}
+		final MessageExchange[] members = group.getMembers();
+		MessageTransmission messageTransmission = transmissionPool.allocate();
+		messageTransmission.setMessageType(messageType);
+		messageTransmission.setMessageData(messageData);
+		messageTransmission.setSource(source);
+		messageTransmission.setBroadcastMessage(false);
+		messageTransmission.setPriority(priority);
+		onSend(messageTransmission);
+		multicast(members, members.length, messageTransmission, source);
+	}
+
 	/**
 	 * Sends a message to a {@link MessageExchange} from an anonymous source
 	 * 
@@ -281,15 +990,139 @@ public class MessageBus {
 	 *            The {@link MessageData} that is sent
 	 */
 	public void sendTo(MessageExchange destination, String messageType, MessageData messageData) {
+		sendTo(destination, messageType, messageData, MessagePriority.NORMAL);
+	}
+
+	/**
+	 * Sends a message with {@link MessageData} and {@link MessagePriority} to a
+	 * {@link MessageExchange} from an anonymous source
+	 * 
+	 * @param destination
+	 *            The {@link MessageExchange} the {@link MessageData} is sent to
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} that is sent
+	 * @param priority
+	 *            The {@link MessagePriority} of the message
+	 */
+	public void sendTo(MessageExchange destination, String messageType, MessageData messageData, MessagePriority priority) {
 		MessageTransmission messageTransmission = transmissionPool.allocate();
 		messageTransmission.allocate();
 		messageTransmission.setMessageType(messageType);
 		messageTransmission.setMessageData(messageData);
 		messageTransmission.setSource(anonymousExchange);
 		messageTransmission.setBroadcastMessage(false);
+		messageTransmission.setPriority(priority);
+		onSend(messageTransmission);
 		destination.queue(messageTransmission);
 	}
 
+	/**
+	 * Broadcasts a message to all {@link MessageExchange}s from an anonymous
+	 * source after a delay. The delay is measured using the delta passed to
+	 * {@link #update(float)}.
+	 * 
+	 * @param delay
+	 *            The delay (in seconds) before the message is broadcast
+	 * @param messageType
+	 *            The message type
+	 */
+	public void broadcastDelayed(float delay, String messageType) {
+		broadcastDelayed(delay, anonymousExchange, messageType, null);
+	}
+
+	/**
+	 * Broadcasts a message with {@link MessageData} to all
+	 * {@link MessageExchange}s from an anonymous source after a delay. The
+	 * delay is measured using the delta passed to {@link #update(float)}.
+	 * 
+	 * @param delay
+	 *            The delay (in seconds) before the message is broadcast
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} to broadcast
+	 */
+	public void broadcastDelayed(float delay, String messageType, MessageData messageData) {
+		broadcastDelayed(delay, anonymousExchange, messageType, messageData);
+	}
+
+	/**
+	 * Broadcasts a message with {@link MessageData} to all
+	 * {@link MessageExchange}s from a specified {@link MessageExchange} after a
+	 * delay. The delay is measured using the delta passed to
+	 * {@link #update(float)}.
+	 * 
+	 * @param delay
+	 *            The delay (in seconds) before the message is broadcast
+	 * @param source
+	 *            The {@link MessageExchange} to broadcast the
+	 *            {@link MessageData} from
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} to broadcast
+	 */
+	public void broadcastDelayed(float delay, MessageExchange source, String messageType, MessageData messageData) {
+		MessageTransmission messageTransmission = transmissionPool.allocate();
+		messageTransmission.setMessageType(messageType);
+		messageTransmission.setMessageData(messageData);
+		messageTransmission.setSource(source);
+		messageTransmission.setBroadcastMessage(true);
+		onSend(messageTransmission);
+		delayedMessageScheduler.schedule(delay, messageTransmission, null);
+	}
+
+	/**
+	 * Sends a message with {@link MessageData} from one {@link MessageExchange}
+	 * to another after a delay. The delay is measured using the delta passed to
+	 * {@link #update(float)}.
+	 * 
+	 * @param delay
+	 *            The delay (in seconds) before the message is sent
+	 * @param source
+	 *            The {@link MessageExchange} the {@link MessageData} is sent
+	 *            from
+	 * @param destination
+	 *            The {@link MessageExchange} the {@link MessageData} is sent to
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} that is sent
+	 */
+	public void sendDelayed(float delay, MessageExchange source, MessageExchange destination, String messageType,
+			MessageData messageData) {
+		if (source == null) {
+			throw new RuntimeException("source cannot be null, use sendToDelayed() instead");
+		}
+		MessageTransmission messageTransmission = transmissionPool.allocate();
+		messageTransmission.setMessageType(messageType);
+		messageTransmission.setMessageData(messageData);
+		messageTransmission.setSource(source);
+		messageTransmission.setBroadcastMessage(false);
+		onSend(messageTransmission);
+		delayedMessageScheduler.schedule(delay, messageTransmission, destination);
+	}
+
+	/**
+	 * Sends a message with {@link MessageData} to a {@link MessageExchange}
+	 * from an anonymous source after a delay. The delay is measured using the
+	 * delta passed to {@link #update(float)}.
+	 * 
+	 * @param delay
+	 *            The delay (in seconds) before the message is sent
+	 * @param destination
+	 *            The {@link MessageExchange} the {@link MessageData} is sent to
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} that is sent
+	 */
+	public void sendToDelayed(float delay, MessageExchange destination, String messageType, MessageData messageData) {
+		sendDelayed(delay, anonymousExchange, destination, messageType, messageData);
+	}
+
 	/**
 	 * Broadcasts a message and calls a {@link MessageHandler} when a response
 	 * message is received.
@@ -368,10 +1201,144 @@ public class MessageBus {
 			boolean requiresDirectResponse, MessageHandler queryHandler) {
 		QueryMessageExchange queryMessageExchange = queryMessageExchangePool.allocate(queryHandler, responseMessageType,
 				requiresDirectResponse);
-		exchangers.add(queryMessageExchange);
+		addExchange(queryMessageExchange);
 		broadcast(queryMessageExchange, messageType, messageData);
 	}
 
+	/**
+	 * Broadcasts a message and calls a {@link MessageHandler} when a response
+	 * message is received. No {@link MessageExchange} is registered with the
+	 * bus while the query is pending. If no response is received before the
+	 * timeout elapses, the query is discarded and the
+	 * {@link CancelledMessageHandler}s are notified with the response message
+	 * type and the query {@link MessageExchange} as the receiver.
+	 * 
+	 * @param messageType
+	 *            The message type to send
+	 * @param messageData
+	 *            The {@link MessageData} to send
+	 * @param responseMessageType
+	 *            The required message type of the response
+	 * @param requiresDirectResponse
+	 *            True if a direct response is required. A direct response is a
+	 *            message sent explicitly from a {@link MessageExchange} to the
+	 *            {@link MessageExchange} used to send the query.
+	 * @param timeout
+	 *            The timeout (in seconds), driven by {@link #update(float)}. 0
+	 *            if the query never times out.
+	 * @param queryHandler
+	 *            The {@link MessageHandler} to call when the response is
+	 *            received
+	 * @return The correlation ID of the query (see {@link #cancelQuery(int)})
+	 */
+	public int broadcastQuery(String messageType, MessageData messageData, String responseMessageType,
+			boolean requiresDirectResponse, float timeout, MessageHandler queryHandler) {
+		return queryRouter.query(null, messageType, messageData, responseMessageType, requiresDirectResponse, timeout,
+				queryHandler);
+	}
+
+	/**
+	 * Broadcasts a message and gathers responses into a single
+	 * {@link QueryResponses} (scatter-gather). The {@link QueryResponsesHandler}
+	 * is called exactly once, either when the maximum amount of responses has
+	 * been received or when the timeout elapses (see
+	 * {@link QueryResponses#isTimedOut()}). No {@link MessageExchange} is
+	 * registered with the bus while the query is pending.
+	 * 
+	 * @param messageType
+	 *            The message type to send
+	 * @param messageData
+	 *            The {@link MessageData} to send
+	 * @param responseMessageType
+	 *            The required message type of the responses
+	 * @param requiresDirectResponse
+	 *            True if direct responses are required
+	 * @param maxResponses
+	 *            The amount of responses to gather or 0 to gather all
+	 *            responses until the timeout elapses
+	 * @param timeout
+	 *            The timeout (in seconds), driven by {@link #update(float)}. 0
+	 *            if the query only completes once maxResponses is reached.
+	 * @param queryHandler
+	 *            The {@link QueryResponsesHandler} to call with the responses
+	 * @return The correlation ID of the query (see {@link #cancelQuery(int)})
+	 */
+	public int broadcastQuery(String messageType, MessageData messageData, String responseMessageType,
+			boolean requiresDirectResponse, int maxResponses, float timeout, QueryResponsesHandler queryHandler) {
+		if (maxResponses <= 0 && timeout <= 0f) {
+			throw new RuntimeException("A scatter-gather query requires maxResponses or timeout to be greater than 0");
+		}
+		return queryRouter.query(null, messageType, messageData, responseMessageType, requiresDirectResponse,
+				maxResponses, timeout, queryHandler);
+	}
+
+	/**
+	 * Cancels a pending query without notifying its handler
+	 * 
+	 * @param correlationId
+	 *            The correlation ID of the query
+	 * @return True if the query was pending
+	 */
+	public boolean cancelQuery(int correlationId) {
+		return queryRouter.cancel(correlationId);
+	}
+
+	/**
+	 * Broadcasts a query to all {@link MessageExchange}s from an anonymous
+	 * query source. Unlike
+	 * {@link #broadcastQuery(String, MessageData, String, boolean, MessageHandler)},
+	 * no {@link MessageExchange} is registered with the bus while the query is
+	 * pending, so pending queries are not offered other broadcasts.
+	 * {@link MessageHandler}s respond by sending the response message type to
+	 * the source {@link MessageExchange} of the query (or broadcasting it if a
+	 * direct response is not required).
+	 * 
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} to query with
+	 * @param responseMessageType
+	 *            The required message type of the response
+	 * @param requiresDirectResponse
+	 *            True if a direct response is required
+	 * @param timeout
+	 *            The timeout (in seconds) after which the {@link QueryFuture}
+	 *            completes with a {@link java.util.concurrent.TimeoutException}.
+	 *            Timeouts are driven by {@link #update(float)}. 0 if the query
+	 *            never times out.
+	 * @return A {@link QueryFuture} that completes with the response {@link MessageData}
+	 */
+	public QueryFuture query(String messageType, MessageData messageData, String responseMessageType,
+			boolean requiresDirectResponse, float timeout) {
+		return queryRouter.query(null, messageType, messageData, responseMessageType, requiresDirectResponse, timeout);
+	}
+
+	/**
+	 * Sends a query to a {@link MessageExchange} from an anonymous query source.
+	 * See {@link #query(String, MessageData, String, boolean, float)}.
+	 * 
+	 * @param destination
+	 *            The {@link MessageExchange} to send the query to
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} to query with
+	 * @param responseMessageType
+	 *            The required message type of the response
+	 * @param requiresDirectResponse
+	 *            True if a direct response is required
+	 * @param timeout
+	 *            The timeout (in seconds) or 0 if the query never times out
+	 * @return A {@link QueryFuture} that completes with the response {@link MessageData}
+	 */
+	public QueryFuture query(MessageExchange destination, String messageType, MessageData messageData,
+			String responseMessageType, boolean requiresDirectResponse, float timeout) {
+		if (destination == null) {
+			throw new RuntimeException("destination cannot be null, use query(String, MessageData, String, boolean, float) instead");
+		}
+		return queryRouter.query(destination, messageType, messageData, responseMessageType, requiresDirectResponse, timeout);
+	}
+
 	/**
 	 * Cancels all messages in the bus.
 	 */
@@ -384,6 +1351,7 @@ public class MessageBus {
 	 * @param notify True if {@link CancelledMessageHandler}s should be notified
 	 */
 	public void cancelAllMessages(boolean notify) {
+		delayedMessageScheduler.cancelAllMessages(notify);
 		for(int i = exchangers.size() - 1; i >= 0; i--) {
 			if(i >= exchangers.size()) {
 				continue;
@@ -406,6 +1374,7 @@ public class MessageBus {
 	 * @param notify True if {@link CancelledMessageHandler}s should be notified
 	 */
 	public void cancelAllMessages(String messageType, boolean notify) {
+		delayedMessageScheduler.cancelAllMessages(messageType, notify);
 		for(int i = exchangers.size() - 1; i >= 0; i--) {
 			if(i >= exchangers.size()) {
 				continue;
@@ -419,6 +1388,7 @@ public class MessageBus {
 	 * @param entityId The entity ID
 	 */
 	public void entityDeleted(int entityId) {
+		delayedMessageScheduler.entityDeleted(entityId);
 		for(int i = exchangers.size() - 1; i >= 0; i--) {
 			if(i >= exchangers.size()) {
 				continue;
@@ -427,6 +1397,39 @@ public class MessageBus {
 		}
 	}
 
+	private void onSend(MessageTransmission messageTransmission) {
+		assert concurrencyPolicy.checkThread();
+		final MessageBusMetrics metrics = this.metrics;
+		if (metrics != null) {
+			metrics.onMessage(messageTransmission.getMessageType());
+		}
+		final MessageInterceptor[] interceptors = this.interceptors;
+		if (interceptors == null) {
+			return;
+		}
+		for (int i = 0; i < interceptors.length; i++) {
+			interceptors[i].onSend(messageTransmission);
+		}
+	}
+
+	void addExchange(MessageExchange messageExchange) {
+		assert concurrencyPolicy.checkThread();
+		final MessageBusMetrics metrics = this.metrics;
+		if (metrics != null) {
+			messageExchange.setMetrics(createMetrics(messageExchange));
+		}
+		exchangers.addSorted(messageExchange, UPDATE_PHASE_COMPARATOR);
+	}
+
+	private ExchangeMetrics createMetrics(MessageExchange messageExchange) {
+		return new ExchangeMetrics(messageExchange.getId(), messageExchange.getClass().getSimpleName(),
+				messageExchange.messageHandlers.length);
+	}
+
+	void updatePhaseChanged(MessageExchange messageExchange) {
+		exchangers.resort(messageExchange, UPDATE_PHASE_COMPARATOR);
+	}
+
 	void notifyMessageCancelled(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
 		for(int i = cancelledMessageHandlers.size() - 1; i >= 0; i--) {
 			if(i >= cancelledMessageHandlers.size()) {
@@ -439,6 +1442,12 @@ public class MessageBus {
 
  	void dispose(MessageExchange messageExchange) {
 		exchangers.remove(messageExchange);
+		for (int i = groups.size() - 1; i >= 0; i--) {
+			if (i >= groups.size()) {
+				continue;
+			}
+			groups.get(i).leave(messageExchange);
+		}
 	}
 
 	/**
@@ -459,6 +1468,29 @@ public class MessageBus {
 		return anonymousExchange.getId();
 	}
 
+	/**
+	 * Returns the active {@link MessageExchange} with the specified id
+	 *
+	 * @param id
+	 *            The {@link MessageExchange} id
+	 * @return Null if no active {@link MessageExchange} has the id
+	 */
+	public MessageExchange getExchange(int id) {
+		if (anonymousExchange.getId() == id) {
+			return anonymousExchange;
+		}
+		for (int i = exchangers.size() - 1; i >= 0; i--) {
+			if (i >= exchangers.size()) {
+				continue;
+			}
+			final MessageExchange exchange = exchangers.get(i);
+			if (exchange.getId() == id) {
+				return exchange;
+			}
+		}
+		return null;
+	}
+
 	/**
 	 * Returns the total amount of active {@link MessageExchange}s (including
 	 * {@link QueryMessageExchange}s
@@ -469,10 +1501,60 @@ public class MessageBus {
 		return exchangers.size();
 	}
 
+	/**
+	 * Returns the amount of queries sent via
+	 * {@link #query(String, MessageData, String, boolean, float)} or a
+	 * broadcastQuery method with a timeout that are awaiting a response
+	 * 
+	 * @return 0 if no queries are pending
+	 */
+	public int getPendingQueryCount() {
+		return queryRouter.size();
+	}
+
+	/**
+	 * Returns the amount of delayed messages waiting to be delivered
+	 * 
+	 * @return 0 if no delayed messages are pending
+	 */
+	public int getDelayedMessageCount() {
+		return delayedMessageScheduler.size();
+	}
+
 	public int getMessageTransmissionPoolSize() {
 		return transmissionPool.size();
 	}
 
+	/**
+	 * Returns the amount of times a {@link MessageTransmission} had to be
+	 * created because the pool was empty
+	 * 
+	 * @return 0 if every {@link MessageTransmission} was reused from the pool
+	 */
+	public long getMessageTransmissionPoolMisses() {
+		return transmissionPool.getTotalMisses();
+	}
+
+	/**
+	 * Returns the {@link OffHeapArena} owned by this {@link MessageBus} for
+	 * allocating {@link OffHeapMessageData}
+	 * 
+	 * @return The {@link OffHeapArena}
+	 */
+	public OffHeapArena getOffHeapArena() {
+		return offHeapArena;
+	}
+
+	/**
+	 * Returns the {@link ConcurrencyPolicy} used to synchronize this
+	 * {@link MessageBus} and the structures it owns
+	 * 
+	 * @return The {@link ConcurrencyPolicy}
+	 */
+	public ConcurrencyPolicy getConcurrencyPolicy() {
+		return concurrencyPolicy;
+	}
+
 	public int getCurrentMessageTransmissionsAllocated() {
 		return transmissionPool.getTotalAllocated();
 	}
@@ -491,7 +1573,7 @@ public class MessageBus {
 	private class AnonymousMessageExchange extends MessageExchange {
 
 		public AnonymousMessageExchange(MessageBus messageBus) {
-			super(messageBus, new MessageHandler() {
+			super(messageBus, MessageQueueType.UNSYNCHRONIZED, new MessageHandler() {
 				@Override
 				public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver,
 						MessageData messageData) {
@@ -23,10 +23,13 @@
  */
 package org.mini2Dx.minibus;
 
+import org.mini2Dx.minibus.metrics.ExchangeMetrics;
+import org.mini2Dx.minibus.queue.MessageQueueFactory;
 import org.mini2Dx.minibus.transmission.MessageTransmission;
 import org.mini2Dx.minibus.transmission.MessageTransmissionPool;
-import org.mini2Dx.minibus.util.SnapshotArrayList;
+import org.mini2Dx.minibus.transmission.MessageTransmissionQueue;
 import org.mini2Dx.minibus.util.SynchronizedQueue;
+import org.mini2Dx.minibus.util.SnapshotArrayList;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -38,15 +41,29 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public abstract class MessageExchange {
 	private static final AtomicInteger ID_GENERATOR = new AtomicInteger(0);
+	private static final MessageHandler[] NO_MESSAGE_HANDLERS = new MessageHandler[0];
 
 	protected final MessageHandler[] messageHandlers;
 	
 	protected final MessageBus messageBus;
 	protected final MessageTransmissionPool messageTransmissionPool;
-	protected final SynchronizedQueue<MessageTransmission> messageQueue = new SynchronizedQueue<>();
+	protected final MessageTransmissionQueue messageQueue;
 
 	private final int id;
 
+	private volatile boolean threadIndependent = false;
+	private volatile int updatePhase = 0;
+	private volatile ExchangeMetrics metrics;
+	private int flushMessageLimit = 0;
+	private long flushTimeLimit = 0L;
+	private long flushFrame = -1L;
+	private int frameMessages = 0;
+	private long frameFlushNanos = 0L;
+
+	private int carryOverSize = 0;
+	private int maxCarryOverSize = 0;
+	private int consecutiveCarryOvers = 0;
+
 	/**
 	 * Constructor
 	 * 
@@ -58,11 +75,49 @@ public abstract class MessageExchange {
 	 *            are received
 	 */
 	public MessageExchange(MessageBus messageBus, MessageHandler... messageHandlers) {
+		this(messageBus, messageBus.getConcurrencyPolicy().getExchangeQueueFactory(), messageHandlers);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param messageBus
+	 *            The {@link MessageBus} that this {@link MessageExchange}
+	 *            belongs to
+	 * @param queueFactory
+	 *            The {@link MessageQueueFactory} to create the message queue with
+	 * @param messageHandlers
+	 *            The {@link MessageHandler} instances to notify when {@link MessageData}s
+	 *            are received
+	 */
+	public MessageExchange(MessageBus messageBus, MessageQueueFactory queueFactory, MessageHandler... messageHandlers) {
 		id = ID_GENERATOR.incrementAndGet();
 
 		this.messageBus = messageBus;
 		this.messageTransmissionPool = messageBus.transmissionPool;
 		this.messageHandlers = messageHandlers;
+		this.messageQueue = new MessageTransmissionQueue(queueFactory, SynchronizedQueue.DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Constructs an exchange that is never registered with the {@link MessageBus}
+	 * and overrides {@link #queue(MessageTransmission)}, so it neither allocates
+	 * a queue of its own nor consumes an id
+	 *
+	 * @param messageBus
+	 *            The {@link MessageBus} that this {@link MessageExchange}
+	 *            belongs to
+	 * @param sharedQueue
+	 *            An empty queue that may be shared between such exchanges
+	 * @param id
+	 *            The fixed id of the exchange
+	 */
+	MessageExchange(MessageBus messageBus, MessageTransmissionQueue sharedQueue, int id) {
+		this.id = id;
+		this.messageBus = messageBus;
+		this.messageTransmissionPool = messageBus.transmissionPool;
+		this.messageHandlers = NO_MESSAGE_HANDLERS;
+		this.messageQueue = sharedQueue;
 	}
 
 	void entityDeleted(int entityId) {
@@ -71,6 +126,9 @@ public abstract class MessageExchange {
 				continue;
 			}
 			final MessageTransmission messageTransmission = messageQueue.get(i);
+			if(messageTransmission == null) {
+				continue;
+			}
 			if(messageTransmission.getMessage() instanceof EntityMessageData) {
 				final EntityMessageData entityMessageData = (EntityMessageData) messageTransmission.getMessage();
 				if(entityMessageData.getEntityId() != entityId) {
@@ -84,8 +142,8 @@ public abstract class MessageExchange {
 	}
 
 	public void cancelAllMessages(boolean notify) {
-		while(!messageQueue.isEmpty()) {
-			final MessageTransmission messageTransmission = messageQueue.poll();
+		MessageTransmission messageTransmission;
+		while((messageTransmission = messageQueue.poll()) != null) {
 			if(notify) {
 				messageBus.notifyMessageCancelled(messageTransmission.getMessageType(), messageTransmission.getSource(), this, messageTransmission.getMessage());
 			}
@@ -99,7 +157,7 @@ public abstract class MessageExchange {
 				continue;
 			}
 			final MessageTransmission messageTransmission = messageQueue.get(i);
-			if(!messageTransmission.getMessageType().equals(messageType)) {
+			if(messageTransmission == null || !messageTransmission.getMessageType().equals(messageType)) {
 				continue;
 			}
 			messageQueue.remove(i);
@@ -144,16 +202,92 @@ public abstract class MessageExchange {
 			messageTransmission.release();
 			return;
 		}
+		final MessageInterceptor[] interceptors = messageBus.interceptors;
+		if (interceptors != null) {
+			for(int i = 0; i < interceptors.length; i++) {
+				interceptors[i].onQueue(this, messageTransmission);
+			}
+		}
+		final ExchangeMetrics metrics = this.metrics;
+		if (metrics != null) {
+			metrics.onEnqueue(messageTransmission);
+		}
 		if (isImmediate()) {
+			if (metrics != null) {
+				metrics.onQueueSize(1);
+			}
+			dispatch(messageTransmission);
+		} else {
+			messageQueue.offer(messageTransmission);
+			if (metrics != null) {
+				metrics.onQueueSize(messageQueue.size());
+			}
+		}
+		postQueue(messageTransmission);
+	}
+
+	/**
+	 * Notifies the {@link MessageHandler}s of a {@link MessageTransmission}.
+	 * Does not release the {@link MessageTransmission}.
+	 * 
+	 * @param messageTransmission The {@link MessageTransmission} to dispatch
+	 */
+	protected void dispatch(MessageTransmission messageTransmission) {
+		final MessageInterceptor[] interceptors = messageBus.interceptors;
+		if (interceptors == null) {
+			notifyHandlers(messageTransmission);
+			return;
+		}
+		//End hooks run even if a handler throws so that interceptors always see start/end pairs
+		int started = 0;
+		try {
+			for(; started < interceptors.length; started++) {
+				interceptors[started].onDispatchStart(this, messageTransmission);
+			}
+			notifyHandlers(messageTransmission);
+		} finally {
+			for(int i = 0; i < started; i++) {
+				interceptors[i].onDispatchEnd(this, messageTransmission);
+			}
+		}
+	}
+
+	/**
+	 * Notifies {@link MessageInterceptor}s that this {@link MessageExchange}
+	 * was idle while waiting for messages on its own thread
+	 * 
+	 * @param idleNanos The amount of time spent idle (in nanoseconds)
+	 */
+	protected void notifyIdle(long idleNanos) {
+		final MessageInterceptor[] interceptors = messageBus.interceptors;
+		if (interceptors == null) {
+			return;
+		}
+		for(int i = 0; i < interceptors.length; i++) {
+			interceptors[i].onIdle(this, idleNanos);
+		}
+	}
+
+	private void notifyHandlers(MessageTransmission messageTransmission) {
+		final ExchangeMetrics metrics = this.metrics;
+		if (metrics == null) {
 			for(int i = messageHandlers.length - 1; i >= 0; i--) {
 				final MessageHandler messageHandler = messageHandlers[i];
 				messageHandler.onMessageReceived(messageTransmission.getMessageType(), messageTransmission.getSource(),
 						this, messageTransmission.getMessage());
 			}
-		} else {
-			messageQueue.offer(messageTransmission);
+			return;
+		}
+		long startTime = System.nanoTime();
+		metrics.onDequeue(messageTransmission, startTime);
+		for(int i = messageHandlers.length - 1; i >= 0; i--) {
+			final MessageHandler messageHandler = messageHandlers[i];
+			messageHandler.onMessageReceived(messageTransmission.getMessageType(), messageTransmission.getSource(),
+					this, messageTransmission.getMessage());
+			final long endTime = System.nanoTime();
+			metrics.onHandled(i, endTime - startTime);
+			startTime = endTime;
 		}
-		postQueue(messageTransmission);
 	}
 
 	/**
@@ -180,6 +314,36 @@ public abstract class MessageExchange {
 		messageBus.broadcast(this, messageType, messageData);
 	}
 
+	/**
+	 * Broadcasts a message with {@link MessageData} and {@link MessagePriority}
+	 * from this {@link MessageExchange} to all other {@link MessageExchange}s
+	 * 
+	 * @param messageType
+	 *            The message type to broadcast
+	 * @param messageData
+	 *            The {@link MessageData} to broadcast
+	 * @param priority
+	 *            The {@link MessagePriority} of the message
+	 */
+	public void broadcast(String messageType, MessageData messageData, MessagePriority priority) {
+		messageBus.broadcast(this, messageType, messageData, priority);
+	}
+
+	/**
+	 * Broadcasts a message with {@link MessageData} from this
+	 * {@link MessageExchange} to all other {@link MessageExchange}s after a delay
+	 * 
+	 * @param delay
+	 *            The delay (in seconds) before the message is broadcast
+	 * @param messageType
+	 *            The message type to broadcast
+	 * @param messageData
+	 *            The {@link MessageData} to broadcast
+	 */
+	public void broadcastDelayed(float delay, String messageType, MessageData messageData) {
+		messageBus.broadcastDelayed(delay, this, messageType, messageData);
+	}
+
 	/**
 	 * Sends a message with from this {@link MessageExchange} to another
 	 * 
@@ -208,22 +372,128 @@ public abstract class MessageExchange {
 	}
 
 	/**
-	 * Flushes all {@link MessageData}s in the queue to
-	 * {@link MessageHandler#onMessageReceived(String, MessageExchange, MessageExchange, MessageData)}
+	 * Sends a message with {@link MessageData} from this
+	 * {@link MessageExchange} to multiple {@link MessageExchange}s using a
+	 * single shared {@link MessageTransmission}
+	 * 
+	 * @param destinations
+	 *            The {@link MessageExchange}s to send the {@link MessageData} to
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} to send
+	 */
+	public void sendTo(MessageExchange[] destinations, String messageType, MessageData messageData) {
+		messageBus.send(this, destinations, messageType, messageData);
+	}
+
+	/**
+	 * Sends a message with {@link MessageData} from this
+	 * {@link MessageExchange} to all other members of a {@link MessageExchangeGroup}
+	 * 
+	 * @param group
+	 *            The {@link MessageExchangeGroup} to send to
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} to send
+	 */
+	public void multicast(MessageExchangeGroup group, String messageType, MessageData messageData) {
+		messageBus.multicast(this, group, messageType, messageData, MessagePriority.NORMAL);
+	}
+
+	/**
+	 * Sends a message with {@link MessageData} and {@link MessagePriority} from
+	 * this {@link MessageExchange} to another
+	 * 
+	 * @param destination
+	 *            The {@link MessageExchange} to send the {@link MessageData} to
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} to send
+	 * @param priority
+	 *            The {@link MessagePriority} of the message
+	 */
+	public void sendTo(MessageExchange destination, String messageType, MessageData messageData, MessagePriority priority) {
+		messageBus.send(this, destination, messageType, messageData, priority);
+	}
+
+	/**
+	 * Sends a message with {@link MessageData} from this
+	 * {@link MessageExchange} to another after a delay
+	 * 
+	 * @param delay
+	 *            The delay (in seconds) before the message is sent
+	 * @param destination
+	 *            The {@link MessageExchange} to send the {@link MessageData} to
+	 * @param messageType
+	 *            The message type
+	 * @param messageData
+	 *            The {@link MessageData} to send
+	 */
+	public void sendToDelayed(float delay, MessageExchange destination, String messageType, MessageData messageData) {
+		messageBus.sendDelayed(delay, this, destination, messageType, messageData);
+	}
+
+	/**
+	 * Flushes all {@link MessageData}s in the queue (highest {@link MessagePriority} first) to
+	 * {@link MessageHandler#onMessageReceived(String, MessageExchange, MessageExchange, MessageData)}.
+	 * If a flush message limit or flush time limit is set, flushing stops once either
+	 * limit is reached and the remaining messages are carried over to the next flush.
+	 * Additional update passes (see {@link MessageBus#setMaxUpdatePasses(int)}) are
+	 * charged against the limits of the frame's first pass rather than receiving new ones.
 	 */
 	protected void flush() {
+		final int messageLimit = flushMessageLimit;
+		final long timeLimit = flushTimeLimit;
+		final long startTime = timeLimit > 0L ? System.nanoTime() : 0L;
+
+		final long updateFrame = messageBus.updateFrame;
+		if(messageBus.updatePass == 0 || flushFrame != updateFrame) {
+			flushFrame = updateFrame;
+			frameMessages = 0;
+			frameFlushNanos = 0L;
+		}
+		final int usedMessages = frameMessages;
+		final long usedNanos = frameFlushNanos;
+
+		int totalMessages = 0;
+		boolean limitReached = false;
+
 		while (!messageQueue.isEmpty()) {
+			if(messageLimit > 0 && usedMessages + totalMessages >= messageLimit) {
+				limitReached = true;
+				break;
+			}
+			if(timeLimit > 0L && usedMessages + totalMessages > 0 && usedNanos + System.nanoTime() - startTime >= timeLimit) {
+				limitReached = true;
+				break;
+			}
 			MessageTransmission messageTransmission = messageQueue.poll();
 			if(messageTransmission == null) {
-				continue;
-			}
-			for(int i = messageHandlers.length - 1; i >= 0; i--) {
-				final MessageHandler messageHandler = messageHandlers[i];
-				messageHandler.onMessageReceived(messageTransmission.getMessageType(), messageTransmission.getSource(),
-						this, messageTransmission.getMessage());
+				break;
 			}
+			dispatch(messageTransmission);
 			messageTransmission.release();
+			totalMessages++;
 		}
+
+		frameMessages = usedMessages + totalMessages;
+		if(timeLimit > 0L) {
+			frameFlushNanos = usedNanos + System.nanoTime() - startTime;
+		}
+		if(totalMessages > 0) {
+			messageBus.messagesFlushed = true;
+		}
+		if(!limitReached) {
+			carryOverSize = 0;
+			consecutiveCarryOvers = 0;
+			return;
+		}
+		carryOverSize = messageQueue.size();
+		maxCarryOverSize = Math.max(maxCarryOverSize, carryOverSize);
+		consecutiveCarryOvers++;
 	}
 
 	/**
@@ -277,4 +547,130 @@ public abstract class MessageExchange {
 	public int getMessageQueueSize() {
 		return messageQueue.size();
 	}
+
+	/**
+	 * Returns the current amount of messages queued for a specific {@link MessagePriority}
+	 * @param priority The {@link MessagePriority}
+	 * @return 0 if no messages queued
+	 */
+	public int getMessageQueueSize(MessagePriority priority) {
+		return messageQueue.size(priority);
+	}
+
+	/**
+	 * Returns if this {@link MessageExchange} can be updated in parallel with
+	 * other {@link MessageExchange}s
+	 * @return False by default
+	 */
+	public boolean isThreadIndependent() {
+		return threadIndependent;
+	}
+
+	/**
+	 * Sets if this {@link MessageExchange} can be updated in parallel with
+	 * other {@link MessageExchange}s when {@link MessageBus#setParallelUpdatePool(java.util.concurrent.ForkJoinPool)}
+	 * has been set. Only set this to true if the {@link MessageHandler}s of this
+	 * {@link MessageExchange} do not share state with other {@link MessageExchange}s.
+	 * @param threadIndependent True if this {@link MessageExchange} can be updated in parallel
+	 */
+	public void setThreadIndependent(boolean threadIndependent) {
+		this.threadIndependent = threadIndependent;
+	}
+
+	/**
+	 * Returns the live metrics of this {@link MessageExchange}
+	 * @return Null if metrics are not enabled (see {@link MessageBus#setMetricsEnabled(boolean)})
+	 */
+	public ExchangeMetrics getMetrics() {
+		return metrics;
+	}
+
+	void setMetrics(ExchangeMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Returns the update phase of this {@link MessageExchange}
+	 * @return 0 by default
+	 */
+	public int getUpdatePhase() {
+		return updatePhase;
+	}
+
+	/**
+	 * Sets the update phase of this {@link MessageExchange}. During
+	 * {@link MessageBus#update(float)}, {@link MessageExchange}s are updated in
+	 * ascending order of update phase and all {@link MessageExchange}s in a phase
+	 * are updated before any {@link MessageExchange} in the next phase. Exchanges
+	 * with the same phase are updated in the order they were created.
+	 * @param updatePhase The update phase, e.g. lower values for producers and higher values for consumers
+	 */
+	public void setUpdatePhase(int updatePhase) {
+		if(this.updatePhase == updatePhase) {
+			return;
+		}
+		this.updatePhase = updatePhase;
+		messageBus.updatePhaseChanged(this);
+	}
+
+	/**
+	 * Returns the maximum amount of messages processed per flush
+	 * @return 0 if there is no limit
+	 */
+	public int getFlushMessageLimit() {
+		return flushMessageLimit;
+	}
+
+	/**
+	 * Sets the maximum amount of messages processed per flush. Messages not
+	 * processed are carried over to the next flush.
+	 * @param flushMessageLimit The maximum amount of messages, 0 for no limit
+	 */
+	public void setFlushMessageLimit(int flushMessageLimit) {
+		this.flushMessageLimit = Math.max(0, flushMessageLimit);
+	}
+
+	/**
+	 * Returns the maximum amount of time spent processing messages per flush
+	 * @return 0 if there is no limit, otherwise the time in nanoseconds
+	 */
+	public long getFlushTimeLimit() {
+		return flushTimeLimit;
+	}
+
+	/**
+	 * Sets the maximum amount of time spent processing messages per flush. At least
+	 * one message is processed per flush and messages not processed are carried over
+	 * to the next flush.
+	 * @param flushTimeLimit The time limit in nanoseconds, 0 for no limit
+	 */
+	public void setFlushTimeLimit(long flushTimeLimit) {
+		this.flushTimeLimit = Math.max(0L, flushTimeLimit);
+	}
+
+	/**
+	 * Returns the amount of messages that were carried over by the most recent flush
+	 * @return 0 if the most recent flush processed all queued messages
+	 */
+	public int getCarryOverSize() {
+		return carryOverSize;
+	}
+
+	/**
+	 * Returns the largest amount of messages carried over by a single flush
+	 * @return 0 if no messages have been carried over
+	 */
+	public int getMaxCarryOverSize() {
+		return maxCarryOverSize;
+	}
+
+	/**
+	 * Returns the amount of consecutive flushes that have carried over messages.
+	 * A continuously increasing value indicates this {@link MessageExchange}
+	 * cannot keep up with the amount of messages it receives.
+	 * @return 0 if the most recent flush processed all queued messages
+	 */
+	public int getConsecutiveCarryOvers() {
+		return consecutiveCarryOvers;
+	}
 }
@@ -0,0 +1,148 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import org.mini2Dx.minibus.concurrency.BusLock;
+
+/**
+ * A named set of {@link MessageExchange}s that can be sent messages in a single
+ * call via {@link MessageBus#multicast(MessageExchangeGroup, String, MessageData)}.
+ * Membership is copy-on-write so that multicasting never locks.
+ */
+public class MessageExchangeGroup {
+	private static final MessageExchange[] EMPTY_MEMBERS = new MessageExchange[0];
+
+	private final MessageBus messageBus;
+	private final String name;
+	private final BusLock lock;
+
+	private volatile MessageExchange[] members = EMPTY_MEMBERS;
+
+	MessageExchangeGroup(MessageBus messageBus, String name) {
+		super();
+		this.messageBus = messageBus;
+		this.lock = messageBus.getConcurrencyPolicy().newReadWriteLock();
+		this.name = name;
+	}
+
+	/**
+	 * Adds a {@link MessageExchange} to this group
+	 * @param messageExchange The {@link MessageExchange} to add
+	 * @return False if the {@link MessageExchange} was already a member
+	 */
+	public boolean join(MessageExchange messageExchange) {
+		lock.lockWrite();
+		final MessageExchange[] members = this.members;
+		if(indexOf(members, messageExchange) >= 0) {
+			lock.unlockWrite();
+			return false;
+		}
+		final MessageExchange[] newMembers = new MessageExchange[members.length + 1];
+		System.arraycopy(members, 0, newMembers, 0, members.length);
+		newMembers[members.length] = messageExchange;
+		this.members = newMembers;
+		lock.unlockWrite();
+		return true;
+	}
+
+	/**
+	 * Removes a {@link MessageExchange} from this group
+	 * @param messageExchange The {@link MessageExchange} to remove
+	 * @return False if the {@link MessageExchange} was not a member
+	 */
+	public boolean leave(MessageExchange messageExchange) {
+		lock.lockWrite();
+		final MessageExchange[] members = this.members;
+		final int index = indexOf(members, messageExchange);
+		if(index < 0) {
+			lock.unlockWrite();
+			return false;
+		}
+		if(members.length == 1) {
+			this.members = EMPTY_MEMBERS;
+		} else {
+			final MessageExchange[] newMembers = new MessageExchange[members.length - 1];
+			System.arraycopy(members, 0, newMembers, 0, index);
+			System.arraycopy(members, index + 1, newMembers, index, members.length - index - 1);
+			this.members = newMembers;
+		}
+		lock.unlockWrite();
+		return true;
+	}
+
+	/**
+	 * Returns if a {@link MessageExchange} is a member of this group
+	 * @param messageExchange The {@link MessageExchange}
+	 * @return True if the {@link MessageExchange} is a member
+	 */
+	public boolean contains(MessageExchange messageExchange) {
+		return indexOf(members, messageExchange) >= 0;
+	}
+
+	/**
+	 * Returns the amount of {@link MessageExchange}s in this group
+	 * @return 0 if the group is empty
+	 */
+	public int size() {
+		return members.length;
+	}
+
+	/**
+	 * Returns the name of this group
+	 * @return The name passed to {@link MessageBus#createGroup(String)}
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Sends a message to all members of this group from an anonymous source
+	 * @param messageType The message type
+	 */
+	public void multicast(String messageType) {
+		messageBus.multicast(this, messageType);
+	}
+
+	/**
+	 * Sends a message with {@link MessageData} to all members of this group from an anonymous source
+	 * @param messageType The message type
+	 * @param messageData The {@link MessageData} to send
+	 */
+	public void multicast(String messageType, MessageData messageData) {
+		messageBus.multicast(this, messageType, messageData);
+	}
+
+	MessageExchange[] getMembers() {
+		return members;
+	}
+
+	private static int indexOf(MessageExchange[] members, MessageExchange messageExchange) {
+		for(int i = 0; i < members.length; i++) {
+			if(members[i] == messageExchange) {
+				return i;
+			}
+		}
+		return -1;
+	}
+}
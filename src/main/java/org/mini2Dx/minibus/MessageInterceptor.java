@@ -0,0 +1,95 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import org.mini2Dx.minibus.transmission.MessageTransmission;
+
+/**
+ * Common interface for observing messages as they pass through a
+ * {@link MessageBus}, e.g. for tracing or sampling profilers. Register
+ * instances via {@link MessageBus#addInterceptor(MessageInterceptor)}. All
+ * methods default to doing nothing so that implementations only override the
+ * stages they need. Interceptors are called on the thread performing each
+ * stage and must not retain the {@link MessageTransmission} after returning.
+ */
+public interface MessageInterceptor {
+
+	/**
+	 * Called when a message is sent, broadcast or multicast, before it is queued
+	 *
+	 * @param messageTransmission
+	 *            The {@link MessageTransmission} being sent
+	 */
+	public default void onSend(MessageTransmission messageTransmission) {}
+
+	/**
+	 * Called when a message is accepted by a {@link MessageExchange}
+	 *
+	 * @param receiver
+	 *            The {@link MessageExchange} receiving the message
+	 * @param messageTransmission
+	 *            The {@link MessageTransmission} being queued
+	 */
+	public default void onQueue(MessageExchange receiver, MessageTransmission messageTransmission) {}
+
+	/**
+	 * Called before a message is passed to the {@link MessageHandler}s of a {@link MessageExchange}
+	 *
+	 * @param receiver
+	 *            The {@link MessageExchange} receiving the message
+	 * @param messageTransmission
+	 *            The {@link MessageTransmission} being dispatched
+	 */
+	public default void onDispatchStart(MessageExchange receiver, MessageTransmission messageTransmission) {}
+
+	/**
+	 * Called after a message has been passed to the {@link MessageHandler}s of a {@link MessageExchange}
+	 *
+	 * @param receiver
+	 *            The {@link MessageExchange} receiving the message
+	 * @param messageTransmission
+	 *            The {@link MessageTransmission} that was dispatched
+	 */
+	public default void onDispatchEnd(MessageExchange receiver, MessageTransmission messageTransmission) {}
+
+	/**
+	 * Called when a message has been delivered to all receivers and is about to be returned to the pool
+	 *
+	 * @param messageTransmission
+	 *            The {@link MessageTransmission} being released
+	 */
+	public default void onRelease(MessageTransmission messageTransmission) {}
+
+	/**
+	 * Called when a {@link MessageExchange} that waits for messages on its own
+	 * thread (e.g. {@link org.mini2Dx.minibus.exchange.ConcurrentMessageExchange})
+	 * wakes up after being idle
+	 *
+	 * @param exchange
+	 *            The {@link MessageExchange} that was idle
+	 * @param idleNanos
+	 *            The amount of time spent idle (in nanoseconds)
+	 */
+	public default void onIdle(MessageExchange exchange, long idleNanos) {}
+}
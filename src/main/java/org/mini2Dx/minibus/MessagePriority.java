@@ -0,0 +1,59 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+/**
+ * The priority of a message. When a {@link MessageExchange} is flushed, queued
+ * messages of a higher priority are processed before those of a lower priority.
+ * Messages of the same priority are processed in the order they were queued.
+ */
+public enum MessagePriority {
+	/**
+	 * Processed after all other messages
+	 */
+	LOW,
+	/**
+	 * The default priority of all messages
+	 */
+	NORMAL,
+	/**
+	 * Processed before {@link #NORMAL} and {@link #LOW} messages
+	 */
+	HIGH,
+	/**
+	 * Processed before all other messages
+	 */
+	CRITICAL;
+
+	private static final MessagePriority[] VALUES = values();
+
+	/**
+	 * Returns the total number of priority levels
+	 *
+	 * @return The total number of priority levels
+	 */
+	public static int size() {
+		return VALUES.length;
+	}
+}
@@ -0,0 +1,169 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Updates thread-independent {@link MessageExchange}s in parallel on a
+ * {@link ForkJoinPool} while all other {@link MessageExchange}s are updated in
+ * order on the calling thread. Thread-independent exchanges are claimed one at
+ * a time from a shared index so that faster workers (including the calling
+ * thread) pick up more exchanges. Tasks are reused between updates to avoid
+ * allocations.
+ */
+class ParallelExchangeUpdater {
+	private final ForkJoinPool pool;
+	private final UpdateTask[] tasks;
+	private final AtomicInteger nextIndex = new AtomicInteger();
+
+	private MessageExchange[] exchanges = new MessageExchange[32];
+	private int size;
+	private MessageExchange[] sequentialExchanges = new MessageExchange[32];
+	private int sequentialSize;
+	private float delta;
+
+	ParallelExchangeUpdater(ForkJoinPool pool) {
+		this.pool = pool;
+		this.tasks = new UpdateTask[Math.max(1, pool.getParallelism())];
+		for(int i = 0; i < tasks.length; i++) {
+			tasks[i] = new UpdateTask();
+		}
+	}
+
+	/**
+	 * Adds a {@link MessageExchange} to be updated during the next update
+	 * @param messageExchange The {@link MessageExchange}
+	 */
+	void add(MessageExchange messageExchange) {
+		if(messageExchange.isThreadIndependent()) {
+			if(size == exchanges.length) {
+				exchanges = grow(exchanges);
+			}
+			exchanges[size++] = messageExchange;
+		} else {
+			if(sequentialSize == sequentialExchanges.length) {
+				sequentialExchanges = grow(sequentialExchanges);
+			}
+			sequentialExchanges[sequentialSize++] = messageExchange;
+		}
+	}
+
+	/**
+	 * Updates all added {@link MessageExchange}s and waits for completion
+	 * @param delta (in seconds) The timestep or amount of time that has elapsed since the last frame
+	 */
+	void update(float delta) {
+		final int totalTasks = fork(delta);
+		RuntimeException exception = null;
+		try {
+			for(int i = 0; i < sequentialSize; i++) {
+				sequentialExchanges[i].update(delta);
+			}
+		} catch (RuntimeException e) {
+			exception = e;
+		}
+		for(int i = 0; i < sequentialSize; i++) {
+			sequentialExchanges[i] = null;
+		}
+		sequentialSize = 0;
+
+		try {
+			join(totalTasks);
+		} catch (RuntimeException e) {
+			if(exception == null) {
+				exception = e;
+			}
+		}
+		if(exception != null) {
+			throw exception;
+		}
+	}
+
+	private int fork(float delta) {
+		this.delta = delta;
+		nextIndex.set(0);
+
+		final int totalTasks = Math.min(tasks.length, size - 1);
+		for(int i = 0; i < totalTasks; i++) {
+			pool.execute(tasks[i]);
+		}
+		return totalTasks;
+	}
+
+	private void join(int totalTasks) {
+		RuntimeException exception = null;
+		try {
+			drain();
+		} catch (RuntimeException e) {
+			exception = e;
+		}
+		for(int i = 0; i < totalTasks; i++) {
+			try {
+				tasks[i].join();
+			} catch (RuntimeException e) {
+				if(exception == null) {
+					exception = e;
+				}
+			}
+			tasks[i].reinitialize();
+		}
+		for(int i = 0; i < size; i++) {
+			exchanges[i] = null;
+		}
+		size = 0;
+
+		if(exception != null) {
+			throw exception;
+		}
+	}
+
+	private void drain() {
+		final MessageExchange[] exchanges = this.exchanges;
+		final int size = this.size;
+		final float delta = this.delta;
+
+		int index;
+		while((index = nextIndex.getAndIncrement()) < size) {
+			exchanges[index].update(delta);
+		}
+	}
+
+	private static MessageExchange[] grow(MessageExchange[] array) {
+		final MessageExchange[] result = new MessageExchange[array.length << 1];
+		System.arraycopy(array, 0, result, 0, array.length);
+		return result;
+	}
+
+	private class UpdateTask extends RecursiveAction {
+		private static final long serialVersionUID = 4785306372735437826L;
+
+		@Override
+		protected void compute() {
+			drain();
+		}
+	}
+}
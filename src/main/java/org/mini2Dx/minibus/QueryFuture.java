@@ -0,0 +1,66 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link CompletableFuture} for the response to a query sent via
+ * {@link MessageBus#query(String, MessageData, String, boolean, float)}. The
+ * future completes with the {@link MessageData} of the first matching response
+ * or completes exceptionally with a {@link java.util.concurrent.TimeoutException}
+ * if the timeout elapses first. Cancelling the future removes the query from
+ * the {@link MessageBus}.
+ *
+ * Note: If the response {@link MessageData} is pooled, it is returned to its
+ * pool once the future has completed. Pooled responses should only be read in
+ * stages that run synchronously on completion.
+ */
+public class QueryFuture extends CompletableFuture<MessageData> {
+	private final QueryRouter queryRouter;
+	private final int correlationId;
+
+	QueryFuture(QueryRouter queryRouter, int correlationId) {
+		super();
+		this.queryRouter = queryRouter;
+		this.correlationId = correlationId;
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		final boolean result = super.cancel(mayInterruptIfRunning);
+		if(result) {
+			queryRouter.cancel(correlationId);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the unique identifier used to correlate responses with this query
+	 * @return The correlation ID
+	 */
+	public int getCorrelationId() {
+		return correlationId;
+	}
+}
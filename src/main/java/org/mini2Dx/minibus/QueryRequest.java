@@ -0,0 +1,62 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import org.mini2Dx.minibus.transmission.MessageTransmission;
+
+/**
+ * The pooled state of a query sent via {@link QueryRouter}. Responders only see
+ * the {@link QuerySource} created for each query, which carries the
+ * generation of the request it was created for. The generation is advanced
+ * when the query completes, times out or is cancelled so that late replies
+ * to an earlier query are ignored once the request is reused.
+ */
+class QueryRequest {
+	int generation;
+	QuerySource source;
+	int correlationId;
+	boolean pending;
+	QueryFuture future;
+	MessageHandler responseHandler;
+	QueryResponsesHandler responsesHandler;
+	QueryResponses responses;
+	String responseMessageType;
+	boolean requiresDirectResponse;
+	int maxResponses;
+	long deadline;
+	int heapIndex = -1;
+
+	QueryRequest typePrev, typeNext;
+	QueryRequest next;
+
+	boolean accepts(MessageTransmission messageTransmission) {
+		if (requiresDirectResponse && messageTransmission.isBroadcastMessage()) {
+			return false;
+		}
+		if (requiresDirectResponse && messageTransmission.getSource().isAnonymous()) {
+			return false;
+		}
+		return messageTransmission.getMessageType().equals(responseMessageType);
+	}
+}
@@ -0,0 +1,129 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import org.mini2Dx.minibus.transmission.MessageTransmission;
+
+/**
+ * The responses gathered by a scatter-gather query sent via
+ * {@link MessageBus#broadcastQuery(String, MessageData, String, boolean, int, float, QueryResponsesHandler)}.
+ * Instances are reused between queries and are only valid for the duration of
+ * {@link QueryResponsesHandler#onQueryResponses(QueryResponses)}.
+ */
+public class QueryResponses {
+	private MessageTransmission[] transmissions = new MessageTransmission[4];
+	private int size;
+	private int correlationId;
+	private String responseMessageType;
+	private boolean timedOut;
+
+	QueryResponses() {
+		super();
+	}
+
+	void set(int correlationId, String responseMessageType) {
+		this.correlationId = correlationId;
+		this.responseMessageType = responseMessageType;
+	}
+
+	void add(MessageTransmission messageTransmission) {
+		if(size == transmissions.length) {
+			final MessageTransmission[] newTransmissions = new MessageTransmission[transmissions.length * 2];
+			System.arraycopy(transmissions, 0, newTransmissions, 0, size);
+			transmissions = newTransmissions;
+		}
+		messageTransmission.allocate();
+		transmissions[size++] = messageTransmission;
+	}
+
+	void clear() {
+		for(int i = 0; i < size; i++) {
+			transmissions[i].release();
+			transmissions[i] = null;
+		}
+		size = 0;
+		timedOut = false;
+		responseMessageType = null;
+	}
+
+	void setTimedOut(boolean timedOut) {
+		this.timedOut = timedOut;
+	}
+
+	/**
+	 * Returns the amount of responses gathered
+	 * @return 0 if no responses were received
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the {@link MessageExchange} that sent a response
+	 * @param index The index of the response
+	 * @return The source {@link MessageExchange}
+	 */
+	public MessageExchange getSource(int index) {
+		if(index >= size) {
+			throw new IndexOutOfBoundsException(index + " is out of bounds (size " + size + ")");
+		}
+		return transmissions[index].getSource();
+	}
+
+	/**
+	 * Returns the {@link MessageData} of a response
+	 * @param index The index of the response
+	 * @return The {@link MessageData}, possibly null
+	 */
+	public MessageData getMessageData(int index) {
+		if(index >= size) {
+			throw new IndexOutOfBoundsException(index + " is out of bounds (size " + size + ")");
+		}
+		return transmissions[index].getMessage();
+	}
+
+	/**
+	 * Returns the correlation ID of the query
+	 * @return The correlation ID returned when the query was sent
+	 */
+	public int getCorrelationId() {
+		return correlationId;
+	}
+
+	/**
+	 * Returns the message type of the responses
+	 * @return The response message type
+	 */
+	public String getResponseMessageType() {
+		return responseMessageType;
+	}
+
+	/**
+	 * Returns if the query timed out before the required amount of responses was gathered
+	 * @return False if the required amount of responses was gathered
+	 */
+	public boolean isTimedOut() {
+		return timedOut;
+	}
+}
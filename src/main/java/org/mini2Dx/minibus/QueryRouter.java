@@ -0,0 +1,466 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import org.mini2Dx.minibus.concurrency.BusLock;
+import org.mini2Dx.minibus.concurrency.Counter;
+import org.mini2Dx.minibus.queue.MessageQueueType;
+import org.mini2Dx.minibus.transmission.MessageTransmission;
+import org.mini2Dx.minibus.transmission.MessageTransmissionQueue;
+
+/**
+ * Routes responses to pending queries without registering a
+ * {@link MessageExchange} per query with the {@link MessageBus}. Pending
+ * queries are indexed by correlation ID and, when broadcast responses are
+ * accepted, by response message type so that broadcasts only visit queries
+ * awaiting that message type. Timeouts are kept in a binary heap ordered by
+ * deadline and are driven by {@link MessageBus#update(float)}. Finished
+ * {@link QueryRequest}s are pooled. Each query gets its own lightweight
+ * {@link QuerySource} so late replies can be told apart from replies to a
+ * later query reusing the same request.
+ */
+class QueryRouter {
+	private static final double NANOS_PER_SECOND = 1000000000.0;
+
+	private final MessageBus messageBus;
+	private final BusLock lock;
+	private final Counter correlationIdGenerator;
+	private final Map<Integer, QueryRequest> pendingQueries = new HashMap<Integer, QueryRequest>();
+	private final Map<String, QueryRequest> responseTypeIndex = new HashMap<String, QueryRequest>();
+	private final MessageTransmissionQueue sourceQueue = new MessageTransmissionQueue(MessageQueueType.UNSYNCHRONIZED, 1);
+
+	private QueryRequest[] timeouts = new QueryRequest[16];
+	private int totalTimeouts;
+	private QueryRequest pool;
+	private long currentTime;
+	private volatile int totalBroadcastQueries;
+
+	QueryRouter(MessageBus messageBus) {
+		this.messageBus = messageBus;
+		this.lock = messageBus.getConcurrencyPolicy().newReadWriteLock();
+		this.correlationIdGenerator = messageBus.getConcurrencyPolicy().newCounter();
+	}
+
+	/**
+	 * Registers a query that completes a {@link QueryFuture} and sends it
+	 * @param destination The {@link MessageExchange} to send the query to or null to broadcast the query
+	 * @param messageType The message type of the query
+	 * @param messageData The {@link MessageData} of the query
+	 * @param responseMessageType The required message type of the response
+	 * @param requiresDirectResponse True if the response must be sent directly to the query
+	 * @param timeout The timeout (in seconds) or 0 if the query never times out
+	 * @return The {@link QueryFuture} that completes with the response
+	 */
+	QueryFuture query(MessageExchange destination, String messageType, MessageData messageData,
+			String responseMessageType, boolean requiresDirectResponse, float timeout) {
+		final QueryFuture future = new QueryFuture(this, (int) correlationIdGenerator.incrementAndGet());
+
+		lock.lockWrite();
+		final QueryRequest request = obtain();
+		request.future = future;
+		register(request, future.getCorrelationId(), responseMessageType, requiresDirectResponse, 1, timeout);
+		lock.unlockWrite();
+
+		send(request, destination, messageType, messageData);
+		return future;
+	}
+
+	/**
+	 * Registers a query that notifies a {@link MessageHandler} of the first response and sends it
+	 * @param destination The {@link MessageExchange} to send the query to or null to broadcast the query
+	 * @param messageType The message type of the query
+	 * @param messageData The {@link MessageData} of the query
+	 * @param responseMessageType The required message type of the response
+	 * @param requiresDirectResponse True if the response must be sent directly to the query
+	 * @param timeout The timeout (in seconds) or 0 if the query never times out
+	 * @param responseHandler The {@link MessageHandler} to notify
+	 * @return The correlation ID of the query
+	 */
+	int query(MessageExchange destination, String messageType, MessageData messageData,
+			String responseMessageType, boolean requiresDirectResponse, float timeout, MessageHandler responseHandler) {
+		final int correlationId = (int) correlationIdGenerator.incrementAndGet();
+
+		lock.lockWrite();
+		final QueryRequest request = obtain();
+		request.responseHandler = responseHandler;
+		register(request, correlationId, responseMessageType, requiresDirectResponse, 1, timeout);
+		lock.unlockWrite();
+
+		send(request, destination, messageType, messageData);
+		return correlationId;
+	}
+
+	/**
+	 * Registers a query that gathers multiple responses into a single {@link QueryResponses} and sends it
+	 * @param destination The {@link MessageExchange} to send the query to or null to broadcast the query
+	 * @param messageType The message type of the query
+	 * @param messageData The {@link MessageData} of the query
+	 * @param responseMessageType The required message type of the responses
+	 * @param requiresDirectResponse True if the responses must be sent directly to the query
+	 * @param maxResponses The amount of responses to gather or 0 to gather until the timeout
+	 * @param timeout The timeout (in seconds) or 0 if the query never times out
+	 * @param responsesHandler The {@link QueryResponsesHandler} to notify
+	 * @return The correlation ID of the query
+	 */
+	int query(MessageExchange destination, String messageType, MessageData messageData,
+			String responseMessageType, boolean requiresDirectResponse, int maxResponses, float timeout,
+			QueryResponsesHandler responsesHandler) {
+		final int correlationId = (int) correlationIdGenerator.incrementAndGet();
+
+		lock.lockWrite();
+		final QueryRequest request = obtain();
+		request.responsesHandler = responsesHandler;
+		if(request.responses == null) {
+			request.responses = new QueryResponses();
+		}
+		request.responses.set(correlationId, responseMessageType);
+		register(request, correlationId, responseMessageType, requiresDirectResponse, Math.max(0, maxResponses), timeout);
+		lock.unlockWrite();
+
+		send(request, destination, messageType, messageData);
+		return correlationId;
+	}
+
+	/**
+	 * Offers a response sent directly to a {@link QuerySource}
+	 * @param request The {@link QueryRequest} the {@link QuerySource} was created for
+	 * @param generation The generation of the request when the {@link QuerySource} was created
+	 * @param messageTransmission The response
+	 */
+	void respond(QueryRequest request, int generation, MessageTransmission messageTransmission) {
+		boolean completed = false;
+
+		lock.lockWrite();
+		if(request.pending && request.generation == generation && request.accepts(messageTransmission)
+				&& offer(request, messageTransmission)) {
+			remove(request);
+			completed = true;
+		}
+		lock.unlockWrite();
+
+		if(completed) {
+			complete(request, messageTransmission);
+			free(request);
+		}
+		messageTransmission.release();
+	}
+
+	/**
+	 * Offers a broadcast message to all queries awaiting a broadcast response of its message type
+	 * @param messageTransmission The broadcast message
+	 */
+	void broadcast(MessageTransmission messageTransmission) {
+		if(totalBroadcastQueries == 0) {
+			return;
+		}
+		QueryRequest completed = null;
+
+		lock.lockWrite();
+		QueryRequest request = responseTypeIndex.get(messageTransmission.getMessageType());
+		while(request != null) {
+			final QueryRequest typeNext = request.typeNext;
+			if(request.source != messageTransmission.getSource() && offer(request, messageTransmission)) {
+				remove(request);
+				request.next = completed;
+				completed = request;
+			}
+			request = typeNext;
+		}
+		lock.unlockWrite();
+
+		if(completed == null) {
+			return;
+		}
+		for(QueryRequest result = completed; result != null; result = result.next) {
+			complete(result, messageTransmission);
+		}
+		free(completed);
+	}
+
+	/**
+	 * Advances time and times out any expired queries
+	 * @param delta (in seconds) The amount of time that has elapsed since the last update
+	 */
+	void update(float delta) {
+		QueryRequest expired = null;
+		QueryRequest expiredTail = null;
+
+		lock.lockWrite();
+		currentTime += Math.max(0L, Math.round(delta * NANOS_PER_SECOND));
+		while(totalTimeouts > 0 && timeouts[0].deadline <= currentTime) {
+			final QueryRequest request = timeouts[0];
+			remove(request);
+			if(expiredTail == null) {
+				expired = request;
+			} else {
+				expiredTail.next = request;
+			}
+			expiredTail = request;
+		}
+		lock.unlockWrite();
+
+		if(expired == null) {
+			return;
+		}
+		for(QueryRequest request = expired; request != null; request = request.next) {
+			timeout(request);
+		}
+		free(expired);
+	}
+
+	/**
+	 * Removes a pending query without notifying its handler
+	 * @param correlationId The correlation ID of the query
+	 * @return True if the query was pending
+	 */
+	boolean cancel(int correlationId) {
+		lock.lockWrite();
+		final QueryRequest request = pendingQueries.get(correlationId);
+		if(request != null) {
+			remove(request);
+		}
+		lock.unlockWrite();
+
+		if(request == null) {
+			return false;
+		}
+		if(request.future != null) {
+			request.future.cancel(false);
+		}
+		free(request);
+		return true;
+	}
+
+	/**
+	 * Returns the amount of pending queries
+	 * @return 0 if no queries are pending
+	 */
+	int size() {
+		lock.lockRead();
+		final int result = pendingQueries.size();
+		lock.unlockRead();
+		return result;
+	}
+
+	boolean hasBroadcastQueries() {
+		return totalBroadcastQueries > 0;
+	}
+
+	private void register(QueryRequest request, int correlationId, String responseMessageType,
+			boolean requiresDirectResponse, int maxResponses, float timeout) {
+		final long timeoutNanos = Math.max(0L, Math.round(timeout * NANOS_PER_SECOND));
+
+		request.correlationId = correlationId;
+		request.responseMessageType = responseMessageType;
+		request.requiresDirectResponse = requiresDirectResponse;
+		request.maxResponses = maxResponses;
+		request.pending = true;
+		request.source = new QuerySource(messageBus, sourceQueue, this, request, request.generation);
+		pendingQueries.put(correlationId, request);
+		if(!requiresDirectResponse) {
+			linkResponseType(request);
+			totalBroadcastQueries++;
+		}
+		if(timeoutNanos > 0L) {
+			request.deadline = currentTime + timeoutNanos;
+			offerTimeout(request);
+		}
+	}
+
+	private void send(QueryRequest request, MessageExchange destination, String messageType, MessageData messageData) {
+		final QuerySource source = request.source;
+		if(destination == null) {
+			messageBus.broadcast(source, messageType, messageData);
+		} else {
+			messageBus.send(source, destination, messageType, messageData);
+		}
+	}
+
+	/**
+	 * Offers a response to a pending query
+	 * @return True if the query is complete
+	 */
+	private boolean offer(QueryRequest request, MessageTransmission messageTransmission) {
+		if(request.responses == null || request.responsesHandler == null) {
+			return true;
+		}
+		request.responses.add(messageTransmission);
+		return request.maxResponses > 0 && request.responses.size() >= request.maxResponses;
+	}
+
+	private void complete(QueryRequest request, MessageTransmission messageTransmission) {
+		if(request.future != null) {
+			request.future.complete(messageTransmission.getMessage());
+		} else if(request.responseHandler != null) {
+			request.responseHandler.onMessageReceived(messageTransmission.getMessageType(),
+					messageTransmission.getSource(), request.source, messageTransmission.getMessage());
+		} else {
+			request.responsesHandler.onQueryResponses(request.responses);
+		}
+	}
+
+	private void timeout(QueryRequest request) {
+		if(request.future != null) {
+			request.future.completeExceptionally(new TimeoutException("Query " + request.correlationId + " timed out"));
+		} else if(request.responseHandler != null) {
+			messageBus.notifyMessageCancelled(request.responseMessageType, null, request.source, null);
+		} else {
+			request.responses.setTimedOut(true);
+			request.responsesHandler.onQueryResponses(request.responses);
+		}
+	}
+
+	private void remove(QueryRequest request) {
+		request.pending = false;
+		//Replies to the QuerySource of this query are ignored from now on
+		request.generation++;
+		pendingQueries.remove(request.correlationId);
+		if(!request.requiresDirectResponse) {
+			unlinkResponseType(request);
+			totalBroadcastQueries--;
+		}
+		if(request.heapIndex >= 0) {
+			removeTimeout(request);
+		}
+	}
+
+	private void linkResponseType(QueryRequest request) {
+		final QueryRequest head = responseTypeIndex.put(request.responseMessageType, request);
+		request.typePrev = null;
+		request.typeNext = head;
+		if(head != null) {
+			head.typePrev = request;
+		}
+	}
+
+	private void unlinkResponseType(QueryRequest request) {
+		if(request.typePrev != null) {
+			request.typePrev.typeNext = request.typeNext;
+		} else if(request.typeNext != null) {
+			responseTypeIndex.put(request.responseMessageType, request.typeNext);
+		} else {
+			responseTypeIndex.remove(request.responseMessageType);
+		}
+		if(request.typeNext != null) {
+			request.typeNext.typePrev = request.typePrev;
+		}
+	}
+
+	private void offerTimeout(QueryRequest request) {
+		if(totalTimeouts == timeouts.length) {
+			final QueryRequest[] newTimeouts = new QueryRequest[timeouts.length * 2];
+			System.arraycopy(timeouts, 0, newTimeouts, 0, totalTimeouts);
+			timeouts = newTimeouts;
+		}
+		request.heapIndex = totalTimeouts;
+		timeouts[totalTimeouts++] = request;
+		siftUp(request.heapIndex);
+	}
+
+	private void removeTimeout(QueryRequest request) {
+		final int index = request.heapIndex;
+		final QueryRequest last = timeouts[--totalTimeouts];
+		timeouts[totalTimeouts] = null;
+		request.heapIndex = -1;
+		if(last == request) {
+			return;
+		}
+		timeouts[index] = last;
+		last.heapIndex = index;
+		siftDown(index);
+		siftUp(last.heapIndex);
+	}
+
+	private void siftUp(int index) {
+		final QueryRequest request = timeouts[index];
+		while(index > 0) {
+			final int parentIndex = (index - 1) >>> 1;
+			final QueryRequest parent = timeouts[parentIndex];
+			if(parent.deadline <= request.deadline) {
+				break;
+			}
+			timeouts[index] = parent;
+			parent.heapIndex = index;
+			index = parentIndex;
+		}
+		timeouts[index] = request;
+		request.heapIndex = index;
+	}
+
+	private void siftDown(int index) {
+		final QueryRequest request = timeouts[index];
+		final int half = totalTimeouts >>> 1;
+		while(index < half) {
+			int childIndex = (index << 1) + 1;
+			final int rightIndex = childIndex + 1;
+			if(rightIndex < totalTimeouts && timeouts[rightIndex].deadline < timeouts[childIndex].deadline) {
+				childIndex = rightIndex;
+			}
+			final QueryRequest child = timeouts[childIndex];
+			if(request.deadline <= child.deadline) {
+				break;
+			}
+			timeouts[index] = child;
+			child.heapIndex = index;
+			index = childIndex;
+		}
+		timeouts[index] = request;
+		request.heapIndex = index;
+	}
+
+	private QueryRequest obtain() {
+		final QueryRequest result = pool;
+		if(result == null) {
+			return new QueryRequest();
+		}
+		pool = result.next;
+		result.next = null;
+		return result;
+	}
+
+	private void free(QueryRequest requests) {
+		QueryRequest tail = null;
+		for(QueryRequest request = requests; request != null; request = request.next) {
+			request.source = null;
+			request.future = null;
+			request.responseHandler = null;
+			request.responsesHandler = null;
+			if(request.responses != null) {
+				request.responses.clear();
+			}
+			request.responseMessageType = null;
+			request.typePrev = request.typeNext = null;
+			tail = request;
+		}
+
+		lock.lockWrite();
+		tail.next = pool;
+		pool = requests;
+		lock.unlockWrite();
+	}
+}
@@ -0,0 +1,69 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import org.mini2Dx.minibus.transmission.MessageTransmission;
+import org.mini2Dx.minibus.transmission.MessageTransmissionQueue;
+
+/**
+ * The source {@link MessageExchange} of a query sent via {@link QueryRouter}.
+ * Instances are not registered with the {@link MessageBus} and so do not
+ * receive broadcasts. They share an empty queue, do not consume an exchange
+ * id and route responses sent directly to them back to the {@link QueryRouter}
+ * along with the generation of the {@link QueryRequest} they were created for.
+ */
+class QuerySource extends MessageExchange {
+	/**
+	 * The id of every {@link QuerySource}. Exchange ids start at 1.
+	 */
+	static final int QUERY_SOURCE_ID = 0;
+
+	private final QueryRouter queryRouter;
+	private final QueryRequest request;
+	private final int generation;
+
+	QuerySource(MessageBus messageBus, MessageTransmissionQueue sharedQueue, QueryRouter queryRouter,
+			QueryRequest request, int generation) {
+		super(messageBus, sharedQueue, QUERY_SOURCE_ID);
+		this.queryRouter = queryRouter;
+		this.request = request;
+		this.generation = generation;
+	}
+
+	@Override
+	void queue(MessageTransmission messageTransmission) {
+		queryRouter.respond(request, generation, messageTransmission);
+	}
+
+	@Override
+	public void update(float delta) {}
+
+	@Override
+	public boolean isImmediate() {
+		return true;
+	}
+
+	@Override
+	public void dispose() {}
+}
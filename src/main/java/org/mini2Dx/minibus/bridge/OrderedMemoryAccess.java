@@ -0,0 +1,136 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.bridge;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+
+/**
+ * Acquire loads and release stores of 64-bit values in a direct {@link ByteBuffer}
+ * for memory shared between processes. sun.misc.Unsafe is used when it is
+ * available, otherwise plain buffer accesses are paired with a volatile read
+ * after each load and a volatile write before each store. Values are accessed
+ * in native byte order so the buffer must use {@link java.nio.ByteOrder#nativeOrder()}.
+ */
+final class OrderedMemoryAccess {
+	private static final MethodHandle GET_LONG_VOLATILE;
+	private static final MethodHandle PUT_ORDERED_LONG;
+	private static final MethodHandle GET_LONG;
+	private static final long ADDRESS_OFFSET;
+
+	private static volatile int FENCE;
+
+	static {
+		MethodHandle getLongVolatile = null;
+		MethodHandle putOrderedLong = null;
+		MethodHandle getLong = null;
+		long addressOffset = -1L;
+		try {
+			final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+			final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+			theUnsafe.setAccessible(true);
+			final Object unsafe = theUnsafe.get(null);
+			final MethodHandles.Lookup lookup = MethodHandles.lookup();
+			getLongVolatile = lookup.findVirtual(unsafeClass, "getLongVolatile",
+					MethodType.methodType(long.class, Object.class, long.class)).bindTo(unsafe);
+			putOrderedLong = lookup.findVirtual(unsafeClass, "putOrderedLong",
+					MethodType.methodType(void.class, Object.class, long.class, long.class)).bindTo(unsafe);
+			getLong = lookup.findVirtual(unsafeClass, "getLong",
+					MethodType.methodType(long.class, Object.class, long.class)).bindTo(unsafe);
+			addressOffset = (long) lookup.findVirtual(unsafeClass, "objectFieldOffset",
+					MethodType.methodType(long.class, Field.class)).invoke(unsafe, Buffer.class.getDeclaredField("address"));
+		} catch (Throwable e) {
+			getLongVolatile = null;
+			putOrderedLong = null;
+			getLong = null;
+			addressOffset = -1L;
+		}
+		GET_LONG_VOLATILE = getLongVolatile;
+		PUT_ORDERED_LONG = putOrderedLong;
+		GET_LONG = getLong;
+		ADDRESS_OFFSET = addressOffset;
+	}
+
+	private OrderedMemoryAccess() {}
+
+	/**
+	 * Returns the native address of a direct {@link ByteBuffer}
+	 * @param buffer The direct {@link ByteBuffer}
+	 * @return 0 if sun.misc.Unsafe is not available
+	 */
+	static long getAddress(ByteBuffer buffer) {
+		if(GET_LONG == null || !buffer.isDirect()) {
+			return 0L;
+		}
+		try {
+			return (long) GET_LONG.invokeExact((Object) buffer, ADDRESS_OFFSET);
+		} catch (Throwable e) {
+			return 0L;
+		}
+	}
+
+	/**
+	 * Reads a long with acquire semantics. Later loads and stores cannot move before it.
+	 * @param buffer The {@link ByteBuffer} to read from
+	 * @param address The address returned by {@link #getAddress(ByteBuffer)}
+	 * @param index The (8-byte aligned) index to read
+	 * @return The value
+	 */
+	static long getLongAcquire(ByteBuffer buffer, long address, int index) {
+		if(address != 0L) {
+			try {
+				return (long) GET_LONG_VOLATILE.invokeExact((Object) null, address + index);
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			}
+		}
+		final long result = buffer.getLong(index);
+		final int fence = FENCE;
+		return result;
+	}
+
+	/**
+	 * Writes a long with release semantics. Earlier loads and stores cannot move after it.
+	 * @param buffer The {@link ByteBuffer} to write to
+	 * @param address The address returned by {@link #getAddress(ByteBuffer)}
+	 * @param index The (8-byte aligned) index to write
+	 * @param value The value
+	 */
+	static void putLongRelease(ByteBuffer buffer, long address, int index, long value) {
+		if(address != 0L) {
+			try {
+				PUT_ORDERED_LONG.invokeExact((Object) null, address + index, value);
+			} catch (Throwable e) {
+				throw new RuntimeException(e);
+			}
+			return;
+		}
+		FENCE = 0;
+		buffer.putLong(index, value);
+	}
+}
@@ -0,0 +1,427 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.bridge;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.MessageData;
+import org.mini2Dx.minibus.MessageExchange;
+import org.mini2Dx.minibus.MessageHandler;
+import org.mini2Dx.minibus.MessagePriority;
+import org.mini2Dx.minibus.codec.CodecUtils;
+import org.mini2Dx.minibus.codec.MessageDataCodecs;
+import org.mini2Dx.minibus.transmission.MessageTransmission;
+
+/**
+ * Connects two {@link MessageBus} instances over a non-blocking TCP
+ * {@link SocketChannel}. Messages received by this exchange (e.g. via
+ * {@link MessageBus#broadcast(String, MessageData)}) are forwarded to the peer
+ * where they are broadcast from its {@link RemoteMessageExchange}. Messages
+ * sent directly to this exchange are delivered to the {@link MessageHandler}s
+ * of the peer exchange. Messages received from a {@link RemoteMessageExchange}
+ * are never forwarded to prevent loops.
+ *
+ * All socket I/O happens in {@link #update(float)}: queued messages are encoded
+ * as length-prefixed frames into a single write buffer and flushed once per
+ * update. If the socket cannot accept more data, the remaining messages stay
+ * queued until a later update. Messages that arrive while
+ * {@link #getMaxQueuedMessages()} are already queued (e.g. while no peer is
+ * connected), that are too large for the write buffer or whose data cannot be
+ * encoded are dropped and counted by {@link #getDroppedMessages()}. Frames still in the write buffer when the
+ * connection is lost are discarded. A malformed frame from the peer closes
+ * the connection.
+ *
+ * A server exchange accepts a new connection in place of the previous one. A
+ * client exchange reconnects after {@link #getReconnectInterval()} seconds.
+ */
+public class RemoteMessageExchange extends MessageExchange {
+	/**
+	 * The default size (in bytes) of the read and write buffers
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+	/**
+	 * The default maximum amount of messages queued for the peer
+	 */
+	public static final int DEFAULT_MAX_QUEUED_MESSAGES = 4096;
+
+	private static final int FRAME_LENGTH_SIZE = 4;
+	private static final int FLAG_BROADCAST = 0x80;
+	private static final int PRIORITY_MASK = 0x7F;
+	private static final MessagePriority [] PRIORITIES = MessagePriority.values();
+
+	private final InetSocketAddress address;
+	private final MessageDataCodecs codecs;
+	private final Set<String> messageTypes;
+	private final ServerSocketChannel serverChannel;
+	private final ByteBuffer readBuffer;
+	private final ByteBuffer writeBuffer;
+
+	private SocketChannel channel;
+	private boolean connected;
+	private float reconnectInterval = 1f;
+	private float reconnectTimer;
+	private int maxQueuedMessages = DEFAULT_MAX_QUEUED_MESSAGES;
+	private int totalConnections;
+	private int droppedMessages;
+
+	/**
+	 * Constructs an exchange that accepts peer connections
+	 * @param messageBus The {@link MessageBus} this exchange belongs to
+	 * @param serverChannel A bound {@link ServerSocketChannel} to accept connections from
+	 * @param codecs The {@link MessageDataCodecs} used to encode and decode message data
+	 * @param messageTypes The message types to forward, or null to forward all message types
+	 * @param messageHandlers The {@link MessageHandler}s notified of messages sent directly to the peer exchange
+	 * @throws IOException Thrown if the {@link ServerSocketChannel} could not be made non-blocking
+	 */
+	public RemoteMessageExchange(MessageBus messageBus, ServerSocketChannel serverChannel, MessageDataCodecs codecs,
+			String[] messageTypes, MessageHandler... messageHandlers) throws IOException {
+		this(messageBus, (InetSocketAddress) serverChannel.getLocalAddress(), serverChannel, codecs, messageTypes, messageHandlers);
+		serverChannel.configureBlocking(false);
+	}
+
+	/**
+	 * Constructs an exchange that connects to a listening peer on its first update
+	 * @param messageBus The {@link MessageBus} this exchange belongs to
+	 * @param address The address of the peer
+	 * @param codecs The {@link MessageDataCodecs} used to encode and decode message data
+	 * @param messageTypes The message types to forward, or null to forward all message types
+	 * @param messageHandlers The {@link MessageHandler}s notified of messages sent directly to the peer exchange
+	 */
+	public RemoteMessageExchange(MessageBus messageBus, InetSocketAddress address, MessageDataCodecs codecs,
+			String[] messageTypes, MessageHandler... messageHandlers) {
+		this(messageBus, address, null, codecs, messageTypes, messageHandlers);
+	}
+
+	private RemoteMessageExchange(MessageBus messageBus, InetSocketAddress address, ServerSocketChannel serverChannel,
+			MessageDataCodecs codecs, String[] messageTypes, MessageHandler... messageHandlers) {
+		super(messageBus, messageHandlers);
+		this.address = address;
+		this.serverChannel = serverChannel;
+		this.codecs = codecs;
+		this.readBuffer = ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE);
+		this.writeBuffer = ByteBuffer.allocateDirect(DEFAULT_BUFFER_SIZE);
+		if(messageTypes == null || messageTypes.length == 0) {
+			this.messageTypes = null;
+		} else {
+			this.messageTypes = new HashSet<String>();
+			for(String messageType : messageTypes) {
+				this.messageTypes.add(messageType);
+			}
+		}
+	}
+
+	@Override
+	protected boolean preQueue(MessageTransmission messageTransmission) {
+		if(messageTransmission.getSource() instanceof RemoteMessageExchange) {
+			return false;
+		}
+		if(messageTypes != null && !messageTypes.contains(messageTransmission.getMessageType())) {
+			return false;
+		}
+		if(maxQueuedMessages > 0 && messageQueue.size() >= maxQueuedMessages) {
+			droppedMessages++;
+			return false;
+		}
+		return true;
+	}
+
+	@Override
+	public void update(float delta) {
+		try {
+			updateConnection(delta);
+			if(connected) {
+				read();
+			}
+			if(connected) {
+				write();
+			}
+		} catch (IOException e) {
+			disconnect();
+		}
+	}
+
+	private void updateConnection(float delta) throws IOException {
+		if(serverChannel != null) {
+			final SocketChannel acceptedChannel = serverChannel.accept();
+			if(acceptedChannel != null) {
+				disconnect();
+				acceptedChannel.configureBlocking(false);
+				acceptedChannel.socket().setTcpNoDelay(true);
+				channel = acceptedChannel;
+				onConnected();
+			}
+			return;
+		}
+		if(connected) {
+			return;
+		}
+		if(channel == null) {
+			reconnectTimer -= delta;
+			if(reconnectTimer > 0f) {
+				return;
+			}
+			channel = SocketChannel.open();
+			channel.configureBlocking(false);
+			channel.socket().setTcpNoDelay(true);
+			if(channel.connect(address)) {
+				onConnected();
+			}
+			return;
+		}
+		if(channel.finishConnect()) {
+			onConnected();
+		}
+	}
+
+	private void onConnected() {
+		connected = true;
+		totalConnections++;
+		readBuffer.clear();
+		writeBuffer.clear();
+	}
+
+	private void disconnect() {
+		connected = false;
+		reconnectTimer = reconnectInterval;
+		if(channel == null) {
+			return;
+		}
+		try {
+			channel.close();
+		} catch (IOException e) {
+		}
+		channel = null;
+	}
+
+	private void read() throws IOException {
+		while(true) {
+			final int bytesRead = channel.read(readBuffer);
+			if(bytesRead < 0) {
+				throw new IOException("Connection closed by peer");
+			}
+			readBuffer.flip();
+			readFrames();
+			readBuffer.compact();
+			if(bytesRead == 0) {
+				return;
+			}
+		}
+	}
+
+	private void readFrames() throws IOException {
+		while(readBuffer.remaining() >= FRAME_LENGTH_SIZE) {
+			final int frameLength = readBuffer.getInt(readBuffer.position());
+			if(frameLength < 1 || frameLength > readBuffer.capacity() - FRAME_LENGTH_SIZE) {
+				throw new IOException("Received invalid frame length " + frameLength);
+			}
+			if(readBuffer.remaining() < FRAME_LENGTH_SIZE + frameLength) {
+				return;
+			}
+			final int frameEnd = readBuffer.position() + FRAME_LENGTH_SIZE + frameLength;
+			final int limit = readBuffer.limit();
+			final int flags;
+			final String messageType;
+			final MessageData messageData;
+			readBuffer.position(readBuffer.position() + FRAME_LENGTH_SIZE);
+			readBuffer.limit(frameEnd);
+			try {
+				flags = readBuffer.get() & 0xFF;
+				if((flags & PRIORITY_MASK) >= PRIORITIES.length) {
+					throw new IOException("Received invalid priority " + (flags & PRIORITY_MASK));
+				}
+				messageType = CodecUtils.getString(readBuffer);
+				messageData = codecs.decode(readBuffer);
+			} catch (RuntimeException e) {
+				throw new IOException("Received malformed frame", e);
+			} finally {
+				readBuffer.limit(limit);
+			}
+			readBuffer.position(frameEnd);
+			final MessagePriority priority = PRIORITIES[flags & PRIORITY_MASK];
+			if((flags & FLAG_BROADCAST) != 0) {
+				messageBus.broadcast(this, messageType, messageData, priority);
+			} else {
+				final MessageTransmission messageTransmission = messageTransmissionPool.allocate();
+				messageTransmission.allocate();
+				messageTransmission.setMessageType(messageType);
+				messageTransmission.setMessageData(messageData);
+				messageTransmission.setSource(this);
+				messageTransmission.setBroadcastMessage(false);
+				messageTransmission.setPriority(priority);
+				dispatch(messageTransmission);
+				messageTransmission.release();
+			}
+		}
+	}
+
+	private void write() throws IOException {
+		while(!messageQueue.isEmpty()) {
+			final MessageTransmission messageTransmission = messageQueue.peek();
+			if(messageTransmission == null) {
+				break;
+			}
+			if(!writeFrame(messageTransmission)) {
+				break;
+			}
+			messageQueue.poll();
+			messageTransmission.release();
+		}
+
+		writeBuffer.flip();
+		while(writeBuffer.hasRemaining()) {
+			if(channel.write(writeBuffer) == 0) {
+				break;
+			}
+		}
+		writeBuffer.compact();
+	}
+
+	/**
+	 * Encodes a message into the write buffer
+	 * @param messageTransmission The message to encode
+	 * @return False if the write buffer does not have space for the message yet
+	 */
+	private boolean writeFrame(MessageTransmission messageTransmission) {
+		final String messageType = messageTransmission.getMessageType();
+		final int frameLength;
+		try {
+			frameLength = 1 + CodecUtils.getStringSize(messageType) + codecs.getEncodedSize(messageTransmission.getMessage());
+		} catch (RuntimeException e) {
+			droppedMessages++;
+			return true;
+		}
+		if(frameLength > writeBuffer.capacity() - FRAME_LENGTH_SIZE) {
+			droppedMessages++;
+			return true;
+		}
+		if(writeBuffer.remaining() < FRAME_LENGTH_SIZE + frameLength) {
+			return false;
+		}
+		int flags = messageTransmission.getPriority().ordinal() & PRIORITY_MASK;
+		if(messageTransmission.isBroadcastMessage()) {
+			flags |= FLAG_BROADCAST;
+		}
+		final int frameStart = writeBuffer.position();
+		try {
+			writeBuffer.putInt(frameLength);
+			writeBuffer.put((byte) flags);
+			CodecUtils.putString(writeBuffer, messageType);
+			codecs.encode(messageTransmission.getMessage(), writeBuffer);
+		} catch (RuntimeException e) {
+			writeBuffer.position(frameStart);
+			droppedMessages++;
+		}
+		return true;
+	}
+
+	@Override
+	public boolean isImmediate() {
+		return false;
+	}
+
+	@Override
+	public void dispose() {
+		disconnect();
+		if(serverChannel != null) {
+			try {
+				serverChannel.close();
+			} catch (IOException e) {
+			}
+		}
+		super.dispose();
+	}
+
+	/**
+	 * Returns if a peer is currently connected
+	 * @return True if connected
+	 */
+	public boolean isConnected() {
+		return connected;
+	}
+
+	/**
+	 * Returns the amount of connections established since this exchange was created
+	 * @return The total amount of connections
+	 */
+	public int getTotalConnections() {
+		return totalConnections;
+	}
+
+	/**
+	 * Returns the amount of messages that were dropped because the queue was
+	 * full, they were too large for the write buffer or their data could not
+	 * be encoded
+	 * @return 0 if all messages were forwarded
+	 */
+	public int getDroppedMessages() {
+		return droppedMessages;
+	}
+
+	/**
+	 * Returns the maximum amount of messages queued for the peer before further messages are dropped
+	 * @return {@link #DEFAULT_MAX_QUEUED_MESSAGES} by default, 0 if unlimited
+	 */
+	public int getMaxQueuedMessages() {
+		return maxQueuedMessages;
+	}
+
+	/**
+	 * Sets the maximum amount of messages queued for the peer before further messages are dropped
+	 * @param maxQueuedMessages 0 for unlimited
+	 */
+	public void setMaxQueuedMessages(int maxQueuedMessages) {
+		this.maxQueuedMessages = Math.max(0, maxQueuedMessages);
+	}
+
+	/**
+	 * Returns the address this exchange listens on or connects to
+	 * @return The {@link InetSocketAddress}
+	 */
+	public InetSocketAddress getAddress() {
+		return address;
+	}
+
+	/**
+	 * Returns the delay before a client exchange reconnects
+	 * @return The delay (in seconds), 1 by default
+	 */
+	public float getReconnectInterval() {
+		return reconnectInterval;
+	}
+
+	/**
+	 * Sets the delay before a client exchange reconnects
+	 * @param reconnectInterval The delay (in seconds)
+	 */
+	public void setReconnectInterval(float reconnectInterval) {
+		this.reconnectInterval = reconnectInterval;
+	}
+}
@@ -0,0 +1,112 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.bridge;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.MessageExchange;
+import org.mini2Dx.minibus.transmission.MessageTransmission;
+
+/**
+ * Forwards selected message types to another process through a
+ * {@link SharedMemoryRingBuffer}. Messages are written when {@link #update(float)}
+ * is called. If the ring buffer is full, the remaining messages stay queued
+ * until the consumer has caught up. Messages that are too large for the ring
+ * buffer or whose data cannot be encoded are dropped and counted by
+ * {@link #getDroppedMessages()}. Messages received from a
+ * {@link SharedMemoryProxyExchange} are never forwarded to prevent loops.
+ */
+public class SharedMemoryBridgeExchange extends MessageExchange {
+	private final SharedMemoryRingBuffer ringBuffer;
+	private final Set<String> messageTypes;
+
+	private int droppedMessages;
+
+	/**
+	 * Constructor
+	 * @param messageBus The {@link MessageBus} this exchange belongs to
+	 * @param ringBuffer The {@link SharedMemoryRingBuffer} to write to
+	 * @param messageTypes The message types to forward, all message types are forwarded if none are specified
+	 */
+	public SharedMemoryBridgeExchange(MessageBus messageBus, SharedMemoryRingBuffer ringBuffer, String... messageTypes) {
+		super(messageBus);
+		this.ringBuffer = ringBuffer;
+		if(messageTypes == null || messageTypes.length == 0) {
+			this.messageTypes = null;
+		} else {
+			this.messageTypes = new HashSet<String>();
+			for(String messageType : messageTypes) {
+				this.messageTypes.add(messageType);
+			}
+		}
+	}
+
+	@Override
+	protected boolean preQueue(MessageTransmission messageTransmission) {
+		if(messageTransmission.getSource() instanceof SharedMemoryProxyExchange) {
+			return false;
+		}
+		return messageTypes == null || messageTypes.contains(messageTransmission.getMessageType());
+	}
+
+	@Override
+	public void update(float delta) {
+		while(!messageQueue.isEmpty()) {
+			final MessageTransmission messageTransmission = messageQueue.peek();
+			if(messageTransmission == null) {
+				break;
+			}
+			try {
+				if(!ringBuffer.write(messageTransmission.getMessageType(), messageTransmission.getMessage(),
+						messageTransmission.isBroadcastMessage(), messageTransmission.getPriority())) {
+					break;
+				}
+			} catch (RuntimeException e) {
+				droppedMessages++;
+			}
+			messageQueue.poll();
+			messageTransmission.release();
+		}
+	}
+
+	@Override
+	public boolean isImmediate() {
+		return false;
+	}
+
+	public SharedMemoryRingBuffer getRingBuffer() {
+		return ringBuffer;
+	}
+
+	/**
+	 * Returns the amount of messages that were dropped because they were too
+	 * large for the ring buffer or their data could not be encoded
+	 * @return 0 if all messages were forwarded
+	 */
+	public int getDroppedMessages() {
+		return droppedMessages;
+	}
+}
@@ -0,0 +1,73 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.bridge;
+
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.MessageData;
+import org.mini2Dx.minibus.MessageExchange;
+import org.mini2Dx.minibus.MessageHandler;
+
+/**
+ * Re-injects messages written to a {@link SharedMemoryRingBuffer} by another
+ * process into the local {@link MessageBus} when {@link #update(float)} is
+ * called. Broadcast messages are broadcast from this exchange, all other
+ * messages are delivered to this exchange's {@link MessageHandler}s.
+ */
+public class SharedMemoryProxyExchange extends MessageExchange {
+	private final SharedMemoryRingBuffer ringBuffer;
+
+	/**
+	 * Constructor
+	 * @param messageBus The {@link MessageBus} this exchange belongs to
+	 * @param ringBuffer The {@link SharedMemoryRingBuffer} to read from
+	 * @param messageHandlers The {@link MessageHandler}s notified of messages sent directly to the remote bridge
+	 */
+	public SharedMemoryProxyExchange(MessageBus messageBus, SharedMemoryRingBuffer ringBuffer, MessageHandler... messageHandlers) {
+		super(messageBus, messageHandlers);
+		this.ringBuffer = ringBuffer;
+	}
+
+	@Override
+	public void update(float delta) {
+		while(ringBuffer.read()) {
+			final String messageType = ringBuffer.getMessageType();
+			final MessageData messageData = ringBuffer.getMessageData();
+			if(ringBuffer.isBroadcast()) {
+				messageBus.broadcast(this, messageType, messageData, ringBuffer.getPriority());
+			} else {
+				messageBus.send(this, this, messageType, messageData, ringBuffer.getPriority());
+			}
+		}
+		flush();
+	}
+
+	@Override
+	public boolean isImmediate() {
+		return false;
+	}
+
+	public SharedMemoryRingBuffer getRingBuffer() {
+		return ringBuffer;
+	}
+}
@@ -0,0 +1,233 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.bridge;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.mini2Dx.minibus.MessageData;
+import org.mini2Dx.minibus.MessagePriority;
+import org.mini2Dx.minibus.codec.CodecUtils;
+import org.mini2Dx.minibus.codec.MessageDataCodecs;
+
+/**
+ * A single-producer, single-consumer ring buffer of messages stored in a
+ * memory-mapped file so that it can be shared between processes, e.g. a file
+ * under /dev/shm on Linux. {@link MessageData} is encoded directly into and
+ * decoded directly from the mapped memory.
+ *
+ * The write position is published with a release store after a record is
+ * written and the read position after a record is read. Each side loads the
+ * other side's position with an acquire load before touching the record data.
+ */
+public class SharedMemoryRingBuffer implements Closeable {
+	/**
+	 * The default data capacity (in bytes)
+	 */
+	public static final int DEFAULT_CAPACITY = 4 * 1024 * 1024;
+
+	private static final int MAGIC = 0x4D425231;
+	private static final int MAGIC_OFFSET = 0;
+	private static final int CAPACITY_OFFSET = 4;
+	private static final int WRITE_POSITION_OFFSET = 64;
+	private static final int READ_POSITION_OFFSET = 128;
+	private static final int DATA_OFFSET = 192;
+
+	private static final int RECORD_LENGTH_SIZE = 4;
+	private static final int PADDING = -1;
+	private static final int FLAG_BROADCAST = 0x80;
+	private static final int PRIORITY_MASK = 0x7F;
+	private static final MessagePriority [] PRIORITIES = MessagePriority.values();
+
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final long address;
+	private final ByteBuffer data;
+	private final int capacity;
+	private final MessageDataCodecs codecs;
+
+	private boolean broadcast;
+	private MessagePriority priority;
+	private String messageType;
+	private MessageData messageData;
+
+	/**
+	 * Opens or creates a ring buffer file with the default capacity and built-in codecs
+	 * @param file The file to map
+	 * @throws IOException Thrown if the file could not be mapped
+	 */
+	public SharedMemoryRingBuffer(Path file) throws IOException {
+		this(file, DEFAULT_CAPACITY, new MessageDataCodecs());
+	}
+
+	/**
+	 * Opens or creates a ring buffer file. Both processes must use the same capacity.
+	 * @param file The file to map
+	 * @param capacity The data capacity (in bytes)
+	 * @param codecs The {@link MessageDataCodecs} used to encode and decode message data
+	 * @throws IOException Thrown if the file could not be mapped or has a different capacity
+	 */
+	public SharedMemoryRingBuffer(Path file, int capacity, MessageDataCodecs codecs) throws IOException {
+		super();
+		if(capacity < 64) {
+			throw new RuntimeException("capacity must be at least 64 bytes");
+		}
+		this.capacity = capacity;
+		this.codecs = codecs;
+
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, DATA_OFFSET + capacity);
+		buffer.order(ByteOrder.nativeOrder());
+		address = OrderedMemoryAccess.getAddress(buffer);
+		if(buffer.getInt(MAGIC_OFFSET) == 0) {
+			buffer.putInt(CAPACITY_OFFSET, capacity);
+			buffer.putInt(MAGIC_OFFSET, MAGIC);
+		} else if(buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+			channel.close();
+			throw new IOException(file + " is not a ring buffer file");
+		} else if(buffer.getInt(CAPACITY_OFFSET) != capacity) {
+			channel.close();
+			throw new IOException(file + " has a capacity of " + buffer.getInt(CAPACITY_OFFSET) + ", expected " + capacity);
+		}
+		buffer.position(DATA_OFFSET);
+		data = buffer.slice();
+	}
+
+	/**
+	 * Writes a message. Must only be called by a single producer thread.
+	 * @param messageType The message type
+	 * @param messageData The {@link MessageData}, may be null
+	 * @param broadcast True if the message should be broadcast by the consumer
+	 * @param priority The {@link MessagePriority} of the message
+	 * @return False if there is not enough free space, the message is not written
+	 */
+	public boolean write(String messageType, MessageData messageData, boolean broadcast, MessagePriority priority) {
+		final int recordSize = RECORD_LENGTH_SIZE + 1 + CodecUtils.getStringSize(messageType) + codecs.getEncodedSize(messageData);
+		if(recordSize > capacity - RECORD_LENGTH_SIZE) {
+			throw new RuntimeException("Message of type " + messageType + " is too large for the ring buffer");
+		}
+		long writePosition = buffer.getLong(WRITE_POSITION_OFFSET);
+		final long readPosition = OrderedMemoryAccess.getLongAcquire(buffer, address, READ_POSITION_OFFSET);
+
+		int index = (int) (writePosition % capacity);
+		final int remaining = capacity - index;
+		final int padding = recordSize > remaining ? remaining : 0;
+		if(writePosition + padding + recordSize - readPosition > capacity) {
+			return false;
+		}
+		if(padding > 0) {
+			if(padding >= RECORD_LENGTH_SIZE) {
+				data.putInt(index, PADDING);
+			}
+			writePosition += padding;
+			index = 0;
+		}
+
+		data.position(index + RECORD_LENGTH_SIZE);
+		int flags = priority.ordinal() & PRIORITY_MASK;
+		if(broadcast) {
+			flags |= FLAG_BROADCAST;
+		}
+		data.put((byte) flags);
+		CodecUtils.putString(data, messageType);
+		codecs.encode(messageData, data);
+		data.putInt(index, recordSize - RECORD_LENGTH_SIZE);
+
+		OrderedMemoryAccess.putLongRelease(buffer, address, WRITE_POSITION_OFFSET, writePosition + recordSize);
+		return true;
+	}
+
+	/**
+	 * Reads the next message. Must only be called by a single consumer thread.
+	 * @return False if there are no messages available
+	 */
+	public boolean read() {
+		final long writePosition = OrderedMemoryAccess.getLongAcquire(buffer, address, WRITE_POSITION_OFFSET);
+		long readPosition = buffer.getLong(READ_POSITION_OFFSET);
+
+		while(readPosition < writePosition) {
+			final int index = (int) (readPosition % capacity);
+			final int remaining = capacity - index;
+			if(remaining < RECORD_LENGTH_SIZE || data.getInt(index) == PADDING) {
+				readPosition += remaining;
+				continue;
+			}
+			final int length = data.getInt(index);
+			data.position(index + RECORD_LENGTH_SIZE);
+			final int flags = data.get() & 0xFF;
+			broadcast = (flags & FLAG_BROADCAST) != 0;
+			priority = PRIORITIES[flags & PRIORITY_MASK];
+			messageType = CodecUtils.getString(data);
+			messageData = codecs.decode(data);
+
+			OrderedMemoryAccess.putLongRelease(buffer, address, READ_POSITION_OFFSET, readPosition + RECORD_LENGTH_SIZE + length);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the amount of bytes written but not yet read
+	 * @return The used capacity in bytes
+	 */
+	public long getUsedCapacity() {
+		final long writePosition = OrderedMemoryAccess.getLongAcquire(buffer, address, WRITE_POSITION_OFFSET);
+		return writePosition - OrderedMemoryAccess.getLongAcquire(buffer, address, READ_POSITION_OFFSET);
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Returns if the last message returned by {@link #read()} should be broadcast
+	 * @return True if the message should be broadcast
+	 */
+	public boolean isBroadcast() {
+		return broadcast;
+	}
+
+	public MessagePriority getPriority() {
+		return priority;
+	}
+
+	public String getMessageType() {
+		return messageType;
+	}
+
+	public MessageData getMessageData() {
+		return messageData;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
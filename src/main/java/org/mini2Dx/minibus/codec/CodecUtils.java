@@ -0,0 +1,258 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.codec;
+
+import java.nio.ByteBuffer;
+
+import org.mini2Dx.minibus.exception.MessageDataCodecException;
+
+/**
+ * Utility functions for writing compact binary values to a {@link ByteBuffer}.
+ * Lengths are written as unsigned variable-length integers and {@link String}s
+ * are written as UTF-8 without intermediate allocation.
+ */
+public final class CodecUtils {
+
+	private CodecUtils() {}
+
+	/**
+	 * Writes an unsigned variable-length integer (1 to 5 bytes)
+	 * @param buffer The {@link ByteBuffer} to write to
+	 * @param value The value to write
+	 */
+	public static void putVarInt(ByteBuffer buffer, int value) {
+		while((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/**
+	 * Reads an unsigned variable-length integer
+	 * @param buffer The {@link ByteBuffer} to read from
+	 * @return The value
+	 */
+	public static int getVarInt(ByteBuffer buffer) {
+		int result = 0;
+		for(int shift = 0; shift < 35; shift += 7) {
+			final byte b = buffer.get();
+			result |= (b & 0x7F) << shift;
+			if((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new MessageDataCodecException("Malformed variable-length integer");
+	}
+
+	/**
+	 * Returns the amount of bytes {@link #putVarInt(ByteBuffer, int)} writes for a value
+	 * @param value The value
+	 * @return The size in bytes
+	 */
+	public static int getVarIntSize(int value) {
+		if((value & ~0x7F) == 0) {
+			return 1;
+		}
+		if((value & ~0x3FFF) == 0) {
+			return 2;
+		}
+		if((value & ~0x1FFFFF) == 0) {
+			return 3;
+		}
+		if((value & ~0xFFFFFFF) == 0) {
+			return 4;
+		}
+		return 5;
+	}
+
+	/**
+	 * Writes the length of a nullable array or collection. A length of -1 represents null.
+	 * @param buffer The {@link ByteBuffer} to write to
+	 * @param length The length or -1 if null
+	 */
+	public static void putLength(ByteBuffer buffer, int length) {
+		putVarInt(buffer, length + 1);
+	}
+
+	/**
+	 * Reads a length written by {@link #putLength(ByteBuffer, int)}
+	 * @param buffer The {@link ByteBuffer} to read from
+	 * @return The length or -1 if null
+	 */
+	public static int getLength(ByteBuffer buffer) {
+		return getVarInt(buffer) - 1;
+	}
+
+	/**
+	 * Reads a length written by {@link #putLength(ByteBuffer, int)} and checks that the
+	 * remaining bytes can hold that many elements before the caller allocates for them
+	 * @param buffer The {@link ByteBuffer} to read from
+	 * @param elementSize The minimum encoded size in bytes of each element
+	 * @return The length or -1 if null
+	 * @throws MessageDataCodecException if the length is malformed or exceeds the remaining bytes
+	 */
+	public static int getLength(ByteBuffer buffer, int elementSize) {
+		final int length = getLength(buffer);
+		if(length < -1 || (long) length * elementSize > buffer.remaining()) {
+			throw new MessageDataCodecException("Invalid length " + length + " with " + buffer.remaining() + " bytes remaining");
+		}
+		return length;
+	}
+
+	/**
+	 * Reads the size of a non-null collection written by {@link #putLength(ByteBuffer, int)}
+	 * @param buffer The {@link ByteBuffer} to read from
+	 * @param elementSize The minimum encoded size in bytes of each element
+	 * @return The size
+	 * @throws MessageDataCodecException if the size is negative or exceeds the remaining bytes
+	 */
+	public static int getSize(ByteBuffer buffer, int elementSize) {
+		final int size = getLength(buffer, elementSize);
+		if(size < 0) {
+			throw new MessageDataCodecException("Invalid size " + size);
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the amount of bytes {@link #putLength(ByteBuffer, int)} writes for a length
+	 * @param length The length or -1 if null
+	 * @return The size in bytes
+	 */
+	public static int getLengthSize(int length) {
+		return getVarIntSize(length + 1);
+	}
+
+	/**
+	 * Writes a nullable {@link String} as a length-prefixed UTF-8 sequence
+	 * @param buffer The {@link ByteBuffer} to write to
+	 * @param value The {@link String} to write
+	 */
+	public static void putString(ByteBuffer buffer, String value) {
+		if(value == null) {
+			putLength(buffer, -1);
+			return;
+		}
+		putLength(buffer, getUtf8Length(value));
+
+		final int length = value.length();
+		for(int i = 0; i < length; i++) {
+			final char c = value.charAt(i);
+			if(c < 0x80) {
+				buffer.put((byte) c);
+			} else if(c < 0x800) {
+				buffer.put((byte) (0xC0 | (c >> 6)));
+				buffer.put((byte) (0x80 | (c & 0x3F)));
+			} else if(isSurrogatePair(value, i)) {
+				final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				buffer.put((byte) (0xF0 | (codePoint >> 18)));
+				buffer.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+				buffer.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+				buffer.put((byte) (0x80 | (codePoint & 0x3F)));
+			} else {
+				buffer.put((byte) (0xE0 | (c >> 12)));
+				buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+				buffer.put((byte) (0x80 | (c & 0x3F)));
+			}
+		}
+	}
+
+	/**
+	 * Reads a {@link String} written by {@link #putString(ByteBuffer, String)}
+	 * @param buffer The {@link ByteBuffer} to read from
+	 * @return The {@link String} or null
+	 */
+	public static String getString(ByteBuffer buffer) {
+		final int byteLength = getLength(buffer, 1);
+		if(byteLength < 0) {
+			return null;
+		}
+		final char [] chars = new char[byteLength];
+		final int end = buffer.position() + byteLength;
+		int length = 0;
+		while(buffer.position() < end) {
+			final int b = buffer.get() & 0xFF;
+			if(b < 0x80) {
+				chars[length++] = (char) b;
+			} else if(b < 0xE0) {
+				checkUtf8Sequence(buffer, end, 1);
+				chars[length++] = (char) (((b & 0x1F) << 6) | (buffer.get() & 0x3F));
+			} else if(b < 0xF0) {
+				checkUtf8Sequence(buffer, end, 2);
+				chars[length++] = (char) (((b & 0x0F) << 12) | ((buffer.get() & 0x3F) << 6) | (buffer.get() & 0x3F));
+			} else {
+				checkUtf8Sequence(buffer, end, 3);
+				final int codePoint = ((b & 0x07) << 18) | ((buffer.get() & 0x3F) << 12) |
+						((buffer.get() & 0x3F) << 6) | (buffer.get() & 0x3F);
+				chars[length++] = Character.highSurrogate(codePoint);
+				chars[length++] = Character.lowSurrogate(codePoint);
+			}
+		}
+		return new String(chars, 0, length);
+	}
+
+	private static void checkUtf8Sequence(ByteBuffer buffer, int end, int continuationBytes) {
+		if(buffer.position() + continuationBytes > end) {
+			throw new MessageDataCodecException("Truncated UTF-8 sequence at position " + (buffer.position() - 1));
+		}
+	}
+
+	/**
+	 * Returns the amount of bytes {@link #putString(ByteBuffer, String)} writes for a {@link String}
+	 * @param value The {@link String}
+	 * @return The size in bytes
+	 */
+	public static int getStringSize(String value) {
+		if(value == null) {
+			return getLengthSize(-1);
+		}
+		final int utf8Length = getUtf8Length(value);
+		return getLengthSize(utf8Length) + utf8Length;
+	}
+
+	private static int getUtf8Length(String value) {
+		final int length = value.length();
+		int result = 0;
+		for(int i = 0; i < length; i++) {
+			final char c = value.charAt(i);
+			if(c < 0x80) {
+				result++;
+			} else if(c < 0x800) {
+				result += 2;
+			} else if(isSurrogatePair(value, i)) {
+				result += 4;
+				i++;
+			} else {
+				result += 3;
+			}
+		}
+		return result;
+	}
+
+	private static boolean isSurrogatePair(String value, int index) {
+		return Character.isHighSurrogate(value.charAt(index)) && index + 1 < value.length() &&
+				Character.isLowSurrogate(value.charAt(index + 1));
+	}
+}
@@ -0,0 +1,79 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.codec;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+import org.mini2Dx.minibus.messagedata.ListMessageData;
+
+/**
+ * {@link MessageDataCodec} for {@link ListMessageData}. Elements are
+ * written with {@link MessageDataCodecs#encodeValue(Object, ByteBuffer)}.
+ */
+public class ListMessageDataCodec implements MessageDataCodec<ListMessageData<Object>> {
+	private final MessageDataCodecs codecs;
+
+	/**
+	 * Constructor
+	 * @param codecs The {@link MessageDataCodecs} used to encode elements
+	 */
+	public ListMessageDataCodec(MessageDataCodecs codecs) {
+		super();
+		this.codecs = codecs;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Class<ListMessageData<Object>> getType() {
+		return (Class) ListMessageData.class;
+	}
+
+	@Override
+	public int getEncodedSize(ListMessageData<Object> messageData) {
+		int result = CodecUtils.getLengthSize(messageData.size());
+		for(int i = 0; i < messageData.size(); i++) {
+			result += codecs.getValueEncodedSize(messageData.get(i));
+		}
+		return result;
+	}
+
+	@Override
+	public void encode(ListMessageData<Object> messageData, ByteBuffer buffer) {
+		CodecUtils.putLength(buffer, messageData.size());
+		for(int i = 0; i < messageData.size(); i++) {
+			codecs.encodeValue(messageData.get(i), buffer);
+		}
+	}
+
+	@Override
+	public ListMessageData<Object> decode(ByteBuffer buffer) {
+		final int size = CodecUtils.getSize(buffer, 1);
+		final ListMessageData<Object> result = new ListMessageData<Object>(new ArrayList<Object>(size));
+		for(int i = 0; i < size; i++) {
+			result.add(codecs.decodeValue(buffer));
+		}
+		return result;
+	}
+}
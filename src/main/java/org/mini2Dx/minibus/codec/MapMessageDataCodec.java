@@ -0,0 +1,84 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.codec;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.mini2Dx.minibus.messagedata.MapMessageData;
+
+/**
+ * {@link MessageDataCodec} for {@link MapMessageData}. Keys and values are
+ * written with {@link MessageDataCodecs#encodeValue(Object, ByteBuffer)}.
+ */
+public class MapMessageDataCodec implements MessageDataCodec<MapMessageData<Object, Object>> {
+	private final MessageDataCodecs codecs;
+
+	/**
+	 * Constructor
+	 * @param codecs The {@link MessageDataCodecs} used to encode keys and values
+	 */
+	public MapMessageDataCodec(MessageDataCodecs codecs) {
+		super();
+		this.codecs = codecs;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Class<MapMessageData<Object, Object>> getType() {
+		return (Class) MapMessageData.class;
+	}
+
+	@Override
+	public int getEncodedSize(MapMessageData<Object, Object> messageData) {
+		int result = CodecUtils.getLengthSize(messageData.size());
+		for(Map.Entry<Object, Object> entry : messageData.entrySet()) {
+			result += codecs.getValueEncodedSize(entry.getKey());
+			result += codecs.getValueEncodedSize(entry.getValue());
+		}
+		return result;
+	}
+
+	@Override
+	public void encode(MapMessageData<Object, Object> messageData, ByteBuffer buffer) {
+		CodecUtils.putLength(buffer, messageData.size());
+		for(Map.Entry<Object, Object> entry : messageData.entrySet()) {
+			codecs.encodeValue(entry.getKey(), buffer);
+			codecs.encodeValue(entry.getValue(), buffer);
+		}
+	}
+
+	@Override
+	public MapMessageData<Object, Object> decode(ByteBuffer buffer) {
+		final int size = CodecUtils.getSize(buffer, 2);
+		final MapMessageData<Object, Object> result = new MapMessageData<Object, Object>(
+				new HashMap<Object, Object>(Math.max(16, (int) (size / 0.75f) + 1)));
+		for(int i = 0; i < size; i++) {
+			final Object key = codecs.decodeValue(buffer);
+			result.put(key, codecs.decodeValue(buffer));
+		}
+		return result;
+	}
+}
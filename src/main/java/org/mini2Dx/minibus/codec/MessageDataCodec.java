@@ -0,0 +1,65 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.codec;
+
+import java.nio.ByteBuffer;
+
+import org.mini2Dx.minibus.MessageData;
+
+/**
+ * Encodes and decodes a {@link MessageData} type to and from a compact binary
+ * format. Implementations write directly into the provided {@link ByteBuffer}
+ * at its current position and must not allocate while encoding.
+ *
+ * @param <T> The {@link MessageData} type
+ */
+public interface MessageDataCodec<T extends MessageData> {
+
+	/**
+	 * Returns the {@link MessageData} class this codec handles
+	 * @return The {@link MessageData} class
+	 */
+	public Class<T> getType();
+
+	/**
+	 * Returns the amount of bytes {@link #encode(MessageData, ByteBuffer)} will write
+	 * @param messageData The {@link MessageData} to be encoded
+	 * @return The encoded size in bytes
+	 */
+	public int getEncodedSize(T messageData);
+
+	/**
+	 * Writes {@link MessageData} to a {@link ByteBuffer}
+	 * @param messageData The {@link MessageData} to encode
+	 * @param buffer The {@link ByteBuffer} to write to
+	 */
+	public void encode(T messageData, ByteBuffer buffer);
+
+	/**
+	 * Reads {@link MessageData} from a {@link ByteBuffer}
+	 * @param buffer The {@link ByteBuffer} to read from
+	 * @return A new {@link MessageData} instance
+	 */
+	public T decode(ByteBuffer buffer);
+}
@@ -0,0 +1,326 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.codec;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.mini2Dx.minibus.MessageData;
+import org.mini2Dx.minibus.exception.MessageDataCodecException;
+
+/**
+ * A registry of {@link MessageDataCodec}s keyed by {@link MessageData} class and
+ * numeric type ID. Encoded {@link MessageData} is prefixed with its type ID so
+ * that it can be decoded without knowing its type in advance.
+ *
+ * Type IDs below {@link #FIRST_USER_TYPE_ID} are reserved for the built-in codecs.
+ */
+public class MessageDataCodecs {
+	/**
+	 * The type ID written for null {@link MessageData}
+	 */
+	public static final int NULL_TYPE_ID = 0;
+	/**
+	 * The first type ID available for user codecs
+	 */
+	public static final int FIRST_USER_TYPE_ID = 64;
+
+	private static final byte VALUE_NULL = 0;
+	private static final byte VALUE_BOOLEAN = 1;
+	private static final byte VALUE_BYTE = 2;
+	private static final byte VALUE_SHORT = 3;
+	private static final byte VALUE_CHAR = 4;
+	private static final byte VALUE_INT = 5;
+	private static final byte VALUE_LONG = 6;
+	private static final byte VALUE_FLOAT = 7;
+	private static final byte VALUE_DOUBLE = 8;
+	private static final byte VALUE_STRING = 9;
+	private static final byte VALUE_MESSAGE_DATA = 10;
+
+	private final Map<Class<?>, Registration> registrationsByType = new ConcurrentHashMap<Class<?>, Registration>();
+	private final Map<Integer, Registration> registrationsById = new ConcurrentHashMap<Integer, Registration>();
+
+	/**
+	 * Constructor. Registers the built-in codecs.
+	 */
+	public MessageDataCodecs() {
+		super();
+		register(1, PrimitiveMessageDataCodecs.BOOLEAN);
+		register(2, PrimitiveMessageDataCodecs.CHAR);
+		register(3, PrimitiveMessageDataCodecs.SHORT);
+		register(4, PrimitiveMessageDataCodecs.INT);
+		register(5, PrimitiveMessageDataCodecs.LONG);
+		register(6, PrimitiveMessageDataCodecs.FLOAT);
+		register(7, PrimitiveMessageDataCodecs.DOUBLE);
+		register(8, PrimitiveMessageDataCodecs.STRING);
+		register(9, PrimitiveMessageDataCodecs.BOOLEAN_ARRAY);
+		register(10, PrimitiveMessageDataCodecs.CHAR_ARRAY);
+		register(11, PrimitiveMessageDataCodecs.SHORT_ARRAY);
+		register(12, PrimitiveMessageDataCodecs.INT_ARRAY);
+		register(13, PrimitiveMessageDataCodecs.LONG_ARRAY);
+		register(14, PrimitiveMessageDataCodecs.FLOAT_ARRAY);
+		register(15, PrimitiveMessageDataCodecs.DOUBLE_ARRAY);
+		register(16, PrimitiveMessageDataCodecs.STRING_ARRAY);
+		register(17, new ListMessageDataCodec(this));
+		register(18, new SetMessageDataCodec(this));
+		register(19, new MapMessageDataCodec(this));
+		register(20, new ObjectMessageDataCodec(this));
+		register(21, PrimitiveCollectionMessageDataCodecs.INT_INT_MAP);
+		register(22, PrimitiveCollectionMessageDataCodecs.INT_FLOAT_MAP);
+		register(23, PrimitiveCollectionMessageDataCodecs.INT_LIST);
+		register(24, PrimitiveCollectionMessageDataCodecs.LONG_SET);
+	}
+
+	/**
+	 * Registers a {@link MessageDataCodec}
+	 * @param typeId The unique type ID to write for the codec's {@link MessageData} type
+	 * @param codec The {@link MessageDataCodec}
+	 * @param <T> The {@link MessageData} type
+	 */
+	public <T extends MessageData> void register(int typeId, MessageDataCodec<T> codec) {
+		if(typeId <= NULL_TYPE_ID) {
+			throw new MessageDataCodecException("Type ID must be greater than " + NULL_TYPE_ID);
+		}
+		final Registration registration = new Registration(typeId, codec);
+		if(registrationsById.putIfAbsent(typeId, registration) != null) {
+			throw new MessageDataCodecException("Type ID " + typeId + " is already registered");
+		}
+		final Registration existing = registrationsByType.get(codec.getType());
+		if(existing != null && existing.codec.getType() == codec.getType()) {
+			registrationsById.remove(typeId);
+			throw new MessageDataCodecException("A codec for " + codec.getType().getName() + " is already registered");
+		}
+		registrationsByType.put(codec.getType(), registration);
+	}
+
+	/**
+	 * Returns the {@link MessageDataCodec} for a {@link MessageData} type. If
+	 * there is no codec for the exact type, the codec of the nearest superclass is returned.
+	 * @param type The {@link MessageData} type
+	 * @param <T> The {@link MessageData} type
+	 * @return Null if no codec is registered
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends MessageData> MessageDataCodec<T> getCodec(Class<T> type) {
+		final Registration registration = getRegistration(type);
+		return registration == null ? null : (MessageDataCodec<T>) registration.codec;
+	}
+
+	/**
+	 * Returns the {@link MessageDataCodec} for a type ID
+	 * @param typeId The type ID
+	 * @return Null if no codec is registered
+	 */
+	public MessageDataCodec<?> getCodec(int typeId) {
+		final Registration registration = registrationsById.get(typeId);
+		return registration == null ? null : registration.codec;
+	}
+
+	/**
+	 * Returns the amount of bytes {@link #encode(MessageData, ByteBuffer)} will write
+	 * @param messageData The {@link MessageData}, may be null
+	 * @return The encoded size in bytes
+	 */
+	@SuppressWarnings("unchecked")
+	public int getEncodedSize(MessageData messageData) {
+		if(messageData == null) {
+			return CodecUtils.getVarIntSize(NULL_TYPE_ID);
+		}
+		final Registration registration = getRequiredRegistration(messageData.getClass());
+		return CodecUtils.getVarIntSize(registration.typeId) +
+				((MessageDataCodec<MessageData>) registration.codec).getEncodedSize(messageData);
+	}
+
+	/**
+	 * Writes the type ID and encoded {@link MessageData} to a {@link ByteBuffer}
+	 * @param messageData The {@link MessageData}, may be null
+	 * @param buffer The {@link ByteBuffer} to write to
+	 */
+	@SuppressWarnings("unchecked")
+	public void encode(MessageData messageData, ByteBuffer buffer) {
+		if(messageData == null) {
+			CodecUtils.putVarInt(buffer, NULL_TYPE_ID);
+			return;
+		}
+		final Registration registration = getRequiredRegistration(messageData.getClass());
+		CodecUtils.putVarInt(buffer, registration.typeId);
+		((MessageDataCodec<MessageData>) registration.codec).encode(messageData, buffer);
+	}
+
+	/**
+	 * Reads {@link MessageData} written by {@link #encode(MessageData, ByteBuffer)}
+	 * @param buffer The {@link ByteBuffer} to read from
+	 * @return The decoded {@link MessageData}, may be null
+	 */
+	public MessageData decode(ByteBuffer buffer) {
+		final int typeId = CodecUtils.getVarInt(buffer);
+		if(typeId == NULL_TYPE_ID) {
+			return null;
+		}
+		final Registration registration = registrationsById.get(typeId);
+		if(registration == null) {
+			throw new MessageDataCodecException("No codec registered for type ID " + typeId);
+		}
+		return registration.codec.decode(buffer);
+	}
+
+	/**
+	 * Returns the amount of bytes {@link #encodeValue(Object, ByteBuffer)} will write
+	 * @param value The value, may be null
+	 * @return The encoded size in bytes
+	 */
+	public int getValueEncodedSize(Object value) {
+		if(value == null) {
+			return 1;
+		} else if(value instanceof Boolean || value instanceof Byte) {
+			return 2;
+		} else if(value instanceof Short || value instanceof Character) {
+			return 3;
+		} else if(value instanceof Integer || value instanceof Float) {
+			return 5;
+		} else if(value instanceof Long || value instanceof Double) {
+			return 9;
+		} else if(value instanceof String) {
+			return 1 + CodecUtils.getStringSize((String) value);
+		} else if(value instanceof MessageData) {
+			return 1 + getEncodedSize((MessageData) value);
+		}
+		throw new MessageDataCodecException("Cannot encode value of type " + value.getClass().getName());
+	}
+
+	/**
+	 * Writes a tagged value. Supported values are null, boxed primitives,
+	 * {@link String}s and {@link MessageData} with a registered codec.
+	 * @param value The value, may be null
+	 * @param buffer The {@link ByteBuffer} to write to
+	 */
+	public void encodeValue(Object value, ByteBuffer buffer) {
+		if(value == null) {
+			buffer.put(VALUE_NULL);
+		} else if(value instanceof Boolean) {
+			buffer.put(VALUE_BOOLEAN);
+			buffer.put((byte) (((Boolean) value) ? 1 : 0));
+		} else if(value instanceof Byte) {
+			buffer.put(VALUE_BYTE);
+			buffer.put((Byte) value);
+		} else if(value instanceof Short) {
+			buffer.put(VALUE_SHORT);
+			buffer.putShort((Short) value);
+		} else if(value instanceof Character) {
+			buffer.put(VALUE_CHAR);
+			buffer.putChar((Character) value);
+		} else if(value instanceof Integer) {
+			buffer.put(VALUE_INT);
+			buffer.putInt((Integer) value);
+		} else if(value instanceof Long) {
+			buffer.put(VALUE_LONG);
+			buffer.putLong((Long) value);
+		} else if(value instanceof Float) {
+			buffer.put(VALUE_FLOAT);
+			buffer.putFloat((Float) value);
+		} else if(value instanceof Double) {
+			buffer.put(VALUE_DOUBLE);
+			buffer.putDouble((Double) value);
+		} else if(value instanceof String) {
+			buffer.put(VALUE_STRING);
+			CodecUtils.putString(buffer, (String) value);
+		} else if(value instanceof MessageData) {
+			buffer.put(VALUE_MESSAGE_DATA);
+			encode((MessageData) value, buffer);
+		} else {
+			throw new MessageDataCodecException("Cannot encode value of type " + value.getClass().getName());
+		}
+	}
+
+	/**
+	 * Reads a value written by {@link #encodeValue(Object, ByteBuffer)}
+	 * @param buffer The {@link ByteBuffer} to read from
+	 * @return The decoded value, may be null
+	 */
+	public Object decodeValue(ByteBuffer buffer) {
+		final byte tag = buffer.get();
+		switch(tag) {
+		case VALUE_NULL:
+			return null;
+		case VALUE_BOOLEAN:
+			return buffer.get() != 0;
+		case VALUE_BYTE:
+			return buffer.get();
+		case VALUE_SHORT:
+			return buffer.getShort();
+		case VALUE_CHAR:
+			return buffer.getChar();
+		case VALUE_INT:
+			return buffer.getInt();
+		case VALUE_LONG:
+			return buffer.getLong();
+		case VALUE_FLOAT:
+			return buffer.getFloat();
+		case VALUE_DOUBLE:
+			return buffer.getDouble();
+		case VALUE_STRING:
+			return CodecUtils.getString(buffer);
+		case VALUE_MESSAGE_DATA:
+			return decode(buffer);
+		default:
+			throw new MessageDataCodecException("Unknown value tag " + tag);
+		}
+	}
+
+	private Registration getRequiredRegistration(Class<?> type) {
+		final Registration registration = getRegistration(type);
+		if(registration == null) {
+			throw new MessageDataCodecException("No codec registered for " + type.getName());
+		}
+		return registration;
+	}
+
+	private Registration getRegistration(Class<?> type) {
+		final Registration registration = registrationsByType.get(type);
+		if(registration != null) {
+			return registration;
+		}
+		Class<?> superclass = type.getSuperclass();
+		while(superclass != null) {
+			final Registration superRegistration = registrationsByType.get(superclass);
+			if(superRegistration != null) {
+				registrationsByType.putIfAbsent(type, superRegistration);
+				return superRegistration;
+			}
+			superclass = superclass.getSuperclass();
+		}
+		return null;
+	}
+
+	private static class Registration {
+		final int typeId;
+		final MessageDataCodec<?> codec;
+
+		Registration(int typeId, MessageDataCodec<?> codec) {
+			this.typeId = typeId;
+			this.codec = codec;
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.codec;
+
+import java.nio.ByteBuffer;
+
+import org.mini2Dx.minibus.messagedata.ObjectMessageData;
+
+/**
+ * {@link MessageDataCodec} for {@link ObjectMessageData}. The object is
+ * written with {@link MessageDataCodecs#encodeValue(Object, ByteBuffer)} so it
+ * must be null, a boxed primitive, a {@link String} or {@link org.mini2Dx.minibus.MessageData}.
+ */
+public class ObjectMessageDataCodec implements MessageDataCodec<ObjectMessageData<Object>> {
+	private final MessageDataCodecs codecs;
+
+	/**
+	 * Constructor
+	 * @param codecs The {@link MessageDataCodecs} used to encode the object
+	 */
+	public ObjectMessageDataCodec(MessageDataCodecs codecs) {
+		super();
+		this.codecs = codecs;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Class<ObjectMessageData<Object>> getType() {
+		return (Class) ObjectMessageData.class;
+	}
+
+	@Override
+	public int getEncodedSize(ObjectMessageData<Object> messageData) {
+		return codecs.getValueEncodedSize(messageData.getObject());
+	}
+
+	@Override
+	public void encode(ObjectMessageData<Object> messageData, ByteBuffer buffer) {
+		codecs.encodeValue(messageData.getObject(), buffer);
+	}
+
+	@Override
+	public ObjectMessageData<Object> decode(ByteBuffer buffer) {
+		return new ObjectMessageData<Object>(codecs.decodeValue(buffer));
+	}
+}
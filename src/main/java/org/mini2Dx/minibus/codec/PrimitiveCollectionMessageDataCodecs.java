@@ -0,0 +1,185 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.codec;
+
+import java.nio.ByteBuffer;
+
+import org.mini2Dx.minibus.messagedata.IntFloatMapMessageData;
+import org.mini2Dx.minibus.messagedata.IntIntMapMessageData;
+import org.mini2Dx.minibus.messagedata.IntListMessageData;
+import org.mini2Dx.minibus.messagedata.LongSetMessageData;
+
+/**
+ * Built-in {@link MessageDataCodec}s for the primitive collection types in
+ * {@link org.mini2Dx.minibus.messagedata}. Values are written at their fixed
+ * width after a length prefix.
+ */
+public final class PrimitiveCollectionMessageDataCodecs {
+	/**
+	 * Codec for {@link IntIntMapMessageData}
+	 */
+	public static final MessageDataCodec<IntIntMapMessageData> INT_INT_MAP = new IntIntMapCodec();
+
+	/**
+	 * Codec for {@link IntFloatMapMessageData}
+	 */
+	public static final MessageDataCodec<IntFloatMapMessageData> INT_FLOAT_MAP = new IntFloatMapCodec();
+
+	/**
+	 * Codec for {@link IntListMessageData}
+	 */
+	public static final MessageDataCodec<IntListMessageData> INT_LIST = new IntListCodec();
+
+	/**
+	 * Codec for {@link LongSetMessageData}
+	 */
+	public static final MessageDataCodec<LongSetMessageData> LONG_SET = new LongSetCodec();
+
+	private PrimitiveCollectionMessageDataCodecs() {}
+
+	private static class IntIntMapCodec implements MessageDataCodec<IntIntMapMessageData> {
+		@Override
+		public Class<IntIntMapMessageData> getType() {
+			return IntIntMapMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(IntIntMapMessageData messageData) {
+			return CodecUtils.getLengthSize(messageData.size()) + (messageData.size() * (4 + 4));
+		}
+
+		@Override
+		public void encode(IntIntMapMessageData messageData, ByteBuffer buffer) {
+			CodecUtils.putLength(buffer, messageData.size());
+			for(int i = messageData.firstIndex(); i >= 0; i = messageData.nextIndex(i)) {
+				buffer.putInt(messageData.keyAt(i));
+				buffer.putInt(messageData.valueAt(i));
+			}
+		}
+
+		@Override
+		public IntIntMapMessageData decode(ByteBuffer buffer) {
+			final int size = CodecUtils.getSize(buffer, 8);
+			final IntIntMapMessageData result = new IntIntMapMessageData(size);
+			for(int i = 0; i < size; i++) {
+				final int key = buffer.getInt();
+				result.put(key, buffer.getInt());
+			}
+			return result;
+		}
+	}
+
+	private static class IntFloatMapCodec implements MessageDataCodec<IntFloatMapMessageData> {
+		@Override
+		public Class<IntFloatMapMessageData> getType() {
+			return IntFloatMapMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(IntFloatMapMessageData messageData) {
+			return CodecUtils.getLengthSize(messageData.size()) + (messageData.size() * (4 + 4));
+		}
+
+		@Override
+		public void encode(IntFloatMapMessageData messageData, ByteBuffer buffer) {
+			CodecUtils.putLength(buffer, messageData.size());
+			for(int i = messageData.firstIndex(); i >= 0; i = messageData.nextIndex(i)) {
+				buffer.putInt(messageData.keyAt(i));
+				buffer.putFloat(messageData.valueAt(i));
+			}
+		}
+
+		@Override
+		public IntFloatMapMessageData decode(ByteBuffer buffer) {
+			final int size = CodecUtils.getSize(buffer, 8);
+			final IntFloatMapMessageData result = new IntFloatMapMessageData(size);
+			for(int i = 0; i < size; i++) {
+				final int key = buffer.getInt();
+				result.put(key, buffer.getFloat());
+			}
+			return result;
+		}
+	}
+
+	private static class IntListCodec implements MessageDataCodec<IntListMessageData> {
+		@Override
+		public Class<IntListMessageData> getType() {
+			return IntListMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(IntListMessageData messageData) {
+			return CodecUtils.getLengthSize(messageData.size()) + (messageData.size() * 4);
+		}
+
+		@Override
+		public void encode(IntListMessageData messageData, ByteBuffer buffer) {
+			CodecUtils.putLength(buffer, messageData.size());
+			final int [] items = messageData.getItems();
+			for(int i = 0; i < messageData.size(); i++) {
+				buffer.putInt(items[i]);
+			}
+		}
+
+		@Override
+		public IntListMessageData decode(ByteBuffer buffer) {
+			final int size = CodecUtils.getSize(buffer, 4);
+			final IntListMessageData result = new IntListMessageData(size);
+			for(int i = 0; i < size; i++) {
+				result.add(buffer.getInt());
+			}
+			return result;
+		}
+	}
+
+	private static class LongSetCodec implements MessageDataCodec<LongSetMessageData> {
+		@Override
+		public Class<LongSetMessageData> getType() {
+			return LongSetMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(LongSetMessageData messageData) {
+			return CodecUtils.getLengthSize(messageData.size()) + (messageData.size() * 8);
+		}
+
+		@Override
+		public void encode(LongSetMessageData messageData, ByteBuffer buffer) {
+			CodecUtils.putLength(buffer, messageData.size());
+			for(int i = messageData.firstIndex(); i >= 0; i = messageData.nextIndex(i)) {
+				buffer.putLong(messageData.valueAt(i));
+			}
+		}
+
+		@Override
+		public LongSetMessageData decode(ByteBuffer buffer) {
+			final int size = CodecUtils.getSize(buffer, 8);
+			final LongSetMessageData result = new LongSetMessageData(size);
+			for(int i = 0; i < size; i++) {
+				result.add(buffer.getLong());
+			}
+			return result;
+		}
+	}
+}
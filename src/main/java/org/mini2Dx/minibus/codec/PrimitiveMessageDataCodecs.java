@@ -0,0 +1,647 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.codec;
+
+import java.nio.ByteBuffer;
+
+import org.mini2Dx.minibus.messagedata.primitives.BooleanArrayMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.BooleanMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.CharArrayMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.CharMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.DoubleArrayMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.DoubleMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.FloatArrayMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.FloatMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.IntArrayMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.IntMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.LongArrayMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.LongMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.ShortArrayMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.ShortMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.StringArrayMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.StringMessageData;
+
+/**
+ * Built-in {@link MessageDataCodec}s for the types in {@link org.mini2Dx.minibus.messagedata.primitives}.
+ * Scalar values are written at their fixed width, arrays and {@link String}s are length-prefixed.
+ */
+public final class PrimitiveMessageDataCodecs {
+	/**
+	 * Codec for {@link BooleanMessageData}
+	 */
+	public static final MessageDataCodec<BooleanMessageData> BOOLEAN = new BooleanCodec();
+
+	/**
+	 * Codec for {@link CharMessageData}
+	 */
+	public static final MessageDataCodec<CharMessageData> CHAR = new CharCodec();
+
+	/**
+	 * Codec for {@link ShortMessageData}
+	 */
+	public static final MessageDataCodec<ShortMessageData> SHORT = new ShortCodec();
+
+	/**
+	 * Codec for {@link IntMessageData}
+	 */
+	public static final MessageDataCodec<IntMessageData> INT = new IntCodec();
+
+	/**
+	 * Codec for {@link LongMessageData}
+	 */
+	public static final MessageDataCodec<LongMessageData> LONG = new LongCodec();
+
+	/**
+	 * Codec for {@link FloatMessageData}
+	 */
+	public static final MessageDataCodec<FloatMessageData> FLOAT = new FloatCodec();
+
+	/**
+	 * Codec for {@link DoubleMessageData}
+	 */
+	public static final MessageDataCodec<DoubleMessageData> DOUBLE = new DoubleCodec();
+
+	/**
+	 * Codec for {@link StringMessageData}
+	 */
+	public static final MessageDataCodec<StringMessageData> STRING = new StringCodec();
+
+	/**
+	 * Codec for {@link BooleanArrayMessageData}
+	 */
+	public static final MessageDataCodec<BooleanArrayMessageData> BOOLEAN_ARRAY = new BooleanArrayCodec();
+
+	/**
+	 * Codec for {@link CharArrayMessageData}
+	 */
+	public static final MessageDataCodec<CharArrayMessageData> CHAR_ARRAY = new CharArrayCodec();
+
+	/**
+	 * Codec for {@link ShortArrayMessageData}
+	 */
+	public static final MessageDataCodec<ShortArrayMessageData> SHORT_ARRAY = new ShortArrayCodec();
+
+	/**
+	 * Codec for {@link IntArrayMessageData}
+	 */
+	public static final MessageDataCodec<IntArrayMessageData> INT_ARRAY = new IntArrayCodec();
+
+	/**
+	 * Codec for {@link LongArrayMessageData}
+	 */
+	public static final MessageDataCodec<LongArrayMessageData> LONG_ARRAY = new LongArrayCodec();
+
+	/**
+	 * Codec for {@link FloatArrayMessageData}
+	 */
+	public static final MessageDataCodec<FloatArrayMessageData> FLOAT_ARRAY = new FloatArrayCodec();
+
+	/**
+	 * Codec for {@link DoubleArrayMessageData}
+	 */
+	public static final MessageDataCodec<DoubleArrayMessageData> DOUBLE_ARRAY = new DoubleArrayCodec();
+
+	/**
+	 * Codec for {@link StringArrayMessageData}
+	 */
+	public static final MessageDataCodec<StringArrayMessageData> STRING_ARRAY = new StringArrayCodec();
+
+	private PrimitiveMessageDataCodecs() {}
+
+	private static class BooleanCodec implements MessageDataCodec<BooleanMessageData> {
+		@Override
+		public Class<BooleanMessageData> getType() {
+			return BooleanMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(BooleanMessageData messageData) {
+			return 1;
+		}
+
+		@Override
+		public void encode(BooleanMessageData messageData, ByteBuffer buffer) {
+			buffer.put((byte) (messageData.getValue() ? 1 : 0));
+		}
+
+		@Override
+		public BooleanMessageData decode(ByteBuffer buffer) {
+			return new BooleanMessageData(buffer.get() != 0);
+		}
+	}
+
+	private static class CharCodec implements MessageDataCodec<CharMessageData> {
+		@Override
+		public Class<CharMessageData> getType() {
+			return CharMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(CharMessageData messageData) {
+			return 2;
+		}
+
+		@Override
+		public void encode(CharMessageData messageData, ByteBuffer buffer) {
+			buffer.putChar(messageData.getValue());
+		}
+
+		@Override
+		public CharMessageData decode(ByteBuffer buffer) {
+			return new CharMessageData(buffer.getChar());
+		}
+	}
+
+	private static class ShortCodec implements MessageDataCodec<ShortMessageData> {
+		@Override
+		public Class<ShortMessageData> getType() {
+			return ShortMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(ShortMessageData messageData) {
+			return 2;
+		}
+
+		@Override
+		public void encode(ShortMessageData messageData, ByteBuffer buffer) {
+			buffer.putShort(messageData.getValue());
+		}
+
+		@Override
+		public ShortMessageData decode(ByteBuffer buffer) {
+			return new ShortMessageData(buffer.getShort());
+		}
+	}
+
+	private static class IntCodec implements MessageDataCodec<IntMessageData> {
+		@Override
+		public Class<IntMessageData> getType() {
+			return IntMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(IntMessageData messageData) {
+			return 4;
+		}
+
+		@Override
+		public void encode(IntMessageData messageData, ByteBuffer buffer) {
+			buffer.putInt(messageData.getValue());
+		}
+
+		@Override
+		public IntMessageData decode(ByteBuffer buffer) {
+			return new IntMessageData(buffer.getInt());
+		}
+	}
+
+	private static class LongCodec implements MessageDataCodec<LongMessageData> {
+		@Override
+		public Class<LongMessageData> getType() {
+			return LongMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(LongMessageData messageData) {
+			return 8;
+		}
+
+		@Override
+		public void encode(LongMessageData messageData, ByteBuffer buffer) {
+			buffer.putLong(messageData.getValue());
+		}
+
+		@Override
+		public LongMessageData decode(ByteBuffer buffer) {
+			return new LongMessageData(buffer.getLong());
+		}
+	}
+
+	private static class FloatCodec implements MessageDataCodec<FloatMessageData> {
+		@Override
+		public Class<FloatMessageData> getType() {
+			return FloatMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(FloatMessageData messageData) {
+			return 4;
+		}
+
+		@Override
+		public void encode(FloatMessageData messageData, ByteBuffer buffer) {
+			buffer.putFloat(messageData.getValue());
+		}
+
+		@Override
+		public FloatMessageData decode(ByteBuffer buffer) {
+			return new FloatMessageData(buffer.getFloat());
+		}
+	}
+
+	private static class DoubleCodec implements MessageDataCodec<DoubleMessageData> {
+		@Override
+		public Class<DoubleMessageData> getType() {
+			return DoubleMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(DoubleMessageData messageData) {
+			return 8;
+		}
+
+		@Override
+		public void encode(DoubleMessageData messageData, ByteBuffer buffer) {
+			buffer.putDouble(messageData.getValue());
+		}
+
+		@Override
+		public DoubleMessageData decode(ByteBuffer buffer) {
+			return new DoubleMessageData(buffer.getDouble());
+		}
+	}
+
+	private static class StringCodec implements MessageDataCodec<StringMessageData> {
+		@Override
+		public Class<StringMessageData> getType() {
+			return StringMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(StringMessageData messageData) {
+			return CodecUtils.getStringSize(messageData.getValue());
+		}
+
+		@Override
+		public void encode(StringMessageData messageData, ByteBuffer buffer) {
+			CodecUtils.putString(buffer, messageData.getValue());
+		}
+
+		@Override
+		public StringMessageData decode(ByteBuffer buffer) {
+			return new StringMessageData(CodecUtils.getString(buffer));
+		}
+	}
+
+	private static class BooleanArrayCodec implements MessageDataCodec<BooleanArrayMessageData> {
+		@Override
+		public Class<BooleanArrayMessageData> getType() {
+			return BooleanArrayMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(BooleanArrayMessageData messageData) {
+			final boolean [] value = messageData.getValue();
+			if(value == null) {
+				return CodecUtils.getLengthSize(-1);
+			}
+			return CodecUtils.getLengthSize(value.length) + (value.length * 1);
+		}
+
+		@Override
+		public void encode(BooleanArrayMessageData messageData, ByteBuffer buffer) {
+			final boolean [] value = messageData.getValue();
+			if(value == null) {
+				CodecUtils.putLength(buffer, -1);
+				return;
+			}
+			CodecUtils.putLength(buffer, value.length);
+			for(int i = 0; i < value.length; i++) {
+				buffer.put((byte) (value[i] ? 1 : 0));
+			}
+		}
+
+		@Override
+		public BooleanArrayMessageData decode(ByteBuffer buffer) {
+			final int length = CodecUtils.getLength(buffer, 1);
+			if(length < 0) {
+				return new BooleanArrayMessageData((boolean []) null);
+			}
+			final boolean [] value = new boolean[length];
+			for(int i = 0; i < length; i++) {
+				value[i] = buffer.get() != 0;
+			}
+			return new BooleanArrayMessageData(value);
+		}
+	}
+
+	private static class CharArrayCodec implements MessageDataCodec<CharArrayMessageData> {
+		@Override
+		public Class<CharArrayMessageData> getType() {
+			return CharArrayMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(CharArrayMessageData messageData) {
+			final char [] value = messageData.getValue();
+			if(value == null) {
+				return CodecUtils.getLengthSize(-1);
+			}
+			return CodecUtils.getLengthSize(value.length) + (value.length * 2);
+		}
+
+		@Override
+		public void encode(CharArrayMessageData messageData, ByteBuffer buffer) {
+			final char [] value = messageData.getValue();
+			if(value == null) {
+				CodecUtils.putLength(buffer, -1);
+				return;
+			}
+			CodecUtils.putLength(buffer, value.length);
+			for(int i = 0; i < value.length; i++) {
+				buffer.putChar(value[i]);
+			}
+		}
+
+		@Override
+		public CharArrayMessageData decode(ByteBuffer buffer) {
+			final int length = CodecUtils.getLength(buffer, 2);
+			if(length < 0) {
+				return new CharArrayMessageData((char []) null);
+			}
+			final char [] value = new char[length];
+			for(int i = 0; i < length; i++) {
+				value[i] = buffer.getChar();
+			}
+			return new CharArrayMessageData(value);
+		}
+	}
+
+	private static class ShortArrayCodec implements MessageDataCodec<ShortArrayMessageData> {
+		@Override
+		public Class<ShortArrayMessageData> getType() {
+			return ShortArrayMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(ShortArrayMessageData messageData) {
+			final short [] value = messageData.getValue();
+			if(value == null) {
+				return CodecUtils.getLengthSize(-1);
+			}
+			return CodecUtils.getLengthSize(value.length) + (value.length * 2);
+		}
+
+		@Override
+		public void encode(ShortArrayMessageData messageData, ByteBuffer buffer) {
+			final short [] value = messageData.getValue();
+			if(value == null) {
+				CodecUtils.putLength(buffer, -1);
+				return;
+			}
+			CodecUtils.putLength(buffer, value.length);
+			for(int i = 0; i < value.length; i++) {
+				buffer.putShort(value[i]);
+			}
+		}
+
+		@Override
+		public ShortArrayMessageData decode(ByteBuffer buffer) {
+			final int length = CodecUtils.getLength(buffer, 2);
+			if(length < 0) {
+				return new ShortArrayMessageData((short []) null);
+			}
+			final short [] value = new short[length];
+			for(int i = 0; i < length; i++) {
+				value[i] = buffer.getShort();
+			}
+			return new ShortArrayMessageData(value);
+		}
+	}
+
+	private static class IntArrayCodec implements MessageDataCodec<IntArrayMessageData> {
+		@Override
+		public Class<IntArrayMessageData> getType() {
+			return IntArrayMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(IntArrayMessageData messageData) {
+			final int [] value = messageData.getValue();
+			if(value == null) {
+				return CodecUtils.getLengthSize(-1);
+			}
+			return CodecUtils.getLengthSize(value.length) + (value.length * 4);
+		}
+
+		@Override
+		public void encode(IntArrayMessageData messageData, ByteBuffer buffer) {
+			final int [] value = messageData.getValue();
+			if(value == null) {
+				CodecUtils.putLength(buffer, -1);
+				return;
+			}
+			CodecUtils.putLength(buffer, value.length);
+			for(int i = 0; i < value.length; i++) {
+				buffer.putInt(value[i]);
+			}
+		}
+
+		@Override
+		public IntArrayMessageData decode(ByteBuffer buffer) {
+			final int length = CodecUtils.getLength(buffer, 4);
+			if(length < 0) {
+				return new IntArrayMessageData((int []) null);
+			}
+			final int [] value = new int[length];
+			for(int i = 0; i < length; i++) {
+				value[i] = buffer.getInt();
+			}
+			return new IntArrayMessageData(value);
+		}
+	}
+
+	private static class LongArrayCodec implements MessageDataCodec<LongArrayMessageData> {
+		@Override
+		public Class<LongArrayMessageData> getType() {
+			return LongArrayMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(LongArrayMessageData messageData) {
+			final long [] value = messageData.getValue();
+			if(value == null) {
+				return CodecUtils.getLengthSize(-1);
+			}
+			return CodecUtils.getLengthSize(value.length) + (value.length * 8);
+		}
+
+		@Override
+		public void encode(LongArrayMessageData messageData, ByteBuffer buffer) {
+			final long [] value = messageData.getValue();
+			if(value == null) {
+				CodecUtils.putLength(buffer, -1);
+				return;
+			}
+			CodecUtils.putLength(buffer, value.length);
+			for(int i = 0; i < value.length; i++) {
+				buffer.putLong(value[i]);
+			}
+		}
+
+		@Override
+		public LongArrayMessageData decode(ByteBuffer buffer) {
+			final int length = CodecUtils.getLength(buffer, 8);
+			if(length < 0) {
+				return new LongArrayMessageData((long []) null);
+			}
+			final long [] value = new long[length];
+			for(int i = 0; i < length; i++) {
+				value[i] = buffer.getLong();
+			}
+			return new LongArrayMessageData(value);
+		}
+	}
+
+	private static class FloatArrayCodec implements MessageDataCodec<FloatArrayMessageData> {
+		@Override
+		public Class<FloatArrayMessageData> getType() {
+			return FloatArrayMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(FloatArrayMessageData messageData) {
+			final float [] value = messageData.getValue();
+			if(value == null) {
+				return CodecUtils.getLengthSize(-1);
+			}
+			return CodecUtils.getLengthSize(value.length) + (value.length * 4);
+		}
+
+		@Override
+		public void encode(FloatArrayMessageData messageData, ByteBuffer buffer) {
+			final float [] value = messageData.getValue();
+			if(value == null) {
+				CodecUtils.putLength(buffer, -1);
+				return;
+			}
+			CodecUtils.putLength(buffer, value.length);
+			for(int i = 0; i < value.length; i++) {
+				buffer.putFloat(value[i]);
+			}
+		}
+
+		@Override
+		public FloatArrayMessageData decode(ByteBuffer buffer) {
+			final int length = CodecUtils.getLength(buffer, 4);
+			if(length < 0) {
+				return new FloatArrayMessageData((float []) null);
+			}
+			final float [] value = new float[length];
+			for(int i = 0; i < length; i++) {
+				value[i] = buffer.getFloat();
+			}
+			return new FloatArrayMessageData(value);
+		}
+	}
+
+	private static class DoubleArrayCodec implements MessageDataCodec<DoubleArrayMessageData> {
+		@Override
+		public Class<DoubleArrayMessageData> getType() {
+			return DoubleArrayMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(DoubleArrayMessageData messageData) {
+			final double [] value = messageData.getValue();
+			if(value == null) {
+				return CodecUtils.getLengthSize(-1);
+			}
+			return CodecUtils.getLengthSize(value.length) + (value.length * 8);
+		}
+
+		@Override
+		public void encode(DoubleArrayMessageData messageData, ByteBuffer buffer) {
+			final double [] value = messageData.getValue();
+			if(value == null) {
+				CodecUtils.putLength(buffer, -1);
+				return;
+			}
+			CodecUtils.putLength(buffer, value.length);
+			for(int i = 0; i < value.length; i++) {
+				buffer.putDouble(value[i]);
+			}
+		}
+
+		@Override
+		public DoubleArrayMessageData decode(ByteBuffer buffer) {
+			final int length = CodecUtils.getLength(buffer, 8);
+			if(length < 0) {
+				return new DoubleArrayMessageData((double []) null);
+			}
+			final double [] value = new double[length];
+			for(int i = 0; i < length; i++) {
+				value[i] = buffer.getDouble();
+			}
+			return new DoubleArrayMessageData(value);
+		}
+	}
+
+	private static class StringArrayCodec implements MessageDataCodec<StringArrayMessageData> {
+		@Override
+		public Class<StringArrayMessageData> getType() {
+			return StringArrayMessageData.class;
+		}
+
+		@Override
+		public int getEncodedSize(StringArrayMessageData messageData) {
+			final String [] value = messageData.getValue();
+			if(value == null) {
+				return CodecUtils.getLengthSize(-1);
+			}
+			int result = CodecUtils.getLengthSize(value.length);
+			for(int i = 0; i < value.length; i++) {
+				result += CodecUtils.getStringSize(value[i]);
+			}
+			return result;
+		}
+
+		@Override
+		public void encode(StringArrayMessageData messageData, ByteBuffer buffer) {
+			final String [] value = messageData.getValue();
+			if(value == null) {
+				CodecUtils.putLength(buffer, -1);
+				return;
+			}
+			CodecUtils.putLength(buffer, value.length);
+			for(int i = 0; i < value.length; i++) {
+				CodecUtils.putString(buffer, value[i]);
+			}
+		}
+
+		@Override
+		public StringArrayMessageData decode(ByteBuffer buffer) {
+			final int length = CodecUtils.getLength(buffer, 1);
+			if(length < 0) {
+				return new StringArrayMessageData((String []) null);
+			}
+			final String [] value = new String[length];
+			for(int i = 0; i < length; i++) {
+				value[i] = CodecUtils.getString(buffer);
+			}
+			return new StringArrayMessageData(value);
+		}
+	}
+}
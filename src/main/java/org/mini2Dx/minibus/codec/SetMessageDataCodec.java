@@ -0,0 +1,79 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.codec;
+
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+
+import org.mini2Dx.minibus.messagedata.SetMessageData;
+
+/**
+ * {@link MessageDataCodec} for {@link SetMessageData}. Elements are
+ * written with {@link MessageDataCodecs#encodeValue(Object, ByteBuffer)}.
+ */
+public class SetMessageDataCodec implements MessageDataCodec<SetMessageData<Object>> {
+	private final MessageDataCodecs codecs;
+
+	/**
+	 * Constructor
+	 * @param codecs The {@link MessageDataCodecs} used to encode elements
+	 */
+	public SetMessageDataCodec(MessageDataCodecs codecs) {
+		super();
+		this.codecs = codecs;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public Class<SetMessageData<Object>> getType() {
+		return (Class) SetMessageData.class;
+	}
+
+	@Override
+	public int getEncodedSize(SetMessageData<Object> messageData) {
+		int result = CodecUtils.getLengthSize(messageData.size());
+		for(Object element : messageData) {
+			result += codecs.getValueEncodedSize(element);
+		}
+		return result;
+	}
+
+	@Override
+	public void encode(SetMessageData<Object> messageData, ByteBuffer buffer) {
+		CodecUtils.putLength(buffer, messageData.size());
+		for(Object element : messageData) {
+			codecs.encodeValue(element, buffer);
+		}
+	}
+
+	@Override
+	public SetMessageData<Object> decode(ByteBuffer buffer) {
+		final int size = CodecUtils.getSize(buffer, 1);
+		final SetMessageData<Object> result = new SetMessageData<Object>(new HashSet<Object>(Math.max(16, (int) (size / 0.75f) + 1)));
+		for(int i = 0; i < size; i++) {
+			result.add(codecs.decodeValue(buffer));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,72 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.concurrency;
+
+/**
+ * A read/write lock used by the {@link org.mini2Dx.minibus.MessageBus} and its
+ * internal data structures. Instances are created by a {@link ConcurrencyPolicy}.
+ * Implementations may additionally support optimistic reads (see
+ * {@link #tryOptimisticRead()}) which read-mostly structures try before
+ * falling back to {@link #lockRead()}.
+ */
+public interface BusLock {
+
+	/**
+	 * Acquires the read lock
+	 */
+	public void lockRead();
+
+	/**
+	 * Releases the read lock
+	 */
+	public void unlockRead();
+
+	/**
+	 * Acquires the write lock
+	 */
+	public void lockWrite();
+
+	/**
+	 * Releases the write lock
+	 */
+	public void unlockWrite();
+
+	/**
+	 * Returns a stamp for reading without acquiring the lock. The values read
+	 * must be checked with {@link #validate(long)} before they are used.
+	 * @return 0 if optimistic reads are not supported or the write lock is held
+	 */
+	public default long tryOptimisticRead() {
+		return 0L;
+	}
+
+	/**
+	 * Returns if the write lock has not been acquired since a stamp was issued
+	 * @param stamp A stamp from {@link #tryOptimisticRead()}
+	 * @return True if values read since the stamp was issued are consistent
+	 */
+	public default boolean validate(long stamp) {
+		return false;
+	}
+}
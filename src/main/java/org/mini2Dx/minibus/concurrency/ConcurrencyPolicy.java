@@ -0,0 +1,119 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.concurrency;
+
+import org.mini2Dx.lockprovider.Locks;
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.MessageExchange;
+import org.mini2Dx.minibus.queue.MessageQueue;
+import org.mini2Dx.minibus.queue.MessageQueueFactory;
+
+/**
+ * Determines how a {@link MessageBus} and the structures it owns (exchange
+ * lists, queues, pools and reference counts) are synchronized. Each
+ * {@link MessageBus} has its own instance (see
+ * {@link MessageBus#MessageBus(ConcurrencyPolicy)}) so that buses in the same
+ * JVM can use different strategies.
+ */
+public interface ConcurrencyPolicy extends MessageQueueFactory {
+
+	/**
+	 * Creates a new {@link BusLock}
+	 * @return A new {@link BusLock} instance
+	 */
+	public BusLock newReadWriteLock();
+
+	/**
+	 * Creates a new {@link MessageQueue} for use by object pools
+	 * @param initialCapacity The initial capacity of the queue
+	 * @param <T> The element type
+	 * @return A new {@link MessageQueue} instance
+	 */
+	@Override
+	public <T> MessageQueue<T> newMessageQueue(int initialCapacity);
+
+	/**
+	 * Returns the {@link MessageQueueFactory} used by {@link MessageExchange}s
+	 * that are not given one explicitly
+	 * @return The default {@link MessageQueueFactory}
+	 */
+	public MessageQueueFactory getExchangeQueueFactory();
+
+	/**
+	 * Creates a new {@link Counter}
+	 * @return A new {@link Counter} instance
+	 */
+	public Counter newCounter();
+
+	/**
+	 * Returns if structures created by this policy may be accessed from multiple threads
+	 * @return False if the {@link MessageBus} must only be used from a single thread
+	 */
+	public boolean isThreadSafe();
+
+	/**
+	 * Checks that the current thread may access the {@link MessageBus}. This is
+	 * called from <code>assert</code> statements so it only runs when
+	 * assertions are enabled (e.g. <code>-ea</code>).
+	 * @return True
+	 */
+	public boolean checkThread();
+
+	/**
+	 * Returns a policy that synchronizes via {@link MessageBus#LOCK_PROVIDER}
+	 * @return A new {@link ConcurrencyPolicy} instance
+	 */
+	public static ConcurrencyPolicy threadSafe() {
+		return new ThreadSafeConcurrencyPolicy();
+	}
+
+	/**
+	 * Returns a policy that synchronizes via locks from the given {@link Locks}
+	 * @param locks The {@link Locks} to create locks with
+	 * @return A new {@link ConcurrencyPolicy} instance
+	 */
+	public static ConcurrencyPolicy threadSafe(Locks locks) {
+		return new ThreadSafeConcurrencyPolicy(locks);
+	}
+
+	/**
+	 * Returns a policy that synchronizes via {@link java.util.concurrent.locks.StampedLock}s.
+	 * Reads of sizes and elements in exchange lists and queues are optimistic
+	 * and only acquire a read lock if a write happened concurrently. Note that
+	 * these locks are not reentrant.
+	 * @return A new {@link ConcurrencyPolicy} instance
+	 */
+	public static ConcurrencyPolicy stampedLock() {
+		return new StampedLockConcurrencyPolicy();
+	}
+
+	/**
+	 * Returns a policy that performs no synchronization at all. The
+	 * {@link MessageBus} becomes confined to the first thread that uses it.
+	 * @return A new {@link ConcurrencyPolicy} instance
+	 */
+	public static ConcurrencyPolicy singleThreaded() {
+		return new SingleThreadedConcurrencyPolicy();
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.concurrency;
+
+import org.mini2Dx.lockprovider.ReadWriteLock;
+
+/**
+ * Adapts a {@link ReadWriteLock} from mini2Dx-lock-provider to a {@link BusLock}
+ */
+class LockProviderBusLock implements BusLock {
+	private final ReadWriteLock lock;
+
+	LockProviderBusLock(ReadWriteLock lock) {
+		this.lock = lock;
+	}
+
+	@Override
+	public void lockRead() {
+		lock.lockRead();
+	}
+
+	@Override
+	public void unlockRead() {
+		lock.unlockRead();
+	}
+
+	@Override
+	public void lockWrite() {
+		lock.lockWrite();
+	}
+
+	@Override
+	public void unlockWrite() {
+		lock.unlockWrite();
+	}
+}
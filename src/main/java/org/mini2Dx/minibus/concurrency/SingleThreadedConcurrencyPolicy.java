@@ -0,0 +1,86 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.concurrency;
+
+import org.mini2Dx.minibus.queue.ArrayMessageQueue;
+import org.mini2Dx.minibus.queue.MessageQueue;
+import org.mini2Dx.minibus.queue.MessageQueueFactory;
+import org.mini2Dx.minibus.queue.MessageQueueType;
+
+/**
+ * A {@link ConcurrencyPolicy} with no synchronization. Locks are no-ops,
+ * queues are {@link MessageQueueType#UNSYNCHRONIZED} and counters are plain
+ * fields. When assertions are enabled, access from any thread other than the
+ * first one to use the bus throws an {@link IllegalStateException}.
+ */
+public class SingleThreadedConcurrencyPolicy implements ConcurrencyPolicy {
+	private Thread ownerThread;
+
+	@Override
+	public BusLock newReadWriteLock() {
+		return NoopBusLock.INSTANCE;
+	}
+
+	@Override
+	public <T> MessageQueue<T> newMessageQueue(int initialCapacity) {
+		return new ArrayMessageQueue<T>(initialCapacity);
+	}
+
+	@Override
+	public MessageQueueFactory getExchangeQueueFactory() {
+		return MessageQueueType.UNSYNCHRONIZED;
+	}
+
+	@Override
+	public Counter newCounter() {
+		return new PlainCounter();
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return false;
+	}
+
+	@Override
+	public boolean checkThread() {
+		final Thread currentThread = Thread.currentThread();
+		if(ownerThread == null) {
+			ownerThread = currentThread;
+			return true;
+		}
+		if(ownerThread != currentThread) {
+			throw new IllegalStateException("Single-threaded MessageBus is confined to thread " + ownerThread.getName()
+					+ " but was accessed from thread " + currentThread.getName());
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the thread the {@link org.mini2Dx.minibus.MessageBus} is confined to
+	 * @return Null if assertions are disabled or the bus has not been used yet
+	 */
+	public Thread getOwnerThread() {
+		return ownerThread;
+	}
+}
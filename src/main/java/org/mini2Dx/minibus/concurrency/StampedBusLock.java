@@ -0,0 +1,66 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.concurrency;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A {@link BusLock} backed by a {@link StampedLock} with support for optimistic reads
+ */
+class StampedBusLock implements BusLock {
+	private final StampedLock lock = new StampedLock();
+	private final Lock readLock = lock.asReadLock();
+	private final Lock writeLock = lock.asWriteLock();
+
+	@Override
+	public void lockRead() {
+		readLock.lock();
+	}
+
+	@Override
+	public void unlockRead() {
+		readLock.unlock();
+	}
+
+	@Override
+	public void lockWrite() {
+		writeLock.lock();
+	}
+
+	@Override
+	public void unlockWrite() {
+		writeLock.unlock();
+	}
+
+	@Override
+	public long tryOptimisticRead() {
+		return lock.tryOptimisticRead();
+	}
+
+	@Override
+	public boolean validate(long stamp) {
+		return lock.validate(stamp);
+	}
+}
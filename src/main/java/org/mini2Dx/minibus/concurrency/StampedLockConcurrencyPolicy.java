@@ -0,0 +1,44 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.concurrency;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A thread-safe {@link ConcurrencyPolicy} whose locks are {@link StampedLock}s.
+ * Read-mostly structures such as the exchange list read optimistically and
+ * only take the read lock when a write happened during the read, so
+ * frequent reads do not contend with each other.<br>
+ * <br>
+ * Unlike the default policy, locks are not reentrant and are not created via
+ * mini2Dx-lock-provider, so this policy is only available on platforms that
+ * provide {@link StampedLock}.
+ */
+public class StampedLockConcurrencyPolicy extends ThreadSafeConcurrencyPolicy {
+
+	@Override
+	public BusLock newReadWriteLock() {
+		return new StampedBusLock();
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.concurrency;
+
+import org.mini2Dx.lockprovider.Locks;
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.queue.MessageQueue;
+import org.mini2Dx.minibus.queue.MessageQueueFactory;
+import org.mini2Dx.minibus.util.SynchronizedQueue;
+
+/**
+ * The default {@link ConcurrencyPolicy}. Locks are created by a {@link Locks}
+ * instance (or {@link MessageBus#LOCK_PROVIDER} if none is given) and
+ * exchanges use {@link SynchronizedQueue}s guarded by those locks.
+ */
+public class ThreadSafeConcurrencyPolicy implements ConcurrencyPolicy {
+	private final Locks locks;
+
+	/**
+	 * Constructs a policy that creates locks via {@link MessageBus#LOCK_PROVIDER}
+	 */
+	public ThreadSafeConcurrencyPolicy() {
+		this(null);
+	}
+
+	/**
+	 * Constructor
+	 * @param locks The {@link Locks} to create locks with. Null to use {@link MessageBus#LOCK_PROVIDER}.
+	 */
+	public ThreadSafeConcurrencyPolicy(Locks locks) {
+		super();
+		this.locks = locks;
+	}
+
+	@Override
+	public BusLock newReadWriteLock() {
+		final Locks locks = this.locks != null ? this.locks : MessageBus.LOCK_PROVIDER;
+		return new LockProviderBusLock(locks.newReadWriteLock());
+	}
+
+	@Override
+	public <T> MessageQueue<T> newMessageQueue(int initialCapacity) {
+		return new SynchronizedQueue<T>(initialCapacity, SynchronizedQueue.DEFAULT_SHRINK_THRESHOLD, newReadWriteLock());
+	}
+
+	@Override
+	public MessageQueueFactory getExchangeQueueFactory() {
+		return this;
+	}
+
+	@Override
+	public Counter newCounter() {
+		return new AtomicCounter();
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
+	@Override
+	public boolean checkThread() {
+		return true;
+	}
+}
@@ -24,12 +24,18 @@
 package org.mini2Dx.minibus.exchange;
 
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.mini2Dx.minibus.MessageBus;
 import org.mini2Dx.minibus.MessageData;
 import org.mini2Dx.minibus.MessageExchange;
 import org.mini2Dx.minibus.MessageHandler;
+import org.mini2Dx.minibus.queue.MessageQueue;
+import org.mini2Dx.minibus.queue.MessageQueueFactory;
+import org.mini2Dx.minibus.queue.MessageQueueType;
+import org.mini2Dx.minibus.queue.MpscMessageQueue;
+import org.mini2Dx.minibus.queue.SpscMessageQueue;
 import org.mini2Dx.minibus.transmission.MessageTransmission;
 
 /**
@@ -41,10 +47,36 @@ public class ConcurrentMessageExchange extends MessageExchange implements Runnab
 	private final AtomicBoolean running = new AtomicBoolean(true);
 
 	public ConcurrentMessageExchange(MessageBus messageBus, MessageHandler... messageHandlers) {
-		super(messageBus, messageHandlers);
+		this(messageBus, MessageQueueType.BLOCKING, messageHandlers);
+	}
+
+	/**
+	 * Constructor
+	 * @param messageBus The {@link MessageBus} that created this {@link ConcurrentMessageExchange}
+	 * @param queueFactory The {@link MessageQueueFactory} to create the message queue with. {@link MessageQueueType#BLOCKING} lets the thread wait for messages instead of polling.
+	 *                     Single-consumer queues are rejected since messages are cancelled and cleared from other threads.
+	 * @param messageHandlers The {@link MessageHandler} instances to send messages to
+	 */
+	public ConcurrentMessageExchange(MessageBus messageBus, MessageQueueFactory queueFactory, MessageHandler... messageHandlers) {
+		super(requireThreadSafe(messageBus), requireMultiConsumer(queueFactory), messageHandlers);
 		new Thread(this).start();
 	}
 
+	private static MessageQueueFactory requireMultiConsumer(MessageQueueFactory queueFactory) {
+		final MessageQueue<Object> queue = queueFactory.newMessageQueue(1);
+		if(queue instanceof SpscMessageQueue || queue instanceof MpscMessageQueue) {
+			throw new IllegalArgumentException(ConcurrentMessageExchange.class.getSimpleName() + " does not support single-consumer queues");
+		}
+		return queueFactory;
+	}
+
+	private static MessageBus requireThreadSafe(MessageBus messageBus) {
+		if(!messageBus.getConcurrencyPolicy().isThreadSafe()) {
+			throw new IllegalStateException(ConcurrentMessageExchange.class.getSimpleName() + " is not supported by a single-threaded MessageBus");
+		}
+		return messageBus;
+	}
+
 	@Override
 	public void update(float delta) {}
 
@@ -59,20 +91,28 @@ public class ConcurrentMessageExchange extends MessageExchange implements Runnab
 			try {
 				MessageTransmission messageTransmission = null;
 
-				while(messageQueue.isEmpty()) {
+				long idleStartTime = 0L;
+				while(messageQueue.isEmpty() && running.get()) {
+					if(idleStartTime == 0L) {
+						idleStartTime = System.nanoTime();
+					}
 					try {
-						Thread.sleep(16);
+						messageQueue.await(16, TimeUnit.MILLISECONDS);
 					} catch (Exception e) {}
 				}
+				if(idleStartTime != 0L) {
+					notifyIdle(System.nanoTime() - idleStartTime);
+				}
 				messageTransmission = messageQueue.poll();
 
+				if(messageTransmission == null) {
+					//Queue was cleared by dispose()
+					continue;
+				}
 				if(messageTransmission.getSource() == null) {
 					return;
 				}
-				for(int i = messageHandlers.length - 1; i >= 0; i--) {
-					final MessageHandler messageHandler = messageHandlers[i];
-					messageHandler.onMessageReceived(messageTransmission.getMessageType(), messageTransmission.getSource(), this, messageTransmission.getMessage());
-				}
+				dispatch(messageTransmission);
 				messageTransmission.release();
 			} catch (Exception e) {
 				e.printStackTrace();
@@ -27,6 +27,7 @@ import org.mini2Dx.minibus.MessageBus;
 import org.mini2Dx.minibus.MessageData;
 import org.mini2Dx.minibus.MessageExchange;
 import org.mini2Dx.minibus.MessageHandler;
+import org.mini2Dx.minibus.queue.MessageQueueType;
 import org.mini2Dx.minibus.transmission.MessageTransmission;
 
 /**
@@ -37,7 +38,7 @@ import org.mini2Dx.minibus.transmission.MessageTransmission;
 public class ImmediateMessageExchange extends MessageExchange {
 
 	public ImmediateMessageExchange(MessageBus messageBus, MessageHandler... messageHandlers) {
-		super(messageBus, messageHandlers);
+		super(messageBus, MessageQueueType.UNSYNCHRONIZED, messageHandlers);
 	}
 
 	@Override
@@ -0,0 +1,48 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.exchange;
+
+/**
+ * Determines how an {@link IntervalMessageExchange} behaves when more than one
+ * interval has elapsed during a single update, e.g. after a long frame
+ */
+public enum IntervalCatchUpPolicy {
+	/**
+	 * Flushes once and subtracts a single interval. Any remaining elapsed
+	 * intervals are flushed on subsequent updates.
+	 */
+	FLUSH_ONCE,
+	/**
+	 * Flushes once and discards any other elapsed intervals so that the
+	 * exchange stays in phase with its original schedule
+	 */
+	SKIP_MISSED_TICKS,
+	/**
+	 * Flushes once per elapsed interval (up to
+	 * {@link IntervalMessageExchange#getMaxCatchUpTicks()}), discarding any
+	 * intervals beyond the maximum. This is most useful combined with a flush
+	 * message or time limit.
+	 */
+	FLUSH_PER_TICK
+}
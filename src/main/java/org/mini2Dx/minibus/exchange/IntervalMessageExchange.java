@@ -27,15 +27,27 @@ import org.mini2Dx.minibus.MessageBus;
 import org.mini2Dx.minibus.MessageData;
 import org.mini2Dx.minibus.MessageExchange;
 import org.mini2Dx.minibus.MessageHandler;
+import org.mini2Dx.minibus.queue.MessageQueueFactory;
 
 /**
- * Processes {@link MessageData}s at a regular interval
+ * Processes {@link MessageData}s at a regular interval. Elapsed time is
+ * accumulated in nanoseconds to avoid drift over long periods and the
+ * {@link IntervalCatchUpPolicy} determines how missed intervals are handled.
+ * If messages were carried over by the previous flush (see
+ * {@link #setFlushMessageLimit(int)} and {@link #setFlushTimeLimit(long)}),
+ * they are processed on the next update instead of waiting for the next interval.
  */
 public class IntervalMessageExchange extends MessageExchange {
-	private final float interval;
+	public static final int DEFAULT_MAX_CATCH_UP_TICKS = 4;
+
+	private static final double NANOS_PER_SECOND = 1000000000.0;
+
+	private final long interval;
+	private final IntervalCatchUpPolicy catchUpPolicy;
+
+	private long timer;
+	private int maxCatchUpTicks = DEFAULT_MAX_CATCH_UP_TICKS;
 
-	private float timer;
-	
 	/**
 	 * Constructor
 	 * @param interval The interval between processing {@link MessageData}s (in seconds)
@@ -43,16 +55,68 @@ public class IntervalMessageExchange extends MessageExchange {
 	 * @param messageHandlers The {@link MessageHandler} instances to send messages to
 	 */
 	public IntervalMessageExchange(float interval, MessageBus messageBus, MessageHandler... messageHandlers) {
-		super(messageBus, messageHandlers);
-		this.interval = interval;
+		this(interval, IntervalCatchUpPolicy.FLUSH_ONCE, messageBus, messageHandlers);
+	}
+
+	/**
+	 * Constructor
+	 * @param interval The interval between processing {@link MessageData}s (in seconds)
+	 * @param catchUpPolicy The {@link IntervalCatchUpPolicy} to apply when multiple intervals elapse in one update
+	 * @param messageBus The {@link MessageBus} that created this {@link IntervalMessageExchange}
+	 * @param messageHandlers The {@link MessageHandler} instances to send messages to
+	 */
+	public IntervalMessageExchange(double interval, IntervalCatchUpPolicy catchUpPolicy, MessageBus messageBus,
+			MessageHandler... messageHandlers) {
+		this(interval, catchUpPolicy, messageBus, messageBus.getConcurrencyPolicy().getExchangeQueueFactory(), messageHandlers);
+	}
+
+	/**
+	 * Constructor
+	 * @param interval The interval between processing {@link MessageData}s (in seconds)
+	 * @param catchUpPolicy The {@link IntervalCatchUpPolicy} to apply when multiple intervals elapse in one update
+	 * @param messageBus The {@link MessageBus} that created this {@link IntervalMessageExchange}
+	 * @param queueFactory The {@link MessageQueueFactory} to create the message queue with
+	 * @param messageHandlers The {@link MessageHandler} instances to send messages to
+	 */
+	public IntervalMessageExchange(double interval, IntervalCatchUpPolicy catchUpPolicy, MessageBus messageBus,
+			MessageQueueFactory queueFactory, MessageHandler... messageHandlers) {
+		super(messageBus, queueFactory, messageHandlers);
+		this.interval = Math.max(1L, Math.round(interval * NANOS_PER_SECOND));
+		this.catchUpPolicy = catchUpPolicy;
 	}
 
 	@Override
 	public void update(float delta) {
-		timer += delta;
-		if(timer >= interval) {
+		timer += Math.round(delta * NANOS_PER_SECOND);
+		if(timer < interval) {
+			if(getCarryOverSize() > 0) {
+				flush();
+			}
+			return;
+		}
+
+		switch(catchUpPolicy) {
+		case SKIP_MISSED_TICKS:
+			timer %= interval;
+			flush();
+			break;
+		case FLUSH_PER_TICK:
+			final long elapsedTicks = timer / interval;
+			timer -= elapsedTicks * interval;
+
+			final long totalFlushes = Math.min(elapsedTicks, maxCatchUpTicks);
+			for(long i = 0; i < totalFlushes; i++) {
+				flush();
+				if(messageQueue.isEmpty()) {
+					break;
+				}
+			}
+			break;
+		case FLUSH_ONCE:
+		default:
 			timer -= interval;
 			flush();
+			break;
 		}
 	}
 
@@ -60,4 +124,28 @@ public class IntervalMessageExchange extends MessageExchange {
 	public boolean isImmediate() {
 		return false;
 	}
+
+	/**
+	 * Returns the {@link IntervalCatchUpPolicy} of this exchange
+	 * @return {@link IntervalCatchUpPolicy#FLUSH_ONCE} by default
+	 */
+	public IntervalCatchUpPolicy getCatchUpPolicy() {
+		return catchUpPolicy;
+	}
+
+	/**
+	 * Returns the maximum amount of flushes per update when using {@link IntervalCatchUpPolicy#FLUSH_PER_TICK}
+	 * @return {@link #DEFAULT_MAX_CATCH_UP_TICKS} by default
+	 */
+	public int getMaxCatchUpTicks() {
+		return maxCatchUpTicks;
+	}
+
+	/**
+	 * Sets the maximum amount of flushes per update when using {@link IntervalCatchUpPolicy#FLUSH_PER_TICK}
+	 * @param maxCatchUpTicks The maximum amount of flushes (minimum of 1)
+	 */
+	public void setMaxCatchUpTicks(int maxCatchUpTicks) {
+		this.maxCatchUpTicks = Math.max(1, maxCatchUpTicks);
+	}
 }
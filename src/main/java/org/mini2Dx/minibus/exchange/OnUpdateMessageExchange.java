@@ -27,6 +27,7 @@ import org.mini2Dx.minibus.MessageBus;
 import org.mini2Dx.minibus.MessageData;
 import org.mini2Dx.minibus.MessageExchange;
 import org.mini2Dx.minibus.MessageHandler;
+import org.mini2Dx.minibus.queue.MessageQueueFactory;
 
 /**
  * Processes {@link MessageData}s when {@link #update(float)} is called
@@ -37,6 +38,10 @@ public class OnUpdateMessageExchange extends MessageExchange {
 		super(messageBus, messageHandlers);
 	}
 
+	public OnUpdateMessageExchange(MessageBus messageBus, MessageQueueFactory queueFactory, MessageHandler... messageHandlers) {
+		super(messageBus, queueFactory, messageHandlers);
+	}
+
 	@Override
 	public void update(float delta) {
 		flush();
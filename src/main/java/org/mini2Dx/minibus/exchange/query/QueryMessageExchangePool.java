@@ -24,13 +24,12 @@
 package org.mini2Dx.minibus.exchange.query;
 
 import java.util.List;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.mini2Dx.minibus.MessageBus;
 import org.mini2Dx.minibus.MessageExchange;
 import org.mini2Dx.minibus.MessageHandler;
 import org.mini2Dx.minibus.handler.MessageHandlerChain;
+import org.mini2Dx.minibus.queue.MessageQueue;
 import org.mini2Dx.minibus.util.SynchronizedQueue;
 
 /**
@@ -39,11 +38,12 @@ import org.mini2Dx.minibus.util.SynchronizedQueue;
 public class QueryMessageExchangePool {
 	private final MessageBus messageBus;
 	private final List<MessageExchange> exchangers;
-	private final Queue<QueryMessageExchange> pool = new SynchronizedQueue<QueryMessageExchange>();
+	private final MessageQueue<QueryMessageExchange> pool;
 	
 	public QueryMessageExchangePool(MessageBus messageBus, List<MessageExchange> exchangers) {
 		this.messageBus = messageBus;
 		this.exchangers = exchangers;
+		this.pool = messageBus.getConcurrencyPolicy().newMessageQueue(SynchronizedQueue.DEFAULT_INITIAL_CAPACITY);
 	}
 	
 	public QueryMessageExchange allocate(MessageHandler messageHandler, String responseMessageType, boolean requiresDirectResponse) {
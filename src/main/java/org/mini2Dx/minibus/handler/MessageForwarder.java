@@ -50,12 +50,24 @@ public abstract class MessageForwarder implements MessageHandler {
 
 	@Override
 	public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
-		if (!forward(messageData)) {
+		if (!forward(messageType, messageData)) {
 			return;
 		}
-		for (MessageExchange exchanger : receivers) {
-			source.sendTo(exchanger, messageType, messageData);
-		}
+		source.sendTo(receivers, messageType, messageData);
+	}
+
+	/**
+	 * Called when a message is received. Override this method to filter
+	 * messages by message type as well as {@link MessageData}.
+	 * 
+	 * @param messageType
+	 *            The message type that was received
+	 * @param messageData
+	 *            The {@link MessageData} that was received
+	 * @return True if the message should be forwarded. Defaults to the result of {@link #forward(MessageData)}
+	 */
+	public boolean forward(String messageType, MessageData messageData) {
+		return forward(messageData);
 	}
 
 	/**
@@ -0,0 +1,333 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.MessageData;
+import org.mini2Dx.minibus.MessageExchange;
+import org.mini2Dx.minibus.MessageInterceptor;
+import org.mini2Dx.minibus.codec.CodecUtils;
+import org.mini2Dx.minibus.codec.MessageDataCodecs;
+import org.mini2Dx.minibus.concurrency.BusLock;
+import org.mini2Dx.minibus.concurrency.ConcurrencyPolicy;
+import org.mini2Dx.minibus.concurrency.Counter;
+import org.mini2Dx.minibus.exception.MessageDataCodecException;
+import org.mini2Dx.minibus.transmission.MessageTransmission;
+
+/**
+ * An append-only journal of messages delivered to {@link MessageExchange}s.
+ * Register it with {@link MessageBus#addInterceptor(MessageInterceptor)} to
+ * record every message queued at an exchange, including each receiver of a
+ * broadcast. Records are written to memory-mapped segment files which are
+ * rolled when full. {@link org.mini2Dx.minibus.MessageData} is encoded with
+ * {@link MessageDataCodecs}. Messages whose data has no codec or whose record
+ * does not fit in a segment are not journaled and are counted by
+ * {@link #getSkippedRecords()}.
+ *
+ * Each record is written before its length so that a partially written record
+ * is ignored by {@link MessageJournalReader} after a crash. The payload of a
+ * message is encoded once and copied into the record of each receiver.
+ */
+public class MessageJournal implements MessageInterceptor, Closeable {
+	/**
+	 * The default size (in bytes) of each segment file
+	 */
+	public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	static final String SEGMENT_SUFFIX = ".journal";
+	static final int SEGMENT_MAGIC = 0x4D424A32;
+	static final int SEGMENT_HEADER_SIZE = 4 + 8;
+	static final int RECORD_LENGTH_SIZE = 4;
+	static final int RECORD_HEADER_SIZE = 8 + 4 + 4 + 1;
+	static final int FLAG_BROADCAST = 0x80;
+	static final int PRIORITY_MASK = 0x7F;
+
+	private final BusLock lock;
+	private final Path directory;
+	private final MessageDataCodecs codecs;
+	private final int segmentSize;
+	private final int maxSegments;
+	private final long startTime = System.nanoTime();
+	private final long baseTime = System.currentTimeMillis() * 1000000L;
+	private final Counter skippedRecords;
+	private final ArrayDeque<Path> segmentFiles = new ArrayDeque<Path>();
+
+	private volatile MessageTransmission encodedTransmission;
+	private ByteBuffer encodedPayload = ByteBuffer.allocate(256);
+	private boolean encodedSkipped;
+	private int encodedFlags;
+
+	private int nextSegmentIndex;
+	private FileChannel channel;
+	private MappedByteBuffer segment;
+	private boolean closed;
+
+	/**
+	 * Constructs a journal with the default segment size, unlimited segments and the built-in codecs
+	 * @param directory The directory to write segment files to
+	 * @throws IOException Thrown if the directory or first segment could not be created
+	 */
+	public MessageJournal(Path directory) throws IOException {
+		this(directory, new MessageDataCodecs(), DEFAULT_SEGMENT_SIZE, 0);
+	}
+
+	/**
+	 * Constructor. If the directory already contains segments, new segments are appended after them.
+	 * @param directory The directory to write segment files to
+	 * @param codecs The {@link MessageDataCodecs} used to encode message data
+	 * @param segmentSize The size (in bytes) of each segment file
+	 * @param maxSegments The maximum amount of segment files to keep, older segments are deleted. 0 for unlimited.
+	 * @throws IOException Thrown if the directory or first segment could not be created
+	 */
+	public MessageJournal(Path directory, MessageDataCodecs codecs, int segmentSize, int maxSegments) throws IOException {
+		this(directory, codecs, segmentSize, maxSegments, ConcurrencyPolicy.threadSafe());
+	}
+
+	/**
+	 * Constructor. If the directory already contains segments, new segments are appended after them.
+	 * @param directory The directory to write segment files to
+	 * @param codecs The {@link MessageDataCodecs} used to encode message data
+	 * @param segmentSize The size (in bytes) of each segment file
+	 * @param maxSegments The maximum amount of segment files to keep, older segments are deleted. 0 for unlimited.
+	 * @param concurrencyPolicy The {@link ConcurrencyPolicy} of the {@link MessageBus} being recorded
+	 * @throws IOException Thrown if the directory or first segment could not be created
+	 */
+	public MessageJournal(Path directory, MessageDataCodecs codecs, int segmentSize, int maxSegments,
+			ConcurrencyPolicy concurrencyPolicy) throws IOException {
+		super();
+		if(segmentSize <= SEGMENT_HEADER_SIZE + RECORD_LENGTH_SIZE + RECORD_HEADER_SIZE) {
+			throw new RuntimeException("segmentSize is too small");
+		}
+		if(maxSegments < 0) {
+			throw new RuntimeException("maxSegments cannot be less than 0");
+		}
+		this.lock = concurrencyPolicy.newReadWriteLock();
+		this.skippedRecords = concurrencyPolicy.newCounter();
+		this.directory = directory;
+		this.codecs = codecs;
+		this.segmentSize = segmentSize;
+		this.maxSegments = maxSegments;
+
+		Files.createDirectories(directory);
+		final List<Path> existingSegments = listSegments(directory);
+		segmentFiles.addAll(existingSegments);
+		if(!existingSegments.isEmpty()) {
+			nextSegmentIndex = getSegmentIndex(existingSegments.get(existingSegments.size() - 1)) + 1;
+		}
+		nextSegment();
+	}
+
+	@Override
+	public void onQueue(MessageExchange receiver, MessageTransmission messageTransmission) {
+		append(System.nanoTime() - startTime, messageTransmission.getSource(), receiver, messageTransmission);
+	}
+
+	@Override
+	public void onSend(MessageTransmission messageTransmission) {
+		if(encodedTransmission != messageTransmission) {
+			return;
+		}
+		lock.lockWrite();
+		try {
+			//Transmissions are pooled so a payload cached for a previous message must not be reused
+			if(encodedTransmission == messageTransmission) {
+				encodedTransmission = null;
+			}
+		} finally {
+			lock.unlockWrite();
+		}
+	}
+
+	private void append(long timestamp, MessageExchange source, MessageExchange receiver, MessageTransmission messageTransmission) {
+		lock.lockWrite();
+		try {
+			if(closed) {
+				return;
+			}
+			if(encodedTransmission != messageTransmission) {
+				encodePayload(messageTransmission);
+			}
+			if(encodedSkipped) {
+				skippedRecords.incrementAndGet();
+				return;
+			}
+			final int recordSize = RECORD_HEADER_SIZE + encodedPayload.limit();
+			if(segment.remaining() < recordSize + RECORD_LENGTH_SIZE) {
+				nextSegment();
+			}
+			final int recordStart = segment.position();
+			segment.position(recordStart + RECORD_LENGTH_SIZE);
+			segment.putLong(timestamp);
+			segment.putInt(source == null ? 0 : source.getId());
+			segment.putInt(receiver.getId());
+			segment.put((byte) encodedFlags);
+			encodedPayload.rewind();
+			segment.put(encodedPayload);
+			segment.putInt(recordStart, recordSize);
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		} finally {
+			lock.unlockWrite();
+		}
+	}
+
+	private void encodePayload(MessageTransmission messageTransmission) {
+		encodedTransmission = messageTransmission;
+		encodedSkipped = true;
+
+		final String messageType = messageTransmission.getMessageType();
+		final MessageData messageData = messageTransmission.getMessage();
+		if(messageData != null && codecs.getCodec(messageData.getClass()) == null) {
+			return;
+		}
+		final int payloadSize;
+		try {
+			payloadSize = CodecUtils.getStringSize(messageType) + codecs.getEncodedSize(messageData);
+		} catch (MessageDataCodecException e) {
+			return;
+		}
+		if(RECORD_HEADER_SIZE + payloadSize + RECORD_LENGTH_SIZE > segmentSize - SEGMENT_HEADER_SIZE) {
+			return;
+		}
+		if(encodedPayload.capacity() < payloadSize) {
+			encodedPayload = ByteBuffer.allocate(Math.max(payloadSize, encodedPayload.capacity() * 2));
+		}
+		encodedPayload.clear();
+		try {
+			CodecUtils.putString(encodedPayload, messageType);
+			codecs.encode(messageData, encodedPayload);
+		} catch (RuntimeException e) {
+			return;
+		}
+		encodedPayload.flip();
+
+		int flags = messageTransmission.getPriority().ordinal() & PRIORITY_MASK;
+		if(messageTransmission.isBroadcastMessage()) {
+			flags |= FLAG_BROADCAST;
+		}
+		encodedFlags = flags;
+		encodedSkipped = false;
+	}
+
+	/**
+	 * Flushes all written records to the storage device
+	 */
+	public void force() {
+		lock.lockWrite();
+		try {
+			if(!closed) {
+				segment.force();
+			}
+		} finally {
+			lock.unlockWrite();
+		}
+	}
+
+	/**
+	 * Flushes and closes the journal. Further messages are not recorded.
+	 * @throws IOException Thrown if the current segment could not be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		lock.lockWrite();
+		try {
+			if(closed) {
+				return;
+			}
+			closed = true;
+			segment.force();
+			segment = null;
+			channel.close();
+		} finally {
+			lock.unlockWrite();
+		}
+	}
+
+	/**
+	 * Returns the amount of messages that were not journaled because their
+	 * data could not be encoded or their record was larger than a segment
+	 * @return 0 if all messages were journaled
+	 */
+	public long getSkippedRecords() {
+		return skippedRecords.get();
+	}
+
+	/**
+	 * Returns the directory segment files are written to
+	 * @return The journal directory
+	 */
+	public Path getDirectory() {
+		return directory;
+	}
+
+	private void nextSegment() throws IOException {
+		if(channel != null) {
+			segment.force();
+			channel.close();
+		}
+		final Path segmentFile = directory.resolve(getSegmentFileName(nextSegmentIndex++));
+		channel = FileChannel.open(segmentFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+		segment.putInt(SEGMENT_MAGIC);
+		segment.putLong(baseTime);
+
+		segmentFiles.add(segmentFile);
+		while(maxSegments > 0 && segmentFiles.size() > maxSegments) {
+			Files.deleteIfExists(segmentFiles.poll());
+		}
+	}
+
+	static String getSegmentFileName(int index) {
+		return String.format("%08d", index) + SEGMENT_SUFFIX;
+	}
+
+	static int getSegmentIndex(Path segmentFile) {
+		final String fileName = segmentFile.getFileName().toString();
+		return Integer.parseInt(fileName.substring(0, fileName.length() - SEGMENT_SUFFIX.length()));
+	}
+
+	static List<Path> listSegments(Path directory) throws IOException {
+		final List<Path> result = new ArrayList<Path>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+			for(Path path : stream) {
+				result.add(path);
+			}
+		}
+		result.sort((a, b) -> Integer.compare(getSegmentIndex(a), getSegmentIndex(b)));
+		return result;
+	}
+}
@@ -0,0 +1,180 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.mini2Dx.minibus.MessageData;
+import org.mini2Dx.minibus.MessagePriority;
+import org.mini2Dx.minibus.codec.CodecUtils;
+import org.mini2Dx.minibus.codec.MessageDataCodecs;
+
+/**
+ * Reads the records of a {@link MessageJournal} in order. Reading stops at the
+ * end of the last complete record, so a journal that was not closed cleanly
+ * can still be read.
+ */
+public class MessageJournalReader implements Closeable {
+	private static final MessagePriority [] PRIORITIES = MessagePriority.values();
+
+	private final MessageDataCodecs codecs;
+	private final List<Path> segmentFiles;
+
+	private int segmentIndex;
+	private MappedByteBuffer segment;
+	private long segmentBaseTime;
+
+	private long timestamp;
+	private int sourceId;
+	private int receiverId;
+	private boolean broadcast;
+	private MessagePriority priority;
+	private String messageType;
+	private MessageData messageData;
+
+	/**
+	 * Constructs a reader using the built-in codecs
+	 * @param directory The journal directory
+	 * @throws IOException Thrown if the directory could not be read
+	 */
+	public MessageJournalReader(Path directory) throws IOException {
+		this(directory, new MessageDataCodecs());
+	}
+
+	/**
+	 * Constructor
+	 * @param directory The journal directory
+	 * @param codecs The {@link MessageDataCodecs} used to decode message data
+	 * @throws IOException Thrown if the directory could not be read
+	 */
+	public MessageJournalReader(Path directory, MessageDataCodecs codecs) throws IOException {
+		super();
+		this.codecs = codecs;
+		this.segmentFiles = MessageJournal.listSegments(directory);
+	}
+
+	/**
+	 * Reads the next record
+	 * @return False if there are no more records
+	 * @throws IOException Thrown if a segment could not be read
+	 */
+	public boolean next() throws IOException {
+		while(true) {
+			if(segment == null) {
+				if(segmentIndex >= segmentFiles.size()) {
+					return false;
+				}
+				openSegment(segmentFiles.get(segmentIndex++));
+				continue;
+			}
+			if(segment.remaining() < MessageJournal.RECORD_LENGTH_SIZE) {
+				segment = null;
+				continue;
+			}
+			final int recordSize = segment.getInt();
+			if(recordSize <= 0 || recordSize > segment.remaining()) {
+				segment = null;
+				continue;
+			}
+			final int recordEnd = segment.position() + recordSize;
+			timestamp = segmentBaseTime + segment.getLong();
+			sourceId = segment.getInt();
+			receiverId = segment.getInt();
+			final int flags = segment.get() & 0xFF;
+			broadcast = (flags & MessageJournal.FLAG_BROADCAST) != 0;
+			priority = PRIORITIES[flags & MessageJournal.PRIORITY_MASK];
+			messageType = CodecUtils.getString(segment);
+			messageData = codecs.decode(segment);
+			segment.position(recordEnd);
+			return true;
+		}
+	}
+
+	private void openSegment(Path segmentFile) throws IOException {
+		try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.READ)) {
+			segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		if(segment.remaining() < MessageJournal.SEGMENT_HEADER_SIZE || segment.getInt() != MessageJournal.SEGMENT_MAGIC) {
+			throw new IOException(segmentFile + " is not a journal segment");
+		}
+		segmentBaseTime = segment.getLong();
+	}
+
+	/**
+	 * Returns the time the current record was written. Records written by the
+	 * same {@link MessageJournal} keep nanosecond precision relative to each other.
+	 * @return Nanoseconds since the epoch
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * Returns the id of the {@link org.mini2Dx.minibus.MessageExchange} the current message was sent from
+	 * @return 0 if the message had no source
+	 */
+	public int getSourceId() {
+		return sourceId;
+	}
+
+	/**
+	 * Returns the id of the {@link org.mini2Dx.minibus.MessageExchange} the current message was delivered to
+	 * @return The receiver id
+	 */
+	public int getReceiverId() {
+		return receiverId;
+	}
+
+	/**
+	 * Returns if the current message was delivered as part of a broadcast
+	 * @return True if the message was broadcast
+	 */
+	public boolean isBroadcast() {
+		return broadcast;
+	}
+
+	public MessagePriority getPriority() {
+		return priority;
+	}
+
+	public String getMessageType() {
+		return messageType;
+	}
+
+	public MessageData getMessageData() {
+		return messageData;
+	}
+
+	@Override
+	public void close() {
+		segment = null;
+		segmentIndex = segmentFiles.size();
+	}
+}
@@ -0,0 +1,204 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.MessageExchange;
+
+/**
+ * Re-injects the messages recorded by a {@link MessageJournal} into a
+ * {@link MessageBus}. Each record is delivered to the exchange that originally
+ * received it, so broadcasts are replayed exactly as they were delivered.
+ *
+ * Exchange ids are not stable between processes, so recorded ids can be
+ * mapped to exchanges with {@link #mapExchange(int, MessageExchange)}. Unmapped
+ * ids are looked up with {@link MessageBus#getExchange(int)}.
+ */
+public class MessageJournalReplayer implements Closeable {
+	private final MessageBus messageBus;
+	private final MessageJournalReader reader;
+	private final Map<Integer, MessageExchange> exchangeMappings = new HashMap<Integer, MessageExchange>();
+
+	private float speed = 1f;
+	private long replayTime = -1L;
+	private boolean recordPending;
+	private boolean finished;
+	private int skippedMessages;
+
+	/**
+	 * Constructs a replayer using the built-in codecs
+	 * @param messageBus The {@link MessageBus} to inject messages into
+	 * @param directory The journal directory
+	 * @throws IOException Thrown if the journal could not be read
+	 */
+	public MessageJournalReplayer(MessageBus messageBus, Path directory) throws IOException {
+		this(messageBus, new MessageJournalReader(directory));
+	}
+
+	/**
+	 * Constructor
+	 * @param messageBus The {@link MessageBus} to inject messages into
+	 * @param reader The {@link MessageJournalReader} to read records from
+	 */
+	public MessageJournalReplayer(MessageBus messageBus, MessageJournalReader reader) {
+		super();
+		this.messageBus = messageBus;
+		this.reader = reader;
+	}
+
+	/**
+	 * Maps an exchange id from the journal to an exchange on this {@link MessageBus}
+	 * @param recordedId The id of the {@link MessageExchange} when the journal was recorded
+	 * @param exchange The {@link MessageExchange} to use in its place
+	 */
+	public void mapExchange(int recordedId, MessageExchange exchange) {
+		exchangeMappings.put(recordedId, exchange);
+	}
+
+	/**
+	 * Advances the replay and injects all messages recorded up to the new replay time.
+	 * The first recorded message is injected on the first update.
+	 * @param delta (in seconds) The time elapsed since the last update
+	 * @return The amount of messages injected
+	 * @throws IOException Thrown if the journal could not be read
+	 */
+	public int update(float delta) throws IOException {
+		if(!peek()) {
+			return 0;
+		}
+		if(replayTime < 0L) {
+			replayTime = reader.getTimestamp();
+		} else {
+			replayTime += (long) (delta * speed * 1000000000.0);
+		}
+
+		int result = 0;
+		while(peek() && reader.getTimestamp() <= replayTime) {
+			if(inject()) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Injects all remaining messages immediately
+	 * @return The amount of messages injected
+	 * @throws IOException Thrown if the journal could not be read
+	 */
+	public int replayAll() throws IOException {
+		int result = 0;
+		while(peek()) {
+			if(inject()) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	private boolean peek() throws IOException {
+		if(recordPending) {
+			return true;
+		}
+		if(finished) {
+			return false;
+		}
+		recordPending = reader.next();
+		finished = !recordPending;
+		return recordPending;
+	}
+
+	private boolean inject() {
+		recordPending = false;
+		final MessageExchange receiver = resolve(reader.getReceiverId());
+		if(receiver == null) {
+			skippedMessages++;
+			return false;
+		}
+		final MessageExchange source = resolve(reader.getSourceId());
+		if(source == null) {
+			messageBus.sendTo(receiver, reader.getMessageType(), reader.getMessageData(), reader.getPriority());
+		} else {
+			messageBus.send(source, receiver, reader.getMessageType(), reader.getMessageData(), reader.getPriority());
+		}
+		return true;
+	}
+
+	private MessageExchange resolve(int recordedId) {
+		if(recordedId == 0) {
+			return null;
+		}
+		final MessageExchange result = exchangeMappings.get(recordedId);
+		if(result != null) {
+			return result;
+		}
+		return messageBus.getExchange(recordedId);
+	}
+
+	/**
+	 * Returns the replay speed
+	 * @return 1 by default
+	 */
+	public float getSpeed() {
+		return speed;
+	}
+
+	/**
+	 * Sets the replay speed multiplier, e.g. 2 to replay at double speed
+	 * @param speed The replay speed (greater than 0)
+	 */
+	public void setSpeed(float speed) {
+		if(speed <= 0f) {
+			throw new RuntimeException("speed must be greater than 0, use replayAll() to replay immediately");
+		}
+		this.speed = speed;
+	}
+
+	/**
+	 * Returns if all recorded messages have been injected
+	 * @return True if the journal has been fully replayed
+	 */
+	public boolean isFinished() {
+		return finished && !recordPending;
+	}
+
+	/**
+	 * Returns the amount of messages that were skipped because their receiver could not be resolved
+	 * @return 0 if all messages were injected
+	 */
+	public int getSkippedMessages() {
+		return skippedMessages;
+	}
+
+	@Override
+	public void close() {
+		reader.close();
+	}
+}
@@ -0,0 +1,293 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.messagedata;
+
+import org.mini2Dx.minibus.MessageData;
+import org.mini2Dx.minibus.pool.MessageDataPool;
+import org.mini2Dx.minibus.pool.OptionallyPooledMessageData;
+import org.mini2Dx.minibus.pool.PooledMessageData;
+
+/**
+ * A {@link MessageData} map of int keys to float values using open addressing
+ * with linear probing, so no entries or boxed values are allocated. When released
+ * to a {@link MessageDataPool} the map is cleared but keeps its capacity
+ * up to the pool's maximum retained capacity.
+ *
+ * Entries can be iterated without allocation:
+ * <pre>
+ * for(int i = map.firstIndex(); i &gt;= 0; i = map.nextIndex(i)) {
+ *     map.keyAt(i);
+ *     map.valueAt(i);
+ * }
+ * </pre>
+ */
+public class IntFloatMapMessageData extends OptionallyPooledMessageData {
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final float LOAD_FACTOR = 0.75f;
+
+	private int [] keys;
+	private float [] values;
+	private boolean hasZeroKey;
+	private float zeroValue;
+	private int size;
+	private int mask;
+	private int threshold;
+
+	/**
+	 * Constructs a non-pooled {@link IntFloatMapMessageData} instance
+	 */
+	public IntFloatMapMessageData() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a non-pooled {@link IntFloatMapMessageData} instance
+	 * @param initialCapacity The amount of entries that can be stored before resizing
+	 */
+	public IntFloatMapMessageData(int initialCapacity) {
+		super();
+		allocateTables(getTableSize(initialCapacity));
+	}
+
+	/**
+	 * Constructs a pooled {@link IntFloatMapMessageData} instance
+	 * @param pool The {@link MessageDataPool} managing this instance
+	 */
+	public IntFloatMapMessageData(MessageDataPool<PooledMessageData> pool) {
+		super(pool);
+		allocateTables(getTableSize(DEFAULT_CAPACITY));
+	}
+
+	@Override
+	public void reset() {
+		clear();
+	}
+
+	@Override
+	public void trim(int maxCapacity) {
+		final int tableSize = getTableSize(maxCapacity);
+		if(keys.length <= tableSize) {
+			return;
+		}
+		allocateTables(tableSize);
+		hasZeroKey = false;
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean containsKey(int key) {
+		if(key == 0) {
+			return hasZeroKey;
+		}
+		return findIndex(key) >= 0;
+	}
+
+	/**
+	 * Returns the value for a key
+	 * @param key The key
+	 * @param defaultValue The value to return if the key is not present
+	 * @return The value or the default value
+	 */
+	public float get(int key, float defaultValue) {
+		if(key == 0) {
+			return hasZeroKey ? zeroValue : defaultValue;
+		}
+		final int index = findIndex(key);
+		return index < 0 ? defaultValue : values[index];
+	}
+
+	/**
+	 * Sets the value for a key
+	 * @param key The key
+	 * @param value The value
+	 */
+	public void put(int key, float value) {
+		if(key == 0) {
+			if(!hasZeroKey) {
+				hasZeroKey = true;
+				size++;
+			}
+			zeroValue = value;
+			return;
+		}
+		int index = hash(key) & mask;
+		while(keys[index] != 0) {
+			if(keys[index] == key) {
+				values[index] = value;
+				return;
+			}
+			index = (index + 1) & mask;
+		}
+		keys[index] = key;
+		values[index] = value;
+		if(++size > threshold) {
+			resize(keys.length << 1);
+		}
+	}
+
+	/**
+	 * Removes a key
+	 * @param key The key
+	 * @param defaultValue The value to return if the key is not present
+	 * @return The removed value or the default value
+	 */
+	public float remove(int key, float defaultValue) {
+		if(key == 0) {
+			if(!hasZeroKey) {
+				return defaultValue;
+			}
+			hasZeroKey = false;
+			size--;
+			return zeroValue;
+		}
+		int index = findIndex(key);
+		if(index < 0) {
+			return defaultValue;
+		}
+		final float result = values[index];
+		size--;
+
+		//Shift following entries back so that lookups do not stop at the gap
+		int next = (index + 1) & mask;
+		while(keys[next] != 0) {
+			final int ideal = hash(keys[next]) & mask;
+			if(((next - ideal) & mask) >= ((next - index) & mask)) {
+				keys[index] = keys[next];
+				values[index] = values[next];
+				index = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[index] = 0;
+		return result;
+	}
+
+	/**
+	 * Removes all entries while keeping the current capacity
+	 */
+	public void clear() {
+		if(size == 0) {
+			return;
+		}
+		for(int i = 0; i < keys.length; i++) {
+			keys[i] = 0;
+		}
+		hasZeroKey = false;
+		size = 0;
+	}
+
+	/**
+	 * Returns the first entry index for iteration
+	 * @return -1 if the map is empty
+	 */
+	public int firstIndex() {
+		return nextIndex(-1);
+	}
+
+	/**
+	 * Returns the entry index following an index
+	 * @param index The current entry index
+	 * @return -1 if there are no more entries
+	 */
+	public int nextIndex(int index) {
+		for(int i = index + 1; i < keys.length; i++) {
+			if(keys[i] != 0) {
+				return i;
+			}
+		}
+		if(index < keys.length && hasZeroKey) {
+			return keys.length;
+		}
+		return -1;
+	}
+
+	public int keyAt(int index) {
+		return index == keys.length ? 0 : keys[index];
+	}
+
+	public float valueAt(int index) {
+		return index == keys.length ? zeroValue : values[index];
+	}
+
+	/**
+	 * Returns the amount of entries that can be stored before resizing
+	 * @return The capacity
+	 */
+	public int getCapacity() {
+		return threshold;
+	}
+
+	private int findIndex(int key) {
+		int index = hash(key) & mask;
+		while(keys[index] != 0) {
+			if(keys[index] == key) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void resize(int tableSize) {
+		final int [] oldKeys = keys;
+		final float [] oldValues = values;
+		allocateTables(tableSize);
+		for(int i = 0; i < oldKeys.length; i++) {
+			final int key = oldKeys[i];
+			if(key == 0) {
+				continue;
+			}
+			int index = hash(key) & mask;
+			while(keys[index] != 0) {
+				index = (index + 1) & mask;
+			}
+			keys[index] = key;
+			values[index] = oldValues[i];
+		}
+	}
+
+	private void allocateTables(int tableSize) {
+		keys = new int[tableSize];
+		values = new float[tableSize];
+		mask = tableSize - 1;
+		threshold = (int) (tableSize * LOAD_FACTOR);
+	}
+
+	private static int getTableSize(int capacity) {
+		final int minimumSize = Math.max(2, (int) Math.ceil(capacity / LOAD_FACTOR));
+		return Integer.highestOneBit(minimumSize - 1) << 1;
+	}
+
+	private static int hash(int key) {
+		final int hash = key * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+}
@@ -0,0 +1,193 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.messagedata;
+
+import org.mini2Dx.minibus.MessageData;
+import org.mini2Dx.minibus.pool.MessageDataPool;
+import org.mini2Dx.minibus.pool.OptionallyPooledMessageData;
+import org.mini2Dx.minibus.pool.PooledMessageData;
+
+/**
+ * A {@link MessageData} list of int values backed by an int array, so no boxed
+ * values are allocated. When released to a {@link MessageDataPool} the list is
+ * cleared but keeps its capacity
+ * up to the pool's maximum retained capacity.
+ */
+public class IntListMessageData extends OptionallyPooledMessageData {
+	private static final int DEFAULT_CAPACITY = 16;
+
+	private int [] items;
+	private int size;
+
+	/**
+	 * Constructs a non-pooled {@link IntListMessageData} instance
+	 */
+	public IntListMessageData() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a non-pooled {@link IntListMessageData} instance
+	 * @param initialCapacity The amount of values that can be stored before resizing
+	 */
+	public IntListMessageData(int initialCapacity) {
+		super();
+		items = new int[initialCapacity];
+	}
+
+	/**
+	 * Constructs a pooled {@link IntListMessageData} instance
+	 * @param pool The {@link MessageDataPool} managing this instance
+	 */
+	public IntListMessageData(MessageDataPool<PooledMessageData> pool) {
+		super(pool);
+		items = new int[DEFAULT_CAPACITY];
+	}
+
+	@Override
+	public void reset() {
+		clear();
+	}
+
+	@Override
+	public void trim(int maxCapacity) {
+		if(items.length <= maxCapacity) {
+			return;
+		}
+		items = new int[maxCapacity];
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public void add(int value) {
+		if(size == items.length) {
+			ensureCapacity(size + 1);
+		}
+		items[size++] = value;
+	}
+
+	/**
+	 * Appends values from an array
+	 * @param values The source array
+	 * @param offset The index of the first value to append
+	 * @param length The amount of values to append
+	 */
+	public void addAll(int [] values, int offset, int length) {
+		ensureCapacity(size + length);
+		System.arraycopy(values, offset, items, size, length);
+		size += length;
+	}
+
+	public int get(int index) {
+		if(index >= size) {
+			throw new IndexOutOfBoundsException("index " + index + " >= size " + size);
+		}
+		return items[index];
+	}
+
+	public void set(int index, int value) {
+		if(index >= size) {
+			throw new IndexOutOfBoundsException("index " + index + " >= size " + size);
+		}
+		items[index] = value;
+	}
+
+	/**
+	 * Removes the value at an index, shifting following values
+	 * @param index The index
+	 * @return The removed value
+	 */
+	public int removeIndex(int index) {
+		final int result = get(index);
+		size--;
+		System.arraycopy(items, index + 1, items, index, size - index);
+		return result;
+	}
+
+	/**
+	 * Removes the first occurrence of a value
+	 * @param value The value
+	 * @return False if the value was not present
+	 */
+	public boolean removeValue(int value) {
+		final int index = indexOf(value);
+		if(index < 0) {
+			return false;
+		}
+		removeIndex(index);
+		return true;
+	}
+
+	public int indexOf(int value) {
+		for(int i = 0; i < size; i++) {
+			if(items[i] == value) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	public boolean contains(int value) {
+		return indexOf(value) >= 0;
+	}
+
+	/**
+	 * Removes all values while keeping the current capacity
+	 */
+	public void clear() {
+		size = 0;
+	}
+
+	/**
+	 * Ensures the list can store an amount of values without resizing
+	 * @param capacity The required capacity
+	 */
+	public void ensureCapacity(int capacity) {
+		if(capacity <= items.length) {
+			return;
+		}
+		final int [] newItems = new int[Math.max(capacity, Math.max(DEFAULT_CAPACITY, items.length << 1))];
+		System.arraycopy(items, 0, newItems, 0, size);
+		items = newItems;
+	}
+
+	/**
+	 * Returns the backing array. Only the first {@link #size()} values are valid.
+	 * @return The backing array
+	 */
+	public int [] getItems() {
+		return items;
+	}
+
+	public int getCapacity() {
+		return items.length;
+	}
+}
@@ -69,6 +69,21 @@ public class ListMessageData<T> extends OptionallyPooledMessageData implements L
 		this.list = new ArrayList<T>(1);
 	}
 
+	@Override
+	public void reset() {
+		list.clear();
+	}
+
+	@Override
+	public void trim(int maxCapacity) {
+		if (!(list instanceof ArrayList)) {
+			return;
+		}
+		//The size may have shrunk since the backing array grew so always release it
+		list.clear();
+		((ArrayList<T>) list).trimToSize();
+	}
+
 	@Override
 	public int size() {
 		return list.size();
@@ -0,0 +1,265 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.messagedata;
+
+import org.mini2Dx.minibus.MessageData;
+import org.mini2Dx.minibus.pool.MessageDataPool;
+import org.mini2Dx.minibus.pool.OptionallyPooledMessageData;
+import org.mini2Dx.minibus.pool.PooledMessageData;
+
+/**
+ * A {@link MessageData} set of long values using open addressing with linear
+ * probing, so no boxed values are allocated. When released to a
+ * {@link MessageDataPool} the set is cleared but keeps its capacity
+ * up to the pool's maximum retained capacity.
+ *
+ * Values can be iterated without allocation:
+ * <pre>
+ * for(int i = set.firstIndex(); i &gt;= 0; i = set.nextIndex(i)) {
+ *     set.valueAt(i);
+ * }
+ * </pre>
+ */
+public class LongSetMessageData extends OptionallyPooledMessageData {
+	private static final int DEFAULT_CAPACITY = 16;
+	private static final float LOAD_FACTOR = 0.75f;
+
+	private long [] values;
+	private boolean hasZeroValue;
+	private int size;
+	private int mask;
+	private int threshold;
+
+	/**
+	 * Constructs a non-pooled {@link LongSetMessageData} instance
+	 */
+	public LongSetMessageData() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a non-pooled {@link LongSetMessageData} instance
+	 * @param initialCapacity The amount of values that can be stored before resizing
+	 */
+	public LongSetMessageData(int initialCapacity) {
+		super();
+		allocateTable(getTableSize(initialCapacity));
+	}
+
+	/**
+	 * Constructs a pooled {@link LongSetMessageData} instance
+	 * @param pool The {@link MessageDataPool} managing this instance
+	 */
+	public LongSetMessageData(MessageDataPool<PooledMessageData> pool) {
+		super(pool);
+		allocateTable(getTableSize(DEFAULT_CAPACITY));
+	}
+
+	@Override
+	public void reset() {
+		clear();
+	}
+
+	@Override
+	public void trim(int maxCapacity) {
+		final int tableSize = getTableSize(maxCapacity);
+		if(values.length <= tableSize) {
+			return;
+		}
+		allocateTable(tableSize);
+		hasZeroValue = false;
+		size = 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean contains(long value) {
+		if(value == 0L) {
+			return hasZeroValue;
+		}
+		return findIndex(value) >= 0;
+	}
+
+	/**
+	 * Adds a value
+	 * @param value The value
+	 * @return False if the value was already present
+	 */
+	public boolean add(long value) {
+		if(value == 0L) {
+			if(hasZeroValue) {
+				return false;
+			}
+			hasZeroValue = true;
+			size++;
+			return true;
+		}
+		int index = hash(value) & mask;
+		while(values[index] != 0L) {
+			if(values[index] == value) {
+				return false;
+			}
+			index = (index + 1) & mask;
+		}
+		values[index] = value;
+		if(++size > threshold) {
+			resize(values.length << 1);
+		}
+		return true;
+	}
+
+	/**
+	 * Removes a value
+	 * @param value The value
+	 * @return False if the value was not present
+	 */
+	public boolean remove(long value) {
+		if(value == 0L) {
+			if(!hasZeroValue) {
+				return false;
+			}
+			hasZeroValue = false;
+			size--;
+			return true;
+		}
+		int index = findIndex(value);
+		if(index < 0) {
+			return false;
+		}
+		size--;
+
+		//Shift following values back so that lookups do not stop at the gap
+		int next = (index + 1) & mask;
+		while(values[next] != 0L) {
+			final int ideal = hash(values[next]) & mask;
+			if(((next - ideal) & mask) >= ((next - index) & mask)) {
+				values[index] = values[next];
+				index = next;
+			}
+			next = (next + 1) & mask;
+		}
+		values[index] = 0L;
+		return true;
+	}
+
+	/**
+	 * Removes all values while keeping the current capacity
+	 */
+	public void clear() {
+		if(size == 0) {
+			return;
+		}
+		for(int i = 0; i < values.length; i++) {
+			values[i] = 0L;
+		}
+		hasZeroValue = false;
+		size = 0;
+	}
+
+	/**
+	 * Returns the first value index for iteration
+	 * @return -1 if the set is empty
+	 */
+	public int firstIndex() {
+		return nextIndex(-1);
+	}
+
+	/**
+	 * Returns the value index following an index
+	 * @param index The current value index
+	 * @return -1 if there are no more values
+	 */
+	public int nextIndex(int index) {
+		for(int i = index + 1; i < values.length; i++) {
+			if(values[i] != 0L) {
+				return i;
+			}
+		}
+		if(index < values.length && hasZeroValue) {
+			return values.length;
+		}
+		return -1;
+	}
+
+	public long valueAt(int index) {
+		return index == values.length ? 0L : values[index];
+	}
+
+	/**
+	 * Returns the amount of values that can be stored before resizing
+	 * @return The capacity
+	 */
+	public int getCapacity() {
+		return threshold;
+	}
+
+	private int findIndex(long value) {
+		int index = hash(value) & mask;
+		while(values[index] != 0L) {
+			if(values[index] == value) {
+				return index;
+			}
+			index = (index + 1) & mask;
+		}
+		return -1;
+	}
+
+	private void resize(int tableSize) {
+		final long [] oldValues = values;
+		allocateTable(tableSize);
+		for(int i = 0; i < oldValues.length; i++) {
+			final long value = oldValues[i];
+			if(value == 0L) {
+				continue;
+			}
+			int index = hash(value) & mask;
+			while(values[index] != 0L) {
+				index = (index + 1) & mask;
+			}
+			values[index] = value;
+		}
+	}
+
+	private void allocateTable(int tableSize) {
+		values = new long[tableSize];
+		mask = tableSize - 1;
+		threshold = (int) (tableSize * LOAD_FACTOR);
+	}
+
+	private static int getTableSize(int capacity) {
+		final int minimumSize = Math.max(2, (int) Math.ceil(capacity / LOAD_FACTOR));
+		return Integer.highestOneBit(minimumSize - 1) << 1;
+	}
+
+	private static int hash(long value) {
+		final long hash = value * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+}
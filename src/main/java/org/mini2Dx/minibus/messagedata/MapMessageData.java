@@ -38,7 +38,8 @@ import org.mini2Dx.minibus.pool.PooledMessageData;
  * {@link Map} instance.
  */
 public class MapMessageData<K, V> extends OptionallyPooledMessageData implements Map<K, V> {
-	private final Map<K, V> hashMap;
+	private Map<K, V> hashMap;
+	private int peakSize;
 
 	/**
 	 * Constructs a non-pooled {@link MapMessageData} instance backed by a {@link HashMap}
@@ -68,6 +69,21 @@ public class MapMessageData<K, V> extends OptionallyPooledMessageData implements
 		this.hashMap = new HashMap<K, V>();
 	}
 
+	@Override
+	public void reset() {
+		hashMap.clear();
+	}
+
+	@Override
+	public void trim(int maxCapacity) {
+		if (peakSize <= maxCapacity || hashMap.getClass() != HashMap.class) {
+			return;
+		}
+		//HashMap never shrinks its table so replace it
+		hashMap = new HashMap<K, V>();
+		peakSize = 0;
+	}
+
 	@Override
 	public int size() {
 		return hashMap.size();
@@ -95,7 +111,9 @@ public class MapMessageData<K, V> extends OptionallyPooledMessageData implements
 
 	@Override
 	public V put(K key, V value) {
-		return hashMap.put(key, value);
+		final V result = hashMap.put(key, value);
+		updatePeakSize();
+		return result;
 	}
 
 	@Override
@@ -106,6 +124,13 @@ public class MapMessageData<K, V> extends OptionallyPooledMessageData implements
 	@Override
 	public void putAll(Map<? extends K, ? extends V> m) {
 		hashMap.putAll(m);
+		updatePeakSize();
+	}
+
+	private void updatePeakSize() {
+		if (hashMap.size() > peakSize) {
+			peakSize = hashMap.size();
+		}
 	}
 
 	@Override
@@ -50,6 +50,11 @@ public class ObjectMessageData<T> extends OptionallyPooledMessageData {
 	public ObjectMessageData(MessageDataPool<PooledMessageData> pool) {
 		super(pool);
 	}
+
+	@Override
+	public void reset() {
+		obj = null;
+	}
 	
 	public T getObject() {
 		return obj;
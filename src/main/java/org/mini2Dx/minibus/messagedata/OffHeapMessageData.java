@@ -0,0 +1,185 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.messagedata;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+
+import org.mini2Dx.minibus.MessageData;
+import org.mini2Dx.minibus.pool.OffHeapArena;
+import org.mini2Dx.minibus.pool.PooledMessageData;
+
+/**
+ * A {@link MessageData} backed by a direct {@link ByteBuffer} block allocated
+ * from an {@link OffHeapArena} (see {@link org.mini2Dx.minibus.MessageBus#getOffHeapArena()}).
+ * Use it in place of large primitive arrays to avoid heap allocation. The block
+ * is returned to the arena when the message has been processed by all
+ * {@link org.mini2Dx.minibus.MessageExchange}s, after which it must not be accessed.
+ *
+ * Index-based accessors take element indices, e.g. {@link #getFloat(int)} reads
+ * the float at byte offset index * 4. Values use the native byte order.
+ */
+public class OffHeapMessageData implements PooledMessageData {
+	private final OffHeapArena arena;
+	private final int sizeClass;
+	private final ByteBuffer block;
+
+	private int size;
+	private boolean allocated;
+
+	/**
+	 * Constructor. Instances are created by {@link OffHeapArena#allocate(int)}.
+	 * @param arena The {@link OffHeapArena} managing this instance
+	 * @param sizeClass The size class of the block
+	 * @param block The direct {@link ByteBuffer} block
+	 */
+	public OffHeapMessageData(OffHeapArena arena, int sizeClass, ByteBuffer block) {
+		super();
+		this.arena = arena;
+		this.sizeClass = sizeClass;
+		this.block = block;
+	}
+
+	/**
+	 * Marks this instance as allocated. Called by {@link OffHeapArena#allocate(int)}.
+	 * @param size The requested size (in bytes)
+	 */
+	public void allocate(int size) {
+		this.size = size;
+		this.allocated = true;
+		block.clear();
+		block.limit(size);
+	}
+
+	@Override
+	public void release() {
+		if(!allocated) {
+			return;
+		}
+		allocated = false;
+		arena.release(this);
+	}
+
+	/**
+	 * Returns the backing {@link ByteBuffer} with a limit of {@link #getSize()}
+	 * @return The direct {@link ByteBuffer}
+	 */
+	public ByteBuffer getBuffer() {
+		return block;
+	}
+
+	/**
+	 * Returns the requested size
+	 * @return The size in bytes
+	 */
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the size of the underlying block
+	 * @return The capacity in bytes
+	 */
+	public int getCapacity() {
+		return block.capacity();
+	}
+
+	public int getSizeClass() {
+		return sizeClass;
+	}
+
+	public boolean isAllocated() {
+		return allocated;
+	}
+
+	public FloatBuffer asFloatBuffer() {
+		return view().asFloatBuffer();
+	}
+
+	public IntBuffer asIntBuffer() {
+		return view().asIntBuffer();
+	}
+
+	public LongBuffer asLongBuffer() {
+		return view().asLongBuffer();
+	}
+
+	public DoubleBuffer asDoubleBuffer() {
+		return view().asDoubleBuffer();
+	}
+
+	public ShortBuffer asShortBuffer() {
+		return view().asShortBuffer();
+	}
+
+	public float getFloat(int index) {
+		return block.getFloat(index << 2);
+	}
+
+	public void setFloat(int index, float value) {
+		block.putFloat(index << 2, value);
+	}
+
+	public int getInt(int index) {
+		return block.getInt(index << 2);
+	}
+
+	public void setInt(int index, int value) {
+		block.putInt(index << 2, value);
+	}
+
+	public long getLong(int index) {
+		return block.getLong(index << 3);
+	}
+
+	public void setLong(int index, long value) {
+		block.putLong(index << 3, value);
+	}
+
+	public double getDouble(int index) {
+		return block.getDouble(index << 3);
+	}
+
+	public void setDouble(int index, double value) {
+		block.putDouble(index << 3, value);
+	}
+
+	public short getShort(int index) {
+		return block.getShort(index << 1);
+	}
+
+	public void setShort(int index, short value) {
+		block.putShort(index << 1, value);
+	}
+
+	private ByteBuffer view() {
+		final ByteBuffer result = block.duplicate();
+		result.position(0);
+		return result.slice().order(block.order());
+	}
+}
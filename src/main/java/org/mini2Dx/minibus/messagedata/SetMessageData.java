@@ -38,7 +38,8 @@ import org.mini2Dx.minibus.pool.PooledMessageData;
  * {@link Set} instance
  */
 public class SetMessageData<T> extends OptionallyPooledMessageData implements Set<T> {
-	private final Set<T> set;
+	private Set<T> set;
+	private int peakSize;
 
 	/**
 	 * Constructs a non-pooled {@link SetMessageData} instance backed by a {@link HashSet}
@@ -65,6 +66,21 @@ public class SetMessageData<T> extends OptionallyPooledMessageData implements Se
 		this.set = new HashSet<T>();
 	}
 
+	@Override
+	public void reset() {
+		set.clear();
+	}
+
+	@Override
+	public void trim(int maxCapacity) {
+		if (peakSize <= maxCapacity || set.getClass() != HashSet.class) {
+			return;
+		}
+		//HashSet never shrinks its table so replace it
+		set = new HashSet<T>();
+		peakSize = 0;
+	}
+
 	@Override
 	public int size() {
 		return set.size();
@@ -97,7 +113,9 @@ public class SetMessageData<T> extends OptionallyPooledMessageData implements Se
 
 	@Override
 	public boolean add(T e) {
-		return set.add(e);
+		final boolean result = set.add(e);
+		updatePeakSize();
+		return result;
 	}
 
 	@Override
@@ -112,7 +130,15 @@ public class SetMessageData<T> extends OptionallyPooledMessageData implements Se
 
 	@Override
 	public boolean addAll(Collection<? extends T> c) {
-		return set.addAll(c);
+		final boolean result = set.addAll(c);
+		updatePeakSize();
+		return result;
+	}
+
+	private void updatePeakSize() {
+		if (set.size() > peakSize) {
+			peakSize = set.size();
+		}
 	}
 
 	@Override
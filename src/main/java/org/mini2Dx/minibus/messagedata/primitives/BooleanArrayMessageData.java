@@ -52,6 +52,11 @@ public class BooleanArrayMessageData extends OptionallyPooledMessageData {
 		super(pool);
 	}
 
+	@Override
+	public void reset() {
+		value = null;
+	}
+
 	public boolean [] getValue() {
 		return value;
 	}
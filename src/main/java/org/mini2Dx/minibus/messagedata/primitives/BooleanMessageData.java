@@ -43,6 +43,11 @@ public class BooleanMessageData extends OptionallyPooledMessageData {
 		super(pool);
 	}
 
+	@Override
+	public void reset() {
+		value = false;
+	}
+
 	public boolean getValue() {
 		return value;
 	}
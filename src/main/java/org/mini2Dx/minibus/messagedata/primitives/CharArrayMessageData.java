@@ -43,6 +43,11 @@ public class CharArrayMessageData extends OptionallyPooledMessageData {
 		super(pool);
 	}
 
+	@Override
+	public void reset() {
+		value = null;
+	}
+
 	public char [] getValue() {
 		return value;
 	}
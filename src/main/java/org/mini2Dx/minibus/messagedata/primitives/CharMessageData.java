@@ -43,6 +43,11 @@ public class CharMessageData extends OptionallyPooledMessageData {
 		super(pool);
 	}
 
+	@Override
+	public void reset() {
+		value = 0;
+	}
+
 	public char getValue() {
 		return value;
 	}
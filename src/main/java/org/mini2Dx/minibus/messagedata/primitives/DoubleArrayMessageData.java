@@ -42,6 +42,11 @@ public class DoubleArrayMessageData extends OptionallyPooledMessageData {
 	public DoubleArrayMessageData(MessageDataPool<PooledMessageData> pool) {
 		super(pool);
 	}
+
+	@Override
+	public void reset() {
+		value = null;
+	}
 	
 	public double [] getValue() {
 		return value;
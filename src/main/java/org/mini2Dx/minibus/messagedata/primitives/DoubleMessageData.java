@@ -43,6 +43,11 @@ public class DoubleMessageData extends OptionallyPooledMessageData {
 		super(pool);
 	}
 
+	@Override
+	public void reset() {
+		value = 0.0;
+	}
+
 	public double getValue() {
 		return value;
 	}
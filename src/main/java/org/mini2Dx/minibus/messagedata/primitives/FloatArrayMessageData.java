@@ -42,6 +42,11 @@ public class FloatArrayMessageData extends OptionallyPooledMessageData {
 	public FloatArrayMessageData(MessageDataPool<PooledMessageData> pool) {
 		super(pool);
 	}
+
+	@Override
+	public void reset() {
+		value = null;
+	}
 	
 	public float [] getValue() {
 		return value;
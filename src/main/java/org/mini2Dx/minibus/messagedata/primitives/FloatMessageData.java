@@ -43,6 +43,11 @@ public class FloatMessageData extends OptionallyPooledMessageData {
 		super(pool);
 	}
 
+	@Override
+	public void reset() {
+		value = 0f;
+	}
+
 	public float getValue() {
 		return value;
 	}
@@ -43,6 +43,11 @@ public class IntArrayMessageData extends OptionallyPooledMessageData {
 		super(pool);
 	}
 
+	@Override
+	public void reset() {
+		value = null;
+	}
+
 	public int [] getValue() {
 		return value;
 	}
@@ -43,6 +43,11 @@ public class IntMessageData extends OptionallyPooledMessageData {
 		super(pool);
 	}
 
+	@Override
+	public void reset() {
+		value = 0;
+	}
+
 	public int getValue() {
 		return value;
 	}
@@ -43,6 +43,11 @@ public class LongArrayMessageData extends OptionallyPooledMessageData {
 		super(pool);
 	}
 
+	@Override
+	public void reset() {
+		value = null;
+	}
+
 	public long [] getValue() {
 		return value;
 	}
@@ -43,6 +43,11 @@ public class LongMessageData extends OptionallyPooledMessageData {
 		super(pool);
 	}
 
+	@Override
+	public void reset() {
+		value = 0L;
+	}
+
 	public long getValue() {
 		return value;
 	}
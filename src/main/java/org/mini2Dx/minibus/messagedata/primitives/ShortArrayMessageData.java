@@ -42,6 +42,11 @@ public class ShortArrayMessageData extends OptionallyPooledMessageData {
 	public ShortArrayMessageData(MessageDataPool<PooledMessageData> pool) {
 		super(pool);
 	}
+
+	@Override
+	public void reset() {
+		value = null;
+	}
 	
 	public short [] getValue() {
 		return value;
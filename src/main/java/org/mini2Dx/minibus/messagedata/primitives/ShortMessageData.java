@@ -43,6 +43,11 @@ public class ShortMessageData extends OptionallyPooledMessageData {
 		super(pool);
 	}
 
+	@Override
+	public void reset() {
+		value = 0;
+	}
+
 	public short getValue() {
 		return value;
 	}
@@ -43,6 +43,11 @@ public class StringArrayMessageData extends OptionallyPooledMessageData {
 		super(pool);
 	}
 
+	@Override
+	public void reset() {
+		value = null;
+	}
+
 	public String [] getValue() {
 		return value;
 	}
@@ -0,0 +1,118 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.MessageExchange;
+import org.mini2Dx.minibus.transmission.MessageTransmission;
+
+/**
+ * Live metrics for a single {@link MessageExchange}. Instances are attached
+ * by the {@link MessageBus} when metrics are enabled (see
+ * {@link MessageBus#setMetricsEnabled(boolean)}).
+ */
+public class ExchangeMetrics {
+	private final int exchangeId;
+	private final String exchangeType;
+	private final AtomicLong enqueued = new AtomicLong();
+	private final AtomicLong dequeued = new AtomicLong();
+	private final AtomicLong queueHighWaterMark = new AtomicLong();
+	private final LatencyHistogram latency = new LatencyHistogram();
+	private final AtomicLongArray handlerNanos;
+	private final AtomicLongArray handlerInvocations;
+
+	public ExchangeMetrics(int exchangeId, String exchangeType, int totalHandlers) {
+		super();
+		this.exchangeId = exchangeId;
+		this.exchangeType = exchangeType;
+		this.handlerNanos = new AtomicLongArray(totalHandlers);
+		this.handlerInvocations = new AtomicLongArray(totalHandlers);
+	}
+
+	/**
+	 * Records a {@link MessageTransmission} being queued. Must be called before the
+	 * {@link MessageTransmission} is offered to the queue since another thread may
+	 * dispatch and release it immediately afterwards.
+	 * @param messageTransmission The {@link MessageTransmission}
+	 */
+	public void onEnqueue(MessageTransmission messageTransmission) {
+		if(messageTransmission.getEnqueueTime() == 0L) {
+			messageTransmission.setEnqueueTime(System.nanoTime());
+		}
+		enqueued.incrementAndGet();
+	}
+
+	/**
+	 * Records the size of the queue after a {@link MessageTransmission} was queued
+	 * @param queueSize The size of the queue
+	 */
+	public void onQueueSize(int queueSize) {
+		long highWaterMark = queueHighWaterMark.get();
+		while(queueSize > highWaterMark && !queueHighWaterMark.compareAndSet(highWaterMark, queueSize)) {
+			highWaterMark = queueHighWaterMark.get();
+		}
+	}
+
+	/**
+	 * Records a {@link MessageTransmission} being dispatched to the {@link org.mini2Dx.minibus.MessageHandler}s
+	 * @param messageTransmission The {@link MessageTransmission}
+	 * @param time The result of {@link System#nanoTime()} when dispatch started
+	 */
+	public void onDequeue(MessageTransmission messageTransmission, long time) {
+		dequeued.incrementAndGet();
+		final long enqueueTime = messageTransmission.getEnqueueTime();
+		if(enqueueTime != 0L) {
+			latency.record(time - enqueueTime);
+		}
+	}
+
+	/**
+	 * Records the execution time of a {@link org.mini2Dx.minibus.MessageHandler}
+	 * @param handlerIndex The index of the {@link org.mini2Dx.minibus.MessageHandler}
+	 * @param nanos The execution time (in nanoseconds)
+	 */
+	public void onHandled(int handlerIndex, long nanos) {
+		handlerNanos.addAndGet(handlerIndex, nanos);
+		handlerInvocations.incrementAndGet(handlerIndex);
+	}
+
+	/**
+	 * Returns a copy of the current metrics
+	 * @param currentQueueSize The current queue size of the {@link MessageExchange}
+	 * @return A new {@link ExchangeMetricsSnapshot}
+	 */
+	public ExchangeMetricsSnapshot snapshot(int currentQueueSize) {
+		final long[] nanos = new long[handlerNanos.length()];
+		final long[] invocations = new long[handlerInvocations.length()];
+		for(int i = 0; i < nanos.length; i++) {
+			nanos[i] = handlerNanos.get(i);
+			invocations[i] = handlerInvocations.get(i);
+		}
+		return new ExchangeMetricsSnapshot(exchangeId, exchangeType, enqueued.get(), dequeued.get(), currentQueueSize,
+				queueHighWaterMark.get(), latency.snapshot(), nanos, invocations);
+	}
+}
@@ -0,0 +1,135 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.metrics;
+
+/**
+ * A point-in-time copy of the metrics of a single {@link org.mini2Dx.minibus.MessageExchange}
+ */
+public class ExchangeMetricsSnapshot {
+	private final int exchangeId;
+	private final String exchangeType;
+	private final long enqueued;
+	private final long dequeued;
+	private final int queueSize;
+	private final long queueHighWaterMark;
+	private final HistogramSnapshot latency;
+	private final long[] handlerNanos;
+	private final long[] handlerInvocations;
+
+	ExchangeMetricsSnapshot(int exchangeId, String exchangeType, long enqueued, long dequeued, int queueSize,
+			long queueHighWaterMark, HistogramSnapshot latency, long[] handlerNanos, long[] handlerInvocations) {
+		super();
+		this.exchangeId = exchangeId;
+		this.exchangeType = exchangeType;
+		this.enqueued = enqueued;
+		this.dequeued = dequeued;
+		this.queueSize = queueSize;
+		this.queueHighWaterMark = queueHighWaterMark;
+		this.latency = latency;
+		this.handlerNanos = handlerNanos;
+		this.handlerInvocations = handlerInvocations;
+	}
+
+	/**
+	 * Returns the ID of the {@link org.mini2Dx.minibus.MessageExchange}
+	 * @return The exchange ID
+	 */
+	public int getExchangeId() {
+		return exchangeId;
+	}
+
+	/**
+	 * Returns the simple class name of the {@link org.mini2Dx.minibus.MessageExchange}
+	 * @return The exchange type, e.g. OnUpdateMessageExchange
+	 */
+	public String getExchangeType() {
+		return exchangeType;
+	}
+
+	/**
+	 * Returns the total amount of messages queued
+	 * @return 0 if no messages were queued
+	 */
+	public long getEnqueued() {
+		return enqueued;
+	}
+
+	/**
+	 * Returns the total amount of messages dispatched to handlers
+	 * @return 0 if no messages were dispatched
+	 */
+	public long getDequeued() {
+		return dequeued;
+	}
+
+	/**
+	 * Returns the queue size at the time of the snapshot
+	 * @return 0 if the queue was empty
+	 */
+	public int getQueueSize() {
+		return queueSize;
+	}
+
+	/**
+	 * Returns the largest queue size observed
+	 * @return 0 if no messages were queued
+	 */
+	public long getQueueHighWaterMark() {
+		return queueHighWaterMark;
+	}
+
+	/**
+	 * Returns the histogram of time between a message being queued and dispatched to handlers
+	 * @return The latency {@link HistogramSnapshot} (in nanoseconds)
+	 */
+	public HistogramSnapshot getLatency() {
+		return latency;
+	}
+
+	/**
+	 * Returns the amount of {@link org.mini2Dx.minibus.MessageHandler}s of the exchange
+	 * @return The amount of handlers
+	 */
+	public int getTotalHandlers() {
+		return handlerNanos.length;
+	}
+
+	/**
+	 * Returns the total execution time of a {@link org.mini2Dx.minibus.MessageHandler}
+	 * @param handlerIndex The index of the handler in the order passed to the exchange
+	 * @return The total execution time (in nanoseconds)
+	 */
+	public long getHandlerNanos(int handlerIndex) {
+		return handlerNanos[handlerIndex];
+	}
+
+	/**
+	 * Returns the amount of times a {@link org.mini2Dx.minibus.MessageHandler} was invoked
+	 * @param handlerIndex The index of the handler in the order passed to the exchange
+	 * @return The amount of invocations
+	 */
+	public long getHandlerInvocations(int handlerIndex) {
+		return handlerInvocations[handlerIndex];
+	}
+}
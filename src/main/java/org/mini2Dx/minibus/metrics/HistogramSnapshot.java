@@ -0,0 +1,90 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.metrics;
+
+/**
+ * A point-in-time copy of a {@link LatencyHistogram}
+ */
+public class HistogramSnapshot {
+	private final long[] counts;
+	private final long totalCount;
+	private final long totalValue;
+	private final long maxValue;
+
+	HistogramSnapshot(long[] counts, long totalCount, long totalValue, long maxValue) {
+		super();
+		this.counts = counts;
+		this.totalCount = totalCount;
+		this.totalValue = totalValue;
+		this.maxValue = maxValue;
+	}
+
+	/**
+	 * Returns the amount of values recorded
+	 * @return 0 if no values were recorded
+	 */
+	public long getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * Returns the largest value recorded
+	 * @return The maximum (in nanoseconds)
+	 */
+	public long getMax() {
+		return maxValue;
+	}
+
+	/**
+	 * Returns the mean of all values recorded
+	 * @return The mean (in nanoseconds), 0 if no values were recorded
+	 */
+	public double getMean() {
+		if(totalCount == 0L) {
+			return 0.0;
+		}
+		return totalValue / (double) totalCount;
+	}
+
+	/**
+	 * Returns the value below which a percentage of recorded values fall
+	 * @param percentile The percentile (0.0 - 100.0)
+	 * @return The highest equivalent value of the percentile (in nanoseconds), 0 if no values were recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if(totalCount == 0L) {
+			return 0L;
+		}
+		final double clampedPercentile = Math.min(Math.max(percentile, 0.0), 100.0);
+		final long targetCount = Math.max(1L, (long) Math.ceil((clampedPercentile / 100.0) * totalCount));
+		long count = 0L;
+		for(int i = 0; i < counts.length; i++) {
+			count += counts[i];
+			if(count >= targetCount) {
+				return Math.min(LatencyHistogram.bucketUpperBound(i), maxValue);
+			}
+		}
+		return maxValue;
+	}
+}
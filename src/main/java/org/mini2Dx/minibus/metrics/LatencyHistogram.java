@@ -0,0 +1,94 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed-size, allocation-free histogram of nanosecond durations. Values
+ * below 32 are counted exactly. Larger values are counted in 16 linear
+ * sub-buckets per power of two, giving a worst case error of 1/16 (6.25%)
+ * across the full range of long values. Recording is thread-safe and lock-free.
+ */
+public class LatencyHistogram {
+	static final int LINEAR_BUCKETS = 32;
+	static final int SUB_BUCKET_BITS = 4;
+	static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	static final int TOTAL_BUCKETS = LINEAR_BUCKETS + (63 - 5) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(TOTAL_BUCKETS);
+	private final AtomicLong totalCount = new AtomicLong();
+	private final AtomicLong totalValue = new AtomicLong();
+	private final AtomicLong maxValue = new AtomicLong();
+
+	/**
+	 * Records a duration
+	 * @param value The duration (in nanoseconds). Negative values are recorded as 0.
+	 */
+	public void record(long value) {
+		if(value < 0L) {
+			value = 0L;
+		}
+		counts.incrementAndGet(bucketIndex(value));
+		totalCount.incrementAndGet();
+		totalValue.addAndGet(value);
+
+		long max = maxValue.get();
+		while(value > max && !maxValue.compareAndSet(max, value)) {
+			max = maxValue.get();
+		}
+	}
+
+	/**
+	 * Returns a copy of the current state of this histogram
+	 * @return A new {@link HistogramSnapshot}
+	 */
+	public HistogramSnapshot snapshot() {
+		final long[] result = new long[TOTAL_BUCKETS];
+		for(int i = 0; i < TOTAL_BUCKETS; i++) {
+			result[i] = counts.get(i);
+		}
+		return new HistogramSnapshot(result, totalCount.get(), totalValue.get(), maxValue.get());
+	}
+
+	static int bucketIndex(long value) {
+		if(value < LINEAR_BUCKETS) {
+			return (int) value;
+		}
+		final int exponent = 63 - Long.numberOfLeadingZeros(value);
+		final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+		return LINEAR_BUCKETS + ((exponent - 5) << SUB_BUCKET_BITS) + subBucket;
+	}
+
+	static long bucketUpperBound(int index) {
+		if(index < LINEAR_BUCKETS) {
+			return index;
+		}
+		final int exponent = ((index - LINEAR_BUCKETS) >> SUB_BUCKET_BITS) + 5;
+		final long subBucket = ((index - LINEAR_BUCKETS) & (SUB_BUCKETS - 1)) + SUB_BUCKETS;
+		final int shift = exponent - SUB_BUCKET_BITS;
+		return (subBucket << shift) + (1L << shift) - 1L;
+	}
+}
@@ -0,0 +1,68 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.mini2Dx.minibus.MessageBus;
+
+/**
+ * Live metrics shared by all {@link ExchangeMetrics} of a {@link MessageBus}
+ */
+public class MessageBusMetrics {
+	private final Map<String, AtomicLong> messageTypeCounts = new ConcurrentHashMap<String, AtomicLong>();
+
+	/**
+	 * Records a message being sent. Called once per send or broadcast
+	 * regardless of how many exchanges receive the message.
+	 * @param messageType The message type
+	 */
+	public void onMessage(String messageType) {
+		AtomicLong count = messageTypeCounts.get(messageType);
+		if(count == null) {
+			count = messageTypeCounts.computeIfAbsent(messageType, key -> new AtomicLong());
+		}
+		count.incrementAndGet();
+	}
+
+	/**
+	 * Returns a copy of the current metrics
+	 * @param exchanges The {@link ExchangeMetricsSnapshot}s of the {@link MessageBus}
+	 * @return A new {@link MessageBusMetricsSnapshot}
+	 */
+	public MessageBusMetricsSnapshot snapshot(List<ExchangeMetricsSnapshot> exchanges) {
+		final Map<String, Long> counts = new HashMap<String, Long>();
+		for(Map.Entry<String, AtomicLong> entry : messageTypeCounts.entrySet()) {
+			counts.put(entry.getKey(), entry.getValue().get());
+		}
+		return new MessageBusMetricsSnapshot(Collections.unmodifiableList(new ArrayList<ExchangeMetricsSnapshot>(exchanges)),
+				Collections.unmodifiableMap(counts));
+	}
+}
@@ -0,0 +1,83 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.metrics;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A point-in-time copy of the metrics of a {@link org.mini2Dx.minibus.MessageBus}
+ */
+public class MessageBusMetricsSnapshot {
+	private final List<ExchangeMetricsSnapshot> exchanges;
+	private final Map<String, Long> messageTypeCounts;
+
+	MessageBusMetricsSnapshot(List<ExchangeMetricsSnapshot> exchanges, Map<String, Long> messageTypeCounts) {
+		super();
+		this.exchanges = exchanges;
+		this.messageTypeCounts = messageTypeCounts;
+	}
+
+	/**
+	 * Returns the metrics of each registered {@link org.mini2Dx.minibus.MessageExchange}
+	 * @return An unmodifiable list of {@link ExchangeMetricsSnapshot}s
+	 */
+	public List<ExchangeMetricsSnapshot> getExchanges() {
+		return exchanges;
+	}
+
+	/**
+	 * Returns the metrics of a specific {@link org.mini2Dx.minibus.MessageExchange}
+	 * @param exchangeId The ID of the {@link org.mini2Dx.minibus.MessageExchange}
+	 * @return Null if the exchange was not registered when the snapshot was taken
+	 */
+	public ExchangeMetricsSnapshot getExchange(int exchangeId) {
+		for(int i = 0; i < exchanges.size(); i++) {
+			if(exchanges.get(i).getExchangeId() == exchangeId) {
+				return exchanges.get(i);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the amount of messages sent per message type. A broadcast counts
+	 * once regardless of how many exchanges received it.
+	 * @return An unmodifiable map of message type to count
+	 */
+	public Map<String, Long> getMessageTypeCounts() {
+		return messageTypeCounts;
+	}
+
+	/**
+	 * Returns the amount of messages sent of a message type. A broadcast counts
+	 * once regardless of how many exchanges received it.
+	 * @param messageType The message type
+	 * @return 0 if no messages of the type were sent
+	 */
+	public long getMessageTypeCount(String messageType) {
+		final Long result = messageTypeCounts.get(messageType);
+		return result == null ? 0L : result;
+	}
+}
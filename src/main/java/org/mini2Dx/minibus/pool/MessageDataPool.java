@@ -24,12 +24,13 @@
 package org.mini2Dx.minibus.pool;
 
 import java.lang.reflect.Constructor;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.concurrency.ConcurrencyPolicy;
+import org.mini2Dx.minibus.concurrency.Counter;
 import org.mini2Dx.minibus.exception.MissingPooledConstructorException;
 import org.mini2Dx.minibus.messagedata.ListMessageData;
+import org.mini2Dx.minibus.queue.MessageQueue;
 import org.mini2Dx.minibus.util.SynchronizedQueue;
 
 /**
@@ -41,8 +42,11 @@ import org.mini2Dx.minibus.util.SynchronizedQueue;
 public class MessageDataPool<T extends PooledMessageData> {
 	public static final int DEFAULT_POOL_SIZE = 5;
 
-	private final Queue<T> pool = new SynchronizedQueue<T>();
+	private final MessageQueue<T> pool;
 	private final Constructor<T> constructor;
+	private final Counter totalMisses;
+
+	private volatile int maxRetainedCapacity = 0;
 
 	/**
 	 * Constructs a new {@link MessageDataPool} of size {@link #DEFAULT_POOL_SIZE}<br>
@@ -51,16 +55,41 @@ public class MessageDataPool<T extends PooledMessageData> {
 	 * 
 	 * @param instance The instance to derive T from
 	 */
+	@SuppressWarnings("unchecked")
 	public MessageDataPool(T instance) {
 		this((Class<T>) instance.getClass());
 	}
 
+	/**
+	 * Constructs a new {@link MessageDataPool} of size {@link #DEFAULT_POOL_SIZE}<br>
+	 * <br>
+	 * Note: This constructor is useful when T also has a generic type, e.g. {@link ListMessageData}
+	 * 
+	 * @param instance The instance to derive T from
+	 * @param concurrencyPolicy The {@link ConcurrencyPolicy} of the {@link MessageBus} the pooled instances are sent on
+	 */
+	@SuppressWarnings("unchecked")
+	public MessageDataPool(T instance, ConcurrencyPolicy concurrencyPolicy) {
+		this((Class<T>) instance.getClass(), concurrencyPolicy);
+	}
+
 	/**
 	 * Constructs a new {@link MessageDataPool} of size {@link #DEFAULT_POOL_SIZE}
 	 * @param clazz The class of type T
 	 */
 	public MessageDataPool(Class<T> clazz) {
+		this(clazz, ConcurrencyPolicy.threadSafe());
+	}
+
+	/**
+	 * Constructs a new {@link MessageDataPool} of size {@link #DEFAULT_POOL_SIZE}
+	 * @param clazz The class of type T
+	 * @param concurrencyPolicy The {@link ConcurrencyPolicy} of the {@link MessageBus} the pooled instances are sent on
+	 */
+	public MessageDataPool(Class<T> clazz, ConcurrencyPolicy concurrencyPolicy) {
 		super();
+		pool = concurrencyPolicy.newMessageQueue(SynchronizedQueue.DEFAULT_INITIAL_CAPACITY);
+		totalMisses = concurrencyPolicy.newCounter();
 		try {
 			constructor = clazz.getConstructor(MessageDataPool.class);
 		} catch (NoSuchMethodException | SecurityException e) {
@@ -78,17 +107,26 @@ public class MessageDataPool<T extends PooledMessageData> {
 	 * @return An instance of T
 	 */
 	public T allocate() {
-		if (pool.isEmpty()) {
+		final T result = pool.poll();
+		if (result == null) {
+			totalMisses.incrementAndGet();
 			return createNewInstance();
 		}
-		return pool.poll();
+		return result;
 	}
 
 	/**
-	 * Returns an instance back to the pool
+	 * Returns an instance back to the pool. The instance is trimmed (if
+	 * {@link #setMaxRetainedCapacity(int)} is set) and reset before being
+	 * made available for allocation.
 	 * @param instance An instance of T
 	 */
 	public void release(T instance) {
+		final int maxRetainedCapacity = this.maxRetainedCapacity;
+		if (maxRetainedCapacity > 0) {
+			instance.trim(maxRetainedCapacity);
+		}
+		instance.reset();
 		pool.offer(instance);
 	}
 
@@ -101,6 +139,32 @@ public class MessageDataPool<T extends PooledMessageData> {
 		}
 	}
 
+	/**
+	 * Returns the amount of times the pool was empty when allocating
+	 * @return 0 if every allocation was served from the pool
+	 */
+	public long getTotalMisses() {
+		return totalMisses.get();
+	}
+
+	/**
+	 * Returns the maximum amount of elements a released instance may retain storage for
+	 * @return 0 if released instances are never trimmed
+	 */
+	public int getMaxRetainedCapacity() {
+		return maxRetainedCapacity;
+	}
+
+	/**
+	 * Sets the maximum amount of elements a released instance may retain storage for.
+	 * Instances whose storage has grown beyond this (e.g. from a single large message)
+	 * release it when returned to the pool.
+	 * @param maxRetainedCapacity 0 to never trim released instances
+	 */
+	public void setMaxRetainedCapacity(int maxRetainedCapacity) {
+		this.maxRetainedCapacity = Math.max(0, maxRetainedCapacity);
+	}
+
 	/**
 	 * Returns the number of instances of T available in the pool
 	 * @return 0 if empty (new instances will be created but may slow performance)
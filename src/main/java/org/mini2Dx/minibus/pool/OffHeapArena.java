@@ -0,0 +1,180 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.pool;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.concurrency.BusLock;
+import org.mini2Dx.minibus.concurrency.ConcurrencyPolicy;
+import org.mini2Dx.minibus.concurrency.Counter;
+import org.mini2Dx.minibus.messagedata.OffHeapMessageData;
+import org.mini2Dx.minibus.queue.MessageQueue;
+import org.mini2Dx.minibus.util.SynchronizedQueue;
+
+/**
+ * A slab allocator for {@link OffHeapMessageData}. Blocks are carved from
+ * direct {@link ByteBuffer} slabs in power-of-two size classes and are never
+ * returned to the slab. Instead, each block stays attached to its
+ * {@link OffHeapMessageData} which is returned to a free list of its size class
+ * when released, so a steady state allocates neither heap nor direct memory.
+ */
+public class OffHeapArena {
+	/**
+	 * The smallest block size (in bytes)
+	 */
+	public static final int MIN_BLOCK_SIZE = 64;
+	/**
+	 * The default slab size (in bytes)
+	 */
+	public static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+	/**
+	 * The largest size (in bytes) that can be allocated
+	 */
+	public static final int MAX_ALLOCATION_SIZE = 1 << 30;
+
+	private static final int TOTAL_SIZE_CLASSES = getSizeClass(MAX_ALLOCATION_SIZE) + 1;
+
+	private final int slabSize;
+	private final MessageQueue<OffHeapMessageData>[] freeLists;
+	private final BusLock slabLock;
+	private final Counter reservedBytes;
+	private final Counter totalMisses;
+
+	private ByteBuffer slab;
+
+	/**
+	 * Constructs an arena with slabs of {@link #DEFAULT_SLAB_SIZE}
+	 */
+	public OffHeapArena() {
+		this(DEFAULT_SLAB_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 * @param slabSize The size (in bytes) of each slab. Blocks larger than this are allocated individually.
+	 */
+	public OffHeapArena(int slabSize) {
+		this(slabSize, ConcurrencyPolicy.threadSafe());
+	}
+
+	/**
+	 * Constructor
+	 * @param slabSize The size (in bytes) of each slab. Blocks larger than this are allocated individually.
+	 * @param concurrencyPolicy The {@link ConcurrencyPolicy} of the owning {@link MessageBus}
+	 */
+	@SuppressWarnings("unchecked")
+	public OffHeapArena(int slabSize, ConcurrencyPolicy concurrencyPolicy) {
+		super();
+		if(slabSize < MIN_BLOCK_SIZE) {
+			throw new RuntimeException("slabSize must be at least " + MIN_BLOCK_SIZE);
+		}
+		this.slabSize = slabSize;
+		freeLists = (MessageQueue<OffHeapMessageData>[]) new MessageQueue<?>[TOTAL_SIZE_CLASSES];
+		for(int i = 0; i < freeLists.length; i++) {
+			freeLists[i] = concurrencyPolicy.newMessageQueue(SynchronizedQueue.DEFAULT_INITIAL_CAPACITY);
+		}
+		slabLock = concurrencyPolicy.newReadWriteLock();
+		reservedBytes = concurrencyPolicy.newCounter();
+		totalMisses = concurrencyPolicy.newCounter();
+	}
+
+	/**
+	 * Allocates an {@link OffHeapMessageData} with at least the requested size.
+	 * It is returned to this arena when the message it was sent with has been
+	 * processed, or when {@link OffHeapMessageData#release()} is called.
+	 * @param size The size (in bytes)
+	 * @return An {@link OffHeapMessageData} with a size of the requested bytes
+	 */
+	public OffHeapMessageData allocate(int size) {
+		if(size < 0 || size > MAX_ALLOCATION_SIZE) {
+			throw new RuntimeException("size must be between 0 and " + MAX_ALLOCATION_SIZE);
+		}
+		final int sizeClass = getSizeClass(size);
+		OffHeapMessageData result = freeLists[sizeClass].poll();
+		if(result == null) {
+			totalMisses.incrementAndGet();
+			result = new OffHeapMessageData(this, sizeClass, allocateBlock(MIN_BLOCK_SIZE << sizeClass));
+		}
+		result.allocate(size);
+		return result;
+	}
+
+	/**
+	 * Returns an {@link OffHeapMessageData} to its free list. Called by {@link OffHeapMessageData#release()}.
+	 * @param messageData The {@link OffHeapMessageData} to return
+	 */
+	public void release(OffHeapMessageData messageData) {
+		freeLists[messageData.getSizeClass()].offer(messageData);
+	}
+
+	private ByteBuffer allocateBlock(int blockSize) {
+		reservedBytes.addAndGet(blockSize);
+		if(blockSize > slabSize) {
+			return ByteBuffer.allocateDirect(blockSize).order(ByteOrder.nativeOrder());
+		}
+		slabLock.lockWrite();
+		try {
+			if(slab == null || slab.remaining() < blockSize) {
+				slab = ByteBuffer.allocateDirect(slabSize);
+			}
+			final int offset = slab.position();
+			slab.limit(offset + blockSize);
+			final ByteBuffer result = slab.slice().order(ByteOrder.nativeOrder());
+			slab.limit(slab.capacity());
+			slab.position(offset + blockSize);
+			return result;
+		} finally {
+			slabLock.unlockWrite();
+		}
+	}
+
+	static int getSizeClass(int size) {
+		if(size <= MIN_BLOCK_SIZE) {
+			return 0;
+		}
+		return 32 - Integer.numberOfLeadingZeros((size - 1) / MIN_BLOCK_SIZE);
+	}
+
+	/**
+	 * Returns the total amount of direct memory reserved for blocks
+	 * @return The reserved memory in bytes
+	 */
+	public long getReservedBytes() {
+		return reservedBytes.get();
+	}
+
+	/**
+	 * Returns the amount of allocations that required a new block
+	 * @return 0 if every allocation was served from a free list
+	 */
+	public long getTotalMisses() {
+		return totalMisses.get();
+	}
+
+	public int getSlabSize() {
+		return slabSize;
+	}
+}
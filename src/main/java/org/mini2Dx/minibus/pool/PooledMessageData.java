@@ -37,4 +37,22 @@ public interface PooledMessageData extends MessageData {
 	 * Releases this instance back to the pool
 	 */
 	public void release();
+
+	/**
+	 * Called by {@link MessageDataPool} when this instance is returned to the
+	 * pool. Implementations should clear any references and values so that the
+	 * pool does not retain them and the next sender starts from an empty
+	 * instance.
+	 */
+	public default void reset() {}
+
+	/**
+	 * Called by {@link MessageDataPool} before {@link #reset()} when the pool has
+	 * a maximum retained capacity. Implementations should drop backing storage
+	 * that has grown beyond the given capacity.
+	 * 
+	 * @param maxCapacity
+	 *            The maximum amount of elements to retain storage for
+	 */
+	public default void trim(int maxCapacity) {}
 }
@@ -0,0 +1,213 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.queue;
+
+import org.mini2Dx.minibus.util.SynchronizedQueue;
+
+/**
+ * An unsynchronized array-backed {@link MessageQueue}. Follows the same growth
+ * and shrink policy as {@link SynchronizedQueue} but without any locking, so
+ * all methods must be called from the same thread.
+ *
+ * @param <T> The element type
+ */
+public class ArrayMessageQueue<T> implements MessageQueue<T> {
+	private final int initialCapacity;
+	private final int shrinkThreshold;
+
+	private Object[] values;
+	private int head = 0;
+	private int tail = 0;
+	private int size = 0;
+	private int lowOccupancyCount = 0;
+
+	/**
+	 * Constructs a queue with {@link SynchronizedQueue#DEFAULT_INITIAL_CAPACITY}
+	 */
+	public ArrayMessageQueue() {
+		this(SynchronizedQueue.DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Constructs a queue with {@link SynchronizedQueue#DEFAULT_SHRINK_THRESHOLD}
+	 * @param initialCapacity The initial and minimum capacity of the queue
+	 */
+	public ArrayMessageQueue(int initialCapacity) {
+		this(initialCapacity, SynchronizedQueue.DEFAULT_SHRINK_THRESHOLD);
+	}
+
+	/**
+	 * Constructor
+	 * @param initialCapacity The initial and minimum capacity of the queue
+	 * @param shrinkThreshold The amount of consecutive removals at low occupancy before the capacity is halved. 0 disables shrinking.
+	 */
+	public ArrayMessageQueue(int initialCapacity, int shrinkThreshold) {
+		super();
+		this.initialCapacity = Math.max(1, initialCapacity);
+		this.shrinkThreshold = Math.max(0, shrinkThreshold);
+		values = new Object[this.initialCapacity];
+	}
+
+	@Override
+	public boolean offer(T element) {
+		if(size == values.length) {
+			copyTo(new Object[values.length << 1]);
+		}
+		values[tail++] = element;
+		if(tail == values.length) {
+			tail = 0;
+		}
+		size++;
+		return true;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T poll() {
+		if(size == 0) {
+			checkShrink();
+			return null;
+		}
+		final Object result = values[head];
+		values[head] = null;
+		head++;
+		if(head == values.length) {
+			head = 0;
+		}
+		size--;
+		checkShrink();
+		return (T) result;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T peek() {
+		if(size == 0) {
+			return null;
+		}
+		return (T) values[head];
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T get(int index) {
+		if(index < 0 || index >= size) {
+			return null;
+		}
+		return (T) values[physicalIndex(index)];
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public T remove(int index) {
+		if(index < 0 || index >= size) {
+			return null;
+		}
+		if(index == 0) {
+			return poll();
+		}
+		final Object[] values = this.values;
+		final Object result = values[physicalIndex(index)];
+		if(index < size >> 1) {
+			//Closer to the head so shift preceding elements towards the tail
+			for(int i = index; i > 0; i--) {
+				values[physicalIndex(i)] = values[physicalIndex(i - 1)];
+			}
+			values[head] = null;
+			head++;
+			if(head == values.length) {
+				head = 0;
+			}
+		} else {
+			//Closer to the tail so shift following elements towards the head
+			for(int i = index; i < size - 1; i++) {
+				values[physicalIndex(i)] = values[physicalIndex(i + 1)];
+			}
+			tail--;
+			if(tail < 0) {
+				tail = values.length - 1;
+			}
+			values[tail] = null;
+		}
+		size--;
+		checkShrink();
+		return (T) result;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public void clear() {
+		for(int i = 0; i < size; i++) {
+			values[physicalIndex(i)] = null;
+		}
+		head = 0;
+		tail = 0;
+		size = 0;
+		checkShrink();
+	}
+
+	@Override
+	public int getCapacity() {
+		return values.length;
+	}
+
+	private int physicalIndex(int index) {
+		final int result = head + index;
+		return result >= values.length ? result - values.length : result;
+	}
+
+	private void checkShrink() {
+		if(shrinkThreshold == 0 || values.length <= initialCapacity) {
+			return;
+		}
+		if(size > values.length >> 2) {
+			lowOccupancyCount = 0;
+			return;
+		}
+		lowOccupancyCount++;
+		if(lowOccupancyCount < shrinkThreshold) {
+			return;
+		}
+		lowOccupancyCount = 0;
+		copyTo(new Object[Math.max(initialCapacity, values.length >> 1)]);
+	}
+
+	private void copyTo(Object[] newValues) {
+		for(int i = 0; i < size; i++) {
+			newValues[i] = values[physicalIndex(i)];
+		}
+		values = newValues;
+		head = 0;
+		tail = size == newValues.length ? 0 : size;
+	}
+}
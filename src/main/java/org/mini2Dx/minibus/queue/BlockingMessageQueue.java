@@ -0,0 +1,201 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.queue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A {@link MessageQueue} guarded by a {@link ReentrantLock} that allows the
+ * consumer to wait for elements via {@link #poll(long, TimeUnit)} or
+ * {@link #await(long, TimeUnit)} instead of polling in a loop. Multiple
+ * queues may share a lock and condition so that a single consumer can wait on
+ * all of them at once.
+ *
+ * @param <T> The element type
+ */
+public class BlockingMessageQueue<T> implements MessageQueue<T> {
+	private final ReentrantLock lock;
+	private final Condition notEmpty;
+	private final ArrayMessageQueue<T> queue;
+
+	/**
+	 * Constructor
+	 * @param initialCapacity The initial capacity of the queue
+	 */
+	public BlockingMessageQueue(int initialCapacity) {
+		this(initialCapacity, new ReentrantLock());
+	}
+
+	private BlockingMessageQueue(int initialCapacity, ReentrantLock lock) {
+		this(initialCapacity, lock, lock.newCondition());
+	}
+
+	/**
+	 * Constructor
+	 * @param initialCapacity The initial capacity of the queue
+	 * @param lock The {@link ReentrantLock} guarding the queue
+	 * @param notEmpty A {@link Condition} of the lock that is signalled when an element is offered
+	 */
+	public BlockingMessageQueue(int initialCapacity, ReentrantLock lock, Condition notEmpty) {
+		super();
+		this.lock = lock;
+		this.notEmpty = notEmpty;
+		this.queue = new ArrayMessageQueue<T>(initialCapacity);
+	}
+
+	@Override
+	public boolean offer(T element) {
+		lock.lock();
+		try {
+			queue.offer(element);
+			notEmpty.signal();
+		} finally {
+			lock.unlock();
+		}
+		return true;
+	}
+
+	@Override
+	public T poll() {
+		lock.lock();
+		try {
+			return queue.poll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Removes and returns the element at the head of the queue, waiting for an element if the queue is empty
+	 * @param timeout The maximum amount of time to wait
+	 * @param unit The {@link TimeUnit} of the timeout
+	 * @return Null if the queue was still empty after the timeout
+	 * @throws InterruptedException Thrown if the thread was interrupted while waiting
+	 */
+	public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			long nanos = unit.toNanos(timeout);
+			while(queue.isEmpty()) {
+				if(nanos <= 0L) {
+					return null;
+				}
+				nanos = notEmpty.awaitNanos(nanos);
+			}
+			return queue.poll();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Waits until the queue is not empty
+	 * @param timeout The maximum amount of time to wait
+	 * @param unit The {@link TimeUnit} of the timeout
+	 * @return True if the queue is not empty
+	 * @throws InterruptedException Thrown if the thread was interrupted while waiting
+	 */
+	public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+		lock.lockInterruptibly();
+		try {
+			long nanos = unit.toNanos(timeout);
+			while(queue.isEmpty()) {
+				if(nanos <= 0L) {
+					return false;
+				}
+				nanos = notEmpty.awaitNanos(nanos);
+			}
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public T peek() {
+		lock.lock();
+		try {
+			return queue.peek();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public T get(int index) {
+		lock.lock();
+		try {
+			return queue.get(index);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public T remove(int index) {
+		lock.lock();
+		try {
+			return queue.remove(index);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		lock.lock();
+		try {
+			return queue.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public void clear() {
+		lock.lock();
+		try {
+			queue.clear();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public int getCapacity() {
+		lock.lock();
+		try {
+			return queue.getCapacity();
+		} finally {
+			lock.unlock();
+		}
+	}
+}
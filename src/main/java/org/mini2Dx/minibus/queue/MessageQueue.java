@@ -0,0 +1,95 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.queue;
+
+import org.mini2Dx.minibus.MessageExchange;
+
+/**
+ * A FIFO queue used by {@link MessageExchange}s to hold messages until they
+ * are processed. Implementations differ in which threads may call which
+ * methods - see {@link MessageQueueType} for the built-in implementations.
+ * {@link #offer(Object)}, {@link #size()} and {@link #isEmpty()} are producer
+ * methods, all other methods are consumer methods.
+ *
+ * @param <T> The element type
+ */
+public interface MessageQueue<T> {
+
+	/**
+	 * Appends an element to the end of the queue
+	 * @param element The element to append
+	 * @return True
+	 */
+	public boolean offer(T element);
+
+	/**
+	 * Removes and returns the element at the head of the queue
+	 * @return Null if the queue is empty
+	 */
+	public T poll();
+
+	/**
+	 * Returns the element at the head of the queue without removing it
+	 * @return Null if the queue is empty
+	 */
+	public T peek();
+
+	/**
+	 * Returns the element at an index, where 0 is the head of the queue
+	 * @param index The index
+	 * @return Null if the index is out of bounds
+	 */
+	public T get(int index);
+
+	/**
+	 * Removes the element at an index, where 0 is the head of the queue
+	 * @param index The index
+	 * @return The removed element or null if the index is out of bounds
+	 */
+	public T remove(int index);
+
+	/**
+	 * Returns the amount of elements in the queue
+	 * @return 0 if the queue is empty
+	 */
+	public int size();
+
+	/**
+	 * Returns if the queue is empty
+	 * @return True if {@link #size()} is 0
+	 */
+	public boolean isEmpty();
+
+	/**
+	 * Removes all elements from the queue
+	 */
+	public void clear();
+
+	/**
+	 * Returns the amount of elements that can be stored before the queue resizes.
+	 * Lock-free implementations may return an approximate value.
+	 * @return The capacity
+	 */
+	public int getCapacity();
+}
@@ -0,0 +1,90 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.queue;
+
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.util.SynchronizedQueue;
+
+/**
+ * The built-in {@link MessageQueue} implementations
+ */
+public enum MessageQueueType implements MessageQueueFactory {
+	/**
+	 * No synchronization. Only use when messages are sent and processed on the
+	 * same thread, e.g. exchanges that are only sent to and updated from the game
+	 * thread via {@link MessageBus#update(float)}.
+	 */
+	UNSYNCHRONIZED {
+		@Override
+		public <T> MessageQueue<T> newMessageQueue(int initialCapacity) {
+			return new ArrayMessageQueue<T>(initialCapacity);
+		}
+	},
+	/**
+	 * Guarded by a read/write lock from {@link MessageBus#LOCK_PROVIDER}. Any
+	 * thread may call any method. Exchanges that are not given a
+	 * {@link MessageQueueFactory} use their bus's
+	 * {@link MessageBus#getConcurrencyPolicy()} instead, which on a thread-safe
+	 * bus creates the same queue with locks from the bus's own {@link org.mini2Dx.lockprovider.Locks}.
+	 */
+	SYNCHRONIZED {
+		@Override
+		public <T> MessageQueue<T> newMessageQueue(int initialCapacity) {
+			return new SynchronizedQueue<T>(initialCapacity);
+		}
+	},
+	/**
+	 * Lock-free for exactly one sending thread and one processing thread.
+	 * Cancelling and clearing messages must also happen on the processing thread,
+	 * so this cannot be used by a {@link org.mini2Dx.minibus.exchange.ConcurrentMessageExchange}.
+	 */
+	SPSC {
+		@Override
+		public <T> MessageQueue<T> newMessageQueue(int initialCapacity) {
+			return new SpscMessageQueue<T>(initialCapacity);
+		}
+	},
+	/**
+	 * Lock-free for any amount of sending threads and one processing thread.
+	 * Cancelling and clearing messages must also happen on the processing thread,
+	 * so this cannot be used by a {@link org.mini2Dx.minibus.exchange.ConcurrentMessageExchange}.
+	 */
+	MPSC {
+		@Override
+		public <T> MessageQueue<T> newMessageQueue(int initialCapacity) {
+			return new MpscMessageQueue<T>(initialCapacity);
+		}
+	},
+	/**
+	 * Guarded by a lock with a condition so that the processing thread can wait
+	 * for messages instead of polling. This is the default for exchanges that
+	 * run on their own thread.
+	 */
+	BLOCKING {
+		@Override
+		public <T> MessageQueue<T> newMessageQueue(int initialCapacity) {
+			return new BlockingMessageQueue<T>(initialCapacity);
+		}
+	};
+}
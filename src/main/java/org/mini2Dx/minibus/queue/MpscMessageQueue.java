@@ -0,0 +1,156 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A lock-free {@link MessageQueue} for any amount of producer threads and one
+ * consumer thread. Producers append a node with a single atomic exchange and
+ * never wait on each other or the consumer. Each {@link #offer(Object)}
+ * allocates one small node. The consumer moves elements into a local
+ * {@link ArrayMessageQueue} only when random access ({@link #get(int)},
+ * {@link #remove(int)}) is required.
+ *
+ * @param <T> The element type
+ */
+public class MpscMessageQueue<T> implements MessageQueue<T> {
+	private final AtomicReference<Node<T>> tail;
+	private final AtomicLong producedCount = new AtomicLong();
+	private final AtomicLong consumedCount = new AtomicLong();
+	private final ArrayMessageQueue<T> consumerBuffer;
+
+	//Only accessed by the consumer thread
+	private Node<T> head;
+
+	/**
+	 * Constructor
+	 * @param initialCapacity The initial capacity of the consumer-side buffer
+	 */
+	public MpscMessageQueue(int initialCapacity) {
+		super();
+		head = new Node<T>(null);
+		tail = new AtomicReference<Node<T>>(head);
+		consumerBuffer = new ArrayMessageQueue<T>(initialCapacity);
+	}
+
+	@Override
+	public boolean offer(T element) {
+		final Node<T> node = new Node<T>(element);
+		final Node<T> previous = tail.getAndSet(node);
+		previous.next = node;
+		//Counted after linking so that size() never reports an element poll() cannot return yet
+		producedCount.incrementAndGet();
+		return true;
+	}
+
+	@Override
+	public T poll() {
+		final T result = consumerBuffer.isEmpty() ? pollNode() : consumerBuffer.poll();
+		if(result != null) {
+			consumedCount.lazySet(consumedCount.get() + 1);
+		}
+		return result;
+	}
+
+	@Override
+	public T peek() {
+		if(consumerBuffer.isEmpty()) {
+			final T element = pollNode();
+			if(element == null) {
+				return null;
+			}
+			consumerBuffer.offer(element);
+		}
+		return consumerBuffer.peek();
+	}
+
+	@Override
+	public T get(int index) {
+		drain();
+		return consumerBuffer.get(index);
+	}
+
+	@Override
+	public T remove(int index) {
+		drain();
+		final T result = consumerBuffer.remove(index);
+		if(result != null) {
+			consumedCount.lazySet(consumedCount.get() + 1);
+		}
+		return result;
+	}
+
+	@Override
+	public int size() {
+		final long consumed = consumedCount.get();
+		return (int) Math.max(0L, producedCount.get() - consumed);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public void clear() {
+		drain();
+		consumedCount.lazySet(consumedCount.get() + consumerBuffer.size());
+		consumerBuffer.clear();
+	}
+
+	@Override
+	public int getCapacity() {
+		return consumerBuffer.getCapacity();
+	}
+
+	private void drain() {
+		T element;
+		while((element = pollNode()) != null) {
+			consumerBuffer.offer(element);
+		}
+	}
+
+	private T pollNode() {
+		//A producer may have swapped the tail but not yet linked its node, in which case it is picked up on a later poll
+		final Node<T> next = head.next;
+		if(next == null) {
+			return null;
+		}
+		final T result = next.element;
+		next.element = null;
+		head = next;
+		return result;
+	}
+
+	private static class Node<T> {
+		T element;
+		volatile Node<T> next;
+
+		Node(T element) {
+			this.element = element;
+		}
+	}
+}
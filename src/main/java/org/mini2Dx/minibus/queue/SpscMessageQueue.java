@@ -0,0 +1,188 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free {@link MessageQueue} for exactly one producer thread and one
+ * consumer thread. The producer writes into a ring that grows by linking a
+ * larger ring when full. The consumer moves elements into a local
+ * {@link ArrayMessageQueue} only when random access ({@link #get(int)},
+ * {@link #remove(int)}) is required, so the common {@link #offer(Object)} /
+ * {@link #poll()} path never locks or allocates.
+ *
+ * @param <T> The element type
+ */
+public class SpscMessageQueue<T> implements MessageQueue<T> {
+	private static final int MINIMUM_CAPACITY = 4;
+	private static final Object JUMP = new Object();
+
+	private final AtomicLong producerIndex = new AtomicLong();
+	private final AtomicLong consumedCount = new AtomicLong();
+	private final ArrayMessageQueue<T> consumerBuffer;
+
+	//Only written by the producer thread
+	private volatile AtomicReferenceArray<Object> producerRing;
+	private int producerMask;
+	private long producerPosition;
+
+	//Only accessed by the consumer thread
+	private AtomicReferenceArray<Object> consumerRing;
+	private int consumerMask;
+	private long consumerPosition;
+
+	/**
+	 * Constructor
+	 * @param initialCapacity The initial capacity of the queue
+	 */
+	public SpscMessageQueue(int initialCapacity) {
+		super();
+		final int capacity = Math.max(MINIMUM_CAPACITY, Integer.highestOneBit(Math.max(1, initialCapacity) - 1) << 1);
+		//The final slot links to the next ring after a resize
+		producerRing = new AtomicReferenceArray<Object>(capacity + 1);
+		producerMask = capacity - 1;
+		consumerRing = producerRing;
+		consumerMask = producerMask;
+		consumerBuffer = new ArrayMessageQueue<T>(initialCapacity);
+	}
+
+	@Override
+	public boolean offer(T element) {
+		final AtomicReferenceArray<Object> ring = producerRing;
+		final long index = producerPosition;
+		final int offset = (int) index & producerMask;
+
+		//Always keep one free slot so that a jump can be written when full
+		if(ring.get((int) (index + 1) & producerMask) == null) {
+			ring.lazySet(offset, element);
+		} else {
+			final int capacity = (producerMask + 1) << 1;
+			final AtomicReferenceArray<Object> nextRing = new AtomicReferenceArray<Object>(capacity + 1);
+			producerMask = capacity - 1;
+			producerRing = nextRing;
+			nextRing.lazySet((int) index & producerMask, element);
+			ring.lazySet(ring.length() - 1, nextRing);
+			ring.lazySet(offset, JUMP);
+		}
+		producerPosition = index + 1;
+		producerIndex.lazySet(index + 1);
+		return true;
+	}
+
+	@Override
+	public T poll() {
+		final T result = consumerBuffer.isEmpty() ? pollRing() : consumerBuffer.poll();
+		if(result != null) {
+			consumedCount.lazySet(consumedCount.get() + 1);
+		}
+		return result;
+	}
+
+	@Override
+	public T peek() {
+		if(consumerBuffer.isEmpty()) {
+			final T element = pollRing();
+			if(element == null) {
+				return null;
+			}
+			consumerBuffer.offer(element);
+		}
+		return consumerBuffer.peek();
+	}
+
+	@Override
+	public T get(int index) {
+		drain();
+		return consumerBuffer.get(index);
+	}
+
+	@Override
+	public T remove(int index) {
+		drain();
+		final T result = consumerBuffer.remove(index);
+		if(result != null) {
+			consumedCount.lazySet(consumedCount.get() + 1);
+		}
+		return result;
+	}
+
+	@Override
+	public int size() {
+		final long consumed = consumedCount.get();
+		return (int) Math.max(0L, producerIndex.get() - consumed);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public void clear() {
+		drain();
+		consumedCount.lazySet(consumedCount.get() + consumerBuffer.size());
+		consumerBuffer.clear();
+	}
+
+	@Override
+	public int getCapacity() {
+		return producerRing.length() - 1 + consumerBuffer.getCapacity();
+	}
+
+	private void drain() {
+		final long available = producerIndex.get() - consumerPosition;
+		for(long i = 0; i < available; i++) {
+			final T element = pollRing();
+			if(element == null) {
+				return;
+			}
+			consumerBuffer.offer(element);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private T pollRing() {
+		final AtomicReferenceArray<Object> ring = consumerRing;
+		final long index = consumerPosition;
+		final int offset = (int) index & consumerMask;
+		Object result = ring.get(offset);
+		if(result == null) {
+			return null;
+		}
+		if(result == JUMP) {
+			final AtomicReferenceArray<Object> nextRing = (AtomicReferenceArray<Object>) ring.get(ring.length() - 1);
+			consumerRing = nextRing;
+			consumerMask = nextRing.length() - 2;
+			final int nextOffset = (int) index & consumerMask;
+			result = nextRing.get(nextOffset);
+			nextRing.lazySet(nextOffset, null);
+		} else {
+			ring.lazySet(offset, null);
+		}
+		consumerPosition = index + 1;
+		return (T) result;
+	}
+}
@@ -23,10 +23,12 @@
  */
 package org.mini2Dx.minibus.transmission;
 
-import java.util.concurrent.atomic.AtomicInteger;
-
 import org.mini2Dx.minibus.MessageData;
 import org.mini2Dx.minibus.MessageExchange;
+import org.mini2Dx.minibus.MessageInterceptor;
+import org.mini2Dx.minibus.MessagePriority;
+import org.mini2Dx.minibus.concurrency.ConcurrencyPolicy;
+import org.mini2Dx.minibus.concurrency.Counter;
 import org.mini2Dx.minibus.pool.PooledMessageData;
 
 /**
@@ -34,15 +36,23 @@ import org.mini2Dx.minibus.pool.PooledMessageData;
  */
 public class MessageTransmission {
 	private final MessageTransmissionPool transmissionPool;
-	private final AtomicInteger allocations = new AtomicInteger(0);
+	private final Counter allocations;
 	
 	private boolean broadcastMessage;
 	private MessageExchange source;
 	private String messageType;
 	private MessageData messageData;
+	private MessagePriority priority = MessagePriority.NORMAL;
+	private long enqueueTime;
+	private MessageInterceptor[] interceptors;
 	
 	public MessageTransmission(MessageTransmissionPool transmissionPool) {
+		this(transmissionPool, ConcurrencyPolicy.threadSafe().newCounter());
+	}
+
+	public MessageTransmission(MessageTransmissionPool transmissionPool, Counter allocations) {
 		this.transmissionPool = transmissionPool;
+		this.allocations = allocations;
 	}
 	
 	public void allocate() {
@@ -51,12 +61,20 @@ public class MessageTransmission {
 	
 	public void release() {
 		if(allocations.decrementAndGet() <= 0) {
+			final MessageInterceptor[] interceptors = this.interceptors;
+			if(interceptors != null) {
+				for(int i = 0; i < interceptors.length; i++) {
+					interceptors[i].onRelease(this);
+				}
+			}
 			if(messageData instanceof PooledMessageData) {
 				((PooledMessageData) messageData).release();
 			}
 			allocations.set(0);
 			messageType = "";
 			messageData = null;
+			priority = MessagePriority.NORMAL;
+			enqueueTime = 0L;
 			transmissionPool.release(this);
 		}
 	}
@@ -85,6 +103,26 @@ public class MessageTransmission {
 		this.messageType = messageType;
 	}
 
+	public MessagePriority getPriority() {
+		return priority;
+	}
+
+	public void setPriority(MessagePriority priority) {
+		this.priority = priority;
+	}
+
+	public long getEnqueueTime() {
+		return enqueueTime;
+	}
+
+	public void setEnqueueTime(long enqueueTime) {
+		this.enqueueTime = enqueueTime;
+	}
+
+	void setInterceptors(MessageInterceptor[] interceptors) {
+		this.interceptors = interceptors;
+	}
+
 	public boolean isBroadcastMessage() {
 		return broadcastMessage;
 	}
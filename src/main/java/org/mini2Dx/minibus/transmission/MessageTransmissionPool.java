@@ -24,30 +24,51 @@
 package org.mini2Dx.minibus.transmission;
 
 import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.MessageInterceptor;
+import org.mini2Dx.minibus.concurrency.ConcurrencyPolicy;
+import org.mini2Dx.minibus.concurrency.Counter;
+import org.mini2Dx.minibus.queue.MessageQueue;
 import org.mini2Dx.minibus.util.SynchronizedQueue;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.atomic.AtomicInteger;
-
 /**
  * An object pool of {@link MessageTransmission} instances to reduce memory allocations
  */
 public class MessageTransmissionPool {
-	private final Queue<MessageTransmission> pool = new SynchronizedQueue<MessageTransmission>();
+	private final ConcurrencyPolicy concurrencyPolicy;
+	private final MessageQueue<MessageTransmission> pool;
+
+	private final Counter totalAllocated;
+	private final Counter totalMisses;
+
+	private volatile MessageInterceptor[] interceptors;
+
+	public MessageTransmissionPool() {
+		this(ConcurrencyPolicy.threadSafe());
+	}
 
-	private final AtomicInteger totalAllocated = new AtomicInteger();
+	/**
+	 * Constructor
+	 * @param concurrencyPolicy The {@link ConcurrencyPolicy} of the owning {@link MessageBus}
+	 */
+	public MessageTransmissionPool(ConcurrencyPolicy concurrencyPolicy) {
+		this.concurrencyPolicy = concurrencyPolicy;
+		this.pool = concurrencyPolicy.newMessageQueue(SynchronizedQueue.DEFAULT_INITIAL_CAPACITY);
+		this.totalAllocated = concurrencyPolicy.newCounter();
+		this.totalMisses = concurrencyPolicy.newCounter();
+	}
 
 	/**
 	 * Allocates a new {@link MessageTransmission} from the pool
 	 * @return
 	 */
 	public MessageTransmission allocate() {
-		final MessageTransmission result = pool.poll();
+		MessageTransmission result = pool.poll();
 		totalAllocated.incrementAndGet();
 		if(result == null) {
-			return new MessageTransmission(this);
+			totalMisses.incrementAndGet();
+			result = new MessageTransmission(this, concurrencyPolicy.newCounter());
 		}
+		result.setInterceptors(interceptors);
 		return result;
 	}
 	
@@ -60,11 +81,27 @@ public class MessageTransmissionPool {
 		pool.offer(messageTransmission);
 	}
 
+	/**
+	 * Sets the {@link MessageInterceptor}s to notify when subsequently allocated {@link MessageTransmission}s are released
+	 * @param interceptors Null if there are no interceptors
+	 */
+	public void setInterceptors(MessageInterceptor[] interceptors) {
+		this.interceptors = interceptors;
+	}
+
 	public int size() {
 		return pool.size();
 	}
 
+	/**
+	 * Returns the amount of times the pool was empty when allocating
+	 * @return 0 if every allocation was served from the pool
+	 */
+	public long getTotalMisses() {
+		return totalMisses.get();
+	}
+
 	public int getTotalAllocated() {
-		return totalAllocated.get();
+		return (int) totalAllocated.get();
 	}
 }
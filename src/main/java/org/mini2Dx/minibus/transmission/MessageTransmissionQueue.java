@@ -0,0 +1,224 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.transmission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.mini2Dx.minibus.MessagePriority;
+import org.mini2Dx.minibus.queue.BlockingMessageQueue;
+import org.mini2Dx.minibus.queue.MessageQueue;
+import org.mini2Dx.minibus.queue.MessageQueueFactory;
+import org.mini2Dx.minibus.queue.MessageQueueType;
+import org.mini2Dx.minibus.util.SynchronizedQueue;
+
+/**
+ * A multi-level queue of {@link MessageTransmission}s. Each {@link MessagePriority}
+ * has its own FIFO queue and higher priority queues are always drained first.
+ * Indices used by {@link #get(int)} and {@link #remove(int)} follow the same
+ * order as {@link #poll()}, i.e. index 0 is the next {@link MessageTransmission}
+ * to be polled. Each level is a {@link MessageQueue} created by a
+ * {@link MessageQueueFactory}, so thread-safety follows the chosen
+ * {@link MessageQueueType}.
+ */
+public class MessageTransmissionQueue {
+	private final MessageQueue<MessageTransmission>[] queues;
+	private final ReentrantLock lock;
+	private final Condition notEmpty;
+
+	public MessageTransmissionQueue() {
+		this(SynchronizedQueue.DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Constructs a {@link MessageQueueType#SYNCHRONIZED} queue
+	 * @param initialCapacity The initial and minimum capacity of each priority level
+	 */
+	public MessageTransmissionQueue(int initialCapacity) {
+		this(MessageQueueType.SYNCHRONIZED, initialCapacity);
+	}
+
+	/**
+	 * Constructor. If the factory creates {@link BlockingMessageQueue}s, every
+	 * priority level is created as a {@link BlockingMessageQueue} sharing one lock
+	 * so that {@link #await(long, TimeUnit)} can wait on all of them.
+	 * @param queueFactory The {@link MessageQueueFactory} to create each priority level with
+	 * @param initialCapacity The initial capacity of each priority level
+	 */
+	@SuppressWarnings("unchecked")
+	public MessageTransmissionQueue(MessageQueueFactory queueFactory, int initialCapacity) {
+		super();
+		queues = (MessageQueue<MessageTransmission>[]) new MessageQueue<?>[MessagePriority.size()];
+		final MessageQueue<MessageTransmission> firstQueue = queueFactory.newMessageQueue(initialCapacity);
+		if(firstQueue instanceof BlockingMessageQueue) {
+			lock = new ReentrantLock();
+			notEmpty = lock.newCondition();
+			for(int i = 0; i < queues.length; i++) {
+				queues[i] = new BlockingMessageQueue<MessageTransmission>(initialCapacity, lock, notEmpty);
+			}
+		} else {
+			lock = null;
+			notEmpty = null;
+			queues[0] = firstQueue;
+			for(int i = 1; i < queues.length; i++) {
+				queues[i] = queueFactory.newMessageQueue(initialCapacity);
+			}
+		}
+	}
+
+	/**
+	 * Queues a {@link MessageTransmission} based on its {@link MessagePriority}
+	 * @param messageTransmission The {@link MessageTransmission} to queue
+	 * @return True
+	 */
+	public boolean offer(MessageTransmission messageTransmission) {
+		return queues[messageTransmission.getPriority().ordinal()].offer(messageTransmission);
+	}
+
+	/**
+	 * Removes and returns the oldest {@link MessageTransmission} of the highest priority
+	 * @return Null if the queue is empty
+	 */
+	public MessageTransmission poll() {
+		for(int i = queues.length - 1; i >= 0; i--) {
+			final MessageTransmission result = queues[i].poll();
+			if(result != null) {
+				return result;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Waits until a {@link MessageTransmission} is queued. If this queue was not
+	 * created with {@link MessageQueueType#BLOCKING} this sleeps for the timeout
+	 * when the queue is empty.
+	 * @param timeout The maximum amount of time to wait
+	 * @param unit The {@link TimeUnit} of the timeout
+	 * @return True if the queue is not empty
+	 * @throws InterruptedException Thrown if the thread was interrupted while waiting
+	 */
+	public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+		if(lock == null) {
+			if(isEmpty()) {
+				unit.sleep(timeout);
+			}
+			return !isEmpty();
+		}
+		lock.lockInterruptibly();
+		try {
+			long nanos = unit.toNanos(timeout);
+			while(isEmpty()) {
+				if(nanos <= 0L) {
+					return false;
+				}
+				nanos = notEmpty.awaitNanos(nanos);
+			}
+			return true;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Returns the oldest {@link MessageTransmission} of the highest priority without removing it
+	 * @return Null if the queue is empty
+	 */
+	public MessageTransmission peek() {
+		for(int i = queues.length - 1; i >= 0; i--) {
+			final MessageTransmission result = queues[i].peek();
+			if(result != null) {
+				return result;
+			}
+		}
+		return null;
+	}
+
+	public MessageTransmission get(int index) {
+		for(int i = queues.length - 1; i >= 0; i--) {
+			final int size = queues[i].size();
+			if(index < size) {
+				return queues[i].get(index);
+			}
+			index -= size;
+		}
+		return null;
+	}
+
+	public MessageTransmission remove(int index) {
+		for(int i = queues.length - 1; i >= 0; i--) {
+			final int size = queues[i].size();
+			if(index < size) {
+				return queues[i].remove(index);
+			}
+			index -= size;
+		}
+		return null;
+	}
+
+	public int size() {
+		int result = 0;
+		for(int i = queues.length - 1; i >= 0; i--) {
+			result += queues[i].size();
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the amount of {@link MessageTransmission}s queued for a specific {@link MessagePriority}
+	 * @param priority The {@link MessagePriority}
+	 * @return 0 if no messages are queued for the priority
+	 */
+	public int size(MessagePriority priority) {
+		return queues[priority.ordinal()].size();
+	}
+
+	/**
+	 * Returns the total length of the backing arrays across all priority levels
+	 * @return The amount of {@link MessageTransmission}s that can be queued before resizing
+	 */
+	public int getCapacity() {
+		int result = 0;
+		for(int i = queues.length - 1; i >= 0; i--) {
+			result += queues[i].getCapacity();
+		}
+		return result;
+	}
+
+	public boolean isEmpty() {
+		for(int i = queues.length - 1; i >= 0; i--) {
+			if(!queues[i].isEmpty()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public void clear() {
+		for(int i = queues.length - 1; i >= 0; i--) {
+			queues[i].clear();
+		}
+	}
+}
@@ -23,14 +23,14 @@
  */
 package org.mini2Dx.minibus.util;
 
-import org.mini2Dx.lockprovider.ReadWriteLock;
-import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.concurrency.BusLock;
+import org.mini2Dx.minibus.concurrency.ConcurrencyPolicy;
 
 import java.util.*;
 
 public class SnapshotArrayList<T> implements List<T> {
-	private final Object iteratorLock = new Object();
-	private final ReadWriteLock lock = MessageBus.LOCK_PROVIDER.newReadWriteLock();
+	private final BusLock iteratorLock;
+	private final BusLock lock;
 	private final Queue<SnapshotIterator<T>> iteratorPool = new ArrayDeque<SnapshotIterator<T>>();
 
 	private final boolean ordered;
@@ -43,7 +43,18 @@ public class SnapshotArrayList<T> implements List<T> {
 	}
 
 	public SnapshotArrayList(boolean ordered) {
+		this(ordered, ConcurrencyPolicy.threadSafe());
+	}
+
+	/**
+	 * Constructor
+	 * @param ordered True if removals should preserve element order
+	 * @param concurrencyPolicy The {@link ConcurrencyPolicy} to create locks from
+	 */
+	public SnapshotArrayList(boolean ordered, ConcurrencyPolicy concurrencyPolicy) {
 		this.ordered = ordered;
+		this.iteratorLock = concurrencyPolicy.newReadWriteLock();
+		this.lock = concurrencyPolicy.newReadWriteLock();
 	}
 
 	private void ensureCapacity(int capacity) {
@@ -57,6 +68,13 @@ public class SnapshotArrayList<T> implements List<T> {
 
 	@Override
 	public int size() {
+		final long stamp = lock.tryOptimisticRead();
+		if(stamp != 0L) {
+			final int result = size;
+			if(lock.validate(stamp)) {
+				return result;
+			}
+		}
 		final int result;
 		lock.lockRead();
 		result = size;
@@ -98,13 +116,13 @@ public class SnapshotArrayList<T> implements List<T> {
 	@Override
 	public Iterator<T> iterator() {
 		final SnapshotIterator<T> result;
-		synchronized (iteratorLock) {
-			if(iteratorPool.isEmpty()) {
-				result = new SnapshotIterator<T>(iteratorLock, iteratorPool);
-			} else {
-				result = iteratorPool.poll();
-			}
+		iteratorLock.lockWrite();
+		if(iteratorPool.isEmpty()) {
+			result = new SnapshotIterator<T>(iteratorLock, iteratorPool);
+		} else {
+			result = iteratorPool.poll();
 		}
+		iteratorLock.unlockWrite();
 		lock.lockRead();
 		result.init(array, size);
 		lock.unlockRead();
@@ -141,8 +159,8 @@ public class SnapshotArrayList<T> implements List<T> {
 				continue;
 			}
 			if(ordered) {
-				remove(i);
-				i--;
+				System.arraycopy(array, i + 1, array, i, size - 1 - i);
+				array[size - 1] = null;
 			} else {
 				array[i] = array[size - 1];
 				array[size - 1] = null;
@@ -207,8 +225,21 @@ public class SnapshotArrayList<T> implements List<T> {
 		lock.unlockWrite();
 	}
 
+	@SuppressWarnings("unchecked")
 	@Override
 	public T get(int index) {
+		final long stamp = lock.tryOptimisticRead();
+		if(stamp != 0L) {
+			final Object [] array = this.array;
+			final int size = this.size;
+			final Object result = index >= 0 && index < size && index < array.length ? array[index] : null;
+			if(lock.validate(stamp)) {
+				if(index < 0 || index >= size) {
+					throw new IndexOutOfBoundsException();
+				}
+				return (T) result;
+			}
+		}
 		T result = null;
 		lock.lockRead();
 		if(index < 0) {
@@ -231,9 +262,79 @@ public class SnapshotArrayList<T> implements List<T> {
 
 	@Override
 	public void add(int index, T element) {
-		throw new UnsupportedOperationException();
+		lock.lockWrite();
+		if(index < 0 || index > size) {
+			lock.unlockWrite();
+			throw new IndexOutOfBoundsException();
+		}
+		insert(index, element);
+		lock.unlockWrite();
+	}
+
+	/**
+	 * Inserts an element after the last element that is less than or equal
+	 * to it. If the list is already sorted by the {@link Comparator}, it will
+	 * remain sorted and elements that compare equal keep their insertion order.
+	 *
+	 * @param element The element to insert
+	 * @param comparator The {@link Comparator} to compare elements with
+	 */
+	@SuppressWarnings("unchecked")
+	public void addSorted(T element, Comparator<? super T> comparator) {
+		lock.lockWrite();
+		int index = size;
+		while(index > 0 && comparator.compare((T) array[index - 1], element) > 0) {
+			index--;
+		}
+		insert(index, element);
+		lock.unlockWrite();
 	}
 
+	/**
+	 * Moves an element to its sorted position after its sort key has changed.
+	 * Unlike removing and re-adding the element, readers never observe the
+	 * list without it.
+	 * @param element The element to move
+	 * @param comparator The {@link Comparator} the list is sorted by
+	 * @return False if the element is not in the list
+	 */
+	@SuppressWarnings("unchecked")
+	public boolean resort(T element, Comparator<? super T> comparator) {
+		lock.lockWrite();
+		int index = -1;
+		for(int i = 0; i < size; i++) {
+			if(array[i] == element) {
+				index = i;
+				break;
+			}
+		}
+		if(index < 0) {
+			lock.unlockWrite();
+			return false;
+		}
+		System.arraycopy(array, index + 1, array, index, size - index - 1);
+		size--;
+		array[size] = null;
+
+		int insertIndex = size;
+		while(insertIndex > 0 && comparator.compare((T) array[insertIndex - 1], element) > 0) {
+			insertIndex--;
+		}
+		insert(insertIndex, element);
+		lock.unlockWrite();
+		return true;
+	}
+
+	private void insert(int index, T element) {
+		ensureCapacity(size + 1);
+		if(index < size) {
+			System.arraycopy(array, index, array, index + 1, size - index);
+		}
+		array[index] = element;
+		size++;
+	}
+
+	@SuppressWarnings("unchecked")
 	private T remove(int index, boolean throwException) {
 		Object result = null;
 		lock.lockWrite();
@@ -317,14 +418,14 @@ public class SnapshotArrayList<T> implements List<T> {
 	}
 
 	private class SnapshotIterator<T> implements Iterator<T> {
-		private final Object lock;
+		private final BusLock lock;
 		private final Queue<SnapshotIterator<T>> iteratorPool;
 
 		private Object [] array;
 		private int size;
 		private int index;
 
-		public SnapshotIterator(Object lock, Queue<SnapshotIterator<T>> iteratorPool) {
+		public SnapshotIterator(BusLock lock, Queue<SnapshotIterator<T>> iteratorPool) {
 			this.lock = lock;
 			this.iteratorPool = iteratorPool;
 		}
@@ -342,14 +443,15 @@ public class SnapshotArrayList<T> implements List<T> {
 		@Override
 		public boolean hasNext() {
 			if(index == size) {
-				synchronized (lock) {
-					iteratorPool.add(this);
-				}
+				lock.lockWrite();
+				iteratorPool.add(this);
+				lock.unlockWrite();
 				return false;
 			}
 			return true;
 		}
 
+		@SuppressWarnings("unchecked")
 		@Override
 		public T next() {
 			final T result = (T) array[index];
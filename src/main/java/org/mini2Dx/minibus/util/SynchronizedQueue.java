@@ -23,24 +23,83 @@
  */
 package org.mini2Dx.minibus.util;
 
-import org.mini2Dx.lockprovider.ReadWriteLock;
-import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.concurrency.BusLock;
+import org.mini2Dx.minibus.concurrency.ConcurrencyPolicy;
+import org.mini2Dx.minibus.queue.MessageQueue;
 
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Queue;
 
-public class SynchronizedQueue<T> implements Queue<T> {
-	private final ReadWriteLock lock = MessageBus.LOCK_PROVIDER.newReadWriteLock();
+/**
+ * A thread-safe array-backed FIFO queue. The backing array doubles when full
+ * and, unless disabled, halves again (down to its initial capacity) once
+ * occupancy has stayed at or below a quarter of capacity for
+ * {@link #getShrinkThreshold()} consecutive removals so that a single load
+ * spike does not pin the peak-sized array in memory.
+ */
+public class SynchronizedQueue<T> implements Queue<T>, MessageQueue<T> {
+	public static final int DEFAULT_INITIAL_CAPACITY = 16;
+	public static final int DEFAULT_SHRINK_THRESHOLD = 1024;
+
+	private final BusLock lock;
+	private final int initialCapacity;
+	private final int shrinkThreshold;
 
-	private Object[] values = new Object[16];
+	private Object[] values;
 	private int head = 0;
 	private int tail = 0;
 	private int size = 0;
+	private int lowOccupancyCount = 0;
+
+	/**
+	 * Constructs a queue with {@link #DEFAULT_INITIAL_CAPACITY} and {@link #DEFAULT_SHRINK_THRESHOLD}
+	 */
+	public SynchronizedQueue() {
+		this(DEFAULT_INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Constructs a queue with {@link #DEFAULT_SHRINK_THRESHOLD}
+	 * @param initialCapacity The initial and minimum capacity of the queue
+	 */
+	public SynchronizedQueue(int initialCapacity) {
+		this(initialCapacity, DEFAULT_SHRINK_THRESHOLD);
+	}
+
+	/**
+	 * Constructor
+	 * @param initialCapacity The initial and minimum capacity of the queue
+	 * @param shrinkThreshold The amount of consecutive removals at low occupancy before the capacity is halved. 0 disables shrinking.
+	 */
+	public SynchronizedQueue(int initialCapacity, int shrinkThreshold) {
+		this(initialCapacity, shrinkThreshold, ConcurrencyPolicy.threadSafe().newReadWriteLock());
+	}
+
+	/**
+	 * Constructor
+	 * @param initialCapacity The initial and minimum capacity of the queue
+	 * @param shrinkThreshold The amount of consecutive removals at low occupancy before the capacity is halved. 0 disables shrinking.
+	 * @param lock The {@link BusLock} guarding the queue
+	 */
+	public SynchronizedQueue(int initialCapacity, int shrinkThreshold, BusLock lock) {
+		super();
+		this.lock = lock;
+		this.initialCapacity = Math.max(1, initialCapacity);
+		this.shrinkThreshold = Math.max(0, shrinkThreshold);
+		values = new Object[this.initialCapacity];
+	}
 
 	@Override
 	public int size() {
+		final long stamp = lock.tryOptimisticRead();
+		if (stamp != 0L) {
+			final int result = size;
+			if (lock.validate(stamp)) {
+				return result;
+			}
+		}
 		lock.lockRead();
 		int result = size;
 		lock.unlockRead();
@@ -162,8 +221,27 @@ public class SynchronizedQueue<T> implements Queue<T> {
 		return -1;
 	}
 
+	@SuppressWarnings("unchecked")
+	@Override
 	public T get(int index) {
+		final long stamp = lock.tryOptimisticRead();
+		if (stamp != 0L) {
+			final Object[] values = this.values;
+			final int size = this.size;
+			int i = head + index;
+			if (i >= values.length) {
+				i -= values.length;
+			}
+			final Object result = index >= 0 && index < size && i >= 0 && i < values.length ? values[i] : null;
+			if (lock.validate(stamp)) {
+				return (T) result;
+			}
+		}
 		lock.lockRead();
+		if (index < 0 || index >= size) {
+			lock.unlockRead();
+			return null;
+		}
 		final Object[] values = this.values;
 
 		int i = head + index;
@@ -175,14 +253,17 @@ public class SynchronizedQueue<T> implements Queue<T> {
 		return (T) result;
 	}
 
+	@Override
 	public T remove(int index) {
 		return index == 0 ? removeFirst() : removeAt(index);
 	}
 
+	@SuppressWarnings("unchecked")
 	private T removeFirst() {
 		lock.lockWrite();
 
 		if (size == 0) {
+			checkShrink();
 			lock.unlockWrite();
 			return null;
 		}
@@ -196,11 +277,13 @@ public class SynchronizedQueue<T> implements Queue<T> {
 			head = 0;
 		}
 		size--;
+		checkShrink();
 
 		lock.unlockWrite();
 		return (T) result;
 	}
 
+	@SuppressWarnings("unchecked")
 	private T removeAt(int index) {
 		lock.lockWrite();
 		if (index < 0) {
@@ -277,6 +360,7 @@ public class SynchronizedQueue<T> implements Queue<T> {
 		lock.lockWrite();
 
 		if (size == 0) {
+			checkShrink();
 			lock.unlockWrite();
 			return;
 		}
@@ -301,6 +385,7 @@ public class SynchronizedQueue<T> implements Queue<T> {
 		this.head = 0;
 		this.tail = 0;
 		this.size = 0;
+		checkShrink();
 
 		lock.unlockWrite();
 	}
@@ -330,13 +415,47 @@ public class SynchronizedQueue<T> implements Queue<T> {
 		return get(0);
 	}
 
+	@Override
+	public int getCapacity() {
+		lock.lockRead();
+		final int result = values.length;
+		lock.unlockRead();
+		return result;
+	}
+
+	public int getInitialCapacity() {
+		return initialCapacity;
+	}
+
+	public int getShrinkThreshold() {
+		return shrinkThreshold;
+	}
+
+	private void checkShrink() {
+		if (shrinkThreshold == 0 || values.length <= initialCapacity) {
+			return;
+		}
+		if (size > values.length >> 2) {
+			lowOccupancyCount = 0;
+			return;
+		}
+		lowOccupancyCount++;
+		if (lowOccupancyCount < shrinkThreshold) {
+			return;
+		}
+		lowOccupancyCount = 0;
+		copyTo(new Object[Math.max(initialCapacity, values.length >> 1)]);
+	}
+
 	private void resize (int capacity) {
+		copyTo(new Object[Math.max(values.length * 2, capacity + 1)]);
+	}
+
+	private void copyTo(Object [] newArray) {
 		final Object[] values = this.values;
 		final int head = this.head;
 		final int tail = this.tail;
 
-		final Object [] newArray = new Object[Math.max(values.length * 2, capacity + 1)];
-
 		if (head < tail) {
 			// Continuous
 			System.arraycopy(values, head, newArray, 0, tail - head);
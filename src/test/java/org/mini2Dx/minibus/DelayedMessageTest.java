@@ -0,0 +1,208 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.minibus.dummy.DummyEntityMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.IntMessageData;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class DelayedMessageTest implements MessageHandler, CancelledMessageHandler {
+	private static final String MESSAGE_TYPE_A = "messageA";
+	private static final String MESSAGE_TYPE_B = "messageB";
+
+	private final MessageBus messageBus = new MessageBus();
+	private final MessageExchange messageExchange = messageBus.createOnUpdateExchange(this);
+
+	private final List<String> receivedMessages = new ArrayList<>();
+	private final List<MessageData> receivedMessageData = new ArrayList<>();
+	private final Set<String> cancelledMessages = new HashSet<>();
+
+	@Before
+	public void setUp() {
+		messageBus.addCancelledMessageHandler(this);
+	}
+
+	@After
+	public void teardown() {
+		messageBus.dispose(messageExchange);
+	}
+
+	@Test
+	public void testBroadcastDelayed() {
+		messageBus.broadcastDelayed(0.5f, MESSAGE_TYPE_A);
+		Assert.assertEquals(1, messageBus.getDelayedMessageCount());
+
+		for(int i = 0; i < 4; i++) {
+			messageBus.update(0.1f);
+			Assert.assertEquals(0, receivedMessages.size());
+		}
+		messageBus.update(0.1f);
+		Assert.assertEquals(1, receivedMessages.size());
+		Assert.assertEquals(MESSAGE_TYPE_A, receivedMessages.get(0));
+		Assert.assertEquals(0, messageBus.getDelayedMessageCount());
+		Assert.assertEquals(0, messageBus.getCurrentMessageTransmissionsAllocated());
+	}
+
+	@Test
+	public void testSendToDelayed() {
+		final MessageExchange otherExchange = messageBus.createOnUpdateExchange(this);
+		messageBus.sendToDelayed(1f, messageExchange, MESSAGE_TYPE_A, null);
+
+		messageBus.update(0.75f);
+		Assert.assertEquals(0, receivedMessages.size());
+		messageBus.update(0.25f);
+		Assert.assertEquals(1, receivedMessages.size());
+		Assert.assertEquals(0, messageBus.getCurrentMessageTransmissionsAllocated());
+		otherExchange.dispose();
+	}
+
+	@Test
+	public void testLongDelay() {
+		messageBus.broadcastDelayed(3600f, MESSAGE_TYPE_A);
+		messageBus.broadcastDelayed(90f, MESSAGE_TYPE_B);
+
+		for(int i = 0; i < 89; i++) {
+			messageBus.update(1f);
+		}
+		Assert.assertEquals(0, receivedMessages.size());
+		messageBus.update(1f);
+		Assert.assertEquals(1, receivedMessages.size());
+		Assert.assertEquals(MESSAGE_TYPE_B, receivedMessages.get(0));
+
+		messageBus.update(3509f);
+		Assert.assertEquals(1, receivedMessages.size());
+		messageBus.update(1f);
+		Assert.assertEquals(2, receivedMessages.size());
+		Assert.assertEquals(MESSAGE_TYPE_A, receivedMessages.get(1));
+	}
+
+	@Test
+	public void testManyDelayedMessagesDeliveredInOrder() {
+		final Random random = new Random(1234L);
+		final int totalMessages = 10000;
+		for(int i = 0; i < totalMessages; i++) {
+			messageBus.broadcastDelayed(random.nextInt(100000) / 1000f, MESSAGE_TYPE_A, new IntMessageData(i));
+		}
+		Assert.assertEquals(totalMessages, messageBus.getDelayedMessageCount());
+
+		while(messageBus.getDelayedMessageCount() > 0) {
+			messageBus.update(random.nextFloat() * 0.5f);
+		}
+		messageBus.update(0f);
+		Assert.assertEquals(totalMessages, receivedMessages.size());
+		Assert.assertEquals(0, messageBus.getCurrentMessageTransmissionsAllocated());
+	}
+
+	@Test
+	public void testSameDelayDeliveredInSendOrder() {
+		for(int i = 0; i < 5; i++) {
+			messageBus.broadcastDelayed(0.03f, MESSAGE_TYPE_A, new IntMessageData(i));
+			messageBus.broadcastDelayed(0.5f, MESSAGE_TYPE_B, new IntMessageData(i));
+		}
+		messageBus.update(0.1f);
+		messageBus.update(1f);
+		messageBus.update(0f);
+		Assert.assertEquals(10, receivedMessageData.size());
+		for(int i = 0; i < 10; i++) {
+			Assert.assertEquals(i < 5 ? MESSAGE_TYPE_A : MESSAGE_TYPE_B, receivedMessages.get(i));
+			Assert.assertEquals(i % 5, ((IntMessageData) receivedMessageData.get(i)).getValue());
+		}
+	}
+
+	@Test
+	public void testSameDeadlineAfterCascadeDeliveredInSendOrder() {
+		messageBus.broadcastDelayed(0.125f, MESSAGE_TYPE_A, new IntMessageData(0));
+		messageBus.update(0.0625f);
+		messageBus.broadcastDelayed(0.0625f, MESSAGE_TYPE_A, new IntMessageData(1));
+		messageBus.update(1f);
+		messageBus.update(0f);
+		Assert.assertEquals(2, receivedMessageData.size());
+		Assert.assertEquals(0, ((IntMessageData) receivedMessageData.get(0)).getValue());
+		Assert.assertEquals(1, ((IntMessageData) receivedMessageData.get(1)).getValue());
+	}
+
+	@Test
+	public void testCancelAllMessages() {
+		messageBus.broadcastDelayed(1f, MESSAGE_TYPE_A);
+		messageBus.sendToDelayed(1f, messageExchange, MESSAGE_TYPE_B, null);
+
+		messageBus.cancelAllMessages();
+		Assert.assertEquals(0, messageBus.getDelayedMessageCount());
+		Assert.assertEquals(2, cancelledMessages.size());
+
+		messageBus.update(2f);
+		Assert.assertEquals(0, receivedMessages.size());
+		Assert.assertEquals(0, messageBus.getCurrentMessageTransmissionsAllocated());
+	}
+
+	@Test
+	public void testCancelAllMessagesByType() {
+		messageBus.broadcastDelayed(1f, MESSAGE_TYPE_A);
+		messageBus.broadcastDelayed(100f, MESSAGE_TYPE_B);
+		messageBus.broadcastDelayed(2f, MESSAGE_TYPE_A);
+
+		messageBus.cancelAllMessages(MESSAGE_TYPE_A, false);
+		Assert.assertEquals(1, messageBus.getDelayedMessageCount());
+		Assert.assertEquals(0, cancelledMessages.size());
+
+		messageBus.update(100f);
+		Assert.assertEquals(1, receivedMessages.size());
+		Assert.assertEquals(MESSAGE_TYPE_B, receivedMessages.get(0));
+	}
+
+	@Test
+	public void testEntityDeleted() {
+		messageBus.broadcastDelayed(1f, MESSAGE_TYPE_A, new DummyEntityMessageData(1));
+		messageBus.broadcastDelayed(1f, MESSAGE_TYPE_B, new DummyEntityMessageData(2));
+		messageBus.broadcastDelayed(5f, MESSAGE_TYPE_A, new DummyEntityMessageData(2));
+
+		messageBus.entityDeleted(2);
+		Assert.assertEquals(1, messageBus.getDelayedMessageCount());
+		Assert.assertEquals(2, cancelledMessages.size());
+
+		messageBus.update(5f);
+		Assert.assertEquals(1, receivedMessages.size());
+		Assert.assertEquals(1, ((DummyEntityMessageData) receivedMessageData.get(0)).getEntityId());
+	}
+
+	@Override
+	public void onMessageCancelled(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+		cancelledMessages.add(messageType + "-" + receivedMessages.size() + "-" + cancelledMessages.size());
+	}
+
+	@Override
+	public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+		receivedMessages.add(messageType);
+		receivedMessageData.add(messageData);
+	}
+}
@@ -0,0 +1,126 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.minibus.dummy.DummyMessageHandler;
+import org.mini2Dx.minibus.transmission.MessageTransmission;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MessageInterceptorTest implements MessageInterceptor {
+	private static final String MESSAGE_TYPE = "message";
+
+	private final MessageBus messageBus = new MessageBus();
+	private final List<String> events = new ArrayList<String>();
+
+	@Override
+	public void onSend(MessageTransmission messageTransmission) {
+		events.add("send:" + messageTransmission.getMessageType());
+	}
+
+	@Override
+	public void onQueue(MessageExchange receiver, MessageTransmission messageTransmission) {
+		events.add("queue:" + receiver.getId());
+	}
+
+	@Override
+	public void onDispatchStart(MessageExchange receiver, MessageTransmission messageTransmission) {
+		events.add("start:" + receiver.getId());
+	}
+
+	@Override
+	public void onDispatchEnd(MessageExchange receiver, MessageTransmission messageTransmission) {
+		events.add("end:" + receiver.getId());
+	}
+
+	@Override
+	public void onRelease(MessageTransmission messageTransmission) {
+		events.add("release:" + messageTransmission.getMessageType());
+	}
+
+	@Test
+	public void testOnUpdateExchangeStages() {
+		final MessageExchange exchange = messageBus.createOnUpdateExchange(new DummyMessageHandler());
+		messageBus.addInterceptor(this);
+
+		messageBus.sendTo(exchange, MESSAGE_TYPE);
+		Assert.assertEquals(Arrays.asList("send:" + MESSAGE_TYPE, "queue:" + exchange.getId()), events);
+
+		events.clear();
+		messageBus.update(1f);
+		Assert.assertEquals(Arrays.asList("start:" + exchange.getId(), "end:" + exchange.getId(),
+				"release:" + MESSAGE_TYPE), events);
+	}
+
+	@Test
+	public void testBroadcastReleasedOnce() {
+		final MessageExchange exchange1 = messageBus.createImmediateExchange(new DummyMessageHandler());
+		final MessageExchange exchange2 = messageBus.createImmediateExchange(new DummyMessageHandler());
+		messageBus.addInterceptor(this);
+
+		messageBus.broadcast(MESSAGE_TYPE);
+		Assert.assertEquals(Arrays.asList("send:" + MESSAGE_TYPE,
+				"queue:" + exchange1.getId(), "start:" + exchange1.getId(), "end:" + exchange1.getId(),
+				"queue:" + exchange2.getId(), "start:" + exchange2.getId(), "end:" + exchange2.getId(),
+				"release:" + MESSAGE_TYPE), events);
+	}
+
+	@Test
+	public void testDispatchEndOnHandlerException() {
+		final MessageExchange exchange = messageBus.createOnUpdateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				throw new IllegalStateException();
+			}
+		});
+		messageBus.addInterceptor(this);
+		messageBus.sendTo(exchange, MESSAGE_TYPE);
+
+		events.clear();
+		try {
+			messageBus.update(1f);
+			Assert.fail();
+		} catch (IllegalStateException e) {}
+		Assert.assertEquals(Arrays.asList("start:" + exchange.getId(), "end:" + exchange.getId()), events);
+	}
+
+	@Test
+	public void testRemoveInterceptor() {
+		final MessageExchange exchange = messageBus.createImmediateExchange(new DummyMessageHandler());
+		final MessageInterceptor other = new MessageInterceptor() {};
+		messageBus.addInterceptor(other);
+		messageBus.addInterceptor(this);
+		Assert.assertTrue(messageBus.removeInterceptor(this));
+		Assert.assertFalse(messageBus.removeInterceptor(this));
+
+		messageBus.sendTo(exchange, MESSAGE_TYPE);
+		Assert.assertTrue(events.isEmpty());
+		Assert.assertTrue(messageBus.removeInterceptor(other));
+		Assert.assertEquals(0, messageBus.getCurrentMessageTransmissionsAllocated());
+	}
+}
@@ -0,0 +1,99 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.minibus.dummy.DummyMessageHandler;
+import org.mini2Dx.minibus.metrics.ExchangeMetricsSnapshot;
+import org.mini2Dx.minibus.metrics.MessageBusMetricsSnapshot;
+
+public class MetricsTest {
+	private static final String MESSAGE_TYPE = "message";
+	private static final String OTHER_MESSAGE_TYPE = "other";
+
+	private final MessageBus messageBus = new MessageBus();
+
+	@Test
+	public void testDisabledByDefault() {
+		final MessageExchange exchange = messageBus.createOnUpdateExchange(new DummyMessageHandler());
+		Assert.assertFalse(messageBus.isMetricsEnabled());
+		Assert.assertNull(messageBus.getMetricsSnapshot());
+		Assert.assertNull(exchange.getMetrics());
+	}
+
+	@Test
+	public void testExchangeMetrics() {
+		final MessageExchange onUpdateExchange = messageBus.createOnUpdateExchange(new DummyMessageHandler(), new DummyMessageHandler());
+		messageBus.setMetricsEnabled(true);
+		final MessageExchange immediateExchange = messageBus.createImmediateExchange(new DummyMessageHandler());
+
+		for(int i = 0; i < 5; i++) {
+			messageBus.broadcast(MESSAGE_TYPE);
+		}
+		messageBus.sendTo(onUpdateExchange, OTHER_MESSAGE_TYPE);
+
+		MessageBusMetricsSnapshot snapshot = messageBus.getMetricsSnapshot();
+		ExchangeMetricsSnapshot onUpdateMetrics = snapshot.getExchange(onUpdateExchange.getId());
+		Assert.assertEquals(6, onUpdateMetrics.getEnqueued());
+		Assert.assertEquals(0, onUpdateMetrics.getDequeued());
+		Assert.assertEquals(6, onUpdateMetrics.getQueueSize());
+		Assert.assertEquals(6, onUpdateMetrics.getQueueHighWaterMark());
+
+		final ExchangeMetricsSnapshot immediateMetrics = snapshot.getExchange(immediateExchange.getId());
+		Assert.assertEquals(5, immediateMetrics.getEnqueued());
+		Assert.assertEquals(5, immediateMetrics.getDequeued());
+		Assert.assertEquals(5, immediateMetrics.getLatency().getTotalCount());
+		Assert.assertEquals(5, immediateMetrics.getHandlerInvocations(0));
+
+		Assert.assertEquals(5, snapshot.getMessageTypeCount(MESSAGE_TYPE));
+		Assert.assertEquals(1, snapshot.getMessageTypeCount(OTHER_MESSAGE_TYPE));
+
+		messageBus.update(1f);
+
+		snapshot = messageBus.getMetricsSnapshot();
+		onUpdateMetrics = snapshot.getExchange(onUpdateExchange.getId());
+		Assert.assertEquals(6, onUpdateMetrics.getDequeued());
+		Assert.assertEquals(0, onUpdateMetrics.getQueueSize());
+		Assert.assertEquals(6, onUpdateMetrics.getQueueHighWaterMark());
+		Assert.assertEquals(6, onUpdateMetrics.getLatency().getTotalCount());
+		Assert.assertEquals(2, onUpdateMetrics.getTotalHandlers());
+		Assert.assertEquals(6, onUpdateMetrics.getHandlerInvocations(0));
+		Assert.assertEquals(6, onUpdateMetrics.getHandlerInvocations(1));
+		Assert.assertTrue(onUpdateMetrics.getLatency().getMax() > 0L);
+	}
+
+	@Test
+	public void testDisableMetrics() {
+		final MessageExchange exchange = messageBus.createOnUpdateExchange(new DummyMessageHandler());
+		messageBus.setMetricsEnabled(true);
+		Assert.assertNotNull(exchange.getMetrics());
+
+		messageBus.setMetricsEnabled(false);
+		Assert.assertNull(exchange.getMetrics());
+		messageBus.broadcast(MESSAGE_TYPE);
+		messageBus.update(1f);
+		Assert.assertNull(messageBus.getMetricsSnapshot());
+	}
+}
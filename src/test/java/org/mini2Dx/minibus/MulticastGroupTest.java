@@ -0,0 +1,111 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.minibus.dummy.DummyMessageHandler;
+
+public class MulticastGroupTest {
+	private static final String MESSAGE_TYPE = "message";
+
+	private final MessageBus messageBus = new MessageBus();
+
+	@Test
+	public void testMulticastToMembers() {
+		final MessageExchangeGroup group = messageBus.createGroup("zone7");
+		Assert.assertSame(group, messageBus.getGroup("zone7"));
+
+		final DummyMessageHandler [] handlers = new DummyMessageHandler[4];
+		final MessageExchange [] exchanges = new MessageExchange[handlers.length];
+		for(int i = 0; i < handlers.length; i++) {
+			handlers[i] = new DummyMessageHandler();
+			exchanges[i] = messageBus.createOnUpdateExchange(handlers[i]);
+		}
+		Assert.assertTrue(messageBus.join(group, exchanges[0]));
+		Assert.assertTrue(group.join(exchanges[1]));
+		Assert.assertTrue(group.join(exchanges[2]));
+		Assert.assertFalse(group.join(exchanges[2]));
+		Assert.assertEquals(3, group.size());
+
+		messageBus.multicast(group, MESSAGE_TYPE);
+		Assert.assertEquals(1, messageBus.getCurrentMessageTransmissionsAllocated());
+		messageBus.update(1f);
+		for(int i = 0; i < 3; i++) {
+			Assert.assertEquals(1, handlers[i].getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		}
+		Assert.assertEquals(0, handlers[3].getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		Assert.assertEquals(0, messageBus.getCurrentMessageTransmissionsAllocated());
+
+		Assert.assertTrue(messageBus.leave(group, exchanges[1]));
+		Assert.assertFalse(group.leave(exchanges[1]));
+		group.multicast(MESSAGE_TYPE);
+		messageBus.update(1f);
+		Assert.assertEquals(2, handlers[0].getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		Assert.assertEquals(1, handlers[1].getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		Assert.assertEquals(2, handlers[2].getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+	}
+
+	@Test
+	public void testMulticastExcludesSource() {
+		final MessageExchangeGroup group = messageBus.createGroup("group");
+		final DummyMessageHandler sourceHandler = new DummyMessageHandler();
+		final DummyMessageHandler memberHandler = new DummyMessageHandler();
+		final MessageExchange source = messageBus.createImmediateExchange(sourceHandler);
+		final MessageExchange member = messageBus.createImmediateExchange(memberHandler);
+		group.join(source);
+		group.join(member);
+
+		source.multicast(group, MESSAGE_TYPE, null);
+		Assert.assertEquals(0, sourceHandler.getMessagesReceived(source.getId()).size());
+		Assert.assertEquals(1, memberHandler.getMessagesReceived(source.getId()).size());
+		Assert.assertEquals(0, messageBus.getCurrentMessageTransmissionsAllocated());
+	}
+
+	@Test
+	public void testMulticastEmptyGroup() {
+		final MessageExchangeGroup group = messageBus.createGroup("group");
+		messageBus.multicast(group, MESSAGE_TYPE);
+		Assert.assertEquals(0, messageBus.getCurrentMessageTransmissionsAllocated());
+	}
+
+	@Test
+	public void testDisposeLeavesGroups() {
+		final MessageExchangeGroup group = messageBus.createGroup("group");
+		final MessageExchange exchange = messageBus.createOnUpdateExchange();
+		group.join(exchange);
+		exchange.dispose();
+		Assert.assertFalse(group.contains(exchange));
+		Assert.assertEquals(0, group.size());
+
+		messageBus.removeGroup(group);
+		Assert.assertNull(messageBus.getGroup("group"));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testDuplicateGroupName() {
+		messageBus.createGroup("group");
+		messageBus.createGroup("group");
+	}
+}
@@ -0,0 +1,125 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ParallelUpdateTest {
+	private static final String MESSAGE_TYPE = "message";
+	private static final int TOTAL_EXCHANGES = 64;
+
+	private final ForkJoinPool pool = new ForkJoinPool(4);
+	private final MessageBus messageBus = new MessageBus();
+
+	@After
+	public void teardown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	public void testThreadIndependentExchangesUpdatedBeforeUpdateReturns() {
+		messageBus.setParallelUpdatePool(pool);
+
+		final AtomicInteger totalReceived = new AtomicInteger();
+		final List<MessageExchange> exchanges = new ArrayList<MessageExchange>();
+		for(int i = 0; i < TOTAL_EXCHANGES; i++) {
+			final MessageExchange exchange = messageBus.createOnUpdateExchange(new MessageHandler() {
+				@Override
+				public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+					totalReceived.incrementAndGet();
+				}
+			});
+			exchange.setThreadIndependent(true);
+			exchanges.add(exchange);
+		}
+
+		for(int frame = 1; frame <= 10; frame++) {
+			messageBus.broadcast(MESSAGE_TYPE);
+			messageBus.update(0.016f);
+			Assert.assertEquals(TOTAL_EXCHANGES * frame, totalReceived.get());
+		}
+		for(MessageExchange exchange : exchanges) {
+			Assert.assertEquals(0, exchange.getMessageQueueSize());
+		}
+		Assert.assertEquals(0, messageBus.getCurrentMessageTransmissionsAllocated());
+	}
+
+	@Test
+	public void testDependentExchangesUpdatedOnCallingThread() {
+		messageBus.setParallelUpdatePool(pool);
+
+		final Thread callingThread = Thread.currentThread();
+		final List<Thread> receivedThreads = new ArrayList<Thread>();
+		final List<String> receivedOrder = new ArrayList<String>();
+		messageBus.createOnUpdateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				receivedThreads.add(Thread.currentThread());
+				receivedOrder.add("first");
+			}
+		});
+		for(int i = 0; i < TOTAL_EXCHANGES; i++) {
+			messageBus.createOnUpdateExchange().setThreadIndependent(true);
+		}
+		messageBus.createOnUpdateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				receivedThreads.add(Thread.currentThread());
+				receivedOrder.add("second");
+			}
+		});
+
+		messageBus.broadcast(MESSAGE_TYPE);
+		messageBus.update(0.016f);
+
+		Assert.assertEquals(2, receivedThreads.size());
+		Assert.assertSame(callingThread, receivedThreads.get(0));
+		Assert.assertSame(callingThread, receivedThreads.get(1));
+		Assert.assertEquals("first", receivedOrder.get(0));
+		Assert.assertEquals("second", receivedOrder.get(1));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testExceptionPropagatedToCaller() {
+		messageBus.setParallelUpdatePool(pool);
+
+		for(int i = 0; i < TOTAL_EXCHANGES; i++) {
+			messageBus.createOnUpdateExchange(new MessageHandler() {
+				@Override
+				public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+					throw new IllegalStateException();
+				}
+			}).setThreadIndependent(true);
+		}
+		messageBus.broadcast(MESSAGE_TYPE);
+		messageBus.update(0.016f);
+	}
+}
@@ -0,0 +1,227 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.minibus.messagedata.primitives.IntMessageData;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+public class QueryFutureTest {
+	private static final String QUERY_MESSAGE_TYPE = "query";
+	private static final String RESPONSE_MESSAGE_TYPE = "response";
+
+	private final MessageBus messageBus = new MessageBus();
+
+	@Test
+	public void testDirectResponse() throws Exception {
+		messageBus.createOnUpdateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				receiver.sendTo(source, RESPONSE_MESSAGE_TYPE, new IntMessageData(((IntMessageData) messageData).getValue() * 2));
+			}
+		});
+		final int totalExchanges = messageBus.getTotalActiveExchanges();
+
+		final QueryFuture future = messageBus.query(QUERY_MESSAGE_TYPE, new IntMessageData(21), RESPONSE_MESSAGE_TYPE, true, 1f);
+		Assert.assertEquals(totalExchanges, messageBus.getTotalActiveExchanges());
+		Assert.assertEquals(1, messageBus.getPendingQueryCount());
+		Assert.assertFalse(future.isDone());
+
+		messageBus.update(0.1f);
+		Assert.assertTrue(future.isDone());
+		Assert.assertEquals(42, ((IntMessageData) future.get()).getValue());
+		Assert.assertEquals(0, messageBus.getPendingQueryCount());
+		Assert.assertEquals(0, messageBus.getCurrentMessageTransmissionsAllocated());
+	}
+
+	@Test
+	public void testBroadcastResponse() throws Exception {
+		messageBus.createImmediateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				if(messageType.equals(QUERY_MESSAGE_TYPE)) {
+					receiver.broadcast(RESPONSE_MESSAGE_TYPE, new IntMessageData(7));
+				}
+			}
+		});
+		final QueryFuture directFuture = messageBus.query(QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, true, 1f);
+		final QueryFuture future = messageBus.query(QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, false, 1f);
+		Assert.assertFalse(directFuture.isDone());
+		Assert.assertTrue(future.isDone());
+		Assert.assertEquals(7, ((IntMessageData) future.get()).getValue());
+		Assert.assertEquals(1, messageBus.getPendingQueryCount());
+	}
+
+	@Test
+	public void testIncorrectResponseIgnored() {
+		messageBus.createImmediateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				receiver.sendTo(source, QUERY_MESSAGE_TYPE);
+			}
+		});
+		final QueryFuture future = messageBus.query(QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, true, 0f);
+		Assert.assertFalse(future.isDone());
+		Assert.assertEquals(1, messageBus.getPendingQueryCount());
+		Assert.assertEquals(0, messageBus.getCurrentMessageTransmissionsAllocated());
+	}
+
+	@Test
+	public void testTimeout() throws Exception {
+		messageBus.createOnUpdateExchange();
+
+		final QueryFuture shortFuture = messageBus.query(QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, true, 0.5f);
+		final QueryFuture longFuture = messageBus.query(QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, true, 1.5f);
+		final QueryFuture future = messageBus.query(QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, false, 1f);
+		Assert.assertEquals(3, messageBus.getPendingQueryCount());
+
+		messageBus.update(0.75f);
+		Assert.assertTrue(shortFuture.isCompletedExceptionally());
+		Assert.assertFalse(future.isDone());
+		Assert.assertFalse(longFuture.isDone());
+
+		messageBus.update(0.5f);
+		Assert.assertTrue(future.isCompletedExceptionally());
+		Assert.assertFalse(longFuture.isDone());
+
+		messageBus.update(0.5f);
+		Assert.assertTrue(longFuture.isCompletedExceptionally());
+		Assert.assertEquals(0, messageBus.getPendingQueryCount());
+
+		try {
+			shortFuture.get();
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof TimeoutException);
+		}
+	}
+
+	@Test
+	public void testLateResponseAfterTimeoutIgnored() {
+		final MessageExchange [] querySource = new MessageExchange[1];
+		final MessageExchange responder = messageBus.createOnUpdateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				if(querySource[0] == null) {
+					querySource[0] = source;
+				}
+			}
+		});
+		final QueryFuture timedOutFuture = messageBus.query(responder, QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, true, 0.5f);
+		messageBus.update(0.1f);
+		Assert.assertNotNull(querySource[0]);
+		messageBus.update(1f);
+		Assert.assertTrue(timedOutFuture.isCompletedExceptionally());
+
+		final QueryFuture future = messageBus.query(responder, QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, true, 0f);
+		messageBus.send(responder, querySource[0], RESPONSE_MESSAGE_TYPE, new IntMessageData(111));
+		Assert.assertFalse(future.isDone());
+		Assert.assertEquals(1, messageBus.getPendingQueryCount());
+		Assert.assertEquals(1, messageBus.getCurrentMessageTransmissionsAllocated());
+	}
+
+	@Test
+	public void testLateResponseToBroadcastQueryIgnored() throws Exception {
+		final MessageExchange [] querySource = new MessageExchange[1];
+		messageBus.createImmediateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				if(messageType.equals(QUERY_MESSAGE_TYPE)) {
+					receiver.sendTo(source, RESPONSE_MESSAGE_TYPE, new IntMessageData(7));
+				}
+			}
+		});
+		final MessageExchange slowResponder = messageBus.createOnUpdateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				if(querySource[0] == null) {
+					querySource[0] = source;
+				}
+			}
+		});
+		final QueryFuture completedFuture = messageBus.query(QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, true, 0f);
+		Assert.assertEquals(7, ((IntMessageData) completedFuture.get()).getValue());
+		messageBus.update(0.1f);
+		Assert.assertNotNull(querySource[0]);
+
+		final QueryFuture future = messageBus.query(slowResponder, QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, true, 0f);
+		messageBus.send(slowResponder, querySource[0], RESPONSE_MESSAGE_TYPE, new IntMessageData(111));
+		Assert.assertFalse(future.isDone());
+	}
+
+	@Test
+	public void testBroadcastQueriesDoNotConsumeExchangeIds() throws Exception {
+		final MessageExchange responder = messageBus.createImmediateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				if(messageType.equals(QUERY_MESSAGE_TYPE)) {
+					receiver.sendTo(source, RESPONSE_MESSAGE_TYPE, messageData);
+				}
+			}
+		});
+		for(int i = 0; i < 100; i++) {
+			final QueryFuture future = messageBus.query(QUERY_MESSAGE_TYPE, new IntMessageData(i), RESPONSE_MESSAGE_TYPE, true, 0f);
+			Assert.assertEquals(i, ((IntMessageData) future.get()).getValue());
+		}
+		final MessageExchange exchange = messageBus.createOnUpdateExchange();
+		Assert.assertEquals(responder.getId() + 1, exchange.getId());
+		Assert.assertEquals(0, messageBus.getPendingQueryCount());
+	}
+
+	@Test
+	public void testCancel() {
+		final QueryFuture future = messageBus.query(QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, false, 1f);
+		Assert.assertEquals(1, messageBus.getPendingQueryCount());
+		Assert.assertTrue(future.cancel(false));
+		Assert.assertEquals(0, messageBus.getPendingQueryCount());
+
+		messageBus.broadcast(RESPONSE_MESSAGE_TYPE);
+		messageBus.update(2f);
+		Assert.assertTrue(future.isCancelled());
+	}
+
+	@Test
+	public void testManyPendingQueries() throws Exception {
+		final int totalQueries = 1000;
+		final QueryFuture [] futures = new QueryFuture[totalQueries];
+		for(int i = 0; i < totalQueries; i++) {
+			futures[i] = messageBus.query(QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, true, (i % 10) + 1f);
+		}
+		for(int i = 0; i < totalQueries; i += 2) {
+			futures[i].cancel(false);
+		}
+		Assert.assertEquals(totalQueries / 2, messageBus.getPendingQueryCount());
+
+		for(int second = 1; second <= 10; second++) {
+			messageBus.update(1f);
+			for(int i = 1; i < totalQueries; i += 2) {
+				Assert.assertEquals((i % 10) + 1 <= second, futures[i].isDone());
+			}
+		}
+		Assert.assertEquals(0, messageBus.getPendingQueryCount());
+	}
+}
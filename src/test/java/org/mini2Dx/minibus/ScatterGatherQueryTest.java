@@ -0,0 +1,162 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mini2Dx.minibus.messagedata.primitives.IntMessageData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ScatterGatherQueryTest implements QueryResponsesHandler {
+	private static final String QUERY_MESSAGE_TYPE = "query";
+	private static final String RESPONSE_MESSAGE_TYPE = "response";
+	private static final int TOTAL_ZONES = 8;
+
+	private final MessageBus messageBus = new MessageBus();
+	private final List<Integer> gatheredValues = new ArrayList<Integer>();
+	private int totalCallbacks;
+	private boolean timedOut;
+
+	@Before
+	public void setUp() {
+		for(int i = 0; i < TOTAL_ZONES; i++) {
+			final int zone = i;
+			messageBus.createOnUpdateExchange(new MessageHandler() {
+				@Override
+				public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+					if(messageType.equals(QUERY_MESSAGE_TYPE)) {
+						receiver.sendTo(source, RESPONSE_MESSAGE_TYPE, new IntMessageData(zone));
+					}
+				}
+			});
+		}
+	}
+
+	@Override
+	public void onQueryResponses(QueryResponses responses) {
+		totalCallbacks++;
+		timedOut = responses.isTimedOut();
+		Assert.assertEquals(RESPONSE_MESSAGE_TYPE, responses.getResponseMessageType());
+		for(int i = 0; i < responses.size(); i++) {
+			Assert.assertNotNull(responses.getSource(i));
+			gatheredValues.add(((IntMessageData) responses.getMessageData(i)).getValue());
+		}
+	}
+
+	@Test
+	public void testGatherMaxResponses() {
+		final int totalExchanges = messageBus.getTotalActiveExchanges();
+		messageBus.broadcastQuery(QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, true, 3, 1f, this);
+		Assert.assertEquals(totalExchanges, messageBus.getTotalActiveExchanges());
+
+		messageBus.update(0.1f);
+		Assert.assertEquals(1, totalCallbacks);
+		Assert.assertFalse(timedOut);
+		Assert.assertEquals(3, gatheredValues.size());
+		Assert.assertEquals(0, messageBus.getPendingQueryCount());
+
+		messageBus.update(2f);
+		Assert.assertEquals(1, totalCallbacks);
+		Assert.assertEquals(0, messageBus.getCurrentMessageTransmissionsAllocated());
+	}
+
+	@Test
+	public void testGatherUntilTimeout() {
+		messageBus.broadcastQuery(QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, true, 0, 0.5f, this);
+
+		messageBus.update(0.1f);
+		Assert.assertEquals(0, totalCallbacks);
+		Assert.assertEquals(1, messageBus.getPendingQueryCount());
+
+		messageBus.update(0.5f);
+		Assert.assertEquals(1, totalCallbacks);
+		Assert.assertTrue(timedOut);
+		Assert.assertEquals(TOTAL_ZONES, gatheredValues.size());
+		Assert.assertEquals(0, messageBus.getPendingQueryCount());
+		Assert.assertEquals(0, messageBus.getCurrentMessageTransmissionsAllocated());
+	}
+
+	@Test
+	public void testGatherFewerThanMaxResponses() {
+		messageBus.broadcastQuery(QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, true, TOTAL_ZONES * 2, 1f, this);
+
+		messageBus.update(0.5f);
+		Assert.assertEquals(0, totalCallbacks);
+		messageBus.update(0.5f);
+		Assert.assertEquals(1, totalCallbacks);
+		Assert.assertTrue(timedOut);
+		Assert.assertEquals(TOTAL_ZONES, gatheredValues.size());
+	}
+
+	@Test
+	public void testCancelQuery() {
+		final int correlationId = messageBus.broadcastQuery(QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, true, 0, 1f, this);
+		Assert.assertTrue(messageBus.cancelQuery(correlationId));
+		Assert.assertFalse(messageBus.cancelQuery(correlationId));
+
+		messageBus.update(2f);
+		Assert.assertEquals(0, totalCallbacks);
+		Assert.assertEquals(0, messageBus.getPendingQueryCount());
+		Assert.assertEquals(0, messageBus.getCurrentMessageTransmissionsAllocated());
+	}
+
+	@Test
+	public void testSingleResponseTimeout() {
+		final List<String> cancelledMessageTypes = new ArrayList<String>();
+		messageBus.addCancelledMessageHandler(new CancelledMessageHandler() {
+			@Override
+			public void onMessageCancelled(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				cancelledMessageTypes.add(messageType);
+			}
+		});
+		final List<Integer> received = new ArrayList<Integer>();
+		final MessageHandler queryHandler = new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				received.add(((IntMessageData) messageData).getValue());
+			}
+		};
+		messageBus.broadcastQuery(QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, true, 1f, queryHandler);
+		messageBus.broadcastQuery("unanswered", null, RESPONSE_MESSAGE_TYPE, true, 1f, queryHandler);
+
+		messageBus.update(0.1f);
+		Assert.assertEquals(1, received.size());
+		Assert.assertEquals(1, messageBus.getPendingQueryCount());
+		Assert.assertEquals(0, cancelledMessageTypes.size());
+
+		messageBus.update(1f);
+		Assert.assertEquals(1, received.size());
+		Assert.assertEquals(0, messageBus.getPendingQueryCount());
+		Assert.assertEquals(1, cancelledMessageTypes.size());
+		Assert.assertEquals(RESPONSE_MESSAGE_TYPE, cancelledMessageTypes.get(0));
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testGatherRequiresLimit() {
+		messageBus.broadcastQuery(QUERY_MESSAGE_TYPE, null, RESPONSE_MESSAGE_TYPE, true, 0, 0f, this);
+	}
+}
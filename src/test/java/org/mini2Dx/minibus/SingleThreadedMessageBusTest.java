@@ -0,0 +1,101 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class SingleThreadedMessageBusTest implements MessageHandler {
+	private final List<String> messagesReceived = new ArrayList<String>();
+
+	@Test
+	public void testBroadcastAndUpdate() {
+		final MessageBus messageBus = MessageBus.singleThreaded();
+		Assert.assertFalse(messageBus.getConcurrencyPolicy().isThreadSafe());
+		messageBus.createOnUpdateExchange(this);
+		messageBus.createImmediateExchange(this);
+
+		messageBus.broadcast("TEST");
+		Assert.assertEquals(1, messagesReceived.size());
+		messageBus.update(0.16f);
+		Assert.assertEquals(2, messagesReceived.size());
+		Assert.assertEquals(0, messageBus.getCurrentMessageTransmissionsAllocated());
+		Assert.assertEquals(1, messageBus.getMessageTransmissionPoolSize());
+	}
+
+	@Test
+	public void testDelayedMessage() {
+		final MessageBus messageBus = MessageBus.singleThreaded();
+		messageBus.createOnUpdateExchange(this);
+
+		messageBus.broadcastDelayed(0.5f, "TEST");
+		messageBus.update(0.25f);
+		Assert.assertEquals(0, messagesReceived.size());
+		messageBus.update(0.5f);
+		messageBus.update(0f);
+		Assert.assertEquals(1, messagesReceived.size());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testConcurrentExchangeNotSupported() {
+		MessageBus.singleThreaded().createConcurrentExchange(this);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testParallelUpdateNotSupported() {
+		MessageBus.singleThreaded().setParallelUpdatePool(ForkJoinPool.commonPool());
+	}
+
+	@Test
+	public void testThreadConfinement() throws InterruptedException {
+		Assume.assumeTrue(MessageBus.class.desiredAssertionStatus());
+
+		final MessageBus messageBus = MessageBus.singleThreaded();
+		messageBus.createOnUpdateExchange(this);
+		messageBus.update(0f);
+
+		final AtomicReference<Throwable> result = new AtomicReference<Throwable>();
+		final Thread thread = new Thread(() -> {
+			try {
+				messageBus.broadcast("TEST");
+			} catch (Throwable e) {
+				result.set(e);
+			}
+		});
+		thread.start();
+		thread.join();
+		Assert.assertTrue(result.get() instanceof IllegalStateException);
+	}
+
+	@Override
+	public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+		messagesReceived.add(messageType);
+	}
+}
@@ -0,0 +1,215 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class UpdatePhaseTest {
+	private static final String START_MESSAGE_TYPE = "start";
+	private static final String FORWARD_MESSAGE_TYPE = "forward";
+
+	private final MessageBus messageBus = new MessageBus();
+	private ForkJoinPool pool;
+
+	@After
+	public void teardown() {
+		if(pool != null) {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testLowerPhaseUpdatedFirst() {
+		final AtomicInteger totalReceived = new AtomicInteger();
+		final MessageExchange consumer = messageBus.createOnUpdateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				if(messageType.equals(FORWARD_MESSAGE_TYPE)) {
+					totalReceived.incrementAndGet();
+				}
+			}
+		});
+		final MessageExchange producer = messageBus.createOnUpdateExchange(new ForwardingMessageHandler(consumer));
+
+		messageBus.broadcast(START_MESSAGE_TYPE);
+		messageBus.update(1f);
+		Assert.assertEquals(0, totalReceived.get());
+		messageBus.update(1f);
+		Assert.assertEquals(1, totalReceived.get());
+
+		producer.setUpdatePhase(-1);
+		Assert.assertEquals(-1, producer.getUpdatePhase());
+		Assert.assertEquals(2, messageBus.getTotalActiveExchanges());
+
+		messageBus.broadcast(START_MESSAGE_TYPE);
+		messageBus.update(1f);
+		Assert.assertEquals(2, totalReceived.get());
+	}
+
+	@Test
+	public void testPhaseOrderWithParallelUpdate() {
+		pool = new ForkJoinPool(4);
+		messageBus.setParallelUpdatePool(pool);
+
+		final AtomicInteger totalReceived = new AtomicInteger();
+		final MessageExchange consumer = messageBus.createOnUpdateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				if(messageType.equals(FORWARD_MESSAGE_TYPE)) {
+					totalReceived.incrementAndGet();
+				}
+			}
+		});
+		consumer.setThreadIndependent(true);
+		consumer.setUpdatePhase(1);
+
+		final int totalProducers = 16;
+		for(int i = 0; i < totalProducers; i++) {
+			final MessageExchange producer = messageBus.createOnUpdateExchange(new ForwardingMessageHandler(consumer));
+			producer.setThreadIndependent(true);
+		}
+
+		messageBus.broadcast(START_MESSAGE_TYPE);
+		messageBus.update(1f);
+		Assert.assertEquals(totalProducers, totalReceived.get());
+	}
+
+	@Test
+	public void testUpdateUntilQuiescent() {
+		final List<String> received = new ArrayList<String>();
+		final MessageExchange last = messageBus.createOnUpdateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				if(messageType.equals(FORWARD_MESSAGE_TYPE)) {
+					received.add(messageType);
+				}
+			}
+		});
+		final MessageExchange middle = messageBus.createOnUpdateExchange(new ForwardingMessageHandler(last));
+		messageBus.createOnUpdateExchange(new ForwardingMessageHandler(middle));
+
+		messageBus.setMaxUpdatePasses(4);
+		Assert.assertEquals(4, messageBus.getMaxUpdatePasses());
+
+		messageBus.broadcast(START_MESSAGE_TYPE);
+		messageBus.update(1f);
+		Assert.assertEquals(2, received.size());
+	}
+
+	@Test
+	public void testMaxUpdatePassesLimitsCascade() {
+		final AtomicInteger totalReceived = new AtomicInteger();
+		final MessageExchange [] exchanges = new MessageExchange[2];
+		for(int i = 0; i < exchanges.length; i++) {
+			final int destination = (i + 1) % exchanges.length;
+			exchanges[i] = messageBus.createOnUpdateExchange(new MessageHandler() {
+				@Override
+				public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+					totalReceived.incrementAndGet();
+					receiver.sendTo(exchanges[destination], FORWARD_MESSAGE_TYPE);
+				}
+			});
+		}
+		messageBus.setMaxUpdatePasses(3);
+
+		messageBus.sendTo(exchanges[0], START_MESSAGE_TYPE);
+		messageBus.update(1f);
+		Assert.assertEquals(6, totalReceived.get());
+		Assert.assertEquals(1, exchanges[0].getMessageQueueSize());
+	}
+
+	@Test
+	public void testFlushLimitAppliesPerUpdate() {
+		final AtomicInteger totalReceived = new AtomicInteger();
+		final MessageExchange exchange = messageBus.createOnUpdateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				totalReceived.incrementAndGet();
+			}
+		});
+		exchange.setFlushMessageLimit(2);
+		messageBus.setMaxUpdatePasses(4);
+
+		for(int i = 0; i < 5; i++) {
+			messageBus.sendTo(exchange, START_MESSAGE_TYPE);
+		}
+		messageBus.update(1f);
+		Assert.assertEquals(2, totalReceived.get());
+		messageBus.update(1f);
+		Assert.assertEquals(4, totalReceived.get());
+	}
+
+	@Test
+	public void testPhaseChangeDuringBroadcast() throws InterruptedException {
+		final AtomicInteger totalReceived = new AtomicInteger();
+		final MessageExchange exchange = messageBus.createImmediateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				totalReceived.incrementAndGet();
+			}
+		});
+		messageBus.createOnUpdateExchange(new ForwardingMessageHandler(exchange)).setUpdatePhase(1);
+
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final Thread thread = new Thread(() -> {
+			for(int i = 0; running.get(); i++) {
+				exchange.setUpdatePhase(i % 2 == 0 ? 2 : 0);
+			}
+		});
+		thread.start();
+		final int totalMessages = 100000;
+		for(int i = 0; i < totalMessages; i++) {
+			messageBus.broadcast(START_MESSAGE_TYPE);
+		}
+		running.set(false);
+		thread.join();
+		Assert.assertEquals(totalMessages, totalReceived.get());
+	}
+
+	@Test(expected = RuntimeException.class)
+	public void testInvalidMaxUpdatePasses() {
+		messageBus.setMaxUpdatePasses(0);
+	}
+
+	private class ForwardingMessageHandler implements MessageHandler {
+		private final MessageExchange destination;
+
+		public ForwardingMessageHandler(MessageExchange destination) {
+			this.destination = destination;
+		}
+
+		@Override
+		public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+			receiver.sendTo(destination, FORWARD_MESSAGE_TYPE);
+		}
+	}
+}
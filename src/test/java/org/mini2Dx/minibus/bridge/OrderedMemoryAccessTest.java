@@ -0,0 +1,55 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.bridge;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link OrderedMemoryAccess}
+ */
+public class OrderedMemoryAccessTest {
+
+	@Test
+	public void testUnsafeAndFallbackAgree() {
+		final ByteBuffer buffer = ByteBuffer.allocateDirect(64).order(ByteOrder.nativeOrder());
+		final long address = OrderedMemoryAccess.getAddress(buffer);
+		Assert.assertNotEquals(0L, address);
+
+		OrderedMemoryAccess.putLongRelease(buffer, address, 8, 0x0102030405060708L);
+		Assert.assertEquals(0x0102030405060708L, OrderedMemoryAccess.getLongAcquire(buffer, 0L, 8));
+		Assert.assertEquals(0x0102030405060708L, buffer.getLong(8));
+
+		OrderedMemoryAccess.putLongRelease(buffer, 0L, 16, -2L);
+		Assert.assertEquals(-2L, OrderedMemoryAccess.getLongAcquire(buffer, address, 16));
+	}
+
+	@Test
+	public void testHeapBufferUsesFallback() {
+		Assert.assertEquals(0L, OrderedMemoryAccess.getAddress(ByteBuffer.allocate(64)));
+	}
+}
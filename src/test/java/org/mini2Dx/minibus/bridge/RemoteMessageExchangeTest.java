@@ -0,0 +1,265 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.bridge;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.MessageData;
+import org.mini2Dx.minibus.MessageExchange;
+import org.mini2Dx.minibus.MessageHandler;
+import org.mini2Dx.minibus.MessagePriority;
+import org.mini2Dx.minibus.codec.CodecUtils;
+import org.mini2Dx.minibus.codec.MessageDataCodecs;
+import org.mini2Dx.minibus.messagedata.primitives.IntArrayMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.IntMessageData;
+
+public class RemoteMessageExchangeTest {
+	private static final String MESSAGE_TYPE = "message";
+
+	private final MessageBus serverBus = new MessageBus();
+	private final MessageBus clientBus = new MessageBus();
+	private final List<Object> serverReceived = new ArrayList<Object>();
+	private final List<Object> clientReceived = new ArrayList<Object>();
+	private final List<RemoteMessageExchange> remoteExchanges = new ArrayList<RemoteMessageExchange>();
+
+	@After
+	public void teardown() {
+		for(RemoteMessageExchange exchange : remoteExchanges) {
+			exchange.dispose();
+		}
+	}
+
+	@Test
+	public void testBroadcastBothWays() throws Exception {
+		final RemoteMessageExchange server = createServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		final RemoteMessageExchange client = createClient(server.getAddress());
+		serverBus.createOnUpdateExchange(new RecordingMessageHandler(serverReceived));
+		clientBus.createOnUpdateExchange(new RecordingMessageHandler(clientReceived));
+		connect(server, client);
+
+		serverBus.broadcast(MESSAGE_TYPE, new IntMessageData(1));
+		clientBus.broadcast(MESSAGE_TYPE, new IntMessageData(2));
+		//Each bus also delivers its own broadcast locally
+		updateUntil(() -> serverReceived.size() == 2 && clientReceived.size() == 2);
+
+		Assert.assertEquals(1, ((IntMessageData) serverReceived.get(0)).getValue());
+		Assert.assertEquals(2, ((IntMessageData) serverReceived.get(1)).getValue());
+		Assert.assertEquals(2, ((IntMessageData) clientReceived.get(0)).getValue());
+		Assert.assertEquals(1, ((IntMessageData) clientReceived.get(1)).getValue());
+	}
+
+	@Test
+	public void testDirectMessage() throws Exception {
+		final RemoteMessageExchange server = createServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		final RemoteMessageExchange client = createClient(server.getAddress(), new RecordingMessageHandler(clientReceived));
+		clientBus.createOnUpdateExchange(new RecordingMessageHandler(serverReceived));
+		connect(server, client);
+
+		serverBus.sendTo(server, MESSAGE_TYPE, new IntMessageData(3));
+		updateUntil(() -> clientReceived.size() == 1);
+		Assert.assertEquals(3, ((IntMessageData) clientReceived.get(0)).getValue());
+		Assert.assertTrue(serverReceived.isEmpty());
+	}
+
+	@Test
+	public void testBackpressure() throws Exception {
+		final int totalMessages = 2000;
+		final RemoteMessageExchange server = createServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		final RemoteMessageExchange client = createClient(server.getAddress());
+		clientBus.createOnUpdateExchange(new RecordingMessageHandler(clientReceived));
+		connect(server, client);
+
+		for(int i = 0; i < totalMessages; i++) {
+			final int [] values = new int[1000];
+			values[0] = i;
+			serverBus.broadcast(MESSAGE_TYPE, new IntArrayMessageData(values));
+		}
+		serverBus.update(0f);
+		Assert.assertTrue(server.getMessageQueueSize() > 0);
+
+		updateUntil(() -> clientReceived.size() == totalMessages);
+		for(int i = 0; i < totalMessages; i++) {
+			Assert.assertEquals(i, ((IntArrayMessageData) clientReceived.get(i)).getValue()[0]);
+		}
+	}
+
+	@Test
+	public void testMaxQueuedMessagesWithoutPeer() throws Exception {
+		final RemoteMessageExchange server = createServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		server.setMaxQueuedMessages(3);
+		for(int i = 0; i < 5; i++) {
+			serverBus.broadcast(MESSAGE_TYPE, new IntMessageData(i));
+		}
+		serverBus.update(0f);
+		Assert.assertFalse(server.isConnected());
+		Assert.assertEquals(3, server.getMessageQueueSize());
+		Assert.assertEquals(2, server.getDroppedMessages());
+
+		final RemoteMessageExchange client = createClient(server.getAddress());
+		clientBus.createOnUpdateExchange(new RecordingMessageHandler(clientReceived));
+		updateUntil(() -> clientReceived.size() == 3);
+		for(int i = 0; i < 3; i++) {
+			Assert.assertEquals(i, ((IntMessageData) clientReceived.get(i)).getValue());
+		}
+		Assert.assertTrue(client.isConnected());
+	}
+
+	@Test
+	public void testReconnect() throws Exception {
+		final RemoteMessageExchange server = createServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		final RemoteMessageExchange client = createClient(server.getAddress());
+		client.setReconnectInterval(0f);
+		clientBus.createOnUpdateExchange(new RecordingMessageHandler(clientReceived));
+		connect(server, client);
+
+		server.dispose();
+		updateUntil(() -> !client.isConnected());
+
+		final RemoteMessageExchange newServer = createServer(server.getAddress());
+		connect(newServer, client);
+		Assert.assertEquals(2, client.getTotalConnections());
+
+		serverBus.broadcast(MESSAGE_TYPE, new IntMessageData(4));
+		updateUntil(() -> clientReceived.size() == 1);
+	}
+
+	@Test
+	public void testUnwritableMessagesDropped() throws Exception {
+		final RemoteMessageExchange server = createServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		final RemoteMessageExchange client = createClient(server.getAddress());
+		clientBus.createOnUpdateExchange(new RecordingMessageHandler(clientReceived));
+		connect(server, client);
+
+		serverBus.broadcast(MESSAGE_TYPE, new MessageData() {});
+		serverBus.broadcast(MESSAGE_TYPE, new IntArrayMessageData(new int[RemoteMessageExchange.DEFAULT_BUFFER_SIZE]));
+		serverBus.broadcast(MESSAGE_TYPE, new IntMessageData(5));
+		updateUntil(() -> clientReceived.size() == 1);
+		Assert.assertEquals(5, ((IntMessageData) clientReceived.get(0)).getValue());
+		Assert.assertEquals(2, server.getDroppedMessages());
+		Assert.assertTrue(server.isConnected());
+	}
+
+	@Test
+	public void testFrameWithTrailingBytes() throws Exception {
+		final RemoteMessageExchange server = createServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		serverBus.createOnUpdateExchange(new RecordingMessageHandler(serverReceived));
+		final SocketChannel peer = SocketChannel.open(server.getAddress());
+		try {
+			final MessageDataCodecs codecs = new MessageDataCodecs();
+			final ByteBuffer buffer = ByteBuffer.allocate(256);
+			for(int i = 0; i < 2; i++) {
+				final IntMessageData messageData = new IntMessageData(i);
+				buffer.putInt(1 + CodecUtils.getStringSize(MESSAGE_TYPE) + codecs.getEncodedSize(messageData) + 3);
+				buffer.put((byte) (0x80 | MessagePriority.NORMAL.ordinal()));
+				CodecUtils.putString(buffer, MESSAGE_TYPE);
+				codecs.encode(messageData, buffer);
+				buffer.put(new byte[3]);
+			}
+			buffer.flip();
+			peer.write(buffer);
+
+			updateUntil(() -> serverReceived.size() == 2);
+			Assert.assertEquals(0, ((IntMessageData) serverReceived.get(0)).getValue());
+			Assert.assertEquals(1, ((IntMessageData) serverReceived.get(1)).getValue());
+			Assert.assertTrue(server.isConnected());
+		} finally {
+			peer.close();
+		}
+	}
+
+	@Test
+	public void testInvalidFrameLengthDisconnects() throws Exception {
+		assertMalformedFrameDisconnects(new byte[] { (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFB });
+	}
+
+	@Test
+	public void testUndecodableFrameDisconnects() throws Exception {
+		//A frame declaring a 4-byte message type inside a 2-byte frame
+		assertMalformedFrameDisconnects(new byte[] { 0, 0, 0, 2, (byte) MessagePriority.NORMAL.ordinal(), 5 });
+	}
+
+	private void assertMalformedFrameDisconnects(byte [] frame) throws Exception {
+		final RemoteMessageExchange server = createServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+		final SocketChannel peer = SocketChannel.open(server.getAddress());
+		try {
+			updateUntil(() -> server.isConnected());
+			peer.write(ByteBuffer.wrap(frame));
+			updateUntil(() -> !server.isConnected());
+		} finally {
+			peer.close();
+		}
+	}
+
+	private RemoteMessageExchange createServer(InetSocketAddress address) throws Exception {
+		final RemoteMessageExchange result = serverBus.createRemoteServerExchange(address, new MessageDataCodecs(), null);
+		remoteExchanges.add(result);
+		return result;
+	}
+
+	private RemoteMessageExchange createClient(InetSocketAddress address, MessageHandler... messageHandlers) {
+		final RemoteMessageExchange result = clientBus.createRemoteClientExchange(address, new MessageDataCodecs(), null, messageHandlers);
+		remoteExchanges.add(result);
+		return result;
+	}
+
+	private void connect(RemoteMessageExchange server, RemoteMessageExchange client) throws Exception {
+		updateUntil(() -> server.isConnected() && client.isConnected());
+	}
+
+	private void updateUntil(Condition condition) throws Exception {
+		final long deadline = System.currentTimeMillis() + 10000L;
+		while(!condition.isMet()) {
+			Assert.assertTrue(System.currentTimeMillis() < deadline);
+			serverBus.update(0.01f);
+			clientBus.update(0.01f);
+			Thread.sleep(1);
+		}
+	}
+
+	private interface Condition {
+		boolean isMet();
+	}
+
+	private static class RecordingMessageHandler implements MessageHandler {
+		private final List<Object> received;
+
+		RecordingMessageHandler(List<Object> received) {
+			this.received = received;
+		}
+
+		@Override
+		public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+			received.add(messageData);
+		}
+	}
+}
@@ -0,0 +1,172 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.bridge;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.MessageData;
+import org.mini2Dx.minibus.MessageExchange;
+import org.mini2Dx.minibus.MessageHandler;
+import org.mini2Dx.minibus.MessagePriority;
+import org.mini2Dx.minibus.codec.MessageDataCodecs;
+import org.mini2Dx.minibus.messagedata.primitives.IntMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.StringMessageData;
+
+public class SharedMemoryBridgeTest {
+	private static final String FORWARDED_TYPE = "forwarded";
+	private static final String LOCAL_TYPE = "local";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testBridgeBetweenBuses() throws Exception {
+		final Path file = temporaryFolder.getRoot().toPath().resolve("ring");
+		final SharedMemoryRingBuffer producerRing = new SharedMemoryRingBuffer(file);
+		final SharedMemoryRingBuffer consumerRing = new SharedMemoryRingBuffer(file);
+
+		final MessageBus producerBus = new MessageBus();
+		producerBus.createSharedMemoryBridgeExchange(producerRing, FORWARDED_TYPE);
+
+		final MessageBus consumerBus = new MessageBus();
+		final List<Integer> received = new ArrayList<Integer>();
+		consumerBus.createSharedMemoryProxyExchange(consumerRing);
+		consumerBus.createOnUpdateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				Assert.assertEquals(FORWARDED_TYPE, messageType);
+				Assert.assertTrue(source instanceof SharedMemoryProxyExchange);
+				received.add(((IntMessageData) messageData).getValue());
+			}
+		});
+
+		producerBus.broadcast(FORWARDED_TYPE, new IntMessageData(1));
+		producerBus.broadcast(LOCAL_TYPE, new IntMessageData(2));
+		producerBus.broadcast(FORWARDED_TYPE, new IntMessageData(3));
+		producerBus.update(0f);
+		Assert.assertTrue(consumerRing.getUsedCapacity() > 0L);
+
+		consumerBus.update(0f);
+		consumerBus.update(0f);
+		Assert.assertEquals(2, received.size());
+		Assert.assertEquals(1, received.get(0).intValue());
+		Assert.assertEquals(3, received.get(1).intValue());
+		Assert.assertEquals(0L, consumerRing.getUsedCapacity());
+
+		producerRing.close();
+		consumerRing.close();
+	}
+
+	@Test
+	public void testUnwritableMessagesDropped() throws Exception {
+		final Path file = temporaryFolder.getRoot().toPath().resolve("ring");
+		final SharedMemoryRingBuffer producerRing = new SharedMemoryRingBuffer(file, 64, new MessageDataCodecs());
+		final SharedMemoryRingBuffer consumerRing = new SharedMemoryRingBuffer(file, 64, new MessageDataCodecs());
+
+		final MessageBus producerBus = new MessageBus();
+		final SharedMemoryBridgeExchange bridgeExchange = producerBus.createSharedMemoryBridgeExchange(producerRing);
+		producerBus.broadcast(FORWARDED_TYPE, new MessageData() {});
+		producerBus.broadcast(FORWARDED_TYPE, new StringMessageData(new String(new char[128])));
+		producerBus.broadcast(FORWARDED_TYPE, new IntMessageData(1));
+		producerBus.update(0f);
+		Assert.assertEquals(2, bridgeExchange.getDroppedMessages());
+
+		Assert.assertTrue(consumerRing.read());
+		Assert.assertEquals(1, ((IntMessageData) consumerRing.getMessageData()).getValue());
+		Assert.assertFalse(consumerRing.read());
+
+		producerRing.close();
+		consumerRing.close();
+	}
+
+	@Test
+	public void testBackpressureAndWrapAround() throws Exception {
+		final Path file = temporaryFolder.getRoot().toPath().resolve("ring");
+		final SharedMemoryRingBuffer producerRing = new SharedMemoryRingBuffer(file, 64, new MessageDataCodecs());
+		final SharedMemoryRingBuffer consumerRing = new SharedMemoryRingBuffer(file, 64, new MessageDataCodecs());
+
+		int written = 0;
+		int read = 0;
+		for(int i = 0; i < 100; i++) {
+			while(producerRing.write(FORWARDED_TYPE, new IntMessageData(written), false, MessagePriority.NORMAL)) {
+				written++;
+			}
+			Assert.assertTrue(consumerRing.read());
+			Assert.assertEquals(read, ((IntMessageData) consumerRing.getMessageData()).getValue());
+			read++;
+		}
+		while(consumerRing.read()) {
+			Assert.assertEquals(read, ((IntMessageData) consumerRing.getMessageData()).getValue());
+			read++;
+		}
+		Assert.assertEquals(written, read);
+
+		producerRing.close();
+		consumerRing.close();
+	}
+
+	@Test
+	public void testBridgeBetweenProcesses() throws Exception {
+		final int totalMessages = 1000;
+		final File file = new File(temporaryFolder.getRoot(), "ring");
+		final SharedMemoryRingBuffer ringBuffer = new SharedMemoryRingBuffer(file.toPath(), 4096, new MessageDataCodecs());
+
+		final MessageBus messageBus = new MessageBus();
+		final List<Integer> received = new ArrayList<Integer>();
+		messageBus.createSharedMemoryProxyExchange(ringBuffer);
+		messageBus.createOnUpdateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				received.add(((IntMessageData) messageData).getValue());
+			}
+		});
+
+		final String javaBin = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		final Process process = new ProcessBuilder(javaBin, "-cp", System.getProperty("java.class.path"),
+				SharedMemoryBridgeTestProducer.class.getName(), file.getAbsolutePath(), String.valueOf(totalMessages))
+				.inheritIO().start();
+
+		final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(30);
+		while(received.size() < totalMessages && System.currentTimeMillis() < deadline) {
+			messageBus.update(0f);
+			Thread.sleep(1);
+		}
+		Assert.assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+		Assert.assertEquals(0, process.exitValue());
+		Assert.assertEquals(totalMessages, received.size());
+		for(int i = 0; i < totalMessages; i++) {
+			Assert.assertEquals(i, received.get(i).intValue());
+		}
+		ringBuffer.close();
+	}
+}
@@ -0,0 +1,54 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.bridge;
+
+import java.nio.file.Paths;
+
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.codec.MessageDataCodecs;
+import org.mini2Dx.minibus.messagedata.primitives.IntMessageData;
+
+/**
+ * Broadcasts messages through a {@link SharedMemoryBridgeExchange} from a
+ * separate JVM for {@link SharedMemoryBridgeTest}
+ */
+public class SharedMemoryBridgeTestProducer {
+
+	public static void main(String [] args) throws Exception {
+		final int totalMessages = Integer.parseInt(args[1]);
+		final SharedMemoryRingBuffer ringBuffer = new SharedMemoryRingBuffer(Paths.get(args[0]), 4096, new MessageDataCodecs());
+		final MessageBus messageBus = new MessageBus();
+		final SharedMemoryBridgeExchange bridge = messageBus.createSharedMemoryBridgeExchange(ringBuffer);
+
+		for(int i = 0; i < totalMessages; i++) {
+			messageBus.broadcast("message", new IntMessageData(i));
+			messageBus.update(0f);
+		}
+		while(bridge.getMessageQueueSize() > 0) {
+			Thread.sleep(1);
+			messageBus.update(0f);
+		}
+		ringBuffer.close();
+	}
+}
@@ -0,0 +1,194 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.codec;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.minibus.MessageData;
+import org.mini2Dx.minibus.exception.MessageDataCodecException;
+import org.mini2Dx.minibus.messagedata.ListMessageData;
+import org.mini2Dx.minibus.messagedata.MapMessageData;
+import org.mini2Dx.minibus.messagedata.ObjectMessageData;
+import org.mini2Dx.minibus.messagedata.SetMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.BooleanMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.CharMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.DoubleArrayMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.IntArrayMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.IntMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.LongMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.StringArrayMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.StringMessageData;
+
+public class MessageDataCodecsTest {
+	private final MessageDataCodecs codecs = new MessageDataCodecs();
+	private final ByteBuffer buffer = ByteBuffer.allocate(4096);
+
+	@Test
+	public void testPrimitives() {
+		Assert.assertEquals(42, ((IntMessageData) roundTrip(new IntMessageData(42))).getValue());
+		Assert.assertEquals(Long.MIN_VALUE, ((LongMessageData) roundTrip(new LongMessageData(Long.MIN_VALUE))).getValue());
+		Assert.assertTrue(((BooleanMessageData) roundTrip(new BooleanMessageData(true))).getValue());
+		Assert.assertEquals('x', ((CharMessageData) roundTrip(new CharMessageData('x'))).getValue());
+		Assert.assertNull(roundTrip(null));
+	}
+
+	@Test
+	public void testStrings() {
+		final String value = "abc \u00e9\u4e2d\ud83d\ude00";
+		Assert.assertEquals(value, ((StringMessageData) roundTrip(new StringMessageData(value))).getValue());
+		Assert.assertNull(((StringMessageData) roundTrip(new StringMessageData((String) null))).getValue());
+
+		final String [] values = new String[] { "a", null, "", value };
+		Assert.assertArrayEquals(values, ((StringArrayMessageData) roundTrip(new StringArrayMessageData(values))).getValue());
+	}
+
+	@Test
+	public void testArrays() {
+		final int [] ints = new int[] { 1, -2, Integer.MAX_VALUE };
+		Assert.assertArrayEquals(ints, ((IntArrayMessageData) roundTrip(new IntArrayMessageData(ints))).getValue());
+		Assert.assertNull(((IntArrayMessageData) roundTrip(new IntArrayMessageData((int []) null))).getValue());
+
+		final double [] doubles = new double[] { 0.5, -1.25 };
+		Assert.assertArrayEquals(doubles, ((DoubleArrayMessageData) roundTrip(new DoubleArrayMessageData(doubles))).getValue(), 0.0);
+	}
+
+	@Test
+	public void testCollections() {
+		final ListMessageData<Object> list = new ListMessageData<Object>();
+		list.add(1);
+		list.add("two");
+		list.add(null);
+		list.add(new IntMessageData(3));
+		final ListMessageData<?> decodedList = (ListMessageData<?>) roundTrip(list);
+		Assert.assertEquals(4, decodedList.size());
+		Assert.assertEquals(1, decodedList.get(0));
+		Assert.assertEquals("two", decodedList.get(1));
+		Assert.assertNull(decodedList.get(2));
+		Assert.assertEquals(3, ((IntMessageData) decodedList.get(3)).getValue());
+
+		final SetMessageData<Object> set = new SetMessageData<Object>();
+		set.add(1.5f);
+		set.add('c');
+		final SetMessageData<?> decodedSet = (SetMessageData<?>) roundTrip(set);
+		Assert.assertEquals(2, decodedSet.size());
+		Assert.assertTrue(decodedSet.containsAll(set));
+
+		final MapMessageData<Object, Object> map = new MapMessageData<Object, Object>();
+		map.put("a", 1L);
+		map.put(2, true);
+		final MapMessageData<?, ?> decodedMap = (MapMessageData<?, ?>) roundTrip(map);
+		Assert.assertEquals(2, decodedMap.size());
+		Assert.assertEquals(1L, decodedMap.get("a"));
+		Assert.assertEquals(true, decodedMap.get(2));
+
+		Assert.assertEquals((short) 7, ((ObjectMessageData<?>) roundTrip(new ObjectMessageData<Object>((short) 7))).getObject());
+	}
+
+	@Test(expected = MessageDataCodecException.class)
+	public void testUnsupportedValue() {
+		codecs.encode(new ObjectMessageData<Object>(new Object()), buffer);
+	}
+
+	@Test(expected = MessageDataCodecException.class)
+	public void testDuplicateTypeId() {
+		codecs.register(1, PrimitiveMessageDataCodecs.INT);
+	}
+
+	@Test(expected = MessageDataCodecException.class)
+	public void testOversizedArrayLength() {
+		PrimitiveMessageDataCodecs.INT_ARRAY.decode(lengthPrefixedBuffer(Integer.MAX_VALUE, 16));
+	}
+
+	@Test(expected = MessageDataCodecException.class)
+	public void testArrayLengthExceedsRemaining() {
+		PrimitiveMessageDataCodecs.LONG_ARRAY.decode(lengthPrefixedBuffer(3, 16));
+	}
+
+	@Test(expected = MessageDataCodecException.class)
+	public void testNegativeArrayLength() {
+		PrimitiveMessageDataCodecs.DOUBLE_ARRAY.decode(lengthPrefixedBuffer(-2, 16));
+	}
+
+	@Test(expected = MessageDataCodecException.class)
+	public void testOversizedStringLength() {
+		PrimitiveMessageDataCodecs.STRING.decode(lengthPrefixedBuffer(1 << 30, 16));
+	}
+
+	@Test(expected = MessageDataCodecException.class)
+	public void testTruncatedUtf8Sequence() {
+		//A 4-byte lead byte in a 1-byte string followed by bytes of the next field
+		final ByteBuffer buffer = lengthPrefixedBuffer(1, 4);
+		buffer.put(CodecUtils.getLengthSize(1), (byte) 0xF0);
+		CodecUtils.getString(buffer);
+	}
+
+	@Test(expected = MessageDataCodecException.class)
+	public void testOversizedListSize() {
+		new ListMessageDataCodec(codecs).decode(lengthPrefixedBuffer(Integer.MAX_VALUE, 16));
+	}
+
+	@Test(expected = MessageDataCodecException.class)
+	public void testNullListSize() {
+		new ListMessageDataCodec(codecs).decode(lengthPrefixedBuffer(-1, 16));
+	}
+
+	@Test(expected = MessageDataCodecException.class)
+	public void testOversizedMapSize() {
+		new MapMessageDataCodec(codecs).decode(lengthPrefixedBuffer(9, 16));
+	}
+
+	@Test(expected = MessageDataCodecException.class)
+	public void testOversizedPrimitiveCollectionSize() {
+		PrimitiveCollectionMessageDataCodecs.INT_INT_MAP.decode(lengthPrefixedBuffer(3, 16));
+	}
+
+	@Test
+	public void testLengthMatchingRemaining() {
+		final ByteBuffer data = lengthPrefixedBuffer(4, 16);
+		Assert.assertEquals(4, PrimitiveMessageDataCodecs.INT_ARRAY.decode(data).getValue().length);
+		Assert.assertFalse(data.hasRemaining());
+	}
+
+	private ByteBuffer lengthPrefixedBuffer(int length, int remaining) {
+		buffer.clear();
+		CodecUtils.putLength(buffer, length);
+		for(int i = 0; i < remaining; i++) {
+			buffer.put((byte) 0);
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	private MessageData roundTrip(MessageData messageData) {
+		buffer.clear();
+		codecs.encode(messageData, buffer);
+		Assert.assertEquals(codecs.getEncodedSize(messageData), buffer.position());
+		buffer.flip();
+		final MessageData result = codecs.decode(buffer);
+		Assert.assertFalse(buffer.hasRemaining());
+		return result;
+	}
+}
@@ -0,0 +1,166 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.concurrency;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.lockprovider.jvm.JvmLocks;
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.MessageData;
+import org.mini2Dx.minibus.MessageExchange;
+import org.mini2Dx.minibus.MessageHandler;
+import org.mini2Dx.minibus.messagedata.ListMessageData;
+import org.mini2Dx.minibus.pool.MessageDataPool;
+import org.mini2Dx.minibus.queue.ArrayMessageQueue;
+import org.mini2Dx.minibus.queue.MessageQueue;
+import org.mini2Dx.minibus.queue.MessageQueueFactory;
+import org.mini2Dx.minibus.util.SynchronizedQueue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrencyPolicyTest implements MessageHandler {
+	private final AtomicInteger messagesReceived = new AtomicInteger();
+
+	@Test
+	public void testPerBusPolicy() {
+		final CountingConcurrencyPolicy lobbyPolicy = new CountingConcurrencyPolicy(ConcurrencyPolicy.threadSafe(new JvmLocks()));
+		final CountingConcurrencyPolicy matchPolicy = new CountingConcurrencyPolicy(ConcurrencyPolicy.singleThreaded());
+		final MessageBus lobbyBus = new MessageBus(lobbyPolicy);
+		final MessageBus matchBus = new MessageBus(matchPolicy);
+		Assert.assertSame(lobbyPolicy, lobbyBus.getConcurrencyPolicy());
+		Assert.assertSame(matchPolicy, matchBus.getConcurrencyPolicy());
+		Assert.assertTrue(lobbyPolicy.locksCreated.get() > 0);
+		Assert.assertTrue(matchPolicy.locksCreated.get() > 0);
+
+		final int lobbyQueues = lobbyPolicy.queuesCreated.get();
+		final int matchQueues = matchPolicy.queuesCreated.get();
+		lobbyBus.createOnUpdateExchange(this);
+		matchBus.createOnUpdateExchange(this);
+		Assert.assertTrue(lobbyPolicy.queuesCreated.get() > lobbyQueues);
+		Assert.assertTrue(matchPolicy.queuesCreated.get() > matchQueues);
+
+		lobbyBus.broadcast("TEST");
+		matchBus.broadcast("TEST");
+		lobbyBus.update(0f);
+		matchBus.update(0f);
+		Assert.assertEquals(2, messagesReceived.get());
+	}
+
+	@Test
+	public void testPoolUsesPolicy() {
+		final MessageBus messageBus = MessageBus.singleThreaded();
+		final MessageDataPool<ListMessageData<String>> pool = new MessageDataPool<ListMessageData<String>>(
+				new ListMessageData<String>(), messageBus.getConcurrencyPolicy());
+		final ListMessageData<String> messageData = pool.allocate();
+		Assert.assertNotNull(messageData);
+		messageData.release();
+		Assert.assertEquals(0, pool.getTotalMisses());
+	}
+
+	@Test
+	public void testQueueTypes() {
+		Assert.assertTrue(ConcurrencyPolicy.threadSafe(new JvmLocks()).newMessageQueue(4) instanceof SynchronizedQueue);
+		Assert.assertTrue(ConcurrencyPolicy.singleThreaded().newMessageQueue(4) instanceof ArrayMessageQueue);
+	}
+
+	@Test
+	public void testStampedLockOptimisticRead() {
+		final BusLock lock = ConcurrencyPolicy.stampedLock().newReadWriteLock();
+		final long stamp = lock.tryOptimisticRead();
+		Assert.assertNotEquals(0L, stamp);
+		Assert.assertTrue(lock.validate(stamp));
+
+		lock.lockWrite();
+		Assert.assertEquals(0L, lock.tryOptimisticRead());
+		lock.unlockWrite();
+		Assert.assertFalse(lock.validate(stamp));
+
+		lock.lockRead();
+		Assert.assertNotEquals(0L, lock.tryOptimisticRead());
+		lock.unlockRead();
+	}
+
+	@Test
+	public void testStampedLockBus() {
+		final MessageBus messageBus = new MessageBus(ConcurrencyPolicy.stampedLock());
+		messageBus.createOnUpdateExchange(this);
+		messageBus.createImmediateExchange(this);
+		messageBus.broadcast("TEST");
+		messageBus.update(0f);
+		Assert.assertEquals(2, messagesReceived.get());
+	}
+
+	@Override
+	public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+		messagesReceived.incrementAndGet();
+	}
+
+	private static class CountingConcurrencyPolicy implements ConcurrencyPolicy {
+		private final ConcurrencyPolicy delegate;
+		private final AtomicInteger locksCreated = new AtomicInteger();
+		private final AtomicInteger queuesCreated = new AtomicInteger();
+
+		public CountingConcurrencyPolicy(ConcurrencyPolicy delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public BusLock newReadWriteLock() {
+			locksCreated.incrementAndGet();
+			return delegate.newReadWriteLock();
+		}
+
+		@Override
+		public <T> MessageQueue<T> newMessageQueue(int initialCapacity) {
+			return delegate.newMessageQueue(initialCapacity);
+		}
+
+		@Override
+		public MessageQueueFactory getExchangeQueueFactory() {
+			final MessageQueueFactory queueFactory = delegate.getExchangeQueueFactory();
+			return new MessageQueueFactory() {
+				@Override
+				public <T> MessageQueue<T> newMessageQueue(int initialCapacity) {
+					queuesCreated.incrementAndGet();
+					return queueFactory.newMessageQueue(initialCapacity);
+				}
+			};
+		}
+
+		@Override
+		public Counter newCounter() {
+			return delegate.newCounter();
+		}
+
+		@Override
+		public boolean isThreadSafe() {
+			return delegate.isThreadSafe();
+		}
+
+		@Override
+		public boolean checkThread() {
+			return delegate.checkThread();
+		}
+	}
+}
@@ -91,4 +91,83 @@ public class IntervalMessageExchangeTest {
 		Assert.assertEquals(true,
 				messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).contains(MESSAGE_TYPE));
 	}
+
+	@Test
+	public void testCarriedOverMessagesProcessedOnNextUpdate() {
+		exchange.setFlushMessageLimit(1);
+		messageBus.broadcast(MESSAGE_TYPE);
+		messageBus.broadcast(MESSAGE_TYPE);
+
+		exchange.update(DELAY);
+		Assert.assertEquals(1, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		Assert.assertEquals(1, exchange.getCarryOverSize());
+
+		exchange.update(0.1f);
+		Assert.assertEquals(2, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		Assert.assertEquals(0, exchange.getCarryOverSize());
+	}
+
+	@Test
+	public void testFlushOnceCatchesUpOnSubsequentUpdates() {
+		exchange.setFlushMessageLimit(1);
+		for(int i = 0; i < 3; i++) {
+			messageBus.broadcast(MESSAGE_TYPE);
+		}
+
+		exchange.update(DELAY * 3);
+		Assert.assertEquals(1, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		exchange.update(0f);
+		Assert.assertEquals(2, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		exchange.update(0f);
+		Assert.assertEquals(3, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+	}
+
+	@Test
+	public void testFlushPerTickFlushesForEachElapsedInterval() {
+		final IntervalMessageExchange perTickExchange = messageBus.createIntervalExchange(DELAY,
+				IntervalCatchUpPolicy.FLUSH_PER_TICK, messageHandler);
+		perTickExchange.setFlushMessageLimit(1);
+		perTickExchange.setMaxCatchUpTicks(2);
+		for(int i = 0; i < 4; i++) {
+			messageBus.sendTo(perTickExchange, MESSAGE_TYPE);
+		}
+
+		perTickExchange.update(DELAY * 3);
+		Assert.assertEquals(2, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		perTickExchange.dispose();
+	}
+
+	@Test
+	public void testSkipMissedTicksStaysInPhase() {
+		final IntervalMessageExchange skipExchange = messageBus.createIntervalExchange(DELAY,
+				IntervalCatchUpPolicy.SKIP_MISSED_TICKS, messageHandler);
+
+		messageBus.sendTo(skipExchange, MESSAGE_TYPE);
+		skipExchange.update(DELAY * 2.5f);
+		Assert.assertEquals(1, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+
+		messageBus.sendTo(skipExchange, MESSAGE_TYPE);
+		skipExchange.update(DELAY * 0.25f);
+		Assert.assertEquals(1, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		skipExchange.update(DELAY * 0.25f);
+		Assert.assertEquals(2, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		skipExchange.dispose();
+	}
+
+	@Test
+	public void testNoDriftOverManyUpdates() {
+		final IntervalMessageExchange secondExchange = messageBus.createIntervalExchange(1.0,
+				IntervalCatchUpPolicy.FLUSH_ONCE, messageHandler);
+
+		for(int second = 1; second <= 600; second++) {
+			messageBus.sendTo(secondExchange, MESSAGE_TYPE);
+			for(int frame = 0; frame < 59; frame++) {
+				secondExchange.update(1f / 60f);
+			}
+			Assert.assertEquals(second - 1, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+			secondExchange.update(1f / 60f);
+			Assert.assertEquals(second, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		}
+		secondExchange.dispose();
+	}
 }
@@ -28,6 +28,7 @@ import org.junit.Assert;
 import org.junit.Test;
 import org.mini2Dx.minibus.MessageBus;
 import org.mini2Dx.minibus.MessageExchange;
+import org.mini2Dx.minibus.MessagePriority;
 import org.mini2Dx.minibus.dummy.DummyMessageHandler;
 
 /**
@@ -107,4 +108,59 @@ public class OnUpdateMessageExchangeTest {
 		Assert.assertEquals(true, messageHandler.getMessagesReceived(exchange.getId()).contains(MESSAGE_TYPE));
 		Assert.assertEquals(1, messageHandler.getMessagesReceived(exchange.getId()).size());
 	}
+
+	@Test
+	public void testReceivesHigherPriorityMessagesFirst() {
+		messageBus.broadcast("low", null, MessagePriority.LOW);
+		messageBus.broadcast("normal");
+		messageBus.sendTo(exchange, "critical", null, MessagePriority.CRITICAL);
+		messageBus.broadcast("high", null, MessagePriority.HIGH);
+		Assert.assertEquals(4, exchange.getMessageQueueSize());
+		Assert.assertEquals(1, exchange.getMessageQueueSize(MessagePriority.CRITICAL));
+
+		messageBus.update(0.1f);
+		Assert.assertEquals(0, exchange.getMessageQueueSize());
+		Assert.assertEquals("critical", messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).get(0));
+		Assert.assertEquals("high", messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).get(1));
+		Assert.assertEquals("normal", messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).get(2));
+		Assert.assertEquals("low", messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).get(3));
+	}
+
+	@Test
+	public void testFlushMessageLimitCarriesOverMessages() {
+		exchange.setFlushMessageLimit(2);
+		for(int i = 0; i < 5; i++) {
+			messageBus.broadcast(MESSAGE_TYPE);
+		}
+
+		messageBus.update(0.1f);
+		Assert.assertEquals(2, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		Assert.assertEquals(3, exchange.getCarryOverSize());
+		Assert.assertEquals(1, exchange.getConsecutiveCarryOvers());
+
+		messageBus.update(0.1f);
+		Assert.assertEquals(4, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		Assert.assertEquals(1, exchange.getCarryOverSize());
+		Assert.assertEquals(2, exchange.getConsecutiveCarryOvers());
+
+		messageBus.update(0.1f);
+		Assert.assertEquals(5, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		Assert.assertEquals(0, exchange.getCarryOverSize());
+		Assert.assertEquals(0, exchange.getConsecutiveCarryOvers());
+		Assert.assertEquals(3, exchange.getMaxCarryOverSize());
+	}
+
+	@Test
+	public void testFlushTimeLimitProcessesAtLeastOneMessage() {
+		exchange.setFlushTimeLimit(1L);
+		messageBus.broadcast(MESSAGE_TYPE);
+		messageBus.broadcast(MESSAGE_TYPE);
+
+		messageBus.update(0.1f);
+		Assert.assertTrue(messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size() >= 1);
+
+		messageBus.update(0.1f);
+		Assert.assertEquals(2, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		Assert.assertEquals(0, exchange.getCarryOverSize());
+	}
 }
@@ -27,6 +27,7 @@ import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.MessageData;
 import org.mini2Dx.minibus.MessageExchange;
 import org.mini2Dx.minibus.dummy.DummyMessageForwarder;
 import org.mini2Dx.minibus.dummy.DummyMessageHandler;
@@ -74,4 +75,43 @@ public class MessageForwarderTest {
 		Assert.assertEquals(0, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
 		Assert.assertEquals(0, messageHandler.getMessagesReceived(forwardingExchange.getId()).size());
 	}
+	
+	@Test
+	public void testForwardSharesTransmission() {
+		final DummyMessageHandler [] handlers = new DummyMessageHandler[3];
+		final MessageExchange [] receivers = new MessageExchange[handlers.length];
+		for(int i = 0; i < receivers.length; i++) {
+			handlers[i] = new DummyMessageHandler();
+			receivers[i] = messageBus.createOnUpdateExchange(handlers[i]);
+		}
+		forwardingExchange = messageBus.createImmediateExchange(new AllowAllMessageForwarder(receivers));
+		
+		messageBus.sendTo(forwardingExchange, MESSAGE_TYPE);
+		Assert.assertEquals(1, messageBus.getCurrentMessageTransmissionsAllocated());
+		
+		messageBus.update(1f);
+		for(int i = 0; i < handlers.length; i++) {
+			Assert.assertEquals(1, handlers[i].getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+		}
+		Assert.assertEquals(0, messageBus.getCurrentMessageTransmissionsAllocated());
+	}
+	
+	@Test
+	public void testForwardByMessageType() {
+		forwardingExchange = messageBus.createImmediateExchange(new MessageForwarder(receivingExchange) {
+			@Override
+			public boolean forward(String messageType, MessageData messageData) {
+				return messageType.equals(MESSAGE_TYPE);
+			}
+			
+			@Override
+			public boolean forward(MessageData messageData) {
+				return false;
+			}
+		});
+		
+		messageBus.sendTo(forwardingExchange, "other");
+		messageBus.sendTo(forwardingExchange, MESSAGE_TYPE);
+		Assert.assertEquals(1, messageHandler.getMessagesReceived(messageBus.getAnonymousExchangeId()).size());
+	}
 }
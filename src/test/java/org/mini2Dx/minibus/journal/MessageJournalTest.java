@@ -0,0 +1,256 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.journal;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.MessageData;
+import org.mini2Dx.minibus.MessageExchange;
+import org.mini2Dx.minibus.MessageHandler;
+import org.mini2Dx.minibus.codec.MessageDataCodec;
+import org.mini2Dx.minibus.codec.MessageDataCodecs;
+import org.mini2Dx.minibus.messagedata.primitives.IntMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.StringMessageData;
+
+public class MessageJournalTest {
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Test
+	public void testRecordAndRead() throws Exception {
+		final Path directory = temporaryFolder.getRoot().toPath();
+		final MessageBus messageBus = new MessageBus();
+		final MessageExchange exchange1 = messageBus.createOnUpdateExchange();
+		final MessageExchange exchange2 = messageBus.createOnUpdateExchange();
+
+		final MessageJournal journal = new MessageJournal(directory);
+		messageBus.addInterceptor(journal);
+		messageBus.send(exchange1, exchange2, "direct", new IntMessageData(7));
+		messageBus.broadcast(exchange1, "broadcast");
+		journal.close();
+
+		final MessageJournalReader reader = new MessageJournalReader(directory);
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals("direct", reader.getMessageType());
+		Assert.assertEquals(exchange1.getId(), reader.getSourceId());
+		Assert.assertEquals(exchange2.getId(), reader.getReceiverId());
+		Assert.assertFalse(reader.isBroadcast());
+		Assert.assertEquals(7, ((IntMessageData) reader.getMessageData()).getValue());
+
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals("broadcast", reader.getMessageType());
+		Assert.assertEquals(exchange2.getId(), reader.getReceiverId());
+		Assert.assertTrue(reader.isBroadcast());
+		Assert.assertNull(reader.getMessageData());
+		Assert.assertFalse(reader.next());
+		reader.close();
+	}
+
+	@Test
+	public void testBroadcastEncodedOnce() throws Exception {
+		final Path directory = temporaryFolder.getRoot().toPath();
+		final MessageBus messageBus = new MessageBus();
+		final MessageExchange source = messageBus.createOnUpdateExchange();
+		final MessageExchange [] receivers = new MessageExchange[3];
+		for(int i = 0; i < receivers.length; i++) {
+			receivers[i] = messageBus.createOnUpdateExchange();
+		}
+		final int [] encodeCount = new int[1];
+		final MessageDataCodecs codecs = new MessageDataCodecs();
+		codecs.register(100, new MessageDataCodec<CountedMessageData>() {
+			@Override
+			public Class<CountedMessageData> getType() {
+				return CountedMessageData.class;
+			}
+
+			@Override
+			public int getEncodedSize(CountedMessageData messageData) {
+				return 4;
+			}
+
+			@Override
+			public void encode(CountedMessageData messageData, ByteBuffer buffer) {
+				encodeCount[0]++;
+				buffer.putInt(messageData.getValue());
+			}
+
+			@Override
+			public CountedMessageData decode(ByteBuffer buffer) {
+				return new CountedMessageData(buffer.getInt());
+			}
+		});
+
+		final MessageJournal journal = new MessageJournal(directory, codecs, MessageJournal.DEFAULT_SEGMENT_SIZE, 0);
+		messageBus.addInterceptor(journal);
+		messageBus.broadcast(source, "broadcast", new CountedMessageData(5));
+		messageBus.broadcast(source, "broadcast", new CountedMessageData(6));
+		journal.close();
+		Assert.assertEquals(2, encodeCount[0]);
+
+		final MessageJournalReader reader = new MessageJournalReader(directory, codecs);
+		for(int value = 5; value <= 6; value++) {
+			for(int i = 0; i < receivers.length; i++) {
+				Assert.assertTrue(reader.next());
+				Assert.assertEquals(receivers[i].getId(), reader.getReceiverId());
+				Assert.assertEquals(value, ((CountedMessageData) reader.getMessageData()).getValue());
+			}
+		}
+		Assert.assertFalse(reader.next());
+		reader.close();
+	}
+
+	@Test
+	public void testRollingSegments() throws Exception {
+		final Path directory = temporaryFolder.getRoot().toPath();
+		final MessageBus messageBus = new MessageBus();
+		final MessageExchange exchange = messageBus.createOnUpdateExchange();
+
+		final MessageJournal journal = new MessageJournal(directory, new MessageDataCodecs(), 128, 2);
+		messageBus.addInterceptor(journal);
+		for(int i = 0; i < 20; i++) {
+			messageBus.sendTo(exchange, "message", new IntMessageData(i));
+		}
+		journal.close();
+		Assert.assertEquals(2, MessageJournal.listSegments(directory).size());
+
+		final MessageJournalReader reader = new MessageJournalReader(directory);
+		int previous = -1;
+		while(reader.next()) {
+			final int value = ((IntMessageData) reader.getMessageData()).getValue();
+			Assert.assertTrue(value > previous);
+			previous = value;
+		}
+		Assert.assertEquals(19, previous);
+		reader.close();
+	}
+
+	@Test
+	public void testUnencodableMessagesSkipped() throws Exception {
+		final Path directory = temporaryFolder.getRoot().toPath();
+		final MessageBus messageBus = new MessageBus();
+		final List<String> received = new ArrayList<String>();
+		final MessageExchange exchange = messageBus.createImmediateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				received.add(messageType);
+			}
+		});
+
+		final MessageJournal journal = new MessageJournal(directory, new MessageDataCodecs(), 128, 0);
+		messageBus.addInterceptor(journal);
+		messageBus.sendTo(exchange, "custom", new MessageData() {});
+		messageBus.sendTo(exchange, "tooLarge", new StringMessageData(new String(new char[256])));
+		messageBus.sendTo(exchange, "valid", new IntMessageData(1));
+		journal.close();
+
+		Assert.assertEquals(3, received.size());
+		Assert.assertEquals(2, journal.getSkippedRecords());
+
+		final MessageJournalReader reader = new MessageJournalReader(directory);
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals("valid", reader.getMessageType());
+		Assert.assertFalse(reader.next());
+		reader.close();
+	}
+
+	@Test
+	public void testReopenedJournalContinuesTimeline() throws Exception {
+		final Path directory = temporaryFolder.getRoot().toPath();
+		final MessageBus messageBus = new MessageBus();
+		final MessageExchange exchange = messageBus.createOnUpdateExchange();
+
+		MessageJournal journal = new MessageJournal(directory);
+		messageBus.addInterceptor(journal);
+		messageBus.sendTo(exchange, "first");
+		journal.close();
+		messageBus.removeInterceptor(journal);
+
+		Thread.sleep(100L);
+
+		journal = new MessageJournal(directory);
+		messageBus.addInterceptor(journal);
+		messageBus.sendTo(exchange, "second");
+		journal.close();
+
+		final MessageJournalReader reader = new MessageJournalReader(directory);
+		Assert.assertTrue(reader.next());
+		final long firstTimestamp = reader.getTimestamp();
+		Assert.assertTrue(reader.next());
+		Assert.assertEquals("second", reader.getMessageType());
+		Assert.assertTrue(reader.getTimestamp() - firstTimestamp >= 90000000L);
+		reader.close();
+	}
+
+	@Test
+	public void testReplay() throws Exception {
+		final Path directory = temporaryFolder.getRoot().toPath();
+		final MessageBus recordBus = new MessageBus();
+		final MessageExchange recordSource = recordBus.createOnUpdateExchange();
+		final MessageExchange recordReceiver = recordBus.createOnUpdateExchange();
+
+		final MessageJournal journal = new MessageJournal(directory);
+		recordBus.addInterceptor(journal);
+		for(int i = 0; i < 3; i++) {
+			recordBus.send(recordSource, recordReceiver, "message", new IntMessageData(i));
+		}
+		journal.close();
+
+		final MessageBus replayBus = new MessageBus();
+		final List<Integer> received = new ArrayList<Integer>();
+		final MessageExchange replaySource = replayBus.createOnUpdateExchange();
+		final MessageExchange replayReceiver = replayBus.createImmediateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				Assert.assertEquals(replaySource, source);
+				received.add(((IntMessageData) messageData).getValue());
+			}
+		});
+
+		final MessageJournalReplayer replayer = new MessageJournalReplayer(replayBus, directory);
+		replayer.mapExchange(recordSource.getId(), replaySource);
+		replayer.mapExchange(recordReceiver.getId(), replayReceiver);
+		replayer.setSpeed(1000f);
+		Assert.assertTrue(replayer.update(0f) >= 1);
+		Assert.assertEquals(0, received.get(0).intValue());
+		replayer.update(10f);
+		Assert.assertTrue(replayer.isFinished());
+		Assert.assertEquals(3, received.size());
+		Assert.assertEquals(0, replayer.getSkippedMessages());
+		replayer.close();
+	}
+
+	public static class CountedMessageData extends IntMessageData {
+		public CountedMessageData(int value) {
+			super(value);
+		}
+	}
+}
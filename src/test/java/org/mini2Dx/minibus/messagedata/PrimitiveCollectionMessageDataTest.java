@@ -0,0 +1,166 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.messagedata;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.minibus.codec.MessageDataCodecs;
+import org.mini2Dx.minibus.pool.MessageDataPool;
+
+public class PrimitiveCollectionMessageDataTest {
+
+	@Test
+	public void testIntIntMapPutGetRemove() {
+		final IntIntMapMessageData map = new IntIntMapMessageData(4);
+		for(int i = -50; i < 50; i++) {
+			map.put(i * 16, i);
+		}
+		Assert.assertEquals(100, map.size());
+		for(int i = -50; i < 50; i++) {
+			Assert.assertTrue(map.containsKey(i * 16));
+			Assert.assertEquals(i, map.get(i * 16, Integer.MIN_VALUE));
+		}
+		for(int i = -50; i < 50; i += 2) {
+			Assert.assertEquals(i, map.remove(i * 16, Integer.MIN_VALUE));
+		}
+		Assert.assertEquals(50, map.size());
+		for(int i = -50; i < 50; i++) {
+			Assert.assertEquals(i % 2 == 0 ? -1 : i, map.get(i * 16, -1));
+		}
+		Assert.assertEquals(-1, map.remove(12345, -1));
+	}
+
+	@Test
+	public void testIntIntMapZeroKeyIteration() {
+		final IntIntMapMessageData map = new IntIntMapMessageData();
+		map.put(0, 7);
+		map.put(3, 9);
+		Assert.assertEquals(2, map.size());
+		Assert.assertEquals(7, map.get(0, -1));
+
+		int keySum = 0;
+		int valueSum = 0;
+		int count = 0;
+		for(int i = map.firstIndex(); i >= 0; i = map.nextIndex(i)) {
+			keySum += map.keyAt(i);
+			valueSum += map.valueAt(i);
+			count++;
+		}
+		Assert.assertEquals(2, count);
+		Assert.assertEquals(3, keySum);
+		Assert.assertEquals(16, valueSum);
+
+		Assert.assertEquals(7, map.remove(0, -1));
+		Assert.assertFalse(map.containsKey(0));
+		Assert.assertEquals(1, map.size());
+	}
+
+	@Test
+	public void testIntFloatMapClearKeepsCapacity() {
+		final IntFloatMapMessageData map = new IntFloatMapMessageData();
+		for(int i = 1; i <= 100; i++) {
+			map.put(i, i * 0.5f);
+		}
+		final int capacity = map.getCapacity();
+		Assert.assertTrue(capacity >= 100);
+		Assert.assertEquals(25f, map.get(50, 0f), 0f);
+		map.clear();
+		Assert.assertEquals(0, map.size());
+		Assert.assertEquals(capacity, map.getCapacity());
+		Assert.assertEquals(-1, map.firstIndex());
+	}
+
+	@Test
+	public void testLongSet() {
+		final LongSetMessageData set = new LongSetMessageData();
+		Assert.assertTrue(set.add(0L));
+		Assert.assertTrue(set.add(Long.MAX_VALUE));
+		Assert.assertTrue(set.add(-1L));
+		Assert.assertFalse(set.add(-1L));
+		Assert.assertEquals(3, set.size());
+		Assert.assertTrue(set.contains(0L));
+		Assert.assertTrue(set.remove(Long.MAX_VALUE));
+		Assert.assertFalse(set.contains(Long.MAX_VALUE));
+		Assert.assertEquals(2, set.size());
+	}
+
+	@Test
+	public void testIntList() {
+		final IntListMessageData list = new IntListMessageData(2);
+		list.addAll(new int[] { 1, 2, 3, 4, 5 }, 1, 3);
+		list.add(9);
+		Assert.assertEquals(4, list.size());
+		Assert.assertEquals(2, list.get(0));
+		Assert.assertEquals(9, list.get(3));
+		Assert.assertTrue(list.removeValue(3));
+		Assert.assertEquals(4, list.get(1));
+		Assert.assertEquals(2, list.removeIndex(0));
+		Assert.assertEquals(1, list.indexOf(9));
+		Assert.assertFalse(list.contains(2));
+	}
+
+	@Test
+	public void testPooledRelease() {
+		final MessageDataPool<IntListMessageData> pool = new MessageDataPool<IntListMessageData>(new IntListMessageData());
+		final IntListMessageData list = pool.allocate();
+		for(int i = 0; i < 100; i++) {
+			list.add(i);
+		}
+		final int capacity = list.getCapacity();
+		list.release();
+		Assert.assertEquals(0, list.size());
+		Assert.assertEquals(capacity, list.getCapacity());
+	}
+
+	@Test
+	public void testCodecRoundTrip() {
+		final MessageDataCodecs codecs = new MessageDataCodecs();
+		final IntIntMapMessageData map = new IntIntMapMessageData();
+		map.put(0, 1);
+		map.put(42, -42);
+		final LongSetMessageData set = new LongSetMessageData();
+		set.add(Long.MIN_VALUE);
+		final IntListMessageData list = new IntListMessageData();
+		list.add(5);
+		list.add(6);
+
+		final ByteBuffer buffer = ByteBuffer.allocate(256);
+		codecs.encode(map, buffer);
+		codecs.encode(set, buffer);
+		codecs.encode(list, buffer);
+		buffer.flip();
+
+		final IntIntMapMessageData mapResult = (IntIntMapMessageData) codecs.decode(buffer);
+		Assert.assertEquals(2, mapResult.size());
+		Assert.assertEquals(-42, mapResult.get(42, 0));
+		Assert.assertEquals(1, mapResult.get(0, 0));
+		final LongSetMessageData setResult = (LongSetMessageData) codecs.decode(buffer);
+		Assert.assertTrue(setResult.contains(Long.MIN_VALUE));
+		final IntListMessageData listResult = (IntListMessageData) codecs.decode(buffer);
+		Assert.assertEquals(2, listResult.size());
+		Assert.assertEquals(6, listResult.get(1));
+	}
+}
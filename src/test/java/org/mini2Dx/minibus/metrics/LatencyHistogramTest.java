@@ -0,0 +1,71 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void testBucketBounds() {
+		long previousUpperBound = -1L;
+		for(int i = 0; i < LatencyHistogram.TOTAL_BUCKETS; i++) {
+			final long upperBound = LatencyHistogram.bucketUpperBound(i);
+			Assert.assertTrue(upperBound > previousUpperBound);
+			Assert.assertEquals(i, LatencyHistogram.bucketIndex(upperBound));
+			Assert.assertEquals(i, LatencyHistogram.bucketIndex(previousUpperBound + 1L));
+			previousUpperBound = upperBound;
+		}
+		Assert.assertEquals(Long.MAX_VALUE, previousUpperBound);
+	}
+
+	@Test
+	public void testPercentiles() {
+		final LatencyHistogram histogram = new LatencyHistogram();
+		for(long i = 1; i <= 10000; i++) {
+			histogram.record(i * 1000L);
+		}
+		final HistogramSnapshot snapshot = histogram.snapshot();
+		Assert.assertEquals(10000L, snapshot.getTotalCount());
+		Assert.assertEquals(10000000L, snapshot.getMax());
+		Assert.assertEquals(5000500.0, snapshot.getMean(), 0.001);
+		assertWithinError(5000000L, snapshot.getValueAtPercentile(50.0));
+		assertWithinError(9900000L, snapshot.getValueAtPercentile(99.0));
+		Assert.assertEquals(10000000L, snapshot.getValueAtPercentile(100.0));
+	}
+
+	@Test
+	public void testEmpty() {
+		final HistogramSnapshot snapshot = new LatencyHistogram().snapshot();
+		Assert.assertEquals(0L, snapshot.getTotalCount());
+		Assert.assertEquals(0L, snapshot.getValueAtPercentile(99.0));
+		Assert.assertEquals(0.0, snapshot.getMean(), 0.0);
+	}
+
+	private void assertWithinError(long expected, long actual) {
+		Assert.assertTrue(actual + " not within error of " + expected,
+				actual >= expected && actual <= expected + (expected / LatencyHistogram.SUB_BUCKETS));
+	}
+}
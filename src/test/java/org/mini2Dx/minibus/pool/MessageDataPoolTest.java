@@ -24,7 +24,10 @@
 package org.mini2Dx.minibus.pool;
 
 import org.junit.Test;
+import org.mini2Dx.minibus.messagedata.IntListMessageData;
 import org.mini2Dx.minibus.messagedata.ListMessageData;
+import org.mini2Dx.minibus.messagedata.MapMessageData;
+import org.mini2Dx.minibus.messagedata.primitives.StringMessageData;
 
 import junit.framework.Assert;
 
@@ -49,4 +52,46 @@ public class MessageDataPoolTest {
 		result.release();
 		Assert.assertEquals(startSize, messageDataPool.getCurrentPoolSize());
 	}
+
+	@Test
+	public void testReleaseResets() {
+		MessageDataPool<ListMessageData<String>> listPool = new MessageDataPool<ListMessageData<String>>(new ListMessageData<String>());
+		ListMessageData<String> list = listPool.allocate();
+		list.add("a");
+		list.add("b");
+		list.release();
+		Assert.assertTrue(list.isEmpty());
+
+		MessageDataPool<MapMessageData<String, Object>> mapPool = new MessageDataPool<MapMessageData<String, Object>>(new MapMessageData<String, Object>());
+		MapMessageData<String, Object> map = mapPool.allocate();
+		map.put("key", new Object());
+		map.release();
+		Assert.assertTrue(map.isEmpty());
+
+		MessageDataPool<StringMessageData> stringPool = new MessageDataPool<StringMessageData>(StringMessageData.class);
+		StringMessageData string = stringPool.allocate();
+		string.setValue("value");
+		string.release();
+		Assert.assertNull(string.getValue());
+	}
+
+	@Test
+	public void testReleaseTrims() {
+		MessageDataPool<IntListMessageData> messageDataPool = new MessageDataPool<IntListMessageData>(IntListMessageData.class);
+		messageDataPool.setMaxRetainedCapacity(64);
+
+		IntListMessageData small = messageDataPool.allocate();
+		small.ensureCapacity(32);
+		int smallCapacity = small.getCapacity();
+		small.release();
+		Assert.assertEquals(smallCapacity, small.getCapacity());
+
+		IntListMessageData large = messageDataPool.allocate();
+		for(int i = 0; i < 10000; i++) {
+			large.add(i);
+		}
+		large.release();
+		Assert.assertEquals(0, large.size());
+		Assert.assertTrue(large.getCapacity() <= 64);
+	}
 }
@@ -0,0 +1,102 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.pool;
+
+import java.nio.FloatBuffer;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.MessageData;
+import org.mini2Dx.minibus.MessageExchange;
+import org.mini2Dx.minibus.MessageHandler;
+import org.mini2Dx.minibus.messagedata.OffHeapMessageData;
+
+public class OffHeapArenaTest {
+
+	@Test
+	public void testSizeClasses() {
+		Assert.assertEquals(0, OffHeapArena.getSizeClass(0));
+		Assert.assertEquals(0, OffHeapArena.getSizeClass(64));
+		Assert.assertEquals(1, OffHeapArena.getSizeClass(65));
+		Assert.assertEquals(1, OffHeapArena.getSizeClass(128));
+		Assert.assertEquals(2, OffHeapArena.getSizeClass(129));
+
+		final OffHeapArena arena = new OffHeapArena(4096);
+		final OffHeapMessageData small = arena.allocate(100);
+		Assert.assertEquals(100, small.getSize());
+		Assert.assertEquals(128, small.getCapacity());
+		Assert.assertTrue(small.getBuffer().isDirect());
+
+		final OffHeapMessageData large = arena.allocate(10000);
+		Assert.assertEquals(16384, large.getCapacity());
+	}
+
+	@Test
+	public void testTypedViews() {
+		final OffHeapArena arena = new OffHeapArena();
+		final OffHeapMessageData messageData = arena.allocate(16 * 4);
+		for(int i = 0; i < 16; i++) {
+			messageData.setFloat(i, i * 0.5f);
+		}
+		final FloatBuffer floats = messageData.asFloatBuffer();
+		Assert.assertEquals(16, floats.remaining());
+		for(int i = 0; i < 16; i++) {
+			Assert.assertEquals(i * 0.5f, floats.get(i), 0f);
+		}
+		messageData.asIntBuffer().put(3, 42);
+		Assert.assertEquals(42, messageData.getInt(3));
+	}
+
+	@Test
+	public void testReleasedWhenTransmissionProcessed() {
+		final MessageBus messageBus = new MessageBus();
+		final OffHeapArena arena = messageBus.getOffHeapArena();
+		final float [] received = new float[1];
+		messageBus.createOnUpdateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				received[0] += ((OffHeapMessageData) messageData).getFloat(1);
+			}
+		});
+		messageBus.createOnUpdateExchange(new MessageHandler() {
+			@Override
+			public void onMessageReceived(String messageType, MessageExchange source, MessageExchange receiver, MessageData messageData) {
+				received[0] += ((OffHeapMessageData) messageData).getFloat(1);
+			}
+		});
+
+		for(int i = 0; i < 10; i++) {
+			final OffHeapMessageData messageData = arena.allocate(1024);
+			messageData.setFloat(1, 2f);
+			messageBus.broadcast("snapshot", messageData);
+			Assert.assertTrue(messageData.isAllocated());
+			messageBus.update(0f);
+			Assert.assertFalse(messageData.isAllocated());
+		}
+		Assert.assertEquals(40f, received[0], 0f);
+		Assert.assertEquals(1, arena.getTotalMisses());
+		Assert.assertEquals(1024, arena.getReservedBytes());
+	}
+}
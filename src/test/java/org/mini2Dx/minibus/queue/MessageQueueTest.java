@@ -0,0 +1,256 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.queue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.minibus.MessageBus;
+import org.mini2Dx.minibus.MessageExchange;
+import org.mini2Dx.minibus.dummy.DummyMessageData;
+
+/**
+ * Unit tests for the built-in {@link MessageQueue} implementations
+ */
+public class MessageQueueTest {
+
+	@Test
+	public void testFifoAllTypes() {
+		for(MessageQueueType type : MessageQueueType.values()) {
+			final MessageQueue<Integer> queue = type.newMessageQueue(2);
+			Assert.assertTrue(queue.isEmpty());
+			Assert.assertNull(queue.poll());
+			Assert.assertNull(queue.peek());
+			for(int i = 0; i < 100; i++) {
+				queue.offer(i);
+			}
+			Assert.assertEquals(type.name(), 100, queue.size());
+			Assert.assertEquals(type.name(), 0, (int) queue.peek());
+			for(int i = 0; i < 100; i++) {
+				Assert.assertEquals(type.name(), i, (int) queue.poll());
+			}
+			Assert.assertTrue(type.name(), queue.isEmpty());
+		}
+	}
+
+	@Test
+	public void testRandomAccessAllTypes() {
+		for(MessageQueueType type : MessageQueueType.values()) {
+			final MessageQueue<Integer> queue = type.newMessageQueue(4);
+			for(int i = 0; i < 10; i++) {
+				queue.offer(i);
+			}
+			Assert.assertEquals(type.name(), 3, (int) queue.get(3));
+			Assert.assertNull(type.name(), queue.get(10));
+			Assert.assertEquals(type.name(), 8, (int) queue.remove(8));
+			Assert.assertEquals(type.name(), 2, (int) queue.remove(2));
+			Assert.assertEquals(type.name(), 8, queue.size());
+
+			final int [] expected = new int[] { 0, 1, 3, 4, 5, 6, 7, 9 };
+			for(int i = 0; i < expected.length; i++) {
+				Assert.assertEquals(type.name(), expected[i], (int) queue.get(i));
+			}
+			queue.offer(10);
+			queue.clear();
+			Assert.assertEquals(type.name(), 0, queue.size());
+			Assert.assertNull(type.name(), queue.poll());
+		}
+	}
+
+	@Test
+	public void testArrayMessageQueueWrappedRemove() {
+		final ArrayMessageQueue<Integer> queue = new ArrayMessageQueue<Integer>(8, 0);
+		for(int i = 0; i < 6; i++) {
+			queue.offer(i);
+		}
+		for(int i = 0; i < 4; i++) {
+			queue.poll();
+		}
+		for(int i = 6; i < 12; i++) {
+			queue.offer(i);
+		}
+		Assert.assertEquals(8, queue.getCapacity());
+		Assert.assertEquals(9, (int) queue.remove(5));
+		Assert.assertEquals(5, (int) queue.remove(1));
+		final int [] expected = new int[] { 4, 6, 7, 8, 10, 11 };
+		for(int i = 0; i < expected.length; i++) {
+			Assert.assertEquals(expected[i], (int) queue.poll());
+		}
+		Assert.assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void testSpscConcurrent() throws InterruptedException {
+		final int total = 100000;
+		final MessageQueue<Integer> queue = MessageQueueType.SPSC.newMessageQueue(4);
+		final Thread producer = new Thread(() -> {
+			for(int i = 0; i < total; i++) {
+				queue.offer(i);
+			}
+		});
+		producer.start();
+
+		int expected = 0;
+		final long deadline = System.currentTimeMillis() + 10000L;
+		while(expected < total && System.currentTimeMillis() < deadline) {
+			final Integer value = queue.poll();
+			if(value == null) {
+				continue;
+			}
+			Assert.assertEquals(expected++, (int) value);
+		}
+		producer.join();
+		Assert.assertEquals(total, expected);
+		Assert.assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void testMpscConcurrent() throws InterruptedException {
+		final int producers = 4;
+		final int totalPerProducer = 25000;
+		final MessageQueue<Integer> queue = MessageQueueType.MPSC.newMessageQueue(4);
+		final CountDownLatch latch = new CountDownLatch(producers);
+		final Thread [] threads = new Thread[producers];
+		for(int i = 0; i < producers; i++) {
+			final int producerId = i;
+			threads[i] = new Thread(() -> {
+				latch.countDown();
+				try {
+					latch.await();
+				} catch (InterruptedException e) {}
+				for(int j = 0; j < totalPerProducer; j++) {
+					queue.offer((producerId * totalPerProducer) + j);
+				}
+			});
+			threads[i].start();
+		}
+
+		final int [] lastValues = new int[producers];
+		for(int i = 0; i < producers; i++) {
+			lastValues[i] = -1;
+		}
+		int received = 0;
+		final long deadline = System.currentTimeMillis() + 10000L;
+		while(received < producers * totalPerProducer && System.currentTimeMillis() < deadline) {
+			final Integer value = queue.poll();
+			if(value == null) {
+				continue;
+			}
+			//Each producer's values must arrive in the order they were sent
+			final int producerId = value / totalPerProducer;
+			Assert.assertTrue(value > lastValues[producerId]);
+			lastValues[producerId] = value;
+			received++;
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		Assert.assertEquals(producers * totalPerProducer, received);
+		Assert.assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void testMpscNotEmptyMeansPollable() throws InterruptedException {
+		final int producers = 4;
+		final int totalPerProducer = 25000;
+		final MessageQueue<Integer> queue = MessageQueueType.MPSC.newMessageQueue(4);
+		final Thread [] threads = new Thread[producers];
+		for(int i = 0; i < producers; i++) {
+			threads[i] = new Thread(() -> {
+				for(int j = 0; j < totalPerProducer; j++) {
+					queue.offer(j);
+				}
+			});
+			threads[i].start();
+		}
+
+		int received = 0;
+		final long deadline = System.currentTimeMillis() + 10000L;
+		while(received < producers * totalPerProducer && System.currentTimeMillis() < deadline) {
+			if(queue.isEmpty()) {
+				continue;
+			}
+			Assert.assertNotNull(queue.poll());
+			received++;
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		Assert.assertEquals(producers * totalPerProducer, received);
+	}
+
+	@Test
+	public void testBlockingPollTimeout() throws InterruptedException {
+		final BlockingMessageQueue<Integer> queue = new BlockingMessageQueue<Integer>(4);
+		Assert.assertNull(queue.poll(1, TimeUnit.MILLISECONDS));
+
+		final Thread producer = new Thread(() -> {
+			try {
+				Thread.sleep(50);
+			} catch (InterruptedException e) {}
+			queue.offer(7);
+		});
+		producer.start();
+		Assert.assertEquals(7, (int) queue.poll(5, TimeUnit.SECONDS));
+		producer.join();
+	}
+
+	@Test
+	public void testExchangeQueueTypes() throws InterruptedException {
+		final MessageBus messageBus = new MessageBus();
+		final AtomicInteger onUpdateReceived = new AtomicInteger();
+		final CountDownLatch concurrentLatch = new CountDownLatch(10);
+
+		final MessageExchange onUpdateExchange = messageBus.createOnUpdateExchange(MessageQueueType.UNSYNCHRONIZED,
+				(messageType, source, receiver, messageData) -> onUpdateReceived.incrementAndGet());
+		final MessageExchange concurrentExchange = messageBus.createConcurrentExchange(MessageQueueType.SYNCHRONIZED,
+				(messageType, source, receiver, messageData) -> concurrentLatch.countDown());
+
+		for(int i = 0; i < 10; i++) {
+			messageBus.broadcast(DummyMessageData.MESSAGE_TYPE, new DummyMessageData(i));
+		}
+		messageBus.update(0f);
+
+		Assert.assertEquals(10, onUpdateReceived.get());
+		Assert.assertTrue(concurrentLatch.await(5, TimeUnit.SECONDS));
+		concurrentExchange.dispose();
+		onUpdateExchange.dispose();
+	}
+
+	@Test
+	public void testConcurrentExchangeRejectsSingleConsumerQueues() {
+		final MessageBus messageBus = new MessageBus();
+		for(MessageQueueType queueType : new MessageQueueType[] { MessageQueueType.SPSC, MessageQueueType.MPSC }) {
+			try {
+				messageBus.createConcurrentExchange(queueType);
+				Assert.fail(queueType + " should be rejected");
+			} catch (IllegalArgumentException e) {
+			}
+		}
+		Assert.assertEquals(0, messageBus.getTotalActiveExchanges());
+	}
+}
@@ -0,0 +1,124 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2020 See AUTHORS file
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.mini2Dx.minibus.transmission;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mini2Dx.minibus.MessagePriority;
+import org.mini2Dx.minibus.queue.BlockingMessageQueue;
+import org.mini2Dx.minibus.queue.MessageQueue;
+import org.mini2Dx.minibus.queue.MessageQueueFactory;
+
+/**
+ * Unit tests for {@link MessageTransmissionQueue}
+ */
+public class MessageTransmissionQueueTest {
+	private final MessageTransmissionPool transmissionPool = new MessageTransmissionPool();
+	private final MessageTransmissionQueue queue = new MessageTransmissionQueue();
+
+	@Test
+	public void testPollHighestPriorityFirst() {
+		final MessageTransmission low = createTransmission("low", MessagePriority.LOW);
+		final MessageTransmission normal1 = createTransmission("normal1", MessagePriority.NORMAL);
+		final MessageTransmission critical = createTransmission("critical", MessagePriority.CRITICAL);
+		final MessageTransmission normal2 = createTransmission("normal2", MessagePriority.NORMAL);
+		final MessageTransmission high = createTransmission("high", MessagePriority.HIGH);
+
+		queue.offer(low);
+		queue.offer(normal1);
+		queue.offer(critical);
+		queue.offer(normal2);
+		queue.offer(high);
+
+		Assert.assertEquals(5, queue.size());
+		Assert.assertEquals(2, queue.size(MessagePriority.NORMAL));
+		Assert.assertSame(critical, queue.peek());
+
+		Assert.assertSame(critical, queue.poll());
+		Assert.assertSame(high, queue.poll());
+		Assert.assertSame(normal1, queue.poll());
+		Assert.assertSame(normal2, queue.poll());
+		Assert.assertSame(low, queue.poll());
+		Assert.assertNull(queue.poll());
+		Assert.assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void testGetAndRemoveByIndex() {
+		final MessageTransmission low = createTransmission("low", MessagePriority.LOW);
+		final MessageTransmission normal = createTransmission("normal", MessagePriority.NORMAL);
+		final MessageTransmission high = createTransmission("high", MessagePriority.HIGH);
+
+		queue.offer(low);
+		queue.offer(normal);
+		queue.offer(high);
+
+		Assert.assertSame(high, queue.get(0));
+		Assert.assertSame(normal, queue.get(1));
+		Assert.assertSame(low, queue.get(2));
+
+		Assert.assertSame(normal, queue.remove(1));
+		Assert.assertEquals(2, queue.size());
+		Assert.assertSame(high, queue.get(0));
+		Assert.assertSame(low, queue.get(1));
+
+		queue.clear();
+		Assert.assertTrue(queue.isEmpty());
+		Assert.assertEquals(0, queue.size());
+	}
+
+	@Test
+	public void testAwaitWithCustomBlockingFactory() throws Exception {
+		final MessageTransmissionQueue blockingQueue = new MessageTransmissionQueue(new MessageQueueFactory() {
+			@Override
+			public <T> MessageQueue<T> newMessageQueue(int initialCapacity) {
+				return new BlockingMessageQueue<T>(initialCapacity);
+			}
+		}, 4);
+		final MessageTransmission high = createTransmission("high", MessagePriority.HIGH);
+		final Thread producer = new Thread(() -> {
+			try {
+				Thread.sleep(50L);
+			} catch (InterruptedException e) {
+			}
+			blockingQueue.offer(high);
+		});
+		producer.start();
+
+		final long startTime = System.nanoTime();
+		Assert.assertTrue(blockingQueue.await(10L, TimeUnit.SECONDS));
+		Assert.assertTrue(System.nanoTime() - startTime < TimeUnit.SECONDS.toNanos(5L));
+		Assert.assertSame(high, blockingQueue.poll());
+		producer.join();
+	}
+
+	private MessageTransmission createTransmission(String messageType, MessagePriority priority) {
+		final MessageTransmission result = transmissionPool.allocate();
+		result.setMessageType(messageType);
+		result.setPriority(priority);
+		return result;
+	}
+}
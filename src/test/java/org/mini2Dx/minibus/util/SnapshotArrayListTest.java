@@ -25,8 +25,10 @@ package org.mini2Dx.minibus.util;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.mini2Dx.minibus.concurrency.ConcurrencyPolicy;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
@@ -79,6 +81,54 @@ public class SnapshotArrayListTest {
 		}
 	}
 
+	@Test
+	public void testOrderedRemoveObject() {
+		final SnapshotArrayList<Integer> list = new SnapshotArrayList<Integer>(true);
+		for(int i = 0; i < 10; i++) {
+			list.add(i);
+		}
+		Assert.assertTrue(list.remove((Integer) 4));
+		Assert.assertEquals(9, list.size());
+		Assert.assertEquals(9, list.populatedArraySize());
+		for(int i = 0; i < 9; i++) {
+			Assert.assertEquals(i < 4 ? i : i + 1, (int) list.get(i));
+		}
+	}
+
+	@Test
+	public void testAddSorted() {
+		final SnapshotArrayList<Integer> list = new SnapshotArrayList<Integer>(true);
+		final int [] values = new int[] { 5, 1, 3, 3, 9, 0, 7 };
+		for(int value : values) {
+			list.addSorted(value, Comparator.naturalOrder());
+		}
+		Assert.assertEquals(values.length, list.size());
+		for(int i = 1; i < list.size(); i++) {
+			Assert.assertTrue(list.get(i - 1) <= list.get(i));
+		}
+	}
+
+	@Test
+	public void testResort() {
+		final SnapshotArrayList<int[]> list = new SnapshotArrayList<int[]>(true);
+		final Comparator<int[]> comparator = (o1, o2) -> Integer.compare(o1[0], o2[0]);
+		final int[] moved = new int[] { 1 };
+		list.addSorted(new int[] { 0 }, comparator);
+		list.addSorted(moved, comparator);
+		list.addSorted(new int[] { 2 }, comparator);
+
+		moved[0] = 3;
+		Assert.assertTrue(list.resort(moved, comparator));
+		Assert.assertEquals(3, list.size());
+		Assert.assertSame(moved, list.get(2));
+		Assert.assertEquals(2, list.get(1)[0]);
+
+		moved[0] = -1;
+		Assert.assertTrue(list.resort(moved, comparator));
+		Assert.assertSame(moved, list.get(0));
+		Assert.assertFalse(list.resort(new int[] { 5 }, comparator));
+	}
+
 	@Test
 	public void testMultiThreadAdd() {
 		final CountDownLatch latch = new CountDownLatch(2);
@@ -125,6 +175,39 @@ public class SnapshotArrayListTest {
 		Assert.assertEquals(200, list.populatedArraySize());
 	}
 
+	@Test
+	public void testMultiThreadOptimisticGet() {
+		final int totalItems = 10000;
+		final SnapshotArrayList<Integer> list = new SnapshotArrayList<Integer>(true, ConcurrencyPolicy.stampedLock());
+		final AtomicInteger failures = new AtomicInteger();
+
+		final Thread writer = new Thread(() -> {
+			for(int i = 0; i < totalItems; i++) {
+				list.add(i);
+			}
+		});
+		final Thread reader = new Thread(() -> {
+			while(list.size() < totalItems) {
+				final int size = list.size();
+				for(int i = 0; i < size; i++) {
+					if(list.get(i) != i) {
+						failures.incrementAndGet();
+					}
+				}
+			}
+		});
+		writer.start();
+		reader.start();
+
+		try {
+			writer.join();
+			reader.join();
+		} catch (InterruptedException e) {}
+
+		Assert.assertEquals(0, failures.get());
+		Assert.assertEquals(totalItems, list.size());
+	}
+
 	@Test
 	public void testSingleThreadIterator() {
 		final SnapshotArrayList<Object> list = new SnapshotArrayList<Object>();
@@ -152,4 +152,72 @@ public class SynchronizedQueueTest {
 		Assert.assertEquals(0, queue.size());
 		Assert.assertTrue(queue.isEmpty());
 	}
+
+	@Test
+	public void testInitialCapacity() {
+		final SynchronizedQueue<Integer> queue = new SynchronizedQueue<Integer>(4);
+		Assert.assertEquals(4, queue.getCapacity());
+		for(int i = 0; i < 5; i++) {
+			queue.offer(i);
+		}
+		Assert.assertTrue(queue.getCapacity() >= 5);
+		for(int i = 0; i < 5; i++) {
+			Assert.assertEquals(i, (int) queue.poll());
+		}
+	}
+
+	@Test
+	public void testShrinkAfterLowOccupancy() {
+		final int shrinkThreshold = 8;
+		final SynchronizedQueue<Integer> queue = new SynchronizedQueue<Integer>(16, shrinkThreshold);
+		for(int i = 0; i < 1000; i++) {
+			queue.offer(i);
+		}
+		final int peakCapacity = queue.getCapacity();
+		Assert.assertTrue(peakCapacity >= 1000);
+
+		for(int i = 0; i < 1000; i++) {
+			Assert.assertEquals(i, (int) queue.poll());
+		}
+		Assert.assertTrue(queue.getCapacity() < peakCapacity);
+
+		for(int i = 0; i < shrinkThreshold * 16; i++) {
+			queue.offer(i);
+			Assert.assertEquals(i, (int) queue.poll());
+		}
+		Assert.assertEquals(16, queue.getCapacity());
+	}
+
+	@Test
+	public void testShrinkPreservesOrder() {
+		final SynchronizedQueue<Integer> queue = new SynchronizedQueue<Integer>(2, 1);
+		for(int i = 0; i < 64; i++) {
+			queue.offer(i);
+		}
+		int expected = 0;
+		for(int i = 0; i < 60; i++) {
+			Assert.assertEquals(expected++, (int) queue.poll());
+		}
+		//Wrap the remaining elements around the end of the array before shrinking
+		for(int i = 64; i < 70; i++) {
+			queue.offer(i);
+		}
+		while(!queue.isEmpty()) {
+			Assert.assertEquals(expected++, (int) queue.poll());
+		}
+		Assert.assertEquals(70, expected);
+	}
+
+	@Test
+	public void testShrinkDisabled() {
+		final SynchronizedQueue<Integer> queue = new SynchronizedQueue<Integer>(16, 0);
+		for(int i = 0; i < 100; i++) {
+			queue.offer(i);
+		}
+		final int peakCapacity = queue.getCapacity();
+		for(int i = 0; i < 10000; i++) {
+			queue.poll();
+		}
+		Assert.assertEquals(peakCapacity, queue.getCapacity());
+	}
 }